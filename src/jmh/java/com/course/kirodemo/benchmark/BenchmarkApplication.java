@@ -0,0 +1,38 @@
+package com.course.kirodemo.benchmark;
+
+import com.course.kirodemo.config.JpaConfig;
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.repository.TodoItemRepository;
+import com.course.kirodemo.security.CurrentUserResolver;
+import com.course.kirodemo.service.impl.DateValidationServiceImpl;
+import com.course.kirodemo.service.impl.TodoExtensionServiceImpl;
+import com.course.kirodemo.service.impl.TodoServiceImpl;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * 基準測試用的 Spring Boot 設定
+ * 只載入 JPA、Repository 與服務層，不啟動 Web、Security 與 Session，
+ * 讓量測結果只反映服務與資料存取的成本
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+        SecurityAutoConfiguration.class,
+        UserDetailsServiceAutoConfiguration.class
+})
+@EntityScan(basePackageClasses = TodoItem.class)
+@EnableJpaRepositories(basePackageClasses = TodoItemRepository.class)
+@Import({
+        JpaConfig.class,
+        TodoServiceImpl.class,
+        TodoExtensionServiceImpl.class,
+        DateValidationServiceImpl.class,
+        CurrentUserResolver.class
+})
+public class BenchmarkApplication {
+}
@@ -0,0 +1,158 @@
+package com.course.kirodemo.benchmark;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 基準測試上下文
+ * 以獨立的 H2 記憶體資料庫啟動 JPA 層，並以 JDBC 批次寫入指定數量的待辦事項
+ * 主鍵直接向序列逐筆取號，每筆各佔一段 pooled-lo 區間，不會與 Hibernate 產生的 ID 重疊
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    /**
+     * 基準測試使用者名稱
+     */
+    public static final String USERNAME = "bench-user";
+
+    private static final String NOISE_USERNAME = "noise-user";
+    private static final int NOISE_ITEMS = 1_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final AtomicInteger DATABASE_SEQUENCE = new AtomicInteger();
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+    private final long targetTodoId;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, long targetTodoId) {
+        this.context = context;
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.targetTodoId = targetTodoId;
+    }
+
+    /**
+     * 啟動 Spring 上下文並寫入測試資料
+     * @param itemsPerUser 基準測試使用者的待辦事項數量
+     * @return 基準測試上下文
+     */
+    public static BenchmarkContext start(int itemsPerUser) {
+        return start(itemsPerUser, new String[0]);
+    }
+
+    /**
+     * 以額外的設定啟動 Spring 上下文並寫入測試資料
+     * @param itemsPerUser 基準測試使用者的待辦事項數量
+     * @param extraArgs 額外的 Spring Boot 啟動參數（例如 --app.jpa.id-allocation-size=1）
+     * @return 基準測試上下文
+     */
+    public static BenchmarkContext start(int itemsPerUser, String... extraArgs) {
+        // 基準測試不需要 devtools 的重新啟動機制
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(Stream.concat(Stream.of(
+                                "--spring.datasource.url=jdbc:h2:mem:bench" + DATABASE_SEQUENCE.incrementAndGet()
+                                        + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                                "--spring.jpa.show-sql=false",
+                                "--spring.sql.init.mode=never",
+                                "--logging.level.root=WARN",
+                                "--logging.level.com.course=WARN"), Stream.of(extraArgs))
+                        .toArray(String[]::new));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long userId = insertUser(jdbcTemplate, USERNAME);
+        long targetTodoId = insertTodos(jdbcTemplate, userId, itemsPerUser);
+        insertTodos(jdbcTemplate, insertUser(jdbcTemplate, NOISE_USERNAME), NOISE_ITEMS);
+
+        return new BenchmarkContext(context, targetTodoId);
+    }
+
+    /**
+     * 取得 Spring 管理的 Bean
+     * @param type Bean 型別
+     * @return Bean 實例
+     */
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * 取得用於切換與延期的目標待辦事項 ID（未完成且在延期範圍內）
+     * @return 待辦事項 ID
+     */
+    public long getTargetTodoId() {
+        return targetTodoId;
+    }
+
+    /**
+     * 將目標待辦事項重設為未完成且明天到期，讓延期操作每次都符合條件
+     */
+    public void resetTarget() {
+        jdbcTemplate.update("UPDATE todo_items SET completed = FALSE, completed_at = NULL, due_date = ? WHERE id = ?",
+                Date.valueOf(LocalDate.now().plusDays(1)), targetTodoId);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private static long insertUser(JdbcTemplate jdbcTemplate, String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password, created_at) VALUES (NEXT VALUE FOR users_seq, ?, ?, ?)",
+                username, "{noop}password", Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    /**
+     * 批次寫入待辦事項，第一筆固定為未完成且明天到期，作為切換與延期的目標
+     * 其餘資料的到期日分布在過去 5 天到未來 14 天，約四分之一為已完成
+     * @return 第一筆待辦事項的 ID
+     */
+    private static long insertTodos(JdbcTemplate jdbcTemplate, long userId, int count) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        String sql = "INSERT INTO todo_items (id, title, description, completed, created_at, due_date, user_id, extension_count) " +
+                     "VALUES (NEXT VALUE FOR todo_items_seq, ?, ?, ?, ?, ?, ?, 0)";
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            boolean target = i == 0;
+            LocalDate dueDate = target ? today.plusDays(1) : today.plusDays((i % 20) - 5);
+            boolean completed = !target && i % 4 == 0;
+            batch.add(new Object[]{
+                    "基準測試任務 " + i,
+                    "這是第 " + i + " 筆基準測試用的待辦事項描述",
+                    completed,
+                    Timestamp.valueOf(now.minusMinutes(count - i)),
+                    Date.valueOf(dueDate),
+                    userId
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM todo_items WHERE user_id = ?", Long.class, userId);
+    }
+}
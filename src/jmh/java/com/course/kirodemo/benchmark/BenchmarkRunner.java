@@ -0,0 +1,37 @@
+package com.course.kirodemo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基準測試啟動程式
+ * 預設執行本套件所有基準測試，並加上 GC profiler 以同時回報 ops/s 與配置速率 (gc.alloc.rate)，
+ * 結果另外輸出為 target/jmh-result.json 方便比較
+ *
+ * 使用方式：mvn -Pbenchmark compile exec:exec -Djmh.args="TodoListBenchmark -p itemsPerUser=1000"
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json");
+
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackageName() + "\\..*Benchmark");
+        }
+
+        new Runner(builder.build()).run();
+    }
+}
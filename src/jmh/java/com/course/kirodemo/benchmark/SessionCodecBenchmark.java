@@ -0,0 +1,126 @@
+package com.course.kirodemo.benchmark;
+
+import com.course.kirodemo.security.CustomUserPrincipal;
+import com.course.kirodemo.session.SessionAttributeCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.web.servlet.FlashMap;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 會話屬性編碼基準測試
+ * 以登入後典型的會話屬性（安全性內容、CSRF token、一則 flash 訊息）比較
+ * Spring Session 預設的 JDK 序列化與 {@link SessionAttributeCodec} 的編碼、解碼時間與大小
+ *
+ * 使用方式：mvn -Pbenchmark compile exec:exec -Djmh.args="SessionCodecBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionCodecBenchmark {
+
+    private final SerializingConverter jdkSerializer = new SerializingConverter();
+    private final DeserializingConverter jdkDeserializer = new DeserializingConverter();
+    private final SessionAttributeCodec codec = new SessionAttributeCodec();
+
+    private Object[] attributes;
+    private byte[][] jdkEncoded;
+    private byte[][] compactEncoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CustomUserPrincipal principal = new CustomUserPrincipal(1L, BenchmarkContext.USERNAME,
+                "$2a$10$7EqJtq98hPqEX7fNZaFWoO5rXKpj6Qe0mRZlUXFSN0tl4RdH7VzKa",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), true, true, true, true);
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, principal.getAuthorities());
+        token.setDetails(new WebAuthenticationDetails("127.0.0.1", UUID.randomUUID().toString()));
+
+        FlashMap flashMap = new FlashMap();
+        flashMap.setTargetRequestPath("/todos");
+        flashMap.startExpirationPeriod(180);
+        flashMap.put("successMessage", "待辦事項建立成功！");
+
+        attributes = new Object[]{
+                new SecurityContextImpl(token),
+                new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", UUID.randomUUID().toString()),
+                new CopyOnWriteArrayList<>(List.of(flashMap))
+        };
+        jdkEncoded = new byte[attributes.length][];
+        compactEncoded = new byte[attributes.length][];
+        for (int i = 0; i < attributes.length; i++) {
+            jdkEncoded[i] = jdkSerializer.convert(attributes[i]);
+            compactEncoded[i] = codec.encode(attributes[i]);
+        }
+        // 大小是固定值，直接在開始量測前輸出
+        System.out.printf("%n會話屬性大小（位元組）: JDK 序列化 %d，精簡編碼 %d%n",
+                totalLength(jdkEncoded), totalLength(compactEncoded));
+    }
+
+    private static int totalLength(byte[][] encoded) {
+        int total = 0;
+        for (byte[] bytes : encoded) {
+            total += bytes.length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long encodeJdk() {
+        long total = 0;
+        for (Object attribute : attributes) {
+            total += jdkSerializer.convert(attribute).length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long encodeCompact() {
+        long total = 0;
+        for (Object attribute : attributes) {
+            total += codec.encode(attribute).length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Object decodeJdk() {
+        Object last = null;
+        for (byte[] bytes : jdkEncoded) {
+            last = jdkDeserializer.convert(bytes);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object decodeCompact() {
+        Object last = null;
+        for (byte[] bytes : compactEncoded) {
+            last = codec.decode(bytes);
+        }
+        return last;
+    }
+}
@@ -0,0 +1,86 @@
+package com.course.kirodemo.benchmark;
+
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.entity.User;
+import com.course.kirodemo.repository.TodoItemRepository;
+import com.course.kirodemo.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待辦事項大量建立基準測試
+ * 量測以 JPA saveAll 一次建立多筆待辦事項的吞吐量；
+ * batching=false 時每次取號只保留一個 ID 且不使用 JDBC 批次，模擬改用序列前每筆立即 INSERT 的行為，
+ * batching=true 則使用 pooled-lo 序列與 JDBC 批次寫入
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoCreateBenchmark {
+
+    @Param({"100", "1000"})
+    private int itemsPerCall;
+
+    @Param({"false", "true"})
+    private boolean batching;
+
+    private BenchmarkContext context;
+    private TodoItemRepository todoItemRepository;
+    private JdbcTemplate jdbcTemplate;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = batching
+                ? BenchmarkContext.start(1)
+                : BenchmarkContext.start(1,
+                        "--app.jpa.id-allocation-size=1",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=1");
+        todoItemRepository = context.getBean(TodoItemRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        user = context.getBean(UserRepository.class).findByUsername(BenchmarkContext.USERNAME).orElseThrow();
+    }
+
+    /**
+     * 每輪量測後清除建立的資料，避免資料表持續成長影響結果
+     */
+    @TearDown(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM todo_items WHERE user_id = ?", user.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TodoItem> bulkCreate() {
+        LocalDate dueDate = LocalDate.now().plusDays(7);
+        List<TodoItem> items = new ArrayList<>(itemsPerCall);
+        for (int i = 0; i < itemsPerCall; i++) {
+            items.add(new TodoItem("大量建立任務 " + i, "基準測試用的待辦事項描述", dueDate, user));
+        }
+        return todoItemRepository.saveAll(items);
+    }
+}
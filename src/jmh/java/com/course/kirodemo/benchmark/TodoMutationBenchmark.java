@@ -0,0 +1,84 @@
+package com.course.kirodemo.benchmark;
+
+import com.course.kirodemo.dto.EligibleTodoSummary;
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.service.TodoExtensionService;
+import com.course.kirodemo.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待辦事項狀態變更與延期基準測試
+ * 量測 toggleComplete、extendTodo 與 getEligibleTodosForUser 在不同資料量下的吞吐量
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoMutationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int itemsPerUser;
+
+    private BenchmarkContext context;
+    private TodoService todoService;
+    private TodoExtensionService extensionService;
+    private long targetTodoId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(itemsPerUser);
+        todoService = context.getBean(TodoService.class);
+        extensionService = context.getBean(TodoExtensionService.class);
+        targetTodoId = context.getTargetTodoId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 延期前重設目標待辦事項，避免延期後超出可延期範圍
+     * 只有 extendTodo 使用，不影響其他基準測試的量測
+     */
+    @State(Scope.Thread)
+    public static class ExtendTarget {
+
+        @Setup(Level.Invocation)
+        public void reset(TodoMutationBenchmark benchmark) {
+            benchmark.context.resetTarget();
+        }
+    }
+
+    @Benchmark
+    public TodoItem toggleComplete() {
+        return todoService.toggleComplete(targetTodoId, BenchmarkContext.USERNAME);
+    }
+
+    @Benchmark
+    public TodoItem extendTodo(ExtendTarget target) {
+        return extensionService.extendTodo(targetTodoId, 1, BenchmarkContext.USERNAME);
+    }
+
+    @Benchmark
+    public List<EligibleTodoSummary> getEligibleTodosForUser() {
+        return extensionService.getEligibleTodosForUser(BenchmarkContext.USERNAME);
+    }
+}
@@ -0,0 +1,159 @@
+package com.course.kirodemo.benchmark;
+
+import com.course.kirodemo.KiroDemoApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 平台執行緒與虛擬執行緒的端對端負載測試
+ * 啟動完整的應用程式（Tomcat、Security、JDBC Session），以大量並行用戶端請求待辦事項列表頁，
+ * 同時回報吞吐量（Throughput）與延遲分布（SampleTime 的 p0.99）
+ *
+ * tomcatMaxThreads 刻意設小，讓平台執行緒模式在 JDBC 與 Session 的 I/O 等待上先用完執行緒；
+ * virtualThreads=true 時啟用 virtual-threads profile（虛擬執行緒與較大的連線池），需要以 Java 21 執行：
+ * mvn -Pbenchmark,virtual-threads compile exec:exec -Djmh.args="WebThroughputBenchmark"
+ *
+ * 目前只在 JDK 17 上量測過平台執行緒的部分（-p virtualThreads=false，約 34 req/s、p99 約 6.2 s），
+ * 尚無虛擬執行緒的對照數據；兩者的比較需以 Java 21 執行兩組參數後才能得出
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(WebThroughputBenchmark.CLIENTS)
+@State(Scope.Benchmark)
+public class WebThroughputBenchmark {
+
+    static final int CLIENTS = 128;
+
+    private static final String PASSWORD = "password123";
+    private static final String USERNAME_PREFIX = "web-bench-";
+    private static final Pattern CSRF_TOKEN = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final AtomicInteger DATABASE_SEQUENCE = new AtomicInteger();
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"20"})
+    private int tomcatMaxThreads;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("虛擬執行緒需要 Java 21，請改用 -p virtualThreads=false 或以 Java 21 執行");
+        }
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + tomcatMaxThreads,
+                "--spring.datasource.url=jdbc:h2:mem:web-bench" + DATABASE_SEQUENCE.incrementAndGet()
+                        + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--app.seed.bulk.enabled=true",
+                "--app.seed.bulk.users=" + CLIENTS,
+                "--app.seed.bulk.todos-per-user=200",
+                "--app.seed.bulk.username-prefix=" + USERNAME_PREFIX,
+                "--app.seed.bulk.passwords=" + PASSWORD,
+                "--logging.level.root=WARN",
+                "--logging.level.com.course=WARN"));
+        if (virtualThreads) {
+            args.add("--spring.profiles.active=virtual-threads");
+        }
+
+        context = new SpringApplicationBuilder(KiroDemoApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 每個用戶端執行緒各自登入一個使用者，持有自己的 Session Cookie
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private HttpClient httpClient;
+        private HttpRequest listRequest;
+
+        @Setup(Level.Trial)
+        public void login(WebThroughputBenchmark benchmark) throws IOException, InterruptedException {
+            httpClient = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build();
+
+            String loginPage = httpClient.send(HttpRequest.newBuilder(URI.create(benchmark.baseUrl + "/login")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            Matcher matcher = CSRF_TOKEN.matcher(loginPage);
+            if (!matcher.find()) {
+                throw new IllegalStateException("登入頁面找不到 CSRF token");
+            }
+            String form = "username=" + USERNAME_PREFIX + benchmark.nextUser.getAndIncrement()
+                    + "&password=" + PASSWORD
+                    + "&_csrf=" + URLEncoder.encode(matcher.group(1), StandardCharsets.UTF_8);
+            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(benchmark.baseUrl + "/login"))
+                            .header("Content-Type", "application/x-www-form-urlencoded")
+                            .POST(HttpRequest.BodyPublishers.ofString(form))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            String location = response.headers().firstValue("Location").orElse("");
+            if (location.contains("error")) {
+                throw new IllegalStateException("基準測試使用者登入失敗");
+            }
+
+            listRequest = HttpRequest.newBuilder(URI.create(benchmark.baseUrl + "/todos")).build();
+        }
+    }
+
+    @Benchmark
+    public int listTodos(Client client) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.httpClient.send(client.listRequest, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("列表頁回應 " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,14 @@
+package com.course.kirodemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * 非同步執行配置
+ * {@code @Async} 方法在 Spring Boot 自動配置的 applicationTaskExecutor 上執行：
+ * 預設為平台執行緒池，啟用 virtual-threads profile（Java 21）時改為每個工作一條虛擬執行緒
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
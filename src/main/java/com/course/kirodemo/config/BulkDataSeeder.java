@@ -0,0 +1,212 @@
+package com.course.kirodemo.config;
+
+import com.course.kirodemo.entity.PooledSequenceGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BulkDataSeeder
+ * 負載測試用的大量資料產生器，依設定建立 N 個使用者 × M 筆待辦事項
+ * 以 JDBC 批次寫入取代逐筆 repository.save，主鍵與 Hibernate 相同以 pooled-lo 方式向序列整段取號，
+ * 相同的明文密碼只雜湊一次
+ *
+ * 預設停用，啟用 loadtest profile 或設定 app.seed.bulk.enabled=true 後於啟動時執行
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class BulkDataSeeder implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDataSeeder.class);
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (id, username, password, created_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_TODO_SQL =
+            "INSERT INTO todo_items (id, title, description, completed, created_at, due_date, completed_at, user_id, extension_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final boolean enabled;
+    private final int users;
+    private final int todosPerUser;
+    private final int batchSize;
+    private final String usernamePrefix;
+    private final List<String> passwords;
+    private final int idAllocationSize;
+
+    @Autowired
+    public BulkDataSeeder(JdbcTemplate jdbcTemplate,
+                          PasswordEncoder passwordEncoder,
+                          @Value("${app.seed.bulk.enabled:false}") boolean enabled,
+                          @Value("${app.seed.bulk.users:0}") int users,
+                          @Value("${app.seed.bulk.todos-per-user:0}") int todosPerUser,
+                          @Value("${app.seed.bulk.batch-size:1000}") int batchSize,
+                          @Value("${app.seed.bulk.username-prefix:load-user-}") String usernamePrefix,
+                          @Value("${app.seed.bulk.passwords:password123}") List<String> passwords,
+                          @Value("${app.jpa.id-allocation-size:" + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int idAllocationSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批次大小必須為正數");
+        }
+        if (passwords.isEmpty()) {
+            throw new IllegalArgumentException("至少需要設定一組密碼");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.enabled = enabled;
+        this.users = users;
+        this.todosPerUser = todosPerUser;
+        this.batchSize = batchSize;
+        this.usernamePrefix = usernamePrefix;
+        this.passwords = List.copyOf(passwords);
+        this.idAllocationSize = idAllocationSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        seed();
+    }
+
+    /**
+     * 產生大量使用者與待辦事項
+     * 已存在相同前綴的使用者時跳過，避免重複啟動時重複寫入
+     * @return 寫入的待辦事項數量
+     */
+    public long seed() {
+        if (users <= 0) {
+            logger.info("未設定大量資料的使用者數量，跳過產生");
+            return 0;
+        }
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username LIKE ?", Integer.class, usernamePrefix + "%");
+        if (existing != null && existing > 0) {
+            logger.info("已存在前綴為 {} 的使用者，跳過大量資料產生", usernamePrefix);
+            return 0;
+        }
+
+        long startedAt = System.nanoTime();
+        logger.info("開始產生大量資料: {} 個使用者 × {} 筆待辦事項", users, todosPerUser);
+
+        List<Long> userIds = insertUsers();
+        long todoCount = insertTodos(userIds);
+
+        logger.info("大量資料產生完成: {} 個使用者、{} 筆待辦事項，耗時 {} ms",
+                userIds.size(), todoCount, (System.nanoTime() - startedAt) / 1_000_000);
+        return todoCount;
+    }
+
+    /**
+     * 批次寫入使用者，密碼依序輪流使用設定的明文密碼，每組明文只雜湊一次
+     * @return 依寫入順序排列的使用者 ID
+     */
+    private List<Long> insertUsers() {
+        Map<String, String> encodedPasswords = new HashMap<>();
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        SequenceIdAllocator ids = new SequenceIdAllocator("users_seq");
+        List<Long> userIds = new ArrayList<>(users);
+
+        List<Object[]> batch = new ArrayList<>(Math.min(users, batchSize));
+        for (int i = 0; i < users; i++) {
+            String rawPassword = passwords.get(i % passwords.size());
+            String encodedPassword = encodedPasswords.computeIfAbsent(rawPassword, passwordEncoder::encode);
+            long id = ids.next();
+            userIds.add(id);
+            batch.add(new Object[]{id, usernamePrefix + i, encodedPassword, createdAt});
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+        }
+
+        return userIds;
+    }
+
+    /**
+     * 批次寫入待辦事項
+     * 到期日分布在過去 5 天到未來 14 天，約四分之一為已完成
+     * @return 寫入的待辦事項數量
+     */
+    private long insertTodos(List<Long> userIds) {
+        if (todosPerUser <= 0) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        SequenceIdAllocator ids = new SequenceIdAllocator("todo_items_seq");
+
+        long total = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (Long userId : userIds) {
+            for (int i = 0; i < todosPerUser; i++) {
+                boolean completed = i % 4 == 0;
+                LocalDateTime createdAt = now.minusMinutes(todosPerUser - i);
+                batch.add(new Object[]{
+                        ids.next(),
+                        "負載測試任務 " + i,
+                        "這是第 " + i + " 筆負載測試用的待辦事項描述",
+                        completed,
+                        Timestamp.valueOf(createdAt),
+                        Date.valueOf(today.plusDays((i % 20) - 5)),
+                        completed ? Timestamp.valueOf(createdAt.plusMinutes(1)) : null,
+                        userId
+                });
+                if (batch.size() == batchSize) {
+                    jdbcTemplate.batchUpdate(INSERT_TODO_SQL, batch);
+                    total += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TODO_SQL, batch);
+            total += batch.size();
+        }
+        return total;
+    }
+
+    /**
+     * 以 pooled-lo 方式向序列取號：每次取得的序列值 v 代表保留 [v, v + 保留數量) 整段 ID，
+     * 與 Hibernate 的配置一致，因此兩者產生的 ID 不會重疊
+     */
+    private final class SequenceIdAllocator {
+
+        private final String sequenceName;
+        private long next;
+        private long end;
+
+        private SequenceIdAllocator(String sequenceName) {
+            this.sequenceName = sequenceName;
+        }
+
+        private long next() {
+            if (next == end) {
+                Long start = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequenceName, Long.class);
+                next = start;
+                end = start + idAllocationSize;
+            }
+            return next++;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -20,8 +21,10 @@ import java.time.LocalDateTime;
  * DataInitializer
  * 應用程式啟動時初始化測試資料的 CommandLineRunner
  * 確保所有密碼使用 BCrypt 正確加密
+ * 先於 {@link BulkDataSeeder} 執行，讓展示用帳號不受大量資料影響
  */
 @Component
+@Order(0)
 public class DataInitializer implements CommandLineRunner {
     
     private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
@@ -0,0 +1,177 @@
+package com.course.kirodemo.config;
+
+import com.course.kirodemo.security.BoundedPasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 密碼雜湊配置
+ * 以 DelegatingPasswordEncoder 支援多種雜湊演算法，新密碼使用設定的演算法與參數，
+ * 舊密碼（包含沒有 {id} 前綴的 BCrypt 雜湊）仍可驗證，並在登入成功時自動以新設定重新雜湊。
+ * BCrypt 的 cost 記錄在雜湊本身，與設定不同（調高或調低）時即重新雜湊；
+ * Pbkdf2PasswordEncoder 的雜湊只有 salt 與結果，因此把迭代次數與 salt 長度寫進 id
+ * （例如 {pbkdf2-310000-16}），調整參數後舊雜湊依 id 中的參數驗證，id 與目前設定不同時重新雜湊
+ *
+ * 設定：
+ * app.security.password.algorithm（bcrypt 或 pbkdf2，預設 bcrypt）
+ * app.security.password.bcrypt-strength（BCrypt cost，預設 10）
+ * app.security.password.pbkdf2-iterations（PBKDF2 迭代次數，預設 310000）
+ * app.security.password.pbkdf2-salt-length（PBKDF2 salt 長度，預設 16）
+ * app.security.password.hashing.threads（雜湊執行緒數量，0 表示使用 CPU 核心數）
+ * app.security.password.hashing.queue-capacity（排隊上限，超過時回應 503，預設 64）
+ * app.security.password.hashing.max-wait（含排隊的最長等待時間，預設 5s）
+ * app.security.password.hashing.stats-log-interval（排隊與雜湊時間統計的輸出間隔，預設 5m）
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    /**
+     * BCrypt 演算法識別碼
+     */
+    public static final String BCRYPT = "bcrypt";
+
+    /**
+     * PBKDF2 演算法識別碼
+     */
+    public static final String PBKDF2 = "pbkdf2";
+
+    /**
+     * 密碼編碼器 Bean
+     * 雜湊在專用的有界執行緒池中執行，不佔用請求執行緒的 CPU 時間
+     */
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.security.password.algorithm:" + BCRYPT + "}") String algorithm,
+            @Value("${app.security.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${app.security.password.pbkdf2-iterations:310000}") int pbkdf2Iterations,
+            @Value("${app.security.password.pbkdf2-salt-length:16}") int pbkdf2SaltLength,
+            @Value("${app.security.password.hashing.threads:0}") int hashingThreads,
+            @Value("${app.security.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password.hashing.max-wait:5s}") Duration maxWait) {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        logger.info("密碼雜湊執行緒: {}，佇列上限: {}，最長等待: {}", threads, queueCapacity, maxWait);
+        return new BoundedPasswordEncoder(
+                createPasswordEncoder(algorithm, bcryptStrength, pbkdf2Iterations, pbkdf2SaltLength),
+                threads, queueCapacity, maxWait);
+    }
+
+    /**
+     * 建立密碼編碼器
+     * @param algorithm 新密碼使用的演算法
+     * @param bcryptStrength BCrypt cost
+     * @param pbkdf2Iterations PBKDF2 迭代次數
+     * @param pbkdf2SaltLength PBKDF2 salt 長度
+     * @return 密碼編碼器
+     * @throws IllegalArgumentException 如果演算法不支援
+     */
+    public static PasswordEncoder createPasswordEncoder(String algorithm, int bcryptStrength,
+                                                        int pbkdf2Iterations, int pbkdf2SaltLength) {
+        BCryptPasswordEncoder bcrypt = new ExactCostBCryptPasswordEncoder(bcryptStrength);
+        String pbkdf2Id = pbkdf2Id(pbkdf2Iterations, pbkdf2SaltLength);
+        PasswordEncoder pbkdf2 = pbkdf2(pbkdf2Iterations, pbkdf2SaltLength);
+
+        String idForEncode = switch (algorithm) {
+            case BCRYPT -> BCRYPT;
+            case PBKDF2 -> pbkdf2Id;
+            default -> throw new IllegalArgumentException("不支援的密碼雜湊演算法: " + algorithm);
+        };
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(pbkdf2Id, pbkdf2);
+        // 參數寫進 id 之前產生的 {pbkdf2} 雜湊沒有記錄參數，以目前設定驗證，登入成功後改以新 id 重新雜湊
+        encoders.put(PBKDF2, pbkdf2);
+
+        // id 與目前設定不同時 upgradeEncoding 回傳 true，登入成功後重新雜湊
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // 其他 PBKDF2 參數的雜湊依 id 中的參數驗證；沒有 {bcrypt} 前綴的既有雜湊直接交給 BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(new PreviousParametersPasswordEncoder(bcrypt));
+
+        logger.info("密碼雜湊演算法: {}，BCrypt cost: {}，PBKDF2 迭代次數: {}", algorithm, bcryptStrength, pbkdf2Iterations);
+        return encoder;
+    }
+
+    private static String pbkdf2Id(int iterations, int saltLength) {
+        return PBKDF2 + "-" + iterations + "-" + saltLength;
+    }
+
+    private static PasswordEncoder pbkdf2(int iterations, int saltLength) {
+        return new Pbkdf2PasswordEncoder("", saltLength, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    /**
+     * 與設定的 cost 不同就重新雜湊的 BCrypt 編碼器
+     * BCryptPasswordEncoder 只在既有 cost 低於設定時回報需要重新雜湊，調低 cost 降低登入的 CPU 成本時不會生效
+     */
+    private static final class ExactCostBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private static final Pattern COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+        private final int strength;
+
+        private ExactCostBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            if (encodedPassword == null) {
+                return false;
+            }
+            Matcher matcher = COST.matcher(encodedPassword);
+            return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+        }
+    }
+
+    /**
+     * 驗證沒有註冊 id 的雜湊
+     * {pbkdf2-迭代次數-salt 長度} 依 id 中的參數建立 PBKDF2 編碼器驗證，其他雜湊交給 BCrypt
+     */
+    private static final class PreviousParametersPasswordEncoder implements PasswordEncoder {
+
+        private static final Pattern PBKDF2_ID = Pattern.compile("^\\{" + PBKDF2 + "-(\\d+)-(\\d+)}(.*)$");
+
+        private final PasswordEncoder bcrypt;
+        private final Map<String, PasswordEncoder> pbkdf2Encoders = new ConcurrentHashMap<>();
+
+        private PreviousParametersPasswordEncoder(PasswordEncoder bcrypt) {
+            this.bcrypt = bcrypt;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("只用於驗證既有的雜湊");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            Matcher matcher = encodedPassword == null ? null : PBKDF2_ID.matcher(encodedPassword);
+            if (matcher == null || !matcher.matches()) {
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+            int iterations = Integer.parseInt(matcher.group(1));
+            int saltLength = Integer.parseInt(matcher.group(2));
+            PasswordEncoder pbkdf2 = pbkdf2Encoders.computeIfAbsent(pbkdf2Id(iterations, saltLength),
+                    id -> pbkdf2(iterations, saltLength));
+            return pbkdf2.matches(rawPassword, matcher.group(3));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.course.kirodemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 排程配置
+ * 啟用 {@code @Scheduled} 方法，目前用於定期輸出快取與執行緒池的統計資料
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
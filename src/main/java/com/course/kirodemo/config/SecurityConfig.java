@@ -1,18 +1,21 @@
 package com.course.kirodemo.config;
 
+import com.course.kirodemo.exception.PasswordHashingBusyException;
+import com.course.kirodemo.security.CachingSessionRegistry;
 import com.course.kirodemo.security.CustomAuthenticationProvider;
 import com.course.kirodemo.security.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -20,8 +23,11 @@ import org.springframework.security.web.authentication.SimpleUrlAuthenticationFa
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.security.core.session.SessionRegistry;
-import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
 
 /**
  * Spring Security 配置
@@ -42,14 +48,6 @@ public class SecurityConfig {
         this.customAuthenticationProvider = customAuthenticationProvider;
     }
 
-    /**
-     * 密碼編碼器 Bean
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     /**
      * 認證成功處理器
      */
@@ -63,12 +61,20 @@ public class SecurityConfig {
 
     /**
      * 認證失敗處理器
+     * 密碼雜湊執行緒池滿載時直接回應 503，其餘失敗導回登入頁
      */
     @Bean
     public AuthenticationFailureHandler authenticationFailureHandler() {
         SimpleUrlAuthenticationFailureHandler handler = new SimpleUrlAuthenticationFailureHandler();
         handler.setDefaultFailureUrl("/login?error=true");
-        return handler;
+        return (request, response, exception) -> {
+            if (exception.getCause() instanceof PasswordHashingBusyException busy) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(PasswordHashingBusyException.RETRY_AFTER_SECONDS));
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), busy.getMessage());
+                return;
+            }
+            handler.onAuthenticationFailure(request, response, exception);
+        };
     }
 
     /**
@@ -81,10 +87,14 @@ public class SecurityConfig {
 
     /**
      * 會話註冊表，用於追蹤活動會話
+     * 以會話儲存庫的使用者名稱索引為準，多節點時同時登入數的限制仍然有效
      */
     @Bean
-    public SessionRegistry sessionRegistry() {
-        return new SessionRegistryImpl();
+    public SessionRegistry sessionRegistry(
+            FindByIndexNameSessionRepository<? extends Session> sessionRepository,
+            @Value("${app.security.session-registry.cache-ttl:5s}") Duration cacheTtl,
+            @Value("${app.security.session-registry.cache-maximum-size:10000}") long cacheMaximumSize) {
+        return new CachingSessionRegistry(sessionRepository, cacheTtl, cacheMaximumSize);
     }
 
     /**
@@ -95,10 +105,9 @@ public class SecurityConfig {
         AuthenticationManagerBuilder authenticationManagerBuilder = 
             http.getSharedObject(AuthenticationManagerBuilder.class);
         
+        // 只使用自定義認證提供者，避免認證失敗時再由 DaoAuthenticationProvider 查詢與雜湊一次
         authenticationManagerBuilder
-            .authenticationProvider(customAuthenticationProvider)
-            .userDetailsService(customUserDetailsService)
-            .passwordEncoder(passwordEncoder());
+            .authenticationProvider(customAuthenticationProvider);
         
         return authenticationManagerBuilder.build();
     }
@@ -107,7 +116,7 @@ public class SecurityConfig {
      * 安全過濾器鏈配置
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, SessionRegistry sessionRegistry) throws Exception {
         http
             // 授權配置
             .authorizeHttpRequests(authz -> authz
@@ -143,7 +152,7 @@ public class SecurityConfig {
                 .maximumSessions(1) // 每個使用者最多一個會話
                 .maxSessionsPreventsLogin(false) // 新登入會踢掉舊會話
                 .expiredUrl("/login?expired=true")
-                .sessionRegistry(sessionRegistry())
+                .sessionRegistry(sessionRegistry)
                 .and()
                 .sessionFixation().migrateSession() // 防止會話固定攻擊
                 .invalidSessionUrl("/login?invalid=true")
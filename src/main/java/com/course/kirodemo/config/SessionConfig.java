@@ -1,22 +1,104 @@
 package com.course.kirodemo.config;
 
+import com.course.kirodemo.session.OffHeapSessionRepository;
+import com.course.kirodemo.session.SessionAttributeCodec;
+import com.course.kirodemo.session.WriteBehindSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
 import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
 import org.springframework.session.web.http.CookieSerializer;
 import org.springframework.session.web.http.DefaultCookieSerializer;
 
+import java.time.Clock;
+import java.time.Duration;
+
 /**
  * Spring Session 配置
  * 配置會話儲存、Cookie 設定和會話清理機制
+ *
+ * 會話儲存以 app.session.store 選擇：
+ * jdbc（預設）儲存在 SPRING_SESSION 資料表，重啟後仍然有效，預設由 {@link WriteBehindSessionRepository} 合併寫入；
+ * memory 儲存在記憶體與 off-heap，不需要每個請求讀寫資料庫，但只限單一節點且重啟後會話消失
  */
 @Configuration
-@EnableJdbcHttpSession(
-    maxInactiveIntervalInSeconds = 1800, // 30分鐘會話超時
-    tableName = "SPRING_SESSION"
-)
 public class SessionConfig {
 
+    /**
+     * 會話閒置逾時（秒）
+     */
+    static final int MAX_INACTIVE_INTERVAL_SECONDS = 1800; // 30分鐘會話超時
+
+    /**
+     * JDBC 會話儲存
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.session.store", havingValue = "jdbc", matchIfMissing = true)
+    @EnableJdbcHttpSession(
+        maxInactiveIntervalInSeconds = MAX_INACTIVE_INTERVAL_SECONDS,
+        tableName = "SPRING_SESSION"
+    )
+    static class JdbcSessionConfig {
+
+        /**
+         * 合併寫入層，減少只更新最後存取時間的寫入
+         * 以 {@code @Primary} 取代 JDBC 儲存庫提供給 SessionRepositoryFilter
+         */
+        @Bean(initMethod = "start", destroyMethod = "close")
+        @Primary
+        @ConditionalOnProperty(name = "app.session.jdbc.write-behind.enabled", havingValue = "true", matchIfMissing = true)
+        public WriteBehindSessionRepository writeBehindSessionRepository(
+                JdbcIndexedSessionRepository sessionRepository,
+                @Value("${app.session.jdbc.write-behind.access-time-granularity:60s}") Duration accessTimeGranularity,
+                @Value("${app.session.jdbc.write-behind.flush-interval:1s}") Duration flushInterval) {
+            return new WriteBehindSessionRepository(sessionRepository, accessTimeGranularity, flushInterval);
+        }
+
+        /**
+         * JDBC 儲存庫寫入 ATTRIBUTE_BYTES 時使用的轉換服務，以精簡編碼取代預設的 JDK 序列化
+         * 解碼時仍接受以 JDK 序列化寫入的既有資料
+         */
+        @Bean("springSessionConversionService")
+        public ConversionService springSessionConversionService(SessionAttributeCodec sessionAttributeCodec) {
+            GenericConversionService conversionService = new GenericConversionService();
+            conversionService.addConverter(Object.class, byte[].class, sessionAttributeCodec::encode);
+            conversionService.addConverter(byte[].class, Object.class, sessionAttributeCodec::decode);
+            return conversionService;
+        }
+    }
+
+    /**
+     * 記憶體與 off-heap 會話儲存
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.session.store", havingValue = "memory")
+    @EnableSpringHttpSession
+    static class MemorySessionConfig {
+
+        @Bean(initMethod = "start", destroyMethod = "close")
+        public OffHeapSessionRepository sessionRepository(
+                SessionAttributeCodec sessionAttributeCodec,
+                @Value("${app.session.memory.shards:16}") int shards,
+                @Value("${app.session.memory.expiry-tick:1s}") Duration expiryTick) {
+            return new OffHeapSessionRepository(sessionAttributeCodec, shards,
+                    Duration.ofSeconds(MAX_INACTIVE_INTERVAL_SECONDS), expiryTick, Clock.systemUTC());
+        }
+    }
+
+    /**
+     * 會話屬性編碼器，JDBC 與記憶體儲存共用
+     */
+    @Bean
+    public SessionAttributeCodec sessionAttributeCodec() {
+        return new SessionAttributeCodec(getClass().getClassLoader());
+    }
+
     /**
      * Cookie 序列化器配置
      * 設定會話 Cookie 的安全屬性
@@ -41,8 +123,8 @@ public class SessionConfig {
         serializer.setSameSite("Lax");
         
         // Cookie 最大存活時間（30分鐘）
-        serializer.setCookieMaxAge(1800);
+        serializer.setCookieMaxAge(MAX_INACTIVE_INTERVAL_SECONDS);
         
         return serializer;
     }
-}
\ No newline at end of file
+}
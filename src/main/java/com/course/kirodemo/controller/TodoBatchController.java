@@ -0,0 +1,103 @@
+package com.course.kirodemo.controller;
+
+import com.course.kirodemo.dto.BatchCreateTodoRequest;
+import com.course.kirodemo.dto.BatchTodoIdsRequest;
+import com.course.kirodemo.dto.BatchTodoResponse;
+import com.course.kirodemo.security.SecurityUtils;
+import com.course.kirodemo.service.TodoBatchService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 待辦事項批次操作控制器
+ * 提供 JSON 批次建立、完成與刪除，一次請求處理多筆待辦事項並回報每個項目的結果
+ */
+@Controller
+@RequestMapping("/todos/batch")
+public class TodoBatchController {
+
+    private final TodoBatchService todoBatchService;
+
+    @Autowired
+    public TodoBatchController(TodoBatchService todoBatchService) {
+        this.todoBatchService = todoBatchService;
+    }
+
+    /**
+     * 批次建立待辦事項
+     * POST /todos/batch/create
+     */
+    @PostMapping("/create")
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public ResponseEntity<?> createTodos(@Valid @RequestBody BatchCreateTodoRequest request,
+                                         BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return validationError(bindingResult);
+        }
+        return execute(() -> todoBatchService.createTodos(request.getItems(), SecurityUtils.getCurrentUsername()));
+    }
+
+    /**
+     * 批次將待辦事項標記為完成
+     * POST /todos/batch/complete
+     */
+    @PostMapping("/complete")
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public ResponseEntity<?> completeTodos(@Valid @RequestBody BatchTodoIdsRequest request,
+                                           BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return validationError(bindingResult);
+        }
+        return execute(() -> todoBatchService.completeTodos(request.getIds(), SecurityUtils.getCurrentUsername()));
+    }
+
+    /**
+     * 批次刪除待辦事項
+     * POST /todos/batch/delete
+     */
+    @PostMapping("/delete")
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public ResponseEntity<?> deleteTodos(@Valid @RequestBody BatchTodoIdsRequest request,
+                                         BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return validationError(bindingResult);
+        }
+        return execute(() -> todoBatchService.deleteTodos(request.getIds(), SecurityUtils.getCurrentUsername()));
+    }
+
+    private ResponseEntity<?> execute(BatchOperation operation) {
+        try {
+            return ResponseEntity.ok(operation.run());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> validationError(BindingResult bindingResult) {
+        String errorMessage = bindingResult.getFieldErrors()
+            .stream()
+            .map(FieldError::getDefaultMessage)
+            .collect(Collectors.joining(", "));
+        return ResponseEntity.badRequest().body(Map.of("error", "輸入驗證失敗: " + errorMessage));
+    }
+
+    @FunctionalInterface
+    private interface BatchOperation {
+        BatchTodoResponse run();
+    }
+}
@@ -1,18 +1,29 @@
 package com.course.kirodemo.controller;
 
+import com.course.kirodemo.dto.BulkExtendTodoRequest;
+import com.course.kirodemo.dto.BulkExtensionResult;
 import com.course.kirodemo.dto.CreateTodoRequest;
 import com.course.kirodemo.dto.ExtendTodoRequest;
 import com.course.kirodemo.dto.ExtendTodoResponse;
+import com.course.kirodemo.dto.TodoPage;
+import com.course.kirodemo.dto.TodoRowView;
+import com.course.kirodemo.dto.TodoStats;
 import com.course.kirodemo.dto.UpdateTodoRequest;
 import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.event.TodoVersionRegistry;
 import com.course.kirodemo.exception.TodoNotFoundException;
 import com.course.kirodemo.exception.UnauthorizedAccessException;
+import com.course.kirodemo.security.CurrentUserResolver;
 import com.course.kirodemo.security.SecurityUtils;
 import com.course.kirodemo.service.DateValidationService;
 import com.course.kirodemo.service.TodoExtensionService;
 import com.course.kirodemo.service.TodoService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,11 +32,12 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -41,14 +53,20 @@ public class TodoController {
     private final TodoService todoService;
     private final TodoExtensionService extensionService;
     private final DateValidationService dateValidationService;
+    private final TodoVersionRegistry versionRegistry;
+    private final CurrentUserResolver currentUserResolver;
 
     @Autowired
     public TodoController(TodoService todoService, 
                          TodoExtensionService extensionService,
-                         DateValidationService dateValidationService) {
+                         DateValidationService dateValidationService,
+                         TodoVersionRegistry versionRegistry,
+                         CurrentUserResolver currentUserResolver) {
         this.todoService = todoService;
         this.extensionService = extensionService;
         this.dateValidationService = dateValidationService;
+        this.versionRegistry = versionRegistry;
+        this.currentUserResolver = currentUserResolver;
     }
 
     /**
@@ -58,15 +76,45 @@ public class TodoController {
         return SecurityUtils.getCurrentUsername();
     }
 
+    /**
+     * 以使用者的待辦事項版本檢查條件式請求
+     * 必須在查詢資料之前呼叫；回應加上 private, no-cache，讓瀏覽器每次都帶 If-None-Match 重新驗證
+     * @param webRequest 目前的請求
+     * @param username 使用者名稱
+     * @param variants 影響回應內容的其他因素
+     * @return true 如果內容未變更（已設定 304，不需要再產生回應）
+     */
+    private boolean checkNotModified(ServletWebRequest webRequest, String username, Object... variants) {
+        String etag = versionRegistry.etag(currentUserResolver.resolveUserId(username), variants);
+        HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        }
+        return webRequest.checkNotModified(etag);
+    }
+
     /**
      * 顯示待辦事項列表
      */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
     public String getTodos(@RequestParam(defaultValue = "CREATED_AT_DESC") String sortBy,
-                          Model model) {
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(defaultValue = "" + TodoService.DEFAULT_PAGE_SIZE) int size,
+                          Model model,
+                          ServletWebRequest webRequest) {
         
         String username = getCurrentUsername();
+
+        // 使用者的待辦事項沒有變更時直接回應 304，不查詢資料庫；
+        // 頁面含有 CSRF token，因此以會話區分，帶有 flash 訊息的頁面只顯示一次，不使用條件式請求
+        Map<String, ?> flashMap = RequestContextUtils.getInputFlashMap(webRequest.getRequest());
+        HttpSession session = webRequest.getRequest().getSession(false);
+        if ((flashMap == null || flashMap.isEmpty())
+                && checkNotModified(webRequest, username, "list", sortBy, cursor, size, LocalDate.now(),
+                        session != null ? session.getId() : null)) {
+            return null;
+        }
         
         // 解析排序參數
         TodoService.SortBy sort;
@@ -76,15 +124,38 @@ public class TodoController {
             sort = TodoService.SortBy.CREATED_AT_DESC;
         }
 
-        // 取得待辦事項列表
-        List<TodoItem> todos = todoService.getUserTodos(username, sort);
+        // 取得一頁待辦事項，游標無效時（例如被竄改或排序方式已變更）回到第一頁
+        TodoPage page;
+        try {
+            page = todoService.getUserTodosPage(username, sort, cursor, size);
+        } catch (IllegalArgumentException e) {
+            cursor = null;
+            page = todoService.getUserTodosPage(username, sort, null, size);
+        }
         
-        model.addAttribute("todos", todos);
+        // 整頁共用同一個「今天」計算每一列的顯示狀態
+        model.addAttribute("todos", TodoRowView.of(page.getItems(), LocalDate.now()));
         model.addAttribute("sortBy", sort.name());
+        model.addAttribute("pageSize", page.getPageSize());
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("hasNext", page.hasNext());
+        model.addAttribute("stats", todoService.getTodoStats(username));
         
         return "todos/list";
     }
 
+    /**
+     * 取得待辦事項統計資料（AJAX 請求）
+     * GET /todos/stats
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public ResponseEntity<TodoStats> getTodoStats() {
+        return ResponseEntity.ok(todoService.getTodoStats(getCurrentUsername()));
+    }
+
     /**
      * 顯示新增待辦事項表單
      */
@@ -250,13 +321,20 @@ public class TodoController {
     /**
      * 顯示延期表單（AJAX 請求）
      * GET /todos/{id}/extend
+     * 回應包含目前到期日、天數範圍與可延期的到期日範圍，前端據此在本機計算新到期日的預覽，
+     * 不必每次輸入都呼叫 /extend/preview
      */
     @GetMapping("/{id}/extend")
     @PreAuthorize("isAuthenticated()")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> getExtensionForm(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getExtensionForm(@PathVariable Long id,
+                                                                ServletWebRequest webRequest) {
         
         String username = getCurrentUsername();
+        LocalDate today = LocalDate.now();
+        if (checkNotModified(webRequest, username, "extend", id, today)) {
+            return null;
+        }
         
         try {
             // 查詢待辦事項
@@ -280,7 +358,11 @@ public class TodoController {
             response.put("todoId", todo.getId());
             response.put("title", todo.getTitle());
             response.put("currentDueDate", todo.getDueDate());
-            response.put("maxExtensionDays", 365);
+            response.put("minExtensionDays", TodoExtensionService.MIN_EXTENSION_DAYS);
+            response.put("maxExtensionDays", TodoExtensionService.MAX_EXTENSION_DAYS);
+            response.put("today", today);
+            response.put("eligibleFrom", today);
+            response.put("eligibleUntil", today.plusDays(TodoExtensionService.EXTENSION_WINDOW_DAYS));
             
             return ResponseEntity.ok(response);
             
@@ -353,6 +435,43 @@ public class TodoController {
         }
     }
     
+    /**
+     * 處理批次延期請求
+     * POST /todos/extend
+     */
+    @PostMapping("/extend")
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public ResponseEntity<?> extendTodos(@Valid @RequestBody BulkExtendTodoRequest request,
+                                         BindingResult bindingResult) {
+        
+        // 驗證表單資料
+        if (bindingResult.hasErrors()) {
+            String errorMessage = bindingResult.getFieldErrors()
+                .stream()
+                .map(FieldError::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "輸入驗證失敗: " + errorMessage));
+        }
+        
+        String username = getCurrentUsername();
+        
+        try {
+            BulkExtensionResult result = request.isAllEligible()
+                ? extensionService.extendAllEligible(request.getExtensionDays(), username)
+                : extensionService.extendTodos(request.getTodoIds(), request.getExtensionDays(), username);
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "系統錯誤，請稍後再試"));
+        }
+    }
+    
     /**
      * 取得延期預覽（計算新日期但不儲存）
      * GET /todos/{id}/extend/preview
@@ -361,9 +480,13 @@ public class TodoController {
     @PreAuthorize("isAuthenticated()")
     @ResponseBody
     public ResponseEntity<Map<String, Object>> previewExtension(@PathVariable Long id,
-                                                               @RequestParam int days) {
+                                                               @RequestParam int days,
+                                                               ServletWebRequest webRequest) {
         
         String username = getCurrentUsername();
+        if (checkNotModified(webRequest, username, "preview", id, days, LocalDate.now())) {
+            return null;
+        }
         
         try {
             // 查詢待辦事項
@@ -0,0 +1,40 @@
+package com.course.kirodemo.controller;
+
+import com.course.kirodemo.event.TodoEventBroadcaster;
+import com.course.kirodemo.security.CurrentUserResolver;
+import com.course.kirodemo.security.SecurityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 待辦事項即時更新控制器
+ * 以 Server-Sent Events 推送目前使用者的待辦事項變更，讓其他分頁或裝置不需要重新載入列表
+ */
+@Controller
+public class TodoEventController {
+
+    private final TodoEventBroadcaster broadcaster;
+    private final CurrentUserResolver currentUserResolver;
+
+    @Autowired
+    public TodoEventController(TodoEventBroadcaster broadcaster, CurrentUserResolver currentUserResolver) {
+        this.broadcaster = broadcaster;
+        this.currentUserResolver = currentUserResolver;
+    }
+
+    /**
+     * 訂閱待辦事項變更事件
+     * GET /todos/events
+     */
+    @GetMapping(value = "/todos/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public SseEmitter subscribe() {
+        return broadcaster.subscribe(currentUserResolver.resolveUserId(SecurityUtils.getCurrentUsername()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.course.kirodemo.controller;
+
+import com.course.kirodemo.security.SecurityUtils;
+import com.course.kirodemo.service.TodoSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+
+/**
+ * 待辦事項搜尋控制器
+ * 提供標題與描述的全文搜尋，結果依相關度排序並分頁
+ */
+@Controller
+@RequestMapping("/todos/search")
+public class TodoSearchController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final TodoSearchService todoSearchService;
+
+    @Autowired
+    public TodoSearchController(TodoSearchService todoSearchService) {
+        this.todoSearchService = todoSearchService;
+    }
+
+    /**
+     * 搜尋待辦事項
+     * GET /todos/search?q=關鍵字&page=0&size=20
+     */
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public ResponseEntity<?> search(@RequestParam(value = "q", required = false) String query,
+                                    @RequestParam(value = "page", defaultValue = "0") int page,
+                                    @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(todoSearchService.search(query, page, size, SecurityUtils.getCurrentUsername()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
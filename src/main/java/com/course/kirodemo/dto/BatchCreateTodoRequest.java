@@ -0,0 +1,43 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.service.TodoBatchService;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批次建立待辦事項的請求 DTO
+ * 各項目的欄位驗證在服務層逐筆進行，驗證失敗的項目會在回應中標示，不影響其他項目
+ */
+public class BatchCreateTodoRequest {
+    
+    @NotEmpty(message = "建立項目不能為空")
+    @Size(max = TodoBatchService.MAX_BATCH_SIZE, message = "單次最多處理" + TodoBatchService.MAX_BATCH_SIZE + "筆")
+    private List<CreateTodoRequest> items = new ArrayList<>();
+    
+    // 預設建構子
+    public BatchCreateTodoRequest() {}
+    
+    // 建構子
+    public BatchCreateTodoRequest(List<CreateTodoRequest> items) {
+        this.items = items;
+    }
+    
+    // Getter 和 Setter 方法
+    public List<CreateTodoRequest> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<CreateTodoRequest> items) {
+        this.items = items;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchCreateTodoRequest{" +
+                "items=" + (items != null ? items.size() : 0) +
+                '}';
+    }
+}
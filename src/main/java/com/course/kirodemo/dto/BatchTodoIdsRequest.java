@@ -0,0 +1,42 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.service.TodoBatchService;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以待辦事項 ID 進行批次操作（完成、刪除）的請求 DTO
+ */
+public class BatchTodoIdsRequest {
+    
+    @NotEmpty(message = "待辦事項ID不能為空")
+    @Size(max = TodoBatchService.MAX_BATCH_SIZE, message = "單次最多處理" + TodoBatchService.MAX_BATCH_SIZE + "筆")
+    private List<Long> ids = new ArrayList<>();
+    
+    // 預設建構子
+    public BatchTodoIdsRequest() {}
+    
+    // 建構子
+    public BatchTodoIdsRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    // Getter 和 Setter 方法
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchTodoIdsRequest{" +
+                "ids=" + ids +
+                '}';
+    }
+}
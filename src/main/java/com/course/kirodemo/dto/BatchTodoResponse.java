@@ -0,0 +1,25 @@
+package com.course.kirodemo.dto;
+
+import java.util.List;
+
+/**
+ * 批次操作的回應
+ * 依請求順序列出每個項目的處理結果
+ *
+ * @param requested 請求的項目數量
+ * @param succeeded 成功的項目數量
+ * @param failed 失敗的項目數量
+ * @param results 各項目的處理結果
+ */
+public record BatchTodoResponse(int requested, int succeeded, int failed, List<BatchTodoResult> results) {
+
+    /**
+     * 由各項目的結果建立回應
+     * @param results 各項目的處理結果
+     * @return 批次操作回應
+     */
+    public static BatchTodoResponse of(List<BatchTodoResult> results) {
+        int succeeded = (int) results.stream().filter(BatchTodoResult::isSuccess).count();
+        return new BatchTodoResponse(results.size(), succeeded, results.size() - succeeded, List.copyOf(results));
+    }
+}
@@ -0,0 +1,42 @@
+package com.course.kirodemo.dto;
+
+/**
+ * 批次操作中單一項目的結果
+ *
+ * @param index 項目在請求中的位置（從 0 開始）
+ * @param todoId 待辦事項 ID，建立失敗時為 null
+ * @param status 處理結果
+ * @param message 說明訊息
+ */
+public record BatchTodoResult(int index, Long todoId, Status status, String message) {
+
+    /**
+     * 單一項目的處理結果
+     */
+    public enum Status {
+        CREATED(true),
+        COMPLETED(true),
+        ALREADY_COMPLETED(true),
+        DELETED(true),
+        NOT_FOUND(false),
+        INVALID(false);
+
+        private final boolean success;
+
+        Status(boolean success) {
+            this.success = success;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+    }
+
+    /**
+     * 檢查項目是否處理成功
+     * @return true 如果處理成功
+     */
+    public boolean isSuccess() {
+        return status.isSuccess();
+    }
+}
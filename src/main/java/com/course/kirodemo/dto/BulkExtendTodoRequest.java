@@ -0,0 +1,66 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.service.TodoBatchService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * 批次延期待辦事項的請求 DTO
+ * 未指定待辦事項 ID 時延期所有符合延期條件的待辦事項
+ */
+public class BulkExtendTodoRequest {
+    
+    @Size(max = TodoBatchService.MAX_BATCH_SIZE, message = "單次最多處理" + TodoBatchService.MAX_BATCH_SIZE + "筆")
+    private List<Long> todoIds;
+    
+    @NotNull(message = "延期天數不能為空")
+    @Min(value = 1, message = "延期天數必須為正數")
+    @Max(value = 365, message = "延期天數不能超過365天")
+    private Integer extensionDays;
+    
+    // 預設建構子
+    public BulkExtendTodoRequest() {}
+    
+    // 建構子
+    public BulkExtendTodoRequest(List<Long> todoIds, Integer extensionDays) {
+        this.todoIds = todoIds;
+        this.extensionDays = extensionDays;
+    }
+    
+    // Getter 和 Setter 方法
+    public List<Long> getTodoIds() {
+        return todoIds;
+    }
+    
+    public void setTodoIds(List<Long> todoIds) {
+        this.todoIds = todoIds;
+    }
+    
+    public Integer getExtensionDays() {
+        return extensionDays;
+    }
+    
+    public void setExtensionDays(Integer extensionDays) {
+        this.extensionDays = extensionDays;
+    }
+    
+    /**
+     * 檢查是否延期所有符合條件的待辦事項
+     * @return true 如果沒有指定待辦事項 ID
+     */
+    public boolean isAllEligible() {
+        return todoIds == null || todoIds.isEmpty();
+    }
+    
+    @Override
+    public String toString() {
+        return "BulkExtendTodoRequest{" +
+                "todoIds=" + todoIds +
+                ", extensionDays=" + extensionDays +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.course.kirodemo.dto;
+
+import java.util.List;
+
+/**
+ * 批次延期的結果
+ *
+ * @param extensionDays 延期天數
+ * @param extended 已延期的待辦事項與新到期日
+ * @param skippedIds 指定了但沒有延期的待辦事項 ID（不存在、不屬於使用者或不符合延期條件）
+ */
+public record BulkExtensionResult(int extensionDays, List<ExtendedTodoSummary> extended, List<Long> skippedIds) {
+
+    /**
+     * 取得已延期的筆數
+     * @return 已延期的筆數
+     */
+    public int getExtendedCount() {
+        return extended.size();
+    }
+}
@@ -0,0 +1,67 @@
+package com.course.kirodemo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 符合延期條件的待辦事項摘要
+ * 由 JPQL 建構子表達式直接產生，只包含延期清單需要的欄位，不會載入受管理的實體
+ */
+public class EligibleTodoSummary {
+
+    private final Long id;
+    private final String title;
+    private final LocalDate dueDate;
+    private final LocalDate originalDueDate;
+    private final int extensionCount;
+
+    /**
+     * JPQL 建構子表達式使用的建構子
+     */
+    public EligibleTodoSummary(Long id, String title, LocalDate dueDate,
+                               LocalDate originalDueDate, int extensionCount) {
+        this.id = id;
+        this.title = title;
+        this.dueDate = dueDate;
+        this.originalDueDate = originalDueDate;
+        this.extensionCount = extensionCount;
+    }
+
+    // Getter 方法
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public LocalDate getOriginalDueDate() {
+        return originalDueDate;
+    }
+
+    public int getExtensionCount() {
+        return extensionCount;
+    }
+
+    /**
+     * 檢查是否曾經延期
+     * @return true 如果曾經延期
+     */
+    public boolean isExtended() {
+        return extensionCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "EligibleTodoSummary{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", dueDate=" + dueDate +
+                ", extensionCount=" + extensionCount +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.course.kirodemo.dto;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 延期後的待辦事項摘要
+ * 由 JPQL 建構子表達式直接產生，用於回傳批次延期每一筆的新到期日
+ *
+ * @param id 待辦事項 ID
+ * @param title 標題
+ * @param newDueDate 延期後的到期日
+ * @param originalDueDate 原始到期日
+ * @param extensionCount 延期次數
+ */
+public record ExtendedTodoSummary(Long id, String title, LocalDate newDueDate,
+                                  LocalDate originalDueDate, int extensionCount) {
+
+    /**
+     * 取得總延期天數
+     * @return 從原始到期日到新到期日的天數
+     */
+    public long getTotalExtensionDays() {
+        return originalDueDate == null ? 0 : ChronoUnit.DAYS.between(originalDueDate, newDueDate);
+    }
+}
@@ -0,0 +1,71 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.entity.TodoItem;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 待辦事項列表的唯讀投影
+ * 由 JPQL 建構子表達式直接產生，不帶使用者代理物件，也不會進入持久化上下文；
+ * 與日期相關的顯示狀態由 {@link TodoRowView} 以同一個「今天」計算
+ *
+ * @param id 待辦事項 ID
+ * @param title 標題
+ * @param description 描述摘要（超過 {@link #DESCRIPTION_SNIPPET_LENGTH} 字元時截斷）
+ * @param completed 是否已完成
+ * @param dueDate 預計完成日
+ * @param createdAt 建立時間（同時作為分頁游標的排序鍵）
+ * @param completedAt 完成時間
+ * @param extensionCount 延期次數
+ */
+public record TodoListItem(
+        Long id,
+        String title,
+        String description,
+        boolean completed,
+        LocalDate dueDate,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt,
+        int extensionCount) {
+
+    /**
+     * 列表顯示的描述長度上限
+     */
+    public static final int DESCRIPTION_SNIPPET_LENGTH = 200;
+
+    /**
+     * 查詢時擷取的描述長度，多取一個字元用來判斷是否需要加上省略符號
+     */
+    public static final int DESCRIPTION_FETCH_LENGTH = DESCRIPTION_SNIPPET_LENGTH + 1;
+
+    private static final String ELLIPSIS = "…";
+
+    /**
+     * JPQL 建構子表達式使用的建構子，描述超過摘要長度時截斷
+     */
+    public TodoListItem {
+        if (description != null && description.length() > DESCRIPTION_SNIPPET_LENGTH) {
+            description = description.substring(0, DESCRIPTION_SNIPPET_LENGTH) + ELLIPSIS;
+        }
+    }
+
+    /**
+     * 從待辦事項實體建立列表項目
+     * @param todoItem 待辦事項實體
+     * @return 列表項目
+     */
+    public static TodoListItem fromEntity(TodoItem todoItem) {
+        return new TodoListItem(todoItem.getId(), todoItem.getTitle(), todoItem.getDescription(),
+                todoItem.isCompleted(), todoItem.getDueDate(), todoItem.getCreatedAt(),
+                todoItem.getCompletedAt(), todoItem.getExtensionCount());
+    }
+
+    /**
+     * 檢查是否曾經延期
+     * @return true 如果曾經延期
+     */
+    public boolean isExtended() {
+        return extensionCount > 0;
+    }
+}
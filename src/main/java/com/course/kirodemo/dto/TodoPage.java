@@ -0,0 +1,60 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.service.TodoService;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 待辦事項分頁結果
+ * 包含本頁的列表投影與下一頁的游標，最後一頁時游標為 null
+ */
+public class TodoPage {
+
+    private final List<TodoListItem> items;
+    private final TodoService.SortBy sortBy;
+    private final int pageSize;
+    private final String nextCursor;
+
+    public TodoPage(List<TodoListItem> items, TodoService.SortBy sortBy, int pageSize, String nextCursor) {
+        this.items = items == null ? Collections.emptyList() : Collections.unmodifiableList(items);
+        this.sortBy = sortBy;
+        this.pageSize = pageSize;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getter 方法
+    public List<TodoListItem> getItems() {
+        return items;
+    }
+
+    public TodoService.SortBy getSortBy() {
+        return sortBy;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * 是否還有下一頁
+     * @return 如果有下一頁則回傳 true
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "TodoPage{" +
+                "items=" + items.size() +
+                ", sortBy=" + sortBy +
+                ", pageSize=" + pageSize +
+                ", hasNext=" + hasNext() +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.service.TodoService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * 待辦事項分頁游標
+ * 記錄上一頁最後一筆資料的排序鍵 (created_at 或 due_date) 與 id，
+ * 以不透明字串的形式交給前端，下一頁以 keyset (seek) 方式接續查詢
+ */
+public final class TodoPageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final TodoService.SortBy sortBy;
+    private final LocalDateTime createdAt;
+    private final LocalDate dueDate;
+    private final Long id;
+
+    private TodoPageCursor(TodoService.SortBy sortBy, LocalDateTime createdAt, LocalDate dueDate, Long id) {
+        this.sortBy = sortBy;
+        this.createdAt = createdAt;
+        this.dueDate = dueDate;
+        this.id = id;
+    }
+
+    /**
+     * 以指定待辦事項作為下一頁的起點建立游標
+     * @param item 本頁最後一筆待辦事項
+     * @param sortBy 排序方式
+     * @return 分頁游標
+     */
+    public static TodoPageCursor after(TodoListItem item, TodoService.SortBy sortBy) {
+        Objects.requireNonNull(item, "待辦事項不能為空");
+        Objects.requireNonNull(sortBy, "排序方式不能為空");
+        return isCreatedAtSort(sortBy)
+                ? new TodoPageCursor(sortBy, item.createdAt(), null, item.id())
+                : new TodoPageCursor(sortBy, null, item.dueDate(), item.id());
+    }
+
+    /**
+     * 解析前端傳回的游標字串
+     * @param token 游標字串
+     * @return 分頁游標
+     * @throws IllegalArgumentException 如果游標格式無效
+     */
+    public static TodoPageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("分頁游標不能為空");
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("無效的分頁游標");
+            }
+
+            TodoService.SortBy sortBy = TodoService.SortBy.valueOf(parts[0]);
+            Long id = Long.valueOf(parts[2]);
+            return isCreatedAtSort(sortBy)
+                    ? new TodoPageCursor(sortBy, LocalDateTime.parse(parts[1]), null, id)
+                    : new TodoPageCursor(sortBy, null, LocalDate.parse(parts[1]), id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // Base64 解碼失敗、排序值或數字格式錯誤都視為無效游標
+            throw new IllegalArgumentException("無效的分頁游標", e);
+        }
+    }
+
+    /**
+     * 將游標編碼為不透明字串
+     * @return URL 安全的游標字串
+     */
+    public String encode() {
+        String key = isCreatedAtSort(sortBy) ? createdAt.toString() : dueDate.toString();
+        String raw = sortBy.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isCreatedAtSort(TodoService.SortBy sortBy) {
+        return sortBy == TodoService.SortBy.CREATED_AT_DESC || sortBy == TodoService.SortBy.CREATED_AT_ASC;
+    }
+
+    // Getter 方法
+    public TodoService.SortBy getSortBy() {
+        return sortBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TodoPageCursor)) return false;
+        TodoPageCursor that = (TodoPageCursor) o;
+        return sortBy == that.sortBy &&
+               Objects.equals(createdAt, that.createdAt) &&
+               Objects.equals(dueDate, that.dueDate) &&
+               Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sortBy, createdAt, dueDate, id);
+    }
+
+    @Override
+    public String toString() {
+        return "TodoPageCursor{" +
+                "sortBy=" + sortBy +
+                ", createdAt=" + createdAt +
+                ", dueDate=" + dueDate +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,88 @@
+package com.course.kirodemo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 待辦事項列表每一列的顯示狀態
+ * 以呼叫端提供的「今天」計算，一次請求中所有列共用同一個日期，
+ * 規則與 TodoItem 的 isOverdue、isDueSoon、isEligibleForExtension 相同
+ */
+public enum TodoRowStatus {
+
+    /**
+     * 已完成
+     */
+    COMPLETED,
+
+    /**
+     * 未完成且已逾期
+     */
+    OVERDUE,
+
+    /**
+     * 未完成且今日到期
+     */
+    DUE_TODAY,
+
+    /**
+     * 未完成且在三天內到期（不含今天）
+     */
+    DUE_SOON,
+
+    /**
+     * 未完成且到期日在三天之後
+     */
+    UPCOMING;
+
+    /**
+     * 即將到期與可延期的天數範圍（今天起算）
+     */
+    public static final int DUE_SOON_DAYS = 3;
+
+    /**
+     * 依完成狀態與到期日計算顯示狀態
+     * @param completed 是否已完成
+     * @param dueDate 預計完成日
+     * @param today 本次請求的今天日期
+     * @return 顯示狀態
+     */
+    public static TodoRowStatus of(boolean completed, LocalDate dueDate, LocalDate today) {
+        if (completed) {
+            return COMPLETED;
+        }
+        if (dueDate == null) {
+            return UPCOMING;
+        }
+        if (dueDate.isBefore(today)) {
+            return OVERDUE;
+        }
+        if (dueDate.isEqual(today)) {
+            return DUE_TODAY;
+        }
+        return dueDate.isAfter(today.plusDays(DUE_SOON_DAYS)) ? UPCOMING : DUE_SOON;
+    }
+
+    public boolean isOverdue() {
+        return this == OVERDUE;
+    }
+
+    public boolean isDueToday() {
+        return this == DUE_TODAY;
+    }
+
+    /**
+     * 是否即將到期，與 TodoItem.isDueSoon 相同包含已逾期的項目
+     * @return true 如果三天內（含已逾期）到期且未完成
+     */
+    public boolean isDueSoon() {
+        return this == OVERDUE || this == DUE_TODAY || this == DUE_SOON;
+    }
+
+    /**
+     * 是否符合延期條件（今天到三天內到期且未完成）
+     * @return true 如果符合延期條件
+     */
+    public boolean isEligibleForExtension() {
+        return this == DUE_TODAY || this == DUE_SOON;
+    }
+}
@@ -0,0 +1,26 @@
+package com.course.kirodemo.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 待辦事項列表頁的列檢視模型
+ * 將列表投影與預先計算好的顯示狀態放在一起，頁面只需要讀取布林值
+ *
+ * @param item 列表投影
+ * @param status 顯示狀態
+ */
+public record TodoRowView(TodoListItem item, TodoRowStatus status) {
+
+    /**
+     * 以同一個「今天」建立整頁的列檢視模型
+     * @param items 列表投影
+     * @param today 本次請求的今天日期
+     * @return 列檢視模型列表
+     */
+    public static List<TodoRowView> of(List<TodoListItem> items, LocalDate today) {
+        return items.stream()
+                .map(item -> new TodoRowView(item, TodoRowStatus.of(item.completed(), item.dueDate(), today)))
+                .toList();
+    }
+}
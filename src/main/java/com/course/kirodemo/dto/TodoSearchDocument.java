@@ -0,0 +1,13 @@
+package com.course.kirodemo.dto;
+
+/**
+ * 建立搜尋索引用的待辦事項唯讀投影
+ * 由 JPQL 建構子表達式直接產生，只帶索引需要的欄位
+ *
+ * @param id 待辦事項 ID
+ * @param userId 擁有者的使用者 ID
+ * @param title 標題
+ * @param description 描述
+ */
+public record TodoSearchDocument(Long id, Long userId, String title, String description) {
+}
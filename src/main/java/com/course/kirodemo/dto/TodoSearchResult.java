@@ -0,0 +1,28 @@
+package com.course.kirodemo.dto;
+
+import java.util.List;
+
+/**
+ * 待辦事項搜尋結果
+ * 本頁項目依相關度由高到低排列
+ *
+ * @param query 查詢字串
+ * @param items 本頁的待辦事項列表投影
+ * @param page 頁碼（從 0 開始）
+ * @param size 每頁筆數
+ * @param total 命中的總筆數
+ */
+public record TodoSearchResult(String query, List<TodoListItem> items, int page, int size, int total) {
+
+    public TodoSearchResult {
+        items = items == null ? List.of() : List.copyOf(items);
+    }
+
+    /**
+     * 檢查是否還有下一頁
+     * @return true 如果還有下一頁
+     */
+    public boolean hasNext() {
+        return (long) (page + 1) * size < total;
+    }
+}
@@ -0,0 +1,86 @@
+package com.course.kirodemo.dto;
+
+/**
+ * 待辦事項統計資料
+ * 由單一條件式 SUM 查詢產生，包含列表頁與小工具需要的所有計數
+ */
+public class TodoStats {
+
+    private final long total;
+    private final long completed;
+    private final long overdue;
+    private final long dueSoon;
+    private final long eligibleForExtension;
+    private final long totalExtensions;
+
+    /**
+     * JPQL 建構子表達式使用的建構子
+     * SUM 沒有資料時會回傳 null，因此參數使用包裝型別；
+     * 可延期與即將到期都是今天起 3 天內到期的未完成項目，由同一個計數提供
+     */
+    public TodoStats(Long total, Long completed, Long overdue, Long dueSoon, Long totalExtensions) {
+        this.total = valueOf(total);
+        this.completed = valueOf(completed);
+        this.overdue = valueOf(overdue);
+        this.dueSoon = valueOf(dueSoon);
+        this.eligibleForExtension = this.dueSoon;
+        this.totalExtensions = valueOf(totalExtensions);
+    }
+
+    /**
+     * 建立沒有任何待辦事項時的統計資料
+     * @return 所有計數皆為 0 的統計資料
+     */
+    public static TodoStats empty() {
+        return new TodoStats(0L, 0L, 0L, 0L, 0L);
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0L : value;
+    }
+
+    // Getter 方法
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * 取得待完成數量
+     * @return 總數減去已完成數量
+     */
+    public long getPending() {
+        return total - completed;
+    }
+
+    public long getOverdue() {
+        return overdue;
+    }
+
+    public long getDueSoon() {
+        return dueSoon;
+    }
+
+    public long getEligibleForExtension() {
+        return eligibleForExtension;
+    }
+
+    public long getTotalExtensions() {
+        return totalExtensions;
+    }
+
+    @Override
+    public String toString() {
+        return "TodoStats{" +
+                "total=" + total +
+                ", completed=" + completed +
+                ", overdue=" + overdue +
+                ", dueSoon=" + dueSoon +
+                ", eligibleForExtension=" + eligibleForExtension +
+                ", totalExtensions=" + totalExtensions +
+                '}';
+    }
+}
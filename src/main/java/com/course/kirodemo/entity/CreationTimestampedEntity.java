@@ -0,0 +1,39 @@
+package com.course.kirodemo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PrePersist;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帶有建立時間的實體基底類別
+ * 對應各資料表的 created_at 欄位，由 User 與 TodoItem 共用
+ */
+@MappedSuperclass
+public abstract class CreationTimestampedEntity {
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 持久化時即設定建立時間
+     * 主鍵改由序列產生後 INSERT 會延後到 flush 才執行，讓 save() 回傳的實體立即帶有建立時間
+     */
+    @PrePersist
+    void initializeCreatedAt() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,24 @@
+package com.course.kirodemo.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 以資料庫序列搭配 pooled-lo 最佳化產生主鍵
+ * 每次向序列取號即保留一整段 ID，讓 Hibernate 可以延後並批次執行 INSERT；
+ * 每段的大小由 {@link PooledSequenceGenerator#ALLOCATION_SIZE_SETTING} 設定
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+
+    /**
+     * @return 資料庫序列名稱
+     */
+    String name();
+}
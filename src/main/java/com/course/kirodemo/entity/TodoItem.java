@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,14 +15,17 @@ import java.time.temporal.ChronoUnit;
  */
 @Entity
 @Table(name = "todo_items", indexes = {
-    @Index(name = "idx_todo_user_id", columnList = "user_id"),
-    @Index(name = "idx_todo_created_at", columnList = "created_at"),
-    @Index(name = "idx_todo_due_date", columnList = "due_date")
+    // 依完成狀態過濾並以到期日範圍查詢（逾期、即將到期、可延期、統計）
+    @Index(name = "idx_todo_user_completed_due", columnList = "user_id, completed, due_date"),
+    // 列表依建立時間排序與 keyset 分頁
+    @Index(name = "idx_todo_user_created", columnList = "user_id, created_at, id"),
+    // 列表依預計完成日排序與 keyset 分頁
+    @Index(name = "idx_todo_user_due", columnList = "user_id, due_date, id")
 })
-public class TodoItem {
+public class TodoItem extends CreationTimestampedEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "todo_items_seq")
     private Long id;
     
     @NotBlank(message = "標題不能為空")
@@ -38,10 +40,6 @@ public class TodoItem {
     @Column(nullable = false)
     private boolean completed = false;
     
-    @CreationTimestamp
-    @Column(name = "created_at", nullable = false, updatable = false)
-    private LocalDateTime createdAt;
-    
     @NotNull(message = "預計完成日不能為空")
     @Column(name = "due_date", nullable = false)
     private LocalDate dueDate;
@@ -128,14 +126,6 @@ public class TodoItem {
         }
     }
     
-    public LocalDateTime getCreatedAt() {
-        return createdAt;
-    }
-    
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
-    }
-    
     public LocalDate getDueDate() {
         return dueDate;
     }
@@ -283,7 +273,7 @@ public class TodoItem {
                 "id=" + id +
                 ", title='" + title + '\'' +
                 ", completed=" + completed +
-                ", createdAt=" + createdAt +
+                ", createdAt=" + getCreatedAt() +
                 ", dueDate=" + dueDate +
                 ", completedAt=" + completedAt +
                 '}';
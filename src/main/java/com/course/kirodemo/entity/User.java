@@ -1,9 +1,7 @@
 package com.course.kirodemo.entity;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.CreationTimestamp;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,10 +11,10 @@ import java.util.List;
  */
 @Entity
 @Table(name = "users")
-public class User {
+public class User extends CreationTimestampedEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "users_seq")
     private Long id;
     
     @Column(unique = true, nullable = false, length = 50)
@@ -25,10 +23,6 @@ public class User {
     @Column(nullable = false)
     private String password;
     
-    @CreationTimestamp
-    @Column(name = "created_at", nullable = false, updatable = false)
-    private LocalDateTime createdAt;
-    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<TodoItem> todoItems = new ArrayList<>();
     
@@ -66,14 +60,6 @@ public class User {
         this.password = password;
     }
     
-    public LocalDateTime getCreatedAt() {
-        return createdAt;
-    }
-    
-    public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
-    }
-    
     public List<TodoItem> getTodoItems() {
         return todoItems;
     }
@@ -112,7 +98,7 @@ public class User {
         return "User{" +
                 "id=" + id +
                 ", username='" + username + '\'' +
-                ", createdAt=" + createdAt +
+                ", createdAt=" + getCreatedAt() +
                 '}';
     }
 }
\ No newline at end of file
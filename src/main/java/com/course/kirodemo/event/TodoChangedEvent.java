@@ -0,0 +1,41 @@
+package com.course.kirodemo.event;
+
+import java.util.List;
+
+/**
+ * 待辦事項變更事件
+ * 服務層在建立、更新、刪除或變更狀態後發布，由搜尋索引等元件在交易提交後處理
+ *
+ * @param userId 待辦事項擁有者的使用者 ID
+ * @param type 變更類型
+ * @param todoIds 受影響的待辦事項 ID
+ */
+public record TodoChangedEvent(Long userId, Type type, List<Long> todoIds) {
+
+    /**
+     * 變更類型
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        COMPLETED,
+        TOGGLED,
+        EXTENDED
+    }
+
+    public TodoChangedEvent {
+        todoIds = List.copyOf(todoIds);
+    }
+
+    /**
+     * 建立單一待辦事項的變更事件
+     * @param userId 使用者 ID
+     * @param type 變更類型
+     * @param todoId 待辦事項 ID
+     * @return 變更事件
+     */
+    public static TodoChangedEvent of(Long userId, Type type, Long todoId) {
+        return new TodoChangedEvent(userId, type, List.of(todoId));
+    }
+}
@@ -0,0 +1,315 @@
+package com.course.kirodemo.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 待辦事項變更的 Server-Sent Events 推送器
+ * 每個訂閱者以非同步請求（SseEmitter）保持連線，不占用 servlet 執行緒；
+ * 事件先放入訂閱者各自的有界佇列，再由少量共用的派送執行緒寫出，
+ * 同一個訂閱者同時只會有一個派送工作，慢的連線不會影響其他訂閱者的事件順序
+ *
+ * 佇列已滿時捨棄尚未送出的事件，改送一個 resync 事件通知前端重新載入列表；
+ * 閒置的連線定期送出註解行作為心跳，讓代理伺服器不會中斷連線，也能及早發現已斷線的用戶端
+ */
+@Component
+public class TodoEventBroadcaster implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoEventBroadcaster.class);
+
+    /**
+     * 佇列溢出時送出的事件名稱
+     */
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final long RECONNECT_MILLIS = 5_000;
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private final ObjectMapper objectMapper;
+    private final Executor dispatcher;
+    private final ScheduledExecutorService heartbeatScheduler;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final int maxSubscribersPerUser;
+
+    @Autowired
+    public TodoEventBroadcaster(ObjectMapper objectMapper,
+                                @Value("${app.stream.timeout:30m}") Duration timeout,
+                                @Value("${app.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                @Value("${app.stream.queue-capacity:64}") int queueCapacity,
+                                @Value("${app.stream.max-subscribers-per-user:5}") int maxSubscribersPerUser,
+                                @Value("${app.stream.dispatcher-threads:2}") int dispatcherThreads,
+                                Environment environment) {
+        this(objectMapper, timeout, heartbeatInterval, queueCapacity, maxSubscribersPerUser,
+                createDispatcher(dispatcherThreads, environment));
+    }
+
+    /**
+     * @param dispatcher 寫出事件的執行緒池，測試時可替換
+     */
+    TodoEventBroadcaster(ObjectMapper objectMapper, Duration timeout, Duration heartbeatInterval,
+                         int queueCapacity, int maxSubscribersPerUser, Executor dispatcher) {
+        if (queueCapacity <= 0 || maxSubscribersPerUser <= 0) {
+            throw new IllegalArgumentException("佇列上限與每位使用者的訂閱數上限必須為正數");
+        }
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+        this.dispatcher = dispatcher;
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(new StreamThreadFactory("todo-sse-heartbeat-"));
+        long heartbeatMillis = heartbeatInterval.toMillis();
+        heartbeatScheduler.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 建立使用者的事件串流
+     * 超過每位使用者的訂閱數上限時關閉最早的連線
+     * @param userId 使用者 ID
+     * @return SSE 回應
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(subscriber::unregister);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        // 新增與移除都在 ConcurrentHashMap 的同一個鍵上原子執行，避免加入已被移除的列表
+        List<Subscriber> userSubscribers = subscribers.compute(userId, (id, current) -> {
+            List<Subscriber> list = current != null ? current : new CopyOnWriteArrayList<>();
+            list.add(subscriber);
+            return list;
+        });
+        while (userSubscribers.size() > maxSubscribersPerUser) {
+            userSubscribers.get(0).close();
+        }
+
+        subscriber.offer(SseEmitter.event().comment("connected").reconnectTime(RECONNECT_MILLIS).build());
+        logger.debug("使用者 {} 建立事件串流，目前連線數: {}", userId, userSubscribers.size());
+        return emitter;
+    }
+
+    /**
+     * 檢查使用者是否有開啟中的事件串流
+     * @param userId 使用者 ID
+     * @return true 如果有訂閱者
+     */
+    public boolean hasSubscribers(Long userId) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        return userSubscribers != null && !userSubscribers.isEmpty();
+    }
+
+    /**
+     * 推送事件給使用者的所有連線
+     * 事件只序列化一次，不會等待寫出完成
+     * @param userId 使用者 ID
+     * @param event 推送事件
+     */
+    public void publish(Long userId, TodoStreamEvent event) {
+        List<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("待辦事項事件序列化失敗: {}", event.type(), e);
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> data = SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(event.type())
+                .data(json)
+                .build();
+        userSubscribers.forEach(subscriber -> subscriber.offer(data));
+    }
+
+    /**
+     * 取得目前的連線數
+     * @return 所有使用者的連線數
+     */
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * 取得因佇列已滿而捨棄的事件數
+     * @return 捨棄的事件數
+     */
+    public long droppedEventCount() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    public void destroy() {
+        heartbeatScheduler.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * 建立派送執行緒池
+     * 啟用虛擬執行緒時每個派送工作一條虛擬執行緒，寫出阻塞時不占用平台執行緒；
+     * 否則使用固定數量的平台執行緒
+     */
+    private static Executor createDispatcher(int dispatcherThreads, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("todo-sse-");
+        }
+        return Executors.newFixedThreadPool(dispatcherThreads, new StreamThreadFactory("todo-sse-"));
+    }
+
+    private void sendHeartbeats() {
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            if (subscriber.isIdle()) {
+                subscriber.offer(heartbeat);
+            }
+        }));
+    }
+
+    /**
+     * 單一連線的訂閱者
+     * 佇列以訂閱者本身作為鎖，scheduled 保證同一時間只有一個派送工作在寫出
+     */
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> data) {
+            if (closed) {
+                return;
+            }
+            synchronized (this) {
+                if (queue.size() >= queueCapacity) {
+                    // 用戶端跟不上：捨棄未送出的事件，只通知重新載入
+                    droppedEvents.add(queue.size());
+                    queue.clear();
+                    queue.add(SseEmitter.event().name(RESYNC_EVENT).data("{}").build());
+                    logger.debug("使用者 {} 的事件佇列已滿，改送 resync", userId);
+                } else {
+                    queue.add(data);
+                }
+            }
+            schedule();
+        }
+
+        synchronized boolean isIdle() {
+            return queue.isEmpty() && !scheduled.get();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void drain() {
+            while (!closed) {
+                Set<ResponseBodyEmitter.DataWithMediaType> data;
+                synchronized (this) {
+                    data = queue.poll();
+                    if (data == null) {
+                        scheduled.set(false);
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(data);
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("使用者 {} 的事件串流已中斷: {}", userId, e.getMessage());
+                    close();
+                }
+            }
+            scheduled.set(false);
+        }
+
+        void close() {
+            unregister();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // 連線已經結束
+            }
+        }
+
+        void unregister() {
+            closed = true;
+            subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+                userSubscribers.remove(this);
+                return userSubscribers.isEmpty() ? null : userSubscribers;
+            });
+        }
+    }
+
+    private static final class StreamThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private StreamThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
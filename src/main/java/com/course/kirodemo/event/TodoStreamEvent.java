@@ -0,0 +1,32 @@
+package com.course.kirodemo.event;
+
+import com.course.kirodemo.dto.TodoListItem;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 推送給瀏覽器的待辦事項變更事件
+ * 只帶受影響的 ID 與變更後的列表投影，讓前端直接更新畫面而不需要重新載入整個列表
+ *
+ * @param type 變更類型（created、updated、completed、toggled、extended、deleted）
+ * @param todoIds 受影響的待辦事項 ID
+ * @param items 變更後的列表投影，刪除時為空
+ */
+public record TodoStreamEvent(String type, List<Long> todoIds, List<TodoListItem> items) {
+
+    public TodoStreamEvent {
+        todoIds = List.copyOf(todoIds);
+        items = items == null ? List.of() : List.copyOf(items);
+    }
+
+    /**
+     * 從待辦事項變更事件建立推送事件
+     * @param event 待辦事項變更事件
+     * @param items 變更後的列表投影
+     * @return 推送事件
+     */
+    public static TodoStreamEvent of(TodoChangedEvent event, List<TodoListItem> items) {
+        return new TodoStreamEvent(event.type().name().toLowerCase(Locale.ROOT), event.todoIds(), items);
+    }
+}
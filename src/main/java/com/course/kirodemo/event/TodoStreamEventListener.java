@@ -0,0 +1,113 @@
+package com.course.kirodemo.event;
+
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.repository.TodoItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 將待辦事項變更轉為推送事件
+ * 在交易提交後放入使用者各自的佇列，由 applicationTaskExecutor 非同步處理，請求不需要等待推送完成；
+ * 同一個使用者同時只會有一個處理工作，依提交順序逐一讀取變更後的列表投影再推送，
+ * 不會發生較早的變更讀到舊狀態卻較晚推送、讓畫面停在舊資料的情況。
+ * 只有使用者有開啟中的事件串流時才查詢，同一個事件的資料只查詢一次，再推送給該使用者的所有連線
+ */
+@Component
+public class TodoStreamEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoStreamEventListener.class);
+
+    private final TodoEventBroadcaster broadcaster;
+    private final TodoItemRepository todoItemRepository;
+    private final Executor executor;
+    private final Map<Long, UserQueue> queues = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TodoStreamEventListener(TodoEventBroadcaster broadcaster, TodoItemRepository todoItemRepository,
+                                   @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.broadcaster = broadcaster;
+        this.todoItemRepository = todoItemRepository;
+        this.executor = executor;
+    }
+
+    /**
+     * 待辦事項變更的交易提交後排入推送佇列
+     * @param event 待辦事項變更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (!broadcaster.hasSubscribers(event.userId())) {
+            return;
+        }
+        while (true) {
+            UserQueue queue = queues.computeIfAbsent(event.userId(), UserQueue::new);
+            synchronized (queue) {
+                if (queue.retired) {
+                    // 處理工作剛好清空並移除了這個佇列，改用新的佇列
+                    continue;
+                }
+                queue.events.add(event);
+                if (queue.scheduled) {
+                    return;
+                }
+                queue.scheduled = true;
+            }
+            executor.execute(queue::drain);
+            return;
+        }
+    }
+
+    private void push(TodoChangedEvent event) {
+        List<TodoListItem> items = event.type() == TodoChangedEvent.Type.DELETED
+                ? List.of()
+                : todoItemRepository.findListItemsByIdInAndUserId(event.todoIds(), event.userId());
+        broadcaster.publish(event.userId(), TodoStreamEvent.of(event, items));
+    }
+
+    /**
+     * 單一使用者等待推送的變更
+     * 以佇列本身作為鎖，scheduled 保證同一時間只有一個處理工作；
+     * 清空後從對照表移除並標記為 retired，之後的事件會放入新的佇列
+     */
+    private final class UserQueue {
+
+        private final Long userId;
+        private final ArrayDeque<TodoChangedEvent> events = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean retired;
+
+        private UserQueue(Long userId) {
+            this.userId = userId;
+        }
+
+        private void drain() {
+            while (true) {
+                TodoChangedEvent event;
+                synchronized (this) {
+                    event = events.poll();
+                    if (event == null) {
+                        scheduled = false;
+                        retired = true;
+                        queues.remove(userId, this);
+                        return;
+                    }
+                }
+                try {
+                    push(event);
+                } catch (RuntimeException e) {
+                    logger.warn("待辦事項變更推送失敗，使用者: {}，類型: {}", userId, event.type(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.course.kirodemo.event;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每個使用者的待辦事項版本
+ * 待辦事項的任何寫入（{@link TodoChangedEvent}）在交易提交後遞增該使用者的版本，
+ * 由版本產生強 ETag，讓重新整理未變更的列表時不必查詢資料庫就能回應 304
+ *
+ * 版本只存在於記憶體，ETag 帶有啟動時產生的識別碼，重新啟動後舊的 ETag 一律不相符；
+ * 多節點時各節點的版本互不相通，需要改為共用的版本來源
+ */
+@Component
+public class TodoVersionRegistry {
+
+    private final String epoch = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 取得使用者目前的版本，沒有任何寫入時為 0
+     * @param userId 使用者 ID
+     * @return 版本
+     */
+    public long currentVersion(Long userId) {
+        AtomicLong version = versions.get(userId);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * 遞增使用者的版本
+     * @param userId 使用者 ID
+     * @return 遞增後的版本
+     */
+    public long bump(Long userId) {
+        return versions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * 交易提交後遞增版本
+     * 提交前遞增的話，同時進行的讀取可能以新版本快取到舊資料
+     * @param event 待辦事項變更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        bump(event.userId());
+    }
+
+    /**
+     * 產生強 ETag
+     * 必須在查詢資料之前呼叫，確保回應內容不會比 ETag 代表的版本舊
+     * @param userId 使用者 ID
+     * @param variants 影響回應內容的其他因素（例如查詢參數、今天日期）
+     * @return 帶引號的 ETag
+     */
+    public String etag(Long userId, Object... variants) {
+        StringBuilder key = new StringBuilder();
+        for (Object variant : variants) {
+            key.append(variant).append('\u0000');
+        }
+        String variantHash = DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8))
+                .substring(0, 16);
+        return "\"" + epoch + "-" + currentVersion(userId) + "-" + variantHash + "\"";
+    }
+}
@@ -3,6 +3,7 @@ package com.course.kirodemo.exception;
 import com.course.kirodemo.dto.ExtendTodoResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ValidationException;
 
 /**
@@ -171,6 +173,21 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
     
+    /**
+     * 處理密碼雜湊忙碌異常（例如註冊尖峰時雜湊佇列已滿）
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handlePasswordHashingBusy(PasswordHashingBusyException ex, Model model,
+                                            HttpServletRequest request, HttpServletResponse response) {
+        logger.warn("密碼雜湊忙碌: {} - 請求路徑: {}", ex.getMessage(), request.getRequestURI());
+        
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(PasswordHashingBusyException.RETRY_AFTER_SECONDS));
+        model.addAttribute("error", ex.getMessage());
+        model.addAttribute("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        return "error/error";
+    }
+    
     /**
      * 處理所有其他未預期的異常
      */
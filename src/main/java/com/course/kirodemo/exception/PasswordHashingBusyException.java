@@ -0,0 +1,21 @@
+package com.course.kirodemo.exception;
+
+/**
+ * 密碼雜湊忙碌異常
+ * 當密碼雜湊執行緒池的佇列已滿或等待逾時時拋出，對應 HTTP 503
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    
+    /**
+     * 建議用戶端重試前等待的秒數
+     */
+    public static final int RETRY_AFTER_SECONDS = 1;
+    
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+    
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
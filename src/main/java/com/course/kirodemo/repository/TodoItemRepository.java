@@ -1,13 +1,22 @@
 package com.course.kirodemo.repository;
 
+import com.course.kirodemo.dto.EligibleTodoSummary;
+import com.course.kirodemo.dto.ExtendedTodoSummary;
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.dto.TodoSearchDocument;
+import com.course.kirodemo.dto.TodoStats;
 import com.course.kirodemo.entity.TodoItem;
 import com.course.kirodemo.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +27,14 @@ import java.util.Optional;
 @Repository
 public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
     
+    /**
+     * 列表投影的 SELECT 子句，描述只擷取列表需要的長度
+     */
+    String LIST_ITEM_SELECT = "SELECT new com.course.kirodemo.dto.TodoListItem(" +
+            "t.id, t.title, SUBSTRING(t.description, 1, " + TodoListItem.DESCRIPTION_FETCH_LENGTH + "), " +
+            "t.completed, t.dueDate, t.createdAt, t.completedAt, t.extensionCount) " +
+            "FROM TodoItem t ";
+    
     /**
      * 根據使用者查詢所有待辦事項，依建立時間排序（最新的在前）
      * @param user 使用者實體
@@ -46,6 +63,139 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
      */
     List<TodoItem> findByUserOrderByDueDateDesc(User user);
     
+    /**
+     * 根據使用者 ID 查詢所有待辦事項，依建立時間排序（最新的在前）
+     * 以 t.user.id 直接比對外鍵欄位；衍生查詢 findByUserId 會產生多餘的 users 連接而無法使用索引
+     * @param userId 使用者 ID
+     * @return 待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId ORDER BY t.createdAt DESC")
+    List<TodoItem> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+    
+    /**
+     * 根據使用者 ID 查詢所有待辦事項，依建立時間排序（最舊的在前）
+     * @param userId 使用者 ID
+     * @return 待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId ORDER BY t.createdAt ASC")
+    List<TodoItem> findByUserIdOrderByCreatedAtAsc(@Param("userId") Long userId);
+    
+    /**
+     * 根據使用者 ID 查詢所有待辦事項，依預計完成日排序（最近的在前）
+     * @param userId 使用者 ID
+     * @return 待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId ORDER BY t.dueDate ASC")
+    List<TodoItem> findByUserIdOrderByDueDateAsc(@Param("userId") Long userId);
+    
+    /**
+     * 根據使用者 ID 查詢所有待辦事項，依預計完成日排序（最遠的在前）
+     * @param userId 使用者 ID
+     * @return 待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId ORDER BY t.dueDate DESC")
+    List<TodoItem> findByUserIdOrderByDueDateDesc(@Param("userId") Long userId);
+    
+    /**
+     * 分頁查詢第一頁，依建立時間排序（最新的在前），建立時間相同時以 ID 排序
+     * @param userId 使用者 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoListItem> findByUserIdOrderByCreatedAtDescIdDesc(@Param("userId") Long userId, Limit limit);
+    
+    /**
+     * 分頁查詢第一頁，依建立時間排序（最舊的在前），建立時間相同時以 ID 排序
+     * @param userId 使用者 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId ORDER BY t.createdAt ASC, t.id ASC")
+    List<TodoListItem> findByUserIdOrderByCreatedAtAscIdAsc(@Param("userId") Long userId, Limit limit);
+    
+    /**
+     * 分頁查詢第一頁，依預計完成日排序（最近的在前），預計完成日相同時以 ID 排序
+     * @param userId 使用者 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId ORDER BY t.dueDate ASC, t.id ASC")
+    List<TodoListItem> findByUserIdOrderByDueDateAscIdAsc(@Param("userId") Long userId, Limit limit);
+    
+    /**
+     * 分頁查詢第一頁，依預計完成日排序（最遠的在前），預計完成日相同時以 ID 排序
+     * @param userId 使用者 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId ORDER BY t.dueDate DESC, t.id DESC")
+    List<TodoListItem> findByUserIdOrderByDueDateDescIdDesc(@Param("userId") Long userId, Limit limit);
+    
+    /**
+     * 以 keyset 方式查詢下一頁，依建立時間排序（最新的在前）
+     * @param userId 使用者 ID
+     * @param createdAt 上一頁最後一筆的建立時間
+     * @param id 上一頁最後一筆的 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoListItem> findPageByUserIdOrderByCreatedAtDescAfter(@Param("userId") Long userId,
+                                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                                 @Param("id") Long id,
+                                                                 Limit limit);
+    
+    /**
+     * 以 keyset 方式查詢下一頁，依建立時間排序（最舊的在前）
+     * @param userId 使用者 ID
+     * @param createdAt 上一頁最後一筆的建立時間
+     * @param id 上一頁最後一筆的 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId " +
+           "AND (t.createdAt > :createdAt OR (t.createdAt = :createdAt AND t.id > :id)) " +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<TodoListItem> findPageByUserIdOrderByCreatedAtAscAfter(@Param("userId") Long userId,
+                                                                @Param("createdAt") LocalDateTime createdAt,
+                                                                @Param("id") Long id,
+                                                                Limit limit);
+    
+    /**
+     * 以 keyset 方式查詢下一頁，依預計完成日排序（最近的在前）
+     * @param userId 使用者 ID
+     * @param dueDate 上一頁最後一筆的預計完成日
+     * @param id 上一頁最後一筆的 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId " +
+           "AND (t.dueDate > :dueDate OR (t.dueDate = :dueDate AND t.id > :id)) " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<TodoListItem> findPageByUserIdOrderByDueDateAscAfter(@Param("userId") Long userId,
+                                                              @Param("dueDate") LocalDate dueDate,
+                                                              @Param("id") Long id,
+                                                              Limit limit);
+    
+    /**
+     * 以 keyset 方式查詢下一頁，依預計完成日排序（最遠的在前）
+     * @param userId 使用者 ID
+     * @param dueDate 上一頁最後一筆的預計完成日
+     * @param id 上一頁最後一筆的 ID
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.user.id = :userId " +
+           "AND (t.dueDate < :dueDate OR (t.dueDate = :dueDate AND t.id < :id)) " +
+           "ORDER BY t.dueDate DESC, t.id DESC")
+    List<TodoListItem> findPageByUserIdOrderByDueDateDescAfter(@Param("userId") Long userId,
+                                                               @Param("dueDate") LocalDate dueDate,
+                                                               @Param("id") Long id,
+                                                               Limit limit);
+    
     /**
      * 根據使用者和完成狀態查詢待辦事項
      * @param user 使用者實體
@@ -70,6 +220,33 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
      */
     Optional<TodoItem> findByIdAndUser(Long id, User user);
     
+    /**
+     * 根據使用者 ID 和完成狀態查詢待辦事項
+     * @param userId 使用者 ID
+     * @param completed 完成狀態
+     * @return 待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId AND t.completed = :completed")
+    List<TodoItem> findByUserIdAndCompleted(@Param("userId") Long userId, @Param("completed") boolean completed);
+    
+    /**
+     * 根據使用者 ID 和完成狀態查詢待辦事項，依建立時間排序
+     * @param userId 使用者 ID
+     * @param completed 完成狀態
+     * @return 待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId AND t.completed = :completed ORDER BY t.createdAt DESC")
+    List<TodoItem> findByUserIdAndCompletedOrderByCreatedAtDesc(@Param("userId") Long userId, @Param("completed") boolean completed);
+    
+    /**
+     * 根據使用者 ID 查詢特定的待辦事項
+     * @param id 待辦事項 ID
+     * @param userId 使用者 ID
+     * @return 待辦事項的 Optional 包裝
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.id = :id AND t.user.id = :userId")
+    Optional<TodoItem> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
     /**
      * 查詢使用者的逾期待辦事項（未完成且預計完成日已過）
      * @param user 使用者實體
@@ -89,6 +266,227 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
     @Query("SELECT t FROM TodoItem t WHERE t.user = :user AND t.completed = false AND t.dueDate BETWEEN :startDate AND :endDate ORDER BY t.dueDate ASC")
     List<TodoItem> findDueSoonTodosByUser(@Param("user") User user, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
+    /**
+     * 根據使用者 ID 查詢逾期待辦事項（未完成且預計完成日已過）
+     * @param userId 使用者 ID
+     * @param currentDate 當前日期
+     * @return 逾期待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId AND t.completed = false AND t.dueDate < :currentDate ORDER BY t.dueDate ASC")
+    List<TodoItem> findOverdueTodosByUserId(@Param("userId") Long userId, @Param("currentDate") LocalDate currentDate);
+    
+    /**
+     * 根據使用者 ID 查詢即將到期的待辦事項（未完成且預計完成日在指定天數內）
+     * @param userId 使用者 ID
+     * @param startDate 開始日期（通常是今天）
+     * @param endDate 結束日期（通常是今天加上指定天數）
+     * @return 即將到期的待辦事項列表
+     */
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId AND t.completed = false AND t.dueDate BETWEEN :startDate AND :endDate ORDER BY t.dueDate ASC")
+    List<TodoItem> findDueSoonTodosByUserId(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * 以單一 UPDATE 切換待辦事項的完成狀態並同步完成時間
+     * SET 子句中的 t.completed 取的是更新前的值
+     * @param id 待辦事項 ID
+     * @param userId 使用者 ID
+     * @param now 標記為完成時寫入的完成時間
+     * @return 受影響的筆數，0 表示不存在或不屬於該使用者
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET " +
+           "t.completedAt = CASE WHEN t.completed = true THEN NULL ELSE :now END, " +
+           "t.completed = CASE WHEN t.completed = true THEN false ELSE true END " +
+           "WHERE t.id = :id AND t.user.id = :userId")
+    int toggleCompletedByIdAndUserId(@Param("id") Long id,
+                                     @Param("userId") Long userId,
+                                     @Param("now") LocalDateTime now);
+    
+    /**
+     * 以單一 UPDATE 將未完成的待辦事項標記為完成
+     * @param id 待辦事項 ID
+     * @param userId 使用者 ID
+     * @param now 完成時間
+     * @return 受影響的筆數，0 表示不存在、不屬於該使用者或已經完成
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET t.completed = true, t.completedAt = :now " +
+           "WHERE t.id = :id AND t.user.id = :userId AND t.completed = false")
+    int markCompletedByIdAndUserId(@Param("id") Long id,
+                                   @Param("userId") Long userId,
+                                   @Param("now") LocalDateTime now);
+    
+    /**
+     * 以單一 UPDATE 延期待辦事項，延期條件（未完成且在 today 到 today + 3 天內到期）寫在 WHERE 子句中
+     * 首次延期時以 COALESCE 記錄原始到期日
+     * @param id 待辦事項 ID
+     * @param userId 使用者 ID
+     * @param days 延期天數
+     * @param today 今天日期
+     * @param windowEnd 可延期的最晚到期日（通常是今天加3天）
+     * @param now 延期時間
+     * @return 受影響的筆數，0 表示不存在、不屬於該使用者或不符合延期條件
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET " +
+           "t.originalDueDate = COALESCE(t.originalDueDate, t.dueDate), " +
+           "t.dueDate = t.dueDate + :days day, " +
+           "t.extensionCount = t.extensionCount + 1, " +
+           "t.lastExtendedAt = :now " +
+           "WHERE t.id = :id AND t.user.id = :userId " +
+           "AND t.completed = false " +
+           "AND t.dueDate >= :today AND t.dueDate <= :windowEnd")
+    int extendDueDateByIdAndUserId(@Param("id") Long id,
+                                   @Param("userId") Long userId,
+                                   @Param("days") int days,
+                                   @Param("today") LocalDate today,
+                                   @Param("windowEnd") LocalDate windowEnd,
+                                   @Param("now") LocalDateTime now);
+    
+    /**
+     * 以單一 UPDATE 延期多筆待辦事項，延期條件與 {@link #extendDueDateByIdAndUserId} 相同
+     * 每一列各自以 COALESCE 記錄原始到期日、延期次數加一並寫入相同的延期時間
+     * @param ids 待辦事項 ID 集合
+     * @param userId 使用者 ID
+     * @param days 延期天數
+     * @param today 今天日期
+     * @param windowEnd 可延期的最晚到期日（通常是今天加3天）
+     * @param now 延期時間
+     * @return 實際延期的筆數
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET " +
+           "t.originalDueDate = COALESCE(t.originalDueDate, t.dueDate), " +
+           "t.dueDate = t.dueDate + :days day, " +
+           "t.extensionCount = t.extensionCount + 1, " +
+           "t.lastExtendedAt = :now " +
+           "WHERE t.id IN :ids AND t.user.id = :userId " +
+           "AND t.completed = false " +
+           "AND t.dueDate >= :today AND t.dueDate <= :windowEnd")
+    int extendDueDateByIdInAndUserId(@Param("ids") Collection<Long> ids,
+                                     @Param("userId") Long userId,
+                                     @Param("days") int days,
+                                     @Param("today") LocalDate today,
+                                     @Param("windowEnd") LocalDate windowEnd,
+                                     @Param("now") LocalDateTime now);
+    
+    /**
+     * 以單一 UPDATE 延期使用者所有符合條件的待辦事項，延期條件與 {@link #extendDueDateByIdAndUserId} 相同
+     * 不需要先查出 ID 清單，資料列的挑選完全由 WHERE 子句決定
+     * @param userId 使用者 ID
+     * @param days 延期天數
+     * @param today 今天日期
+     * @param windowEnd 可延期的最晚到期日（通常是今天加3天）
+     * @param now 延期時間
+     * @return 實際延期的筆數
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET " +
+           "t.originalDueDate = COALESCE(t.originalDueDate, t.dueDate), " +
+           "t.dueDate = t.dueDate + :days day, " +
+           "t.extensionCount = t.extensionCount + 1, " +
+           "t.lastExtendedAt = :now " +
+           "WHERE t.user.id = :userId " +
+           "AND t.completed = false " +
+           "AND t.dueDate >= :today AND t.dueDate <= :windowEnd")
+    int extendDueDateByUserId(@Param("userId") Long userId,
+                              @Param("days") int days,
+                              @Param("today") LocalDate today,
+                              @Param("windowEnd") LocalDate windowEnd,
+                              @Param("now") LocalDateTime now);
+    
+    /**
+     * 查詢使用者在指定延期時間被延期的待辦事項摘要，用於回傳 {@link #extendDueDateByUserId} 的結果
+     * @param userId 使用者 ID
+     * @param extendedAt 批次延期寫入的延期時間
+     * @return 延期後的待辦事項摘要，依新到期日升序排列
+     */
+    @Query("SELECT new com.course.kirodemo.dto.ExtendedTodoSummary(" +
+           "t.id, t.title, t.dueDate, t.originalDueDate, t.extensionCount) " +
+           "FROM TodoItem t WHERE t.user.id = :userId AND t.lastExtendedAt = :extendedAt " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<ExtendedTodoSummary> findExtendedSummariesByUserId(@Param("userId") Long userId,
+                                                            @Param("extendedAt") LocalDateTime extendedAt);
+    
+    /**
+     * 查詢在指定延期時間被延期的待辦事項摘要，用於回傳批次延期後的新到期日
+     * @param ids 待辦事項 ID 集合
+     * @param userId 使用者 ID
+     * @param extendedAt 批次延期寫入的延期時間
+     * @return 延期後的待辦事項摘要，依新到期日升序排列
+     */
+    @Query("SELECT new com.course.kirodemo.dto.ExtendedTodoSummary(" +
+           "t.id, t.title, t.dueDate, t.originalDueDate, t.extensionCount) " +
+           "FROM TodoItem t WHERE t.id IN :ids AND t.user.id = :userId AND t.lastExtendedAt = :extendedAt " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<ExtendedTodoSummary> findExtendedSummaries(@Param("ids") Collection<Long> ids,
+                                                    @Param("userId") Long userId,
+                                                    @Param("extendedAt") LocalDateTime extendedAt);
+    
+    /**
+     * 以單一 IN 查詢找出屬於使用者的待辦事項 ID，用於批次操作的權限檢查
+     * @param ids 待辦事項 ID 集合
+     * @param userId 使用者 ID
+     * @return 存在且屬於該使用者的待辦事項 ID
+     */
+    @Query("SELECT t.id FROM TodoItem t WHERE t.id IN :ids AND t.user.id = :userId")
+    List<Long> findIdsByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+    
+    /**
+     * 找出屬於使用者且為指定完成狀態的待辦事項 ID
+     * @param ids 待辦事項 ID 集合
+     * @param userId 使用者 ID
+     * @param completed 完成狀態
+     * @return 符合條件的待辦事項 ID
+     */
+    @Query("SELECT t.id FROM TodoItem t WHERE t.id IN :ids AND t.user.id = :userId AND t.completed = :completed")
+    List<Long> findIdsByIdInAndUserIdAndCompleted(@Param("ids") Collection<Long> ids,
+                                                  @Param("userId") Long userId,
+                                                  @Param("completed") boolean completed);
+    
+    /**
+     * 以單一 UPDATE 將多筆待辦事項標記為完成，已完成的資料列不會被更新
+     * @param ids 待辦事項 ID 集合
+     * @param userId 使用者 ID
+     * @param now 完成時間
+     * @return 實際標記為完成的筆數
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TodoItem t SET t.completed = true, t.completedAt = :now " +
+           "WHERE t.id IN :ids AND t.user.id = :userId AND t.completed = false")
+    int markCompletedByIdInAndUserId(@Param("ids") Collection<Long> ids,
+                                     @Param("userId") Long userId,
+                                     @Param("now") LocalDateTime now);
+    
+    /**
+     * 以單一 DELETE 刪除多筆屬於使用者的待辦事項
+     * @param ids 待辦事項 ID 集合
+     * @param userId 使用者 ID
+     * @return 刪除的筆數
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM TodoItem t WHERE t.id IN :ids AND t.user.id = :userId")
+    int deleteByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+    
+    /**
+     * 以單一條件式 SUM 查詢統計使用者的待辦事項
+     * 一次取得總數、已完成、逾期、即將到期與總延期次數，可延期數量與即將到期相同
+     * @param userId 使用者 ID
+     * @param today 今天日期
+     * @param dueSoonEnd 即將到期與可延期的最晚到期日（通常是今天加3天）
+     * @return 統計資料
+     */
+    @Query("SELECT new com.course.kirodemo.dto.TodoStats(" +
+           "COUNT(t), " +
+           "SUM(CASE WHEN t.completed = true THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN t.completed = false AND t.dueDate < :today THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN t.completed = false AND t.dueDate BETWEEN :today AND :dueSoonEnd THEN 1L ELSE 0L END), " +
+           "SUM(CAST(t.extensionCount AS Long))) " +
+           "FROM TodoItem t WHERE t.user.id = :userId")
+    TodoStats getStatsByUserId(@Param("userId") Long userId,
+                               @Param("today") LocalDate today,
+                               @Param("dueSoonEnd") LocalDate dueSoonEnd);
+    
     /**
      * 統計使用者的待辦事項數量
      * @param user 使用者實體
@@ -119,6 +517,25 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
                                                      @Param("startDate") LocalDate startDate,
                                                      @Param("endDate") LocalDate endDate);
     
+    /**
+     * 以到期日範圍查詢使用者符合延期條件的待辦事項摘要
+     * 條件對應 (user_id, completed, due_date) 複合索引，只讀取範圍內的資料列，並直接回傳投影結果
+     * @param userId 使用者 ID
+     * @param startDate 開始日期（通常是今天）
+     * @param endDate 結束日期（通常是今天加3天）
+     * @return 依到期日升序排列的待辦事項摘要
+     */
+    @Query("SELECT new com.course.kirodemo.dto.EligibleTodoSummary(" +
+           "t.id, t.title, t.dueDate, t.originalDueDate, t.extensionCount) " +
+           "FROM TodoItem t WHERE t.user.id = :userId " +
+           "AND t.completed = false " +
+           "AND t.dueDate >= :startDate " +
+           "AND t.dueDate <= :endDate " +
+           "ORDER BY t.dueDate ASC, t.id ASC")
+    List<EligibleTodoSummary> findEligibleSummariesByUserId(@Param("userId") Long userId,
+                                                            @Param("startDate") LocalDate startDate,
+                                                            @Param("endDate") LocalDate endDate);
+    
     /**
      * 查詢使用者指定日期範圍內的待辦事項
      * @param username 使用者名稱
@@ -141,4 +558,36 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
      */
     @Query("SELECT COALESCE(SUM(t.extensionCount), 0) FROM TodoItem t WHERE t.user.username = :username")
     Long countTotalExtensionsByUsername(@Param("username") String username);
-}
\ No newline at end of file
+    
+    /**
+     * 搜尋索引投影的 SELECT 子句
+     */
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.course.kirodemo.dto.TodoSearchDocument(" +
+            "t.id, t.user.id, t.title, t.description) FROM TodoItem t ";
+    
+    /**
+     * 依 ID 查詢搜尋索引投影，用於增量更新索引
+     * @param ids 待辦事項 ID 集合
+     * @return 存在的待辦事項投影
+     */
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE t.id IN :ids")
+    List<TodoSearchDocument> findSearchDocumentsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 以 ID 游標分批查詢搜尋索引投影，用於重建索引
+     * @param lastId 上一批最後一筆的 ID，第一批傳入 0
+     * @param limit 每批筆數
+     * @return 依 ID 由小到大排列的待辦事項投影
+     */
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE t.id > :lastId ORDER BY t.id ASC")
+    List<TodoSearchDocument> findSearchDocumentsAfter(@Param("lastId") Long lastId, Limit limit);
+    
+    /**
+     * 依 ID 查詢使用者的列表投影，用於組合搜尋結果
+     * @param ids 待辦事項 ID 集合
+     * @param userId 使用者 ID
+     * @return 屬於該使用者的待辦事項列表投影（順序不保證）
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.id IN :ids AND t.user.id = :userId")
+    List<TodoListItem> findListItemsByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+}
@@ -2,6 +2,8 @@ package com.course.kirodemo.repository;
 
 import com.course.kirodemo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -20,6 +22,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
     
+    /**
+     * 根據使用者名稱只查詢使用者 ID，不載入整個實體
+     * @param username 使用者名稱
+     * @return 使用者 ID 的 Optional 包裝
+     */
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+    
     /**
      * 檢查使用者名稱是否已存在
      * @param username 使用者名稱
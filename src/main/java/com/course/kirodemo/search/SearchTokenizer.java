@@ -0,0 +1,95 @@
+package com.course.kirodemo.search;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 搜尋用的斷詞器
+ * 中日韓文字以連續字元切成 2-gram（同時保留單字以支援單字查詢），
+ * 英數字以連續字元為一個詞，其餘字元視為分隔符號；斷詞前先做 NFKC 正規化並轉小寫，
+ * 讓全形英數字與半形視為相同
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 將文件內容斷詞並統計詞頻
+     * 中日韓文字同時產生單字與 2-gram
+     * @param text 文件內容，可為 null
+     * @return 詞與出現次數
+     */
+    public static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        scan(text, true, term -> frequencies.merge(term, 1, Integer::sum));
+        return frequencies;
+    }
+
+    /**
+     * 將查詢字串斷詞
+     * 中日韓文字只有一個字時使用單字，兩個字以上使用 2-gram
+     * @param query 查詢字串，可為 null
+     * @return 不重複的查詢詞，依出現順序排列
+     */
+    public static Set<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        scan(query, false, terms::add);
+        return terms;
+    }
+
+    private static void scan(String text, boolean indexing, TermConsumer consumer) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        int[] codePoints = normalized.codePoints().toArray();
+        int i = 0;
+        while (i < codePoints.length) {
+            int start = i;
+            if (isCjk(codePoints[i])) {
+                while (i < codePoints.length && isCjk(codePoints[i])) {
+                    i++;
+                }
+                emitCjkRun(codePoints, start, i, indexing, consumer);
+            } else if (Character.isLetterOrDigit(codePoints[i])) {
+                while (i < codePoints.length && Character.isLetterOrDigit(codePoints[i]) && !isCjk(codePoints[i])) {
+                    i++;
+                }
+                consumer.accept(new String(codePoints, start, i - start));
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void emitCjkRun(int[] codePoints, int start, int end, boolean indexing, TermConsumer consumer) {
+        int length = end - start;
+        if (length == 1 || indexing) {
+            for (int i = start; i < end; i++) {
+                consumer.accept(new String(codePoints, i, 1));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            consumer.accept(new String(codePoints, i, 2));
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    @FunctionalInterface
+    private interface TermConsumer {
+        void accept(String term);
+    }
+}
@@ -0,0 +1,233 @@
+package com.course.kirodemo.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 待辦事項全文搜尋的記憶體內反向索引
+ * 每個使用者各自一份索引，查詢只會看到自己的待辦事項；
+ * 標題與描述以 {@link SearchTokenizer} 斷詞，標題的詞頻加權後一併以 BM25 計分，
+ * 查詢詞必須全部出現（AND）才算命中
+ *
+ * 每份使用者索引以讀寫鎖保護，查詢之間不互相阻塞；
+ * 重建時在另一個實例上建立完整索引，再以 {@link #replaceWith(TodoSearchIndex)} 一次替換
+ */
+@Component
+public class TodoSearchIndex {
+
+    /**
+     * 標題詞頻的加權倍數
+     */
+    static final int TITLE_WEIGHT = 3;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private volatile Map<Long, UserIndex> userIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * 新增或更新待辦事項的索引
+     * @param userId 使用者 ID
+     * @param todoId 待辦事項 ID
+     * @param title 標題
+     * @param description 描述，可為 null
+     */
+    public void index(Long userId, Long todoId, String title, String description) {
+        Map<String, Integer> terms = new HashMap<>();
+        SearchTokenizer.termFrequencies(title)
+                .forEach((term, count) -> terms.merge(term, count * TITLE_WEIGHT, Integer::sum));
+        SearchTokenizer.termFrequencies(description)
+                .forEach((term, count) -> terms.merge(term, count, Integer::sum));
+
+        userIndexes.computeIfAbsent(userId, id -> new UserIndex()).put(todoId, terms);
+    }
+
+    /**
+     * 移除待辦事項的索引
+     * @param userId 使用者 ID
+     * @param todoId 待辦事項 ID
+     */
+    public void remove(Long userId, Long todoId) {
+        UserIndex userIndex = userIndexes.get(userId);
+        if (userIndex != null) {
+            userIndex.remove(todoId);
+        }
+    }
+
+    /**
+     * 搜尋使用者的待辦事項
+     * @param userId 使用者 ID
+     * @param query 查詢字串
+     * @param offset 略過的筆數
+     * @param limit 回傳筆數上限
+     * @return 依分數由高到低排列的命中結果
+     */
+    public SearchHits search(Long userId, String query, int offset, int limit) {
+        Set<String> terms = SearchTokenizer.queryTerms(query);
+        UserIndex userIndex = userIndexes.get(userId);
+        if (terms.isEmpty() || userIndex == null) {
+            return SearchHits.EMPTY;
+        }
+        return userIndex.search(terms, Math.max(offset, 0), Math.max(limit, 0));
+    }
+
+    /**
+     * 清空所有索引
+     */
+    public void clear() {
+        userIndexes.clear();
+    }
+
+    /**
+     * 以另一個索引的內容替換目前的索引，替換前進行中的查詢仍使用舊的內容
+     * @param rebuilt 重建完成的索引，替換後不應再直接使用
+     */
+    public void replaceWith(TodoSearchIndex rebuilt) {
+        this.userIndexes = rebuilt.userIndexes;
+    }
+
+    /**
+     * 取得已索引的待辦事項數量
+     * @return 待辦事項數量
+     */
+    public int size() {
+        return userIndexes.values().stream().mapToInt(UserIndex::size).sum();
+    }
+
+    /**
+     * 搜尋結果
+     *
+     * @param todoIds 本頁的待辦事項 ID，依分數由高到低排列
+     * @param total 命中的總筆數
+     */
+    public record SearchHits(List<Long> todoIds, int total) {
+
+        static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+    }
+
+    /**
+     * 單一使用者的索引
+     * postings 記錄每個詞出現在哪些待辦事項與加權詞頻，documentTerms 記錄每筆待辦事項的詞，
+     * 以便更新或刪除時只移除該筆的 postings
+     */
+    private static final class UserIndex {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, Map<String, Integer>> documentTerms = new HashMap<>();
+        private final Map<Long, Integer> documentLengths = new HashMap<>();
+        private long totalLength;
+
+        void put(Long todoId, Map<String, Integer> terms) {
+            lock.writeLock().lock();
+            try {
+                removeInternal(todoId);
+                int length = 0;
+                for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(todoId, entry.getValue());
+                    length += entry.getValue();
+                }
+                documentTerms.put(todoId, terms);
+                documentLengths.put(todoId, length);
+                totalLength += length;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long todoId) {
+            lock.writeLock().lock();
+            try {
+                removeInternal(todoId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return documentTerms.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        SearchHits search(Set<String> terms, int offset, int limit) {
+            lock.readLock().lock();
+            try {
+                List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+                for (String term : terms) {
+                    Map<Long, Integer> posting = postings.get(term);
+                    if (posting == null) {
+                        return SearchHits.EMPTY;
+                    }
+                    termPostings.add(posting);
+                }
+                // 從最短的 posting 開始比對，縮小候選集合
+                termPostings.sort(Comparator.comparingInt(Map::size));
+
+                int documentCount = documentTerms.size();
+                double averageLength = documentCount == 0 ? 1 : Math.max(1.0, (double) totalLength / documentCount);
+
+                List<ScoredTodo> matches = new ArrayList<>();
+                candidates:
+                for (Long todoId : termPostings.get(0).keySet()) {
+                    double normalizedLength = K1 * (1 - B + B * documentLengths.get(todoId) / averageLength);
+                    double score = 0;
+                    for (Map<Long, Integer> posting : termPostings) {
+                        Integer frequency = posting.get(todoId);
+                        if (frequency == null) {
+                            continue candidates;
+                        }
+                        double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                        score += idf * frequency * (K1 + 1) / (frequency + normalizedLength);
+                    }
+                    matches.add(new ScoredTodo(todoId, score));
+                }
+
+                if (offset >= matches.size() || limit == 0) {
+                    return new SearchHits(List.of(), matches.size());
+                }
+                // 分數相同時以 ID 較大者（較新建立）優先，讓分頁結果穩定
+                matches.sort(Comparator.comparingDouble(ScoredTodo::score).reversed()
+                        .thenComparing(ScoredTodo::todoId, Comparator.reverseOrder()));
+                List<Long> page = matches.subList(offset, Math.min(matches.size(), offset + limit)).stream()
+                        .map(ScoredTodo::todoId)
+                        .toList();
+                return new SearchHits(page, matches.size());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void removeInternal(Long todoId) {
+            Map<String, Integer> terms = documentTerms.remove(todoId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(todoId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= documentLengths.remove(todoId);
+        }
+    }
+
+    private record ScoredTodo(Long todoId, double score) {
+    }
+}
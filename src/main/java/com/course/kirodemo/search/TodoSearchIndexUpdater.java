@@ -0,0 +1,172 @@
+package com.course.kirodemo.search;
+
+import com.course.kirodemo.dto.TodoSearchDocument;
+import com.course.kirodemo.event.TodoChangedEvent;
+import com.course.kirodemo.repository.TodoItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 搜尋索引維護元件
+ * 啟動完成後從資料庫重建索引，之後在待辦事項變更的交易提交後增量更新；
+ * 交易回滾時不會收到事件，索引不會出現未提交的資料
+ *
+ * 重建時在另一個索引上分批讀取，完成後一次替換，重建期間的查詢仍使用原本的索引。
+ * 重建期間發生變更的待辦事項會被記下，替換後再從資料庫重新讀取，
+ * 避免已讀取的批次中在之後被刪除或更新的待辦事項以舊內容留在新索引中
+ */
+@Component
+public class TodoSearchIndexUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoSearchIndexUpdater.class);
+
+    private final TodoSearchIndex searchIndex;
+    private final TodoItemRepository todoItemRepository;
+    private final boolean rebuildOnStartup;
+    private final int rebuildBatchSize;
+    private final Object rebuildLock = new Object();
+    private final Object pendingLock = new Object();
+    private Map<Long, Long> changedDuringRebuild;
+
+    @Autowired
+    public TodoSearchIndexUpdater(TodoSearchIndex searchIndex,
+                                  TodoItemRepository todoItemRepository,
+                                  @Value("${app.search.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                                  @Value("${app.search.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        if (rebuildBatchSize <= 0) {
+            throw new IllegalArgumentException("重建索引的批次大小必須為正數");
+        }
+        this.searchIndex = searchIndex;
+        this.todoItemRepository = todoItemRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    /**
+     * 應用程式啟動完成後重建索引（在初始資料與大量資料產生之後）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 從資料庫重建全部索引
+     * 以 ID 游標分批讀取，避免一次載入所有待辦事項；每個批次各自查詢，不需要包在同一個交易中
+     * @return 重建時讀取的待辦事項數量
+     */
+    public int rebuild() {
+        synchronized (rebuildLock) {
+            long startedAt = System.nanoTime();
+            synchronized (pendingLock) {
+                changedDuringRebuild = new HashMap<>();
+            }
+
+            TodoSearchIndex rebuilt = new TodoSearchIndex();
+            int count = 0;
+            long lastId = 0;
+            List<TodoSearchDocument> batch;
+            try {
+                do {
+                    batch = todoItemRepository.findSearchDocumentsAfter(lastId, Limit.of(rebuildBatchSize));
+                    for (TodoSearchDocument document : batch) {
+                        index(rebuilt, document);
+                        lastId = document.id();
+                    }
+                    count += batch.size();
+                } while (batch.size() == rebuildBatchSize);
+            } catch (RuntimeException e) {
+                synchronized (pendingLock) {
+                    changedDuringRebuild = null;
+                }
+                throw e;
+            }
+
+            searchIndex.replaceWith(rebuilt);
+            // 替換之後才停止記錄，替換前套用到舊索引的變更都會在這裡重新套用
+            Map<Long, Long> changed;
+            synchronized (pendingLock) {
+                changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+            }
+            if (!changed.isEmpty()) {
+                reindex(changed);
+            }
+
+            logger.info("搜尋索引重建完成，共 {} 筆待辦事項，重建期間變更 {} 筆，耗時 {} ms",
+                    count, changed.size(), (System.nanoTime() - startedAt) / 1_000_000);
+            return count;
+        }
+    }
+
+    /**
+     * 待辦事項變更的交易提交後更新索引
+     * 只有標題或描述可能改變的事件才需要處理；在交易外發布的事件直接處理
+     * @param event 待辦事項變更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                recordIfRebuilding(event);
+                reindex(event.todoIds().stream().collect(
+                        Collectors.toMap(todoId -> todoId, todoId -> event.userId(), (first, second) -> first)));
+            }
+            case DELETED -> {
+                recordIfRebuilding(event);
+                event.todoIds().forEach(todoId -> searchIndex.remove(event.userId(), todoId));
+            }
+            default -> {
+                // 完成狀態與到期日不影響搜尋內容
+            }
+        }
+    }
+
+    /**
+     * 重建期間記下變更的待辦事項，必須在套用到目前的索引之前記錄
+     */
+    private void recordIfRebuilding(TodoChangedEvent event) {
+        synchronized (pendingLock) {
+            if (changedDuringRebuild != null) {
+                event.todoIds().forEach(todoId -> changedDuringRebuild.put(todoId, event.userId()));
+            }
+        }
+    }
+
+    /**
+     * 從資料庫重新讀取並更新索引
+     * @param todoOwners 待辦事項 ID 與所屬使用者 ID
+     */
+    private void reindex(Map<Long, Long> todoOwners) {
+        Set<Long> missing = new HashSet<>(todoOwners.keySet());
+        for (TodoSearchDocument document : todoItemRepository.findSearchDocumentsByIdIn(todoOwners.keySet())) {
+            index(searchIndex, document);
+            missing.remove(document.id());
+        }
+        // 提交後又被刪除的待辦事項不應留在索引中
+        missing.forEach(todoId -> searchIndex.remove(todoOwners.get(todoId), todoId));
+    }
+
+    private static void index(TodoSearchIndex target, TodoSearchDocument document) {
+        target.index(document.userId(), document.id(), document.title(), document.description());
+    }
+}
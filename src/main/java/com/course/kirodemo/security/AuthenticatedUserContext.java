@@ -0,0 +1,64 @@
+package com.course.kirodemo.security;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 請求範圍的已認證使用者上下文
+ * 每個 HTTP 請求只建立一次，從 {@link CustomUserPrincipal} 取得使用者 ID，
+ * 讓同一個請求中的多次服務呼叫不必重複查詢使用者資料表
+ */
+@Component
+@RequestScope
+public class AuthenticatedUserContext {
+
+    private final Long userId;
+    private final String username;
+    private final Map<String, Long> resolvedUserIds = new HashMap<>();
+
+    public AuthenticatedUserContext() {
+        this.userId = SecurityUtils.getCurrentUserId();
+        this.username = SecurityUtils.getCurrentUsername();
+    }
+
+    /**
+     * 取得指定使用者名稱在本次請求中已知的使用者 ID
+     * @param username 使用者名稱
+     * @return 使用者 ID，如果尚未得知則返回 null
+     */
+    public Long findUserId(String username) {
+        if (userId != null && this.username != null && this.username.equals(username)) {
+            return userId;
+        }
+        return resolvedUserIds.get(username);
+    }
+
+    /**
+     * 記錄本次請求中查詢過的使用者 ID
+     * @param username 使用者名稱
+     * @param userId 使用者 ID
+     */
+    public void rememberUserId(String username, Long userId) {
+        resolvedUserIds.put(username, userId);
+    }
+
+    // Getter 方法
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUserContext{" +
+                "userId=" + userId +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
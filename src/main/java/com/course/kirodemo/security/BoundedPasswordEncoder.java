@@ -0,0 +1,215 @@
+package com.course.kirodemo.security;
+
+import com.course.kirodemo.exception.PasswordHashingBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 有界的密碼編碼器
+ * 將 encode 與 matches 交給固定大小的專用執行緒池執行，限制同時進行的雜湊數量與排隊數量，
+ * 佇列已滿或等待逾時時立即拋出 {@link PasswordHashingBusyException}（對應 HTTP 503），
+ * 避免大量登入把所有請求執行緒都卡在 CPU 密集的雜湊上
+ *
+ * 排隊時間與雜湊時間等統計依 app.security.password.hashing.stats-log-interval（預設 5m）定期輸出到日誌
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private long lastLoggedRequestCount;
+
+    /**
+     * @param delegate 實際執行雜湊的密碼編碼器
+     * @param threads 雜湊執行緒數量
+     * @param queueCapacity 排隊上限，超過時立即拒絕
+     * @param maxWait 單次雜湊（含排隊）的最長等待時間。逾時只會讓呼叫端不再等待（回應 503），
+     *                已經開始的 BCrypt/PBKDF2 計算不會檢查中斷，cancel(true) 無法停止，
+     *                該執行緒會算完才釋放；尚在排隊的工作則會被取消而不佔用執行緒
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("雜湊執行緒數量與佇列上限必須為正數");
+        }
+        this.delegate = delegate;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 只比對雜湊格式與參數，不需要進入執行緒池
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(totalQueueNanos, maxQueueNanos, startedAt - submittedAt);
+                try {
+                    return task.get();
+                } finally {
+                    record(totalHashNanos, maxHashNanos, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("密碼雜湊佇列已滿，拒絕請求（排隊中: {}）", executor.getQueue().size());
+            throw new PasswordHashingBusyException("系統忙碌中，請稍後再試", e);
+        }
+
+        try {
+            T result = future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            completed.increment();
+            return result;
+        } catch (TimeoutException e) {
+            // 只能取消還在排隊的工作，執行中的雜湊會繼續佔用執行緒直到算完
+            future.cancel(true);
+            timedOut.increment();
+            logger.warn("密碼雜湊等待逾時，已取消請求");
+            throw new PasswordHashingBusyException("系統忙碌中，請稍後再試", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("密碼雜湊被中斷", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("密碼雜湊失敗", cause);
+        }
+    }
+
+    private static void record(LongAdder total, LongAccumulator max, long nanos) {
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * 取得排隊時間與雜湊時間等統計資料
+     * @return 統計資料快照
+     */
+    public Stats stats() {
+        long completedCount = completed.sum();
+        long started = Math.max(1, completedCount + timedOut.sum());
+        return new Stats(
+                completedCount,
+                rejected.sum(),
+                timedOut.sum(),
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                Duration.ofNanos(totalQueueNanos.sum() / started),
+                Duration.ofNanos(maxQueueNanos.get()),
+                Duration.ofNanos(totalHashNanos.sum() / started),
+                Duration.ofNanos(maxHashNanos.get()));
+    }
+
+    /**
+     * 定期輸出統計資料，期間沒有任何雜湊請求時不輸出
+     */
+    @Scheduled(fixedDelayString = "${app.security.password.hashing.stats-log-interval:5m}",
+               initialDelayString = "${app.security.password.hashing.stats-log-interval:5m}")
+    public void logStats() {
+        Stats stats = stats();
+        long requestCount = stats.completed() + stats.rejected() + stats.timedOut();
+        if (requestCount == lastLoggedRequestCount) {
+            return;
+        }
+        lastLoggedRequestCount = requestCount;
+        logger.info("密碼雜湊統計: {}", stats);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 密碼雜湊統計資料
+     *
+     * @param completed 完成的雜湊次數
+     * @param rejected 因佇列已滿被拒絕的次數
+     * @param timedOut 等待逾時的次數
+     * @param queueDepth 目前排隊數量
+     * @param activeThreads 目前執行中的雜湊數量
+     * @param averageQueueTime 平均排隊時間
+     * @param maxQueueTime 最長排隊時間
+     * @param averageHashTime 平均雜湊時間
+     * @param maxHashTime 最長雜湊時間
+     */
+    public record Stats(long completed, long rejected, long timedOut, int queueDepth, int activeThreads,
+                        Duration averageQueueTime, Duration maxQueueTime,
+                        Duration averageHashTime, Duration maxHashTime) {
+
+        @Override
+        public String toString() {
+            return String.format("完成 %d，拒絕 %d，逾時 %d，排隊中 %d，執行中 %d，"
+                            + "排隊時間 平均 %d ms／最長 %d ms，雜湊時間 平均 %d ms／最長 %d ms",
+                    completed, rejected, timedOut, queueDepth, activeThreads,
+                    averageQueueTime.toMillis(), maxQueueTime.toMillis(),
+                    averageHashTime.toMillis(), maxHashTime.toMillis());
+        }
+    }
+
+    /**
+     * 雜湊執行緒工廠，使用可辨識的名稱並設為 daemon
+     */
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.course.kirodemo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 以 Spring Session 儲存庫為準的會話註冊表
+ * 同一使用者的會話透過 PRINCIPAL_NAME 索引查詢，因此「每個使用者最多一個會話」在多節點下也成立，
+ * 不需要 SessionRegistryImpl 的 JVM 內同步 Map
+ *
+ * ConcurrentSessionFilter 每個請求都會呼叫 {@link #getSessionInformation(String)}，
+ * 由本機的 Caffeine 快取回應（讀取不加鎖），避免每個請求都多載入一次會話；
+ * 其他節點將會話標記為過期後，本機最多在快取存活時間後才會發現。
+ * 登入時的 {@link #getAllSessions(Object, boolean)} 一律查詢儲存庫，並以查到的結果更新快取，
+ * 讓本機踢掉的舊會話立即生效
+ */
+public class CachingSessionRegistry implements SessionRegistry {
+
+    private final SessionRegistry delegate;
+    private final Cache<String, SessionInformation> cache;
+
+    /**
+     * @param sessionRepository 會話儲存庫
+     * @param ttl 會話資訊在本機快取的存活時間
+     * @param maximumSize 本機快取上限
+     */
+    public <S extends Session> CachingSessionRegistry(FindByIndexNameSessionRepository<S> sessionRepository,
+                                                      Duration ttl, long maximumSize) {
+        this(new SpringSessionBackedSessionRegistry<>(sessionRepository), ttl, maximumSize);
+    }
+
+    CachingSessionRegistry(SessionRegistry delegate, Duration ttl, long maximumSize) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * 會話儲存庫無法列出所有使用者，與 Spring Session 的實作相同不支援
+     */
+    @Override
+    public List<Object> getAllPrincipals() {
+        return delegate.getAllPrincipals();
+    }
+
+    @Override
+    public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+        List<SessionInformation> sessions = delegate.getAllSessions(principal, includeExpiredSessions);
+        sessions.forEach(session -> cache.put(session.getSessionId(), session));
+        return sessions;
+    }
+
+    /**
+     * 取得會話資訊
+     * 與 {@link UserDetailsCache} 相同刻意不使用 cache.get(key, loader)，避免載入會話時佔住快取的鎖
+     * @param sessionId 會話 ID
+     * @return 會話資訊，會話不存在時為 null
+     */
+    @Override
+    public SessionInformation getSessionInformation(String sessionId) {
+        SessionInformation cached = cache.getIfPresent(sessionId);
+        if (cached != null) {
+            return cached;
+        }
+        SessionInformation loaded = delegate.getSessionInformation(sessionId);
+        if (loaded != null) {
+            cache.put(sessionId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 最後存取時間由會話儲存庫維護，不需要另外記錄
+     */
+    @Override
+    public void refreshLastRequest(String sessionId) {
+    }
+
+    /**
+     * 會話在儲存時就已經依使用者名稱建立索引，不需要另外註冊
+     */
+    @Override
+    public void registerNewSession(String sessionId, Object principal) {
+        cache.invalidate(sessionId);
+    }
+
+    @Override
+    public void removeSessionInformation(String sessionId) {
+        cache.invalidate(sessionId);
+    }
+}
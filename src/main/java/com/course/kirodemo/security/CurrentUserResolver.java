@@ -0,0 +1,61 @@
+package com.course.kirodemo.security;
+
+import com.course.kirodemo.exception.UserNotFoundException;
+import com.course.kirodemo.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 目前使用者解析器
+ * 將使用者名稱解析為使用者 ID：在 HTTP 請求中優先使用已認證主體攜帶的 ID，
+ * 不在請求中（例如排程或測試）或主體沒有 ID 時才退回以使用者名稱查詢資料庫
+ */
+@Component
+public class CurrentUserResolver {
+
+    private final ObjectProvider<AuthenticatedUserContext> contextProvider;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public CurrentUserResolver(ObjectProvider<AuthenticatedUserContext> contextProvider,
+                               UserRepository userRepository) {
+        this.contextProvider = contextProvider;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * 解析使用者 ID
+     * @param username 使用者名稱
+     * @return 使用者 ID
+     * @throws UserNotFoundException 如果使用者不存在
+     */
+    public Long resolveUserId(String username) {
+        AuthenticatedUserContext context = currentContext();
+        if (context != null) {
+            Long userId = context.findUserId(username);
+            if (userId != null) {
+                return userId;
+            }
+        }
+
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> UserNotFoundException.forUsername(username));
+        if (context != null) {
+            context.rememberUserId(username, userId);
+        }
+        return userId;
+    }
+
+    /**
+     * 取得本次請求的使用者上下文
+     * @return 使用者上下文，不在 HTTP 請求中時返回 null
+     */
+    private AuthenticatedUserContext currentContext() {
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return null;
+        }
+        return contextProvider.getIfAvailable();
+    }
+}
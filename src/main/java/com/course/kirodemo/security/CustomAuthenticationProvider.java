@@ -1,31 +1,49 @@
 package com.course.kirodemo.security;
 
+import com.course.kirodemo.exception.PasswordHashingBusyException;
 import com.course.kirodemo.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 /**
  * 自定義認證提供者
  * 整合應用程式的使用者驗證邏輯與 Spring Security
+ * 只載入一次使用者詳細資訊並直接以其密碼雜湊驗證，雜湊參數過舊時於登入成功後重新雜湊
  */
 @Component
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomAuthenticationProvider.class);
+
+    /**
+     * 使用者不存在時用來比對的密碼，讓回應時間與密碼錯誤時相近，避免洩漏使用者是否存在
+     */
+    private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
     private final UserService userService;
     private final CustomUserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final String userNotFoundEncodedPassword;
 
     @Autowired
     public CustomAuthenticationProvider(UserService userService, 
-                                      CustomUserDetailsService userDetailsService) {
+                                      CustomUserDetailsService userDetailsService,
+                                      PasswordEncoder passwordEncoder) {
         this.userService = userService;
         this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.userNotFoundEncodedPassword = passwordEncoder.encode(USER_NOT_FOUND_PASSWORD);
     }
 
     /**
@@ -40,27 +58,53 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
         String username = authentication.getName();
         String password = authentication.getCredentials().toString();
 
+        UserDetails userDetails;
         try {
-            // 載入使用者詳細資訊
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            
-            // 驗證密碼
-            boolean isValidPassword = userService.validatePassword(username, password);
-            
-            if (!isValidPassword) {
-                throw new BadCredentialsException("使用者名稱或密碼錯誤");
-            }
+            userDetails = verifyCredentials(username, password);
+        } catch (PasswordHashingBusyException e) {
+            // 雜湊執行緒池已滿載，交由失敗處理器回應 503
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
 
-            // 認證成功，建立認證物件
-            return new UsernamePasswordAuthenticationToken(
-                userDetails, 
-                password, 
-                userDetails.getAuthorities()
-            );
-            
+        logger.info("使用者登入驗證成功: {}", username);
+
+        // 認證成功，建立認證物件
+        return new UsernamePasswordAuthenticationToken(
+            userDetails, 
+            password, 
+            userDetails.getAuthorities()
+        );
+    }
+
+    /**
+     * 載入使用者並驗證密碼，必要時重新雜湊
+     * @throws BadCredentialsException 如果使用者不存在或密碼錯誤
+     * @throws PasswordHashingBusyException 如果雜湊執行緒池已滿載
+     */
+    private UserDetails verifyCredentials(String username, String password) {
+        UserDetails userDetails;
+        try {
+            // 載入使用者詳細資訊（只查詢一次，並可能來自快取）
+            userDetails = userDetailsService.loadUserByUsername(username);
         } catch (UsernameNotFoundException e) {
+            passwordEncoder.matches(password, userNotFoundEncodedPassword);
+            throw new BadCredentialsException("使用者名稱或密碼錯誤");
+        }
+
+        // 直接以載入的密碼雜湊驗證密碼
+        if (!passwordEncoder.matches(password, userDetails.getPassword())) {
+            logger.warn("使用者登入驗證失敗，密碼錯誤: {}", username);
             throw new BadCredentialsException("使用者名稱或密碼錯誤");
         }
+
+        // 雜湊演算法或參數已變更時，以目前設定重新雜湊並重新載入使用者詳細資訊
+        if (passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            userService.changePassword(userDetails.getUsername(), password);
+            userDetails = userDetailsService.loadUserByUsername(userDetails.getUsername());
+            logger.info("使用者密碼已以目前的雜湊設定重新雜湊: {}", username);
+        }
+
+        return userDetails;
     }
 
     /**
@@ -70,4 +114,4 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     public boolean supports(Class<?> authentication) {
         return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
     }
-}
\ No newline at end of file
+}
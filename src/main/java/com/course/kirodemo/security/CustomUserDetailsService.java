@@ -22,14 +22,17 @@ import java.util.Optional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserService userService;
+    private final UserDetailsCache userDetailsCache;
 
     @Autowired
-    public CustomUserDetailsService(UserService userService) {
+    public CustomUserDetailsService(UserService userService, UserDetailsCache userDetailsCache) {
         this.userService = userService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
      * 根據使用者名稱載入使用者詳細資訊
+     * 優先使用快取，快取沒有時才查詢資料庫；使用者不存在時不會被快取
      * 
      * @param username 使用者名稱
      * @return UserDetails 使用者詳細資訊
@@ -37,6 +40,13 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
+
+    /**
+     * 從資料庫載入使用者詳細資訊
+     */
+    private UserDetails loadFromDatabase(String username) {
         Optional<User> userOpt = userService.findByUsername(username);
         
         if (userOpt.isEmpty()) {
@@ -0,0 +1,144 @@
+package com.course.kirodemo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 使用者詳細資訊快取
+ * 以 Caffeine 建立有上限且會過期的快取，減少登入與 remember-me 驗證時對 users 資料表的查詢；
+ * 註冊與變更密碼時必須在交易提交後呼叫 {@link #evict(String)} 讓快取失效
+ *
+ * 設定：
+ * app.security.user-details-cache.enabled（預設 true，設為 false 時每次都查詢資料庫）
+ * app.security.user-details-cache.maximum-size（預設 10000）
+ * app.security.user-details-cache.ttl（預設 10m）
+ * app.security.user-details-cache.stats-log-interval（命中率統計的輸出間隔，預設 5m）
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final Cache<String, UserDetails> cache;
+    private final AtomicLong evictionGeneration = new AtomicLong();
+    private long lastLoggedRequestCount;
+
+    @Autowired
+    public UserDetailsCache(@Value("${app.security.user-details-cache.enabled:true}") boolean enabled,
+                            @Value("${app.security.user-details-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${app.security.user-details-cache.ttl:10m}") Duration ttl) {
+        this.cache = enabled
+                ? Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfterWrite(ttl)
+                        .recordStats()
+                        .build()
+                : null;
+        logger.info("使用者詳細資訊快取{}，上限: {}，存活時間: {}", enabled ? "已啟用" : "已停用", maximumSize, ttl);
+    }
+
+    /**
+     * 取得快取的使用者詳細資訊，沒有快取時以 loader 載入並放入快取
+     * loader 拋出的例外（例如使用者不存在）會直接傳出，不會被快取
+     *
+     * loader 會查詢資料庫，因此刻意不使用 cache.get(key, loader)：
+     * 該方法在 ConcurrentHashMap 的 synchronized 區段內執行 loader，
+     * 在虛擬執行緒上會於資料庫 I/O 期間釘住載體執行緒。
+     * 代價是沒有合併載入，同一使用者同時未命中的 N 個請求會各自查詢一次資料庫
+     *
+     * 載入期間若有任何失效（{@link #evict(String)}、{@link #evictAll()}），載入的結果只回傳不放入快取，
+     * 避免讀到舊密碼雜湊的載入在失效之後才寫回快取
+     * @param username 使用者名稱
+     * @param loader 載入使用者詳細資訊的函式
+     * @return 使用者詳細資訊
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (cache == null) {
+            return loader.apply(username);
+        }
+        UserDetails cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = evictionGeneration.get();
+        UserDetails loaded = loader.apply(username);
+        // 在同一個鍵的鎖內比對世代，與 evict 的 invalidate 互斥；鎖內只比較數字，不含 I/O
+        cache.asMap().compute(username,
+                (key, existing) -> evictionGeneration.get() == generation ? loaded : existing);
+        return loaded;
+    }
+
+    /**
+     * 使指定使用者的快取失效
+     * @param username 使用者名稱
+     */
+    public void evict(String username) {
+        if (cache != null && username != null) {
+            evictionGeneration.incrementAndGet();
+            cache.invalidate(username);
+            logger.debug("使用者詳細資訊快取已失效: {}", username);
+        }
+    }
+
+    /**
+     * 清除所有快取
+     */
+    public void evictAll() {
+        if (cache != null) {
+            evictionGeneration.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 是否啟用快取
+     * @return true 如果已啟用
+     */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * 取得命中與未命中等統計資料，停用時回傳空的統計
+     * @return 快取統計資料
+     */
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    /**
+     * 定期輸出命中與未命中統計，期間沒有查詢時不輸出
+     */
+    @Scheduled(fixedDelayString = "${app.security.user-details-cache.stats-log-interval:5m}",
+               initialDelayString = "${app.security.user-details-cache.stats-log-interval:5m}")
+    public void logStats() {
+        CacheStats stats = stats();
+        if (stats.requestCount() == lastLoggedRequestCount) {
+            return;
+        }
+        lastLoggedRequestCount = stats.requestCount();
+        logger.info("使用者詳細資訊快取統計: 命中 {}，未命中 {}，命中率 {}，淘汰 {}，項目 {}",
+                stats.hitCount(), stats.missCount(), String.format("%.1f%%", stats.hitRate() * 100),
+                stats.evictionCount(), size());
+    }
+
+    /**
+     * 取得目前快取的項目數量（估計值）
+     * @return 快取項目數量
+     */
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+}
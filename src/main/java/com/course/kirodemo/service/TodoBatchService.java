@@ -0,0 +1,51 @@
+package com.course.kirodemo.service;
+
+import com.course.kirodemo.dto.BatchTodoResponse;
+import com.course.kirodemo.dto.CreateTodoRequest;
+
+import java.util.List;
+
+/**
+ * 待辦事項批次操作服務介面
+ * 每次呼叫在同一個交易中處理多筆待辦事項，並回報每個項目的結果
+ */
+public interface TodoBatchService {
+    
+    /**
+     * 單次批次操作的項目上限
+     */
+    int MAX_BATCH_SIZE = 500;
+    
+    /**
+     * 批次建立待辦事項
+     * 欄位驗證失敗的項目標示為 INVALID，其餘項目以批次 INSERT 寫入
+     * @param requests 建立待辦事項請求列表
+     * @param username 使用者名稱
+     * @return 各項目的處理結果
+     * @throws IllegalArgumentException 如果項目數量超過上限
+     * @throws UserNotFoundException 如果使用者不存在
+     */
+    BatchTodoResponse createTodos(List<CreateTodoRequest> requests, String username);
+    
+    /**
+     * 批次將待辦事項標記為完成
+     * 不存在或不屬於該使用者的 ID 一律標示為 NOT_FOUND，已完成的項目標示為 ALREADY_COMPLETED
+     * @param todoIds 待辦事項 ID 列表
+     * @param username 使用者名稱
+     * @return 各項目的處理結果
+     * @throws IllegalArgumentException 如果項目數量超過上限
+     * @throws UserNotFoundException 如果使用者不存在
+     */
+    BatchTodoResponse completeTodos(List<Long> todoIds, String username);
+    
+    /**
+     * 批次刪除待辦事項
+     * 不存在或不屬於該使用者的 ID 一律標示為 NOT_FOUND
+     * @param todoIds 待辦事項 ID 列表
+     * @param username 使用者名稱
+     * @return 各項目的處理結果
+     * @throws IllegalArgumentException 如果項目數量超過上限
+     * @throws UserNotFoundException 如果使用者不存在
+     */
+    BatchTodoResponse deleteTodos(List<Long> todoIds, String username);
+}
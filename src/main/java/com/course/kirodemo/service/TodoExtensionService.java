@@ -1,7 +1,10 @@
 package com.course.kirodemo.service;
 
+import com.course.kirodemo.dto.BulkExtensionResult;
+import com.course.kirodemo.dto.EligibleTodoSummary;
 import com.course.kirodemo.entity.TodoItem;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -10,6 +13,21 @@ import java.util.List;
  */
 public interface TodoExtensionService {
     
+    /**
+     * 單次延期的最少天數
+     */
+    int MIN_EXTENSION_DAYS = 1;
+    
+    /**
+     * 單次延期的最多天數
+     */
+    int MAX_EXTENSION_DAYS = 365;
+    
+    /**
+     * 可延期的到期日範圍：今天到今天加上此天數（含）
+     */
+    int EXTENSION_WINDOW_DAYS = 3;
+    
     /**
      * 檢查待辦事項是否符合延期條件（三天內到期且未完成）
      * 
@@ -32,14 +50,38 @@ public interface TodoExtensionService {
      */
     TodoItem extendTodo(Long todoId, int extensionDays, String username);
     
+    /**
+     * 將使用者所有符合延期條件的待辦事項一次延期
+     * 以單一 UPDATE 執行，每一筆的原始到期日、延期次數與最後延期時間與單筆延期相同
+     * 
+     * @param extensionDays 延期天數，必須為正數
+     * @param username 使用者名稱
+     * @return 延期結果，包含每一筆的新到期日
+     * @throws IllegalArgumentException 如果延期天數無效
+     * @throws com.course.kirodemo.exception.UserNotFoundException 如果使用者不存在
+     */
+    BulkExtensionResult extendAllEligible(int extensionDays, String username);
+    
+    /**
+     * 將指定的待辦事項一次延期，不符合延期條件、不存在或不屬於使用者的 ID 列為略過
+     * 
+     * @param todoIds 待辦事項 ID 集合
+     * @param extensionDays 延期天數，必須為正數
+     * @param username 使用者名稱
+     * @return 延期結果，包含每一筆的新到期日與略過的 ID
+     * @throws IllegalArgumentException 如果延期天數無效、ID 集合為空或超過批次上限
+     * @throws com.course.kirodemo.exception.UserNotFoundException 如果使用者不存在
+     */
+    BulkExtensionResult extendTodos(Collection<Long> todoIds, int extensionDays, String username);
+    
     /**
      * 取得使用者所有符合延期條件的待辦事項
      * 
      * @param username 使用者名稱
-     * @return 符合延期條件的待辦事項列表
+     * @return 符合延期條件的待辦事項摘要列表，依到期日升序排列
      * @throws com.course.kirodemo.exception.UserNotFoundException 如果使用者不存在
      */
-    List<TodoItem> getEligibleTodosForUser(String username);
+    List<EligibleTodoSummary> getEligibleTodosForUser(String username);
     
     /**
      * 驗證延期天數的有效性
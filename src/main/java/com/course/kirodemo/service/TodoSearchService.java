@@ -0,0 +1,26 @@
+package com.course.kirodemo.service;
+
+import com.course.kirodemo.dto.TodoSearchResult;
+
+/**
+ * 待辦事項全文搜尋服務介面
+ * 以記憶體內反向索引搜尋標題與描述，不對資料庫執行 LIKE 掃描
+ */
+public interface TodoSearchService {
+
+    /**
+     * 每頁筆數上限
+     */
+    int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 搜尋使用者的待辦事項
+     * @param query 查詢字串
+     * @param page 頁碼（從 0 開始）
+     * @param size 每頁筆數
+     * @param username 使用者名稱
+     * @return 依相關度排列的搜尋結果
+     * @throws IllegalArgumentException 如果查詢字串為空或頁碼為負數
+     */
+    TodoSearchResult search(String query, int page, int size, String username);
+}
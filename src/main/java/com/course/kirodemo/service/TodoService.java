@@ -1,6 +1,8 @@
 package com.course.kirodemo.service;
 
 import com.course.kirodemo.dto.CreateTodoRequest;
+import com.course.kirodemo.dto.TodoPage;
+import com.course.kirodemo.dto.TodoStats;
 import com.course.kirodemo.dto.UpdateTodoRequest;
 import com.course.kirodemo.entity.TodoItem;
 
@@ -13,6 +15,16 @@ import java.util.Optional;
  */
 public interface TodoService {
     
+    /**
+     * 分頁查詢的預設每頁筆數
+     */
+    int DEFAULT_PAGE_SIZE = 20;
+    
+    /**
+     * 分頁查詢的每頁筆數上限
+     */
+    int MAX_PAGE_SIZE = 100;
+    
     /**
      * 排序方式枚舉
      */
@@ -42,6 +54,19 @@ public interface TodoService {
      */
     List<TodoItem> getUserTodos(String username, SortBy sortBy);
     
+    /**
+     * 以 keyset (seek) 分頁取得使用者的待辦事項
+     * 不論翻到第幾頁，查詢成本都只與每頁筆數有關
+     * @param username 使用者名稱
+     * @param sortBy 排序方式
+     * @param cursor 上一頁回傳的游標，第一頁傳入 null
+     * @param pageSize 每頁筆數，會限制在 1 到 {@link #MAX_PAGE_SIZE} 之間
+     * @return 分頁結果，項目為唯讀的列表投影
+     * @throws UserNotFoundException 如果使用者不存在
+     * @throws IllegalArgumentException 如果游標無效或與排序方式不符
+     */
+    TodoPage getUserTodosPage(String username, SortBy sortBy, String cursor, int pageSize);
+    
     /**
      * 更新待辦事項
      * @param todoId 待辦事項 ID
@@ -73,6 +98,16 @@ public interface TodoService {
      */
     TodoItem toggleComplete(Long todoId, String username);
     
+    /**
+     * 將待辦事項標記為完成，已完成的待辦事項維持原狀
+     * @param todoId 待辦事項 ID
+     * @param username 使用者名稱
+     * @return 完成後的待辦事項實體
+     * @throws TodoNotFoundException 如果待辦事項不存在
+     * @throws UnauthorizedAccessException 如果使用者無權限存取
+     */
+    TodoItem completeTodo(Long todoId, String username);
+    
     /**
      * 查詢使用者的特定待辦事項
      * @param todoId 待辦事項 ID
@@ -113,4 +148,12 @@ public interface TodoService {
      * @throws UserNotFoundException 如果使用者不存在
      */
     List<TodoItem> getDueSoonTodos(String username);
+    
+    /**
+     * 以單一查詢取得使用者的待辦事項統計資料
+     * @param username 使用者名稱
+     * @return 統計資料（總數、已完成、逾期、即將到期、可延期、總延期次數）
+     * @throws UserNotFoundException 如果使用者不存在
+     */
+    TodoStats getTodoStats(String username);
 }
\ No newline at end of file
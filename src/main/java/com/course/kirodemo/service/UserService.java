@@ -35,6 +35,16 @@ public interface UserService {
      */
     boolean validatePassword(String username, String rawPassword);
     
+    /**
+     * 變更使用者密碼，並使該使用者的詳細資訊快取失效
+     * @param username 使用者名稱
+     * @param newRawPassword 新的原始密碼（未加密）
+     * @return 更新後的使用者實體
+     * @throws UserNotFoundException 如果使用者不存在
+     * @throws IllegalArgumentException 如果新密碼為空
+     */
+    User changePassword(String username, String newRawPassword);
+    
     /**
      * 檢查使用者名稱是否已存在
      * @param username 使用者名稱
@@ -0,0 +1,242 @@
+package com.course.kirodemo.service.impl;
+
+import com.course.kirodemo.dto.BatchTodoResponse;
+import com.course.kirodemo.dto.BatchTodoResult;
+import com.course.kirodemo.dto.CreateTodoRequest;
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.entity.User;
+import com.course.kirodemo.event.TodoChangedEvent;
+import com.course.kirodemo.exception.UserNotFoundException;
+import com.course.kirodemo.repository.TodoItemRepository;
+import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.security.CurrentUserResolver;
+import com.course.kirodemo.service.TodoBatchService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 待辦事項批次操作服務實作類別
+ * 權限檢查以單一 WHERE id IN (...) AND user_id = ? 查詢完成，
+ * 寫入以批次 INSERT 或單一 UPDATE/DELETE 執行，整批在同一個交易中
+ */
+@Service
+@Transactional
+public class TodoBatchServiceImpl implements TodoBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoBatchServiceImpl.class);
+
+    private final TodoItemRepository todoItemRepository;
+    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public TodoBatchServiceImpl(TodoItemRepository todoItemRepository,
+                                UserRepository userRepository,
+                                CurrentUserResolver currentUserResolver,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher) {
+        this.todoItemRepository = todoItemRepository;
+        this.userRepository = userRepository;
+        this.currentUserResolver = currentUserResolver;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public BatchTodoResponse createTodos(List<CreateTodoRequest> requests, String username) {
+        checkBatchSize(requests);
+        logger.info("使用者 {} 批次建立 {} 筆待辦事項", username, requests.size());
+
+        // 以使用者 ID 取得參照，不需要查詢使用者資料表
+        Long userId = resolveUserId(username);
+        User user = userRepository.getReferenceById(userId);
+
+        BatchTodoResult[] results = new BatchTodoResult[requests.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<TodoItem> todoItems = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i));
+            if (error != null) {
+                results[i] = new BatchTodoResult(i, null, BatchTodoResult.Status.INVALID, error);
+                continue;
+            }
+            validIndexes.add(i);
+            todoItems.add(requests.get(i).toEntity(user));
+        }
+
+        // 主鍵由序列整段配置，saveAll 的 INSERT 會在 flush 時以 JDBC 批次送出
+        List<TodoItem> saved = todoItemRepository.saveAll(todoItems);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = new BatchTodoResult(index, saved.get(i).getId(), BatchTodoResult.Status.CREATED,
+                    messageFor(BatchTodoResult.Status.CREATED));
+        }
+        publishChanged(userId, TodoChangedEvent.Type.CREATED, saved.stream().map(TodoItem::getId).toList());
+
+        BatchTodoResponse response = BatchTodoResponse.of(List.of(results));
+        logger.info("使用者 {} 批次建立完成，成功: {}, 失敗: {}", username, response.succeeded(), response.failed());
+        return response;
+    }
+
+    @Override
+    public BatchTodoResponse completeTodos(List<Long> todoIds, String username) {
+        checkBatchSize(todoIds);
+        logger.info("使用者 {} 批次完成 {} 筆待辦事項", username, todoIds.size());
+
+        Long userId = resolveUserId(username);
+        Set<Long> owned = findOwnedIds(todoIds, userId);
+
+        Map<Long, BatchTodoResult.Status> statuses = new HashMap<>();
+        if (!owned.isEmpty()) {
+            Set<Long> alreadyCompleted = new HashSet<>(
+                    todoItemRepository.findIdsByIdInAndUserIdAndCompleted(owned, userId, true));
+            Set<Long> pending = new LinkedHashSet<>(owned);
+            pending.removeAll(alreadyCompleted);
+            if (!pending.isEmpty()) {
+                todoItemRepository.markCompletedByIdInAndUserId(pending, userId, LocalDateTime.now());
+                publishChanged(userId, TodoChangedEvent.Type.COMPLETED, List.copyOf(pending));
+            }
+            alreadyCompleted.forEach(id -> statuses.put(id, BatchTodoResult.Status.ALREADY_COMPLETED));
+            pending.forEach(id -> statuses.put(id, BatchTodoResult.Status.COMPLETED));
+        }
+
+        return buildResults(todoIds, statuses);
+    }
+
+    @Override
+    public BatchTodoResponse deleteTodos(List<Long> todoIds, String username) {
+        checkBatchSize(todoIds);
+        logger.info("使用者 {} 批次刪除 {} 筆待辦事項", username, todoIds.size());
+
+        Long userId = resolveUserId(username);
+        Set<Long> owned = findOwnedIds(todoIds, userId);
+
+        Map<Long, BatchTodoResult.Status> statuses = new HashMap<>();
+        if (!owned.isEmpty()) {
+            todoItemRepository.deleteByIdInAndUserId(owned, userId);
+            publishChanged(userId, TodoChangedEvent.Type.DELETED, List.copyOf(owned));
+            owned.forEach(id -> statuses.put(id, BatchTodoResult.Status.DELETED));
+        }
+
+        return buildResults(todoIds, statuses);
+    }
+
+    /**
+     * 以單一查詢找出請求中屬於使用者的待辦事項 ID
+     * @param todoIds 請求的待辦事項 ID（可能包含 null 與重複值）
+     * @param userId 使用者 ID
+     * @return 屬於使用者的待辦事項 ID
+     */
+    private Set<Long> findOwnedIds(List<Long> todoIds, Long userId) {
+        Set<Long> distinct = todoIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinct.isEmpty()) {
+            return Set.of();
+        }
+        return new LinkedHashSet<>(todoItemRepository.findIdsByIdInAndUserId(distinct, userId));
+    }
+
+    /**
+     * 依請求順序組合各項目的結果
+     * 查不到狀態的 ID 不論是不存在或不屬於該使用者，一律回報為 NOT_FOUND，避免洩漏其他使用者的資料是否存在
+     * @param todoIds 請求的待辦事項 ID
+     * @param statuses 已處理的待辦事項狀態
+     * @return 批次操作回應
+     */
+    private BatchTodoResponse buildResults(List<Long> todoIds, Map<Long, BatchTodoResult.Status> statuses) {
+        List<BatchTodoResult> results = new ArrayList<>(todoIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < todoIds.size(); i++) {
+            Long id = todoIds.get(i);
+            if (id == null) {
+                results.add(new BatchTodoResult(i, null, BatchTodoResult.Status.INVALID, "待辦事項ID不能為空"));
+            } else if (!seen.add(id)) {
+                results.add(new BatchTodoResult(i, id, BatchTodoResult.Status.INVALID, "重複的待辦事項ID"));
+            } else {
+                BatchTodoResult.Status status = statuses.getOrDefault(id, BatchTodoResult.Status.NOT_FOUND);
+                results.add(new BatchTodoResult(i, id, status, messageFor(status)));
+            }
+        }
+        return BatchTodoResponse.of(results);
+    }
+
+    private void publishChanged(Long userId, TodoChangedEvent.Type type, List<Long> todoIds) {
+        if (!todoIds.isEmpty()) {
+            eventPublisher.publishEvent(new TodoChangedEvent(userId, type, todoIds));
+        }
+    }
+
+    private static String messageFor(BatchTodoResult.Status status) {
+        return switch (status) {
+            case CREATED -> "建立成功";
+            case COMPLETED -> "已標記為完成";
+            case ALREADY_COMPLETED -> "待辦事項已經完成";
+            case DELETED -> "刪除成功";
+            case NOT_FOUND -> "待辦事項不存在";
+            case INVALID -> "請求資料無效";
+        };
+    }
+
+    /**
+     * 驗證單一建立請求
+     * @param request 建立待辦事項請求
+     * @return 錯誤訊息，驗證通過時為 null
+     */
+    private String validate(CreateTodoRequest request) {
+        if (request == null) {
+            return "建立項目不能為空";
+        }
+        Set<ConstraintViolation<CreateTodoRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 檢查批次項目數量
+     * @param items 批次項目
+     * @throws IllegalArgumentException 如果沒有項目或超過上限
+     */
+    private static void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("批次項目不能為空");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("單次最多處理" + MAX_BATCH_SIZE + "筆");
+        }
+    }
+
+    /**
+     * 解析使用者 ID，同一個請求中只會解析一次
+     * @param username 使用者名稱
+     * @return 使用者 ID
+     * @throws UserNotFoundException 如果使用者不存在
+     */
+    private Long resolveUserId(String username) {
+        return currentUserResolver.resolveUserId(username);
+    }
+}
@@ -1,24 +1,35 @@
 package com.course.kirodemo.service.impl;
 
+import com.course.kirodemo.dto.BulkExtensionResult;
+import com.course.kirodemo.dto.EligibleTodoSummary;
+import com.course.kirodemo.dto.ExtendedTodoSummary;
 import com.course.kirodemo.entity.TodoItem;
-import com.course.kirodemo.entity.User;
+import com.course.kirodemo.event.TodoChangedEvent;
 import com.course.kirodemo.exception.TodoNotFoundException;
 import com.course.kirodemo.exception.UnauthorizedAccessException;
 import com.course.kirodemo.exception.UserNotFoundException;
 import com.course.kirodemo.repository.TodoItemRepository;
-import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.security.CurrentUserResolver;
 import com.course.kirodemo.service.DateValidationService;
+import com.course.kirodemo.service.TodoBatchService;
 import com.course.kirodemo.service.TodoExtensionService;
 import com.course.kirodemo.service.TodoService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -32,20 +43,23 @@ public class TodoExtensionServiceImpl implements TodoExtensionService {
     private static final Logger logger = LoggerFactory.getLogger(TodoExtensionServiceImpl.class);
     
     private final TodoItemRepository todoItemRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
     private final DateValidationService dateValidationService;
     private final TodoService todoService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
     public TodoExtensionServiceImpl(
             TodoItemRepository todoItemRepository,
-            UserRepository userRepository,
+            CurrentUserResolver currentUserResolver,
             DateValidationService dateValidationService,
-            TodoService todoService) {
+            TodoService todoService,
+            ApplicationEventPublisher eventPublisher) {
         this.todoItemRepository = todoItemRepository;
-        this.userRepository = userRepository;
+        this.currentUserResolver = currentUserResolver;
         this.dateValidationService = dateValidationService;
         this.todoService = todoService;
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
@@ -66,42 +80,98 @@ public class TodoExtensionServiceImpl implements TodoExtensionService {
         // 驗證延期天數
         validateExtensionDays(extensionDays);
         
-        // 查詢並驗證使用者權限
-        TodoItem todoItem = findAndValidateUserTodo(todoId, username);
+        // 以單一 UPDATE 延期，延期條件寫在 WHERE 子句中
+        Long userId = resolveUserId(username);
+        int updated = extendIfEligible(todoId, userId, extensionDays);
         
-        // 檢查是否符合延期條件
-        if (!isEligibleForExtension(todoItem)) {
+        if (updated == 0) {
+            // 沒有更新任何資料：先確認存在與權限，再判斷不符合延期條件的原因
+            TodoItem todoItem = findAndValidateUserTodo(todoId, username);
             String reason = determineIneligibilityReason(todoItem);
-            logger.warn("待辦事項 {} 不符合延期條件: {}", todoId, reason);
-            throw new IllegalStateException("此待辦事項不符合延期條件: " + reason);
+            if (reason != null) {
+                logger.warn("待辦事項 {} 不符合延期條件: {}", todoId, reason);
+                throw new IllegalStateException("此待辦事項不符合延期條件: " + reason);
+            }
+            // 重新讀取時已符合條件：UPDATE 與其他交易同時變更了這筆資料，重試一次
+            logger.debug("待辦事項 {} 在延期期間被同時變更，重試延期", todoId);
+            updated = extendIfEligible(todoId, userId, extensionDays);
+            if (updated == 0) {
+                logger.warn("待辦事項 {} 重試延期仍未更新，狀態持續被同時變更", todoId);
+                throw new IllegalStateException("待辦事項狀態已被同時變更，請重新整理後再試");
+            }
         }
         
-        // 執行延期操作
-        todoItem.extendDueDate(extensionDays);
-        
-        // 儲存更新
-        TodoItem extendedTodoItem = todoItemRepository.save(todoItem);
+        // 以主鍵重新載入延期後的資料
+        TodoItem extendedTodoItem = todoItemRepository.findById(todoId)
+                .orElseThrow(() -> TodoNotFoundException.forId(todoId));
         logger.info("待辦事項延期成功，ID: {}，新到期日: {}，使用者: {}", 
                    todoId, extendedTodoItem.getDueDate(), username);
+        eventPublisher.publishEvent(TodoChangedEvent.of(userId, TodoChangedEvent.Type.EXTENDED, todoId));
         
         return extendedTodoItem;
     }
     
     @Override
-    @Transactional(readOnly = true)
-    public List<TodoItem> getEligibleTodosForUser(String username) {
-        logger.debug("取得使用者 {} 符合延期條件的待辦事項", username);
+    public BulkExtensionResult extendAllEligible(int extensionDays, String username) {
+        logger.info("使用者 {} 嘗試延期所有符合條件的待辦事項，延期天數: {}", username, extensionDays);
+        
+        validateExtensionDays(extensionDays);
+        
+        // 以單一 UPDATE 延期，挑選條件只在 WHERE 子句中，不先查出 ID 清單
+        Long userId = resolveUserId(username);
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int updated = todoItemRepository.extendDueDateByUserId(
+                userId, extensionDays, today, today.plusDays(EXTENSION_WINDOW_DAYS), now);
+        List<ExtendedTodoSummary> extended = updated == 0
+                ? List.of()
+                : todoItemRepository.findExtendedSummariesByUserId(userId, now);
+        publishExtended(userId, extended);
+        logger.info("使用者 {} 批次延期 {} 筆待辦事項", username, extended.size());
+        
+        return new BulkExtensionResult(extensionDays, extended, List.of());
+    }
+    
+    @Override
+    public BulkExtensionResult extendTodos(Collection<Long> todoIds, int extensionDays, String username) {
+        logger.info("使用者 {} 嘗試批次延期待辦事項，延期天數: {}", username, extensionDays);
+        
+        validateExtensionDays(extensionDays);
+        if (todoIds == null || todoIds.isEmpty()) {
+            throw new IllegalArgumentException("待辦事項ID不能為空");
+        }
+        if (todoIds.size() > TodoBatchService.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("單次最多處理" + TodoBatchService.MAX_BATCH_SIZE + "筆");
+        }
+        
+        Set<Long> requestedIds = todoIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<ExtendedTodoSummary> extended = requestedIds.isEmpty()
+                ? List.of()
+                : extendByIds(requestedIds, resolveUserId(username), extensionDays, LocalDate.now());
         
-        // 查詢使用者
-        User user = getUserByUsername(username);
+        // 沒有延期的 ID 不區分原因，避免洩漏其他使用者的資料是否存在
+        Set<Long> extendedIds = extended.stream()
+                .map(ExtendedTodoSummary::id)
+                .collect(Collectors.toSet());
+        List<Long> skippedIds = requestedIds.stream()
+                .filter(id -> !extendedIds.contains(id))
+                .toList();
+        logger.info("使用者 {} 批次延期 {} 筆待辦事項，略過 {} 筆", username, extended.size(), skippedIds.size());
         
-        // 取得使用者所有未完成的待辦事項
-        List<TodoItem> incompleteTodos = todoItemRepository.findByUserAndCompleted(user, false);
+        return new BulkExtensionResult(extensionDays, extended, skippedIds);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<EligibleTodoSummary> getEligibleTodosForUser(String username) {
+        logger.debug("取得使用者 {} 符合延期條件的待辦事項", username);
         
-        // 篩選符合延期條件的待辦事項
-        List<TodoItem> eligibleTodos = incompleteTodos.stream()
-                .filter(this::isEligibleForExtension)
-                .collect(Collectors.toList());
+        // 以到期日範圍查詢，範圍與 TodoItem.isEligibleForExtension 相同：今天到今天加三天（含）
+        LocalDate today = LocalDate.now();
+        List<EligibleTodoSummary> eligibleTodos = todoItemRepository.findEligibleSummariesByUserId(
+                resolveUserId(username), today, today.plusDays(EXTENSION_WINDOW_DAYS));
         
         logger.debug("使用者 {} 有 {} 個待辦事項符合延期條件", username, eligibleTodos.size());
         
@@ -115,20 +185,51 @@ public class TodoExtensionServiceImpl implements TodoExtensionService {
         }
         
         // 額外的業務規則：限制最大延期天數為365天
-        if (extensionDays > 365) {
-            throw new IllegalArgumentException("延期天數不能超過365天，實際輸入: " + extensionDays);
+        if (extensionDays > MAX_EXTENSION_DAYS) {
+            throw new IllegalArgumentException("延期天數不能超過" + MAX_EXTENSION_DAYS + "天，實際輸入: " + extensionDays);
+        }
+    }
+    
+    /**
+     * 以單一 UPDATE 延期指定的待辦事項，並查回實際延期的資料列
+     * 延期時間截斷到微秒以符合資料庫精度，查回時以延期時間比對，只回傳這次 UPDATE 實際更新的資料列
+     * @param ids 待辦事項 ID
+     * @param userId 使用者 ID
+     * @param extensionDays 延期天數
+     * @param today 今天日期
+     * @return 延期後的待辦事項摘要
+     */
+    private List<ExtendedTodoSummary> extendByIds(Collection<Long> ids, Long userId, int extensionDays, LocalDate today) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int updated = todoItemRepository.extendDueDateByIdInAndUserId(
+                ids, userId, extensionDays, today, today.plusDays(EXTENSION_WINDOW_DAYS), now);
+        if (updated == 0) {
+            return List.of();
+        }
+        List<ExtendedTodoSummary> extended = todoItemRepository.findExtendedSummaries(ids, userId, now);
+        publishExtended(userId, extended);
+        return extended;
+    }
+    
+    private void publishExtended(Long userId, List<ExtendedTodoSummary> extended) {
+        if (!extended.isEmpty()) {
+            eventPublisher.publishEvent(new TodoChangedEvent(userId, TodoChangedEvent.Type.EXTENDED,
+                    extended.stream().map(ExtendedTodoSummary::id).toList()));
         }
     }
     
     /**
-     * 根據使用者名稱查詢使用者，如果不存在則拋出異常
+     * 解析使用者 ID，同一個請求中只會解析一次
      * @param username 使用者名稱
-     * @return 使用者實體
+     * @return 使用者 ID
      * @throws UserNotFoundException 如果使用者不存在
      */
-    private User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> UserNotFoundException.forUsername(username));
+    private Long resolveUserId(String username) {
+        return currentUserResolver.resolveUserId(username);
     }
     
     /**
@@ -140,9 +241,9 @@ public class TodoExtensionServiceImpl implements TodoExtensionService {
      * @throws UnauthorizedAccessException 如果使用者無權限存取
      */
     private TodoItem findAndValidateUserTodo(Long todoId, String username) {
-        User user = getUserByUsername(username);
+        Long userId = resolveUserId(username);
         
-        Optional<TodoItem> todoOptional = todoItemRepository.findByIdAndUser(todoId, user);
+        Optional<TodoItem> todoOptional = todoItemRepository.findByIdAndUserId(todoId, userId);
         if (todoOptional.isEmpty()) {
             // 檢查待辦事項是否存在（但不屬於該使用者）
             if (todoItemRepository.existsById(todoId)) {
@@ -157,10 +258,23 @@ public class TodoExtensionServiceImpl implements TodoExtensionService {
         return todoOptional.get();
     }
     
+    /**
+     * 以條件式 UPDATE 延期單一待辦事項
+     * @param todoId 待辦事項 ID
+     * @param userId 使用者 ID
+     * @param extensionDays 延期天數
+     * @return 更新的筆數，不存在、不屬於該使用者或不符合延期條件時為 0
+     */
+    private int extendIfEligible(Long todoId, Long userId, int extensionDays) {
+        LocalDate today = LocalDate.now();
+        return todoItemRepository.extendDueDateByIdAndUserId(
+                todoId, userId, extensionDays, today, today.plusDays(EXTENSION_WINDOW_DAYS), LocalDateTime.now());
+    }
+    
     /**
      * 判斷待辦事項不符合延期條件的原因
      * @param todoItem 待辦事項實體
-     * @return 不符合條件的原因描述
+     * @return 不符合條件的原因描述，符合延期條件時為 null
      */
     private String determineIneligibilityReason(TodoItem todoItem) {
         if (todoItem.isCompleted()) {
@@ -178,10 +292,10 @@ public class TodoExtensionServiceImpl implements TodoExtensionService {
             return "待辦事項已逾期";
         }
         
-        if (dueDate.isAfter(today.plusDays(3))) {
+        if (dueDate.isAfter(today.plusDays(EXTENSION_WINDOW_DAYS))) {
             return "待辦事項到期日超過三天";
         }
         
-        return "未知原因";
+        return null;
     }
 }
\ No newline at end of file
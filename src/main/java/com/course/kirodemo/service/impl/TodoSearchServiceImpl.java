@@ -0,0 +1,72 @@
+package com.course.kirodemo.service.impl;
+
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.dto.TodoSearchResult;
+import com.course.kirodemo.repository.TodoItemRepository;
+import com.course.kirodemo.search.TodoSearchIndex;
+import com.course.kirodemo.security.CurrentUserResolver;
+import com.course.kirodemo.service.TodoSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 待辦事項全文搜尋服務實作類別
+ * 排名與分頁在索引中完成，只以本頁的 ID 查詢一次資料庫取得列表投影
+ */
+@Service
+@Transactional(readOnly = true)
+public class TodoSearchServiceImpl implements TodoSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoSearchServiceImpl.class);
+
+    private final TodoSearchIndex searchIndex;
+    private final TodoItemRepository todoItemRepository;
+    private final CurrentUserResolver currentUserResolver;
+
+    @Autowired
+    public TodoSearchServiceImpl(TodoSearchIndex searchIndex,
+                                 TodoItemRepository todoItemRepository,
+                                 CurrentUserResolver currentUserResolver) {
+        this.searchIndex = searchIndex;
+        this.todoItemRepository = todoItemRepository;
+        this.currentUserResolver = currentUserResolver;
+    }
+
+    @Override
+    public TodoSearchResult search(String query, int page, int size, String username) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("搜尋關鍵字不能為空");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("頁碼不能為負數");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Long userId = currentUserResolver.resolveUserId(username);
+
+        int offset = (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+        TodoSearchIndex.SearchHits hits = searchIndex.search(userId, query, offset, pageSize);
+        logger.debug("使用者 {} 搜尋「{}」，命中 {} 筆", username, query, hits.total());
+        if (hits.todoIds().isEmpty()) {
+            return new TodoSearchResult(query, List.of(), page, pageSize, hits.total());
+        }
+
+        // 依索引的排名順序重新排列查詢結果
+        Map<Long, TodoListItem> itemsById = todoItemRepository.findListItemsByIdInAndUserId(hits.todoIds(), userId)
+                .stream()
+                .collect(Collectors.toMap(TodoListItem::id, Function.identity()));
+        List<TodoListItem> items = hits.todoIds().stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new TodoSearchResult(query, items, page, pageSize, hits.total());
+    }
+}
@@ -1,22 +1,31 @@
 package com.course.kirodemo.service.impl;
 
 import com.course.kirodemo.dto.CreateTodoRequest;
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.dto.TodoPage;
+import com.course.kirodemo.dto.TodoPageCursor;
+import com.course.kirodemo.dto.TodoStats;
 import com.course.kirodemo.dto.UpdateTodoRequest;
 import com.course.kirodemo.entity.TodoItem;
 import com.course.kirodemo.entity.User;
+import com.course.kirodemo.event.TodoChangedEvent;
 import com.course.kirodemo.exception.TodoNotFoundException;
 import com.course.kirodemo.exception.UnauthorizedAccessException;
 import com.course.kirodemo.exception.UserNotFoundException;
 import com.course.kirodemo.repository.TodoItemRepository;
 import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.security.CurrentUserResolver;
 import com.course.kirodemo.service.TodoService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,11 +41,16 @@ public class TodoServiceImpl implements TodoService {
     
     private final TodoItemRepository todoItemRepository;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public TodoServiceImpl(TodoItemRepository todoItemRepository, UserRepository userRepository) {
+    public TodoServiceImpl(TodoItemRepository todoItemRepository, UserRepository userRepository,
+                           CurrentUserResolver currentUserResolver, ApplicationEventPublisher eventPublisher) {
         this.todoItemRepository = todoItemRepository;
         this.userRepository = userRepository;
+        this.currentUserResolver = currentUserResolver;
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
@@ -48,8 +62,9 @@ public class TodoServiceImpl implements TodoService {
         
         logger.info("使用者 {} 嘗試建立待辦事項: {}", username, request.getTitle());
         
-        // 查詢使用者
-        User user = getUserByUsername(username);
+        // 以使用者 ID 取得參照，不需要查詢使用者資料表
+        Long userId = resolveUserId(username);
+        User user = userRepository.getReferenceById(userId);
         
         // 建立待辦事項實體
         TodoItem todoItem = request.toEntity(user);
@@ -57,6 +72,7 @@ public class TodoServiceImpl implements TodoService {
         // 儲存待辦事項
         TodoItem savedTodoItem = todoItemRepository.save(todoItem);
         logger.info("待辦事項建立成功，ID: {}, 使用者: {}", savedTodoItem.getId(), username);
+        eventPublisher.publishEvent(TodoChangedEvent.of(userId, TodoChangedEvent.Type.CREATED, savedTodoItem.getId()));
         
         return savedTodoItem;
     }
@@ -66,16 +82,36 @@ public class TodoServiceImpl implements TodoService {
     public List<TodoItem> getUserTodos(String username, SortBy sortBy) {
         logger.debug("取得使用者 {} 的待辦事項，排序方式: {}", username, sortBy);
         
-        User user = getUserByUsername(username);
+        Long userId = resolveUserId(username);
         
         return switch (sortBy) {
-            case CREATED_AT_DESC -> todoItemRepository.findByUserOrderByCreatedAtDesc(user);
-            case CREATED_AT_ASC -> todoItemRepository.findByUserOrderByCreatedAtAsc(user);
-            case DUE_DATE_ASC -> todoItemRepository.findByUserOrderByDueDateAsc(user);
-            case DUE_DATE_DESC -> todoItemRepository.findByUserOrderByDueDateDesc(user);
+            case CREATED_AT_DESC -> todoItemRepository.findByUserIdOrderByCreatedAtDesc(userId);
+            case CREATED_AT_ASC -> todoItemRepository.findByUserIdOrderByCreatedAtAsc(userId);
+            case DUE_DATE_ASC -> todoItemRepository.findByUserIdOrderByDueDateAsc(userId);
+            case DUE_DATE_DESC -> todoItemRepository.findByUserIdOrderByDueDateDesc(userId);
         };
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public TodoPage getUserTodosPage(String username, SortBy sortBy, String cursor, int pageSize) {
+        logger.debug("分頁取得使用者 {} 的待辦事項，排序方式: {}，每頁: {}", username, sortBy, pageSize);
+        
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        TodoPageCursor pageCursor = decodeCursor(cursor, sortBy);
+        Long userId = resolveUserId(username);
+        
+        // 多取一筆以判斷是否還有下一頁
+        List<TodoListItem> fetched = findPage(userId, sortBy, pageCursor, Limit.of(size + 1));
+        if (fetched.size() <= size) {
+            return new TodoPage(fetched, sortBy, size, null);
+        }
+        
+        List<TodoListItem> items = fetched.subList(0, size);
+        String nextCursor = TodoPageCursor.after(items.get(size - 1), sortBy).encode();
+        return new TodoPage(items, sortBy, size, nextCursor);
+    }
+    
     @Override
     public TodoItem updateTodo(Long todoId, UpdateTodoRequest request, String username) {
         logger.info("使用者 {} 嘗試更新待辦事項 ID: {}", username, todoId);
@@ -86,7 +122,8 @@ public class TodoServiceImpl implements TodoService {
         }
         
         // 查詢並驗證權限
-        TodoItem todoItem = findAndValidateUserTodo(todoId, username);
+        Long userId = resolveUserId(username);
+        TodoItem todoItem = findAndValidateUserTodo(todoId, userId, username);
         
         // 更新待辦事項
         request.updateEntity(todoItem);
@@ -94,6 +131,7 @@ public class TodoServiceImpl implements TodoService {
         // 儲存更新
         TodoItem updatedTodoItem = todoItemRepository.save(todoItem);
         logger.info("待辦事項更新成功，ID: {}, 使用者: {}", todoId, username);
+        eventPublisher.publishEvent(TodoChangedEvent.of(userId, TodoChangedEvent.Type.UPDATED, todoId));
         
         return updatedTodoItem;
     }
@@ -103,102 +141,187 @@ public class TodoServiceImpl implements TodoService {
         logger.info("使用者 {} 嘗試刪除待辦事項 ID: {}", username, todoId);
         
         // 查詢並驗證權限
-        TodoItem todoItem = findAndValidateUserTodo(todoId, username);
+        Long userId = resolveUserId(username);
+        TodoItem todoItem = findAndValidateUserTodo(todoId, userId, username);
         
         // 刪除待辦事項
         todoItemRepository.delete(todoItem);
         logger.info("待辦事項刪除成功，ID: {}, 使用者: {}", todoId, username);
+        eventPublisher.publishEvent(TodoChangedEvent.of(userId, TodoChangedEvent.Type.DELETED, todoId));
     }
     
     @Override
     public TodoItem toggleComplete(Long todoId, String username) {
         logger.info("使用者 {} 嘗試切換待辦事項 {} 的完成狀態", username, todoId);
         
-        // 查詢並驗證權限
-        TodoItem todoItem = findAndValidateUserTodo(todoId, username);
-        
-        // 切換完成狀態
-        todoItem.toggleCompleted();
+        // 以單一 UPDATE 切換狀態，條件包含使用者 ID
+        Long userId = resolveUserId(username);
+        int updated = todoItemRepository.toggleCompletedByIdAndUserId(todoId, userId, LocalDateTime.now());
+        if (updated == 0) {
+            throw missingTodoException(todoId, username);
+        }
         
-        // 儲存更新
-        TodoItem updatedTodoItem = todoItemRepository.save(todoItem);
+        // 以主鍵重新載入更新後的狀態
+        TodoItem updatedTodoItem = todoItemRepository.findById(todoId)
+                .orElseThrow(() -> TodoNotFoundException.forId(todoId));
         logger.info("待辦事項狀態切換成功，ID: {}, 新狀態: {}, 使用者: {}", 
                    todoId, updatedTodoItem.isCompleted(), username);
+        eventPublisher.publishEvent(TodoChangedEvent.of(userId, TodoChangedEvent.Type.TOGGLED, todoId));
         
         return updatedTodoItem;
     }
     
+    @Override
+    public TodoItem completeTodo(Long todoId, String username) {
+        logger.info("使用者 {} 嘗試完成待辦事項 {}", username, todoId);
+        
+        Long userId = resolveUserId(username);
+        int updated = todoItemRepository.markCompletedByIdAndUserId(todoId, userId, LocalDateTime.now());
+        if (updated == 0) {
+            // 沒有更新任何資料：可能已經完成，或不存在、不屬於該使用者
+            TodoItem todoItem = todoItemRepository.findByIdAndUserId(todoId, userId)
+                    .orElseThrow(() -> missingTodoException(todoId, username));
+            logger.debug("待辦事項 {} 已經是完成狀態", todoId);
+            return todoItem;
+        }
+        
+        TodoItem completedTodoItem = todoItemRepository.findById(todoId)
+                .orElseThrow(() -> TodoNotFoundException.forId(todoId));
+        logger.info("待辦事項已標記為完成，ID: {}, 使用者: {}", todoId, username);
+        eventPublisher.publishEvent(TodoChangedEvent.of(userId, TodoChangedEvent.Type.COMPLETED, todoId));
+        
+        return completedTodoItem;
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public Optional<TodoItem> findUserTodo(Long todoId, String username) {
-        User user = getUserByUsername(username);
-        return todoItemRepository.findByIdAndUser(todoId, user);
+        return todoItemRepository.findByIdAndUserId(todoId, resolveUserId(username));
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<TodoItem> getCompletedTodos(String username) {
-        User user = getUserByUsername(username);
-        return todoItemRepository.findByUserAndCompletedOrderByCreatedAtDesc(user, true);
+        return todoItemRepository.findByUserIdAndCompletedOrderByCreatedAtDesc(resolveUserId(username), true);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<TodoItem> getIncompleteTodos(String username) {
-        User user = getUserByUsername(username);
-        return todoItemRepository.findByUserAndCompletedOrderByCreatedAtDesc(user, false);
+        return todoItemRepository.findByUserIdAndCompletedOrderByCreatedAtDesc(resolveUserId(username), false);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<TodoItem> getOverdueTodos(String username) {
-        User user = getUserByUsername(username);
-        return todoItemRepository.findOverdueTodosByUser(user, LocalDate.now());
+        return todoItemRepository.findOverdueTodosByUserId(resolveUserId(username), LocalDate.now());
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<TodoItem> getDueSoonTodos(String username) {
-        User user = getUserByUsername(username);
+        Long userId = resolveUserId(username);
+        LocalDate today = LocalDate.now();
+        LocalDate threeDaysLater = today.plusDays(3);
+        return todoItemRepository.findDueSoonTodosByUserId(userId, today, threeDaysLater);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public TodoStats getTodoStats(String username) {
+        Long userId = resolveUserId(username);
         LocalDate today = LocalDate.now();
         LocalDate threeDaysLater = today.plusDays(3);
-        return todoItemRepository.findDueSoonTodosByUser(user, today, threeDaysLater);
+        TodoStats stats = todoItemRepository.getStatsByUserId(userId, today, threeDaysLater);
+        return stats != null ? stats : TodoStats.empty();
+    }
+    
+    /**
+     * 解析分頁游標並確認與排序方式一致
+     * @param cursor 游標字串，可為 null
+     * @param sortBy 排序方式
+     * @return 分頁游標，第一頁時為 null
+     * @throws IllegalArgumentException 如果游標無效或與排序方式不符
+     */
+    private TodoPageCursor decodeCursor(String cursor, SortBy sortBy) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        
+        TodoPageCursor pageCursor = TodoPageCursor.decode(cursor);
+        if (pageCursor.getSortBy() != sortBy) {
+            throw new IllegalArgumentException("分頁游標與排序方式不符");
+        }
+        return pageCursor;
+    }
+    
+    /**
+     * 依排序方式與游標查詢一頁待辦事項
+     * @param userId 使用者 ID
+     * @param sortBy 排序方式
+     * @param cursor 分頁游標，第一頁時為 null
+     * @param limit 筆數上限
+     * @return 待辦事項列表投影
+     */
+    private List<TodoListItem> findPage(Long userId, SortBy sortBy, TodoPageCursor cursor, Limit limit) {
+        if (cursor == null) {
+            return switch (sortBy) {
+                case CREATED_AT_DESC -> todoItemRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit);
+                case CREATED_AT_ASC -> todoItemRepository.findByUserIdOrderByCreatedAtAscIdAsc(userId, limit);
+                case DUE_DATE_ASC -> todoItemRepository.findByUserIdOrderByDueDateAscIdAsc(userId, limit);
+                case DUE_DATE_DESC -> todoItemRepository.findByUserIdOrderByDueDateDescIdDesc(userId, limit);
+            };
+        }
+        
+        return switch (sortBy) {
+            case CREATED_AT_DESC -> todoItemRepository.findPageByUserIdOrderByCreatedAtDescAfter(
+                    userId, cursor.getCreatedAt(), cursor.getId(), limit);
+            case CREATED_AT_ASC -> todoItemRepository.findPageByUserIdOrderByCreatedAtAscAfter(
+                    userId, cursor.getCreatedAt(), cursor.getId(), limit);
+            case DUE_DATE_ASC -> todoItemRepository.findPageByUserIdOrderByDueDateAscAfter(
+                    userId, cursor.getDueDate(), cursor.getId(), limit);
+            case DUE_DATE_DESC -> todoItemRepository.findPageByUserIdOrderByDueDateDescAfter(
+                    userId, cursor.getDueDate(), cursor.getId(), limit);
+        };
     }
     
     /**
-     * 根據使用者名稱查詢使用者，如果不存在則拋出異常
+     * 解析使用者 ID，同一個請求中只會解析一次
      * @param username 使用者名稱
-     * @return 使用者實體
+     * @return 使用者 ID
      * @throws UserNotFoundException 如果使用者不存在
      */
-    private User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> UserNotFoundException.forUsername(username));
+    private Long resolveUserId(String username) {
+        return currentUserResolver.resolveUserId(username);
     }
     
     /**
      * 查詢待辦事項並驗證使用者權限
      * @param todoId 待辦事項 ID
+     * @param userId 使用者 ID
      * @param username 使用者名稱
      * @return 待辦事項實體
      * @throws TodoNotFoundException 如果待辦事項不存在
      * @throws UnauthorizedAccessException 如果使用者無權限存取
      */
-    private TodoItem findAndValidateUserTodo(Long todoId, String username) {
-        User user = getUserByUsername(username);
-        
-        Optional<TodoItem> todoOptional = todoItemRepository.findByIdAndUser(todoId, user);
-        if (todoOptional.isEmpty()) {
-            // 檢查待辦事項是否存在（但不屬於該使用者）
-            if (todoItemRepository.existsById(todoId)) {
-                logger.warn("使用者 {} 嘗試存取不屬於自己的待辦事項 ID: {}", username, todoId);
-                throw new UnauthorizedAccessException("您沒有權限存取此待辦事項");
-            } else {
-                logger.warn("待辦事項不存在，ID: {}", todoId);
-                throw TodoNotFoundException.forId(todoId);
-            }
+    private TodoItem findAndValidateUserTodo(Long todoId, Long userId, String username) {
+        return todoItemRepository.findByIdAndUserId(todoId, userId)
+                .orElseThrow(() -> missingTodoException(todoId, username));
+    }
+    
+    /**
+     * 在以使用者 ID 查不到或更新不到待辦事項時，判斷是不存在還是不屬於該使用者
+     * @param todoId 待辦事項 ID
+     * @param username 使用者名稱
+     * @return 對應的異常
+     */
+    private RuntimeException missingTodoException(Long todoId, String username) {
+        // 檢查待辦事項是否存在（但不屬於該使用者）
+        if (todoItemRepository.existsById(todoId)) {
+            logger.warn("使用者 {} 嘗試存取不屬於自己的待辦事項 ID: {}", username, todoId);
+            return new UnauthorizedAccessException("您沒有權限存取此待辦事項");
         }
-        
-        return todoOptional.get();
+        logger.warn("待辦事項不存在，ID: {}", todoId);
+        return TodoNotFoundException.forId(todoId);
     }
 }
\ No newline at end of file
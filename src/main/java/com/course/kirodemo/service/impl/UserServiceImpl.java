@@ -3,14 +3,18 @@ package com.course.kirodemo.service.impl;
 import com.course.kirodemo.dto.UserRegistrationRequest;
 import com.course.kirodemo.entity.User;
 import com.course.kirodemo.exception.UserAlreadyExistsException;
+import com.course.kirodemo.exception.UserNotFoundException;
 import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.security.UserDetailsCache;
 import com.course.kirodemo.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
@@ -25,12 +29,15 @@ public class UserServiceImpl implements UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final PasswordEncoder passwordEncoder;
     
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserDetailsCache userDetailsCache,
+                           PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.userDetailsCache = userDetailsCache;
+        this.passwordEncoder = passwordEncoder;
     }
     
     @Override
@@ -56,6 +63,7 @@ public class UserServiceImpl implements UserService {
         
         // 儲存使用者
         User savedUser = userRepository.save(user);
+        evictUserDetailsAfterCommit(savedUser.getUsername());
         logger.info("使用者註冊成功: {}", savedUser.getUsername());
         
         return savedUser;
@@ -96,6 +104,19 @@ public class UserServiceImpl implements UserService {
         return isValid;
     }
     
+    @Override
+    public User changePassword(String username, String newRawPassword) {
+        User user = findByUsername(username)
+                .orElseThrow(() -> UserNotFoundException.forUsername(username));
+        
+        user.setPassword(encodePassword(newRawPassword));
+        User savedUser = userRepository.save(user);
+        evictUserDetailsAfterCommit(savedUser.getUsername());
+        logger.info("使用者密碼已變更: {}", savedUser.getUsername());
+        
+        return savedUser;
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
@@ -114,4 +135,22 @@ public class UserServiceImpl implements UserService {
         
         return passwordEncoder.encode(rawPassword);
     }
-}
\ No newline at end of file
+    
+    /**
+     * 交易提交後才讓使用者詳細資訊快取失效
+     * 提交前失效的話，提交前的登入會重新載入舊的密碼雜湊並快取到過期為止，舊密碼在這段期間仍可登入
+     * @param username 使用者名稱
+     */
+    private void evictUserDetailsAfterCommit(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userDetailsCache.evict(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userDetailsCache.evict(username);
+            }
+        });
+    }
+}
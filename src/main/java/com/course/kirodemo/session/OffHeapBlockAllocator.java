@@ -0,0 +1,160 @@
+package com.course.kirodemo.session;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * off-heap 區塊配置器
+ * 以 1 MB 的 direct buffer（slab）切成 64 B 到 64 KB、2 的次方大小的區塊，
+ * 釋放的區塊放回同大小的空閒串列重複使用，不必每次儲存都 allocateDirect、等 GC 執行 Cleaner 才回收。
+ * slab 配置後不會歸還，off-heap 用量維持在尖峰用量；超過 64 KB 的內容改用 heap 陣列
+ */
+final class OffHeapBlockAllocator {
+
+    private static final int MIN_BLOCK_SHIFT = 6;
+    private static final int MAX_BLOCK_SHIFT = 16;
+    private static final int SLAB_SIZE = 1 << 20;
+
+    private final Queue<ByteBuffer>[] freeLists;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    OffHeapBlockAllocator() {
+        this.freeLists = new Queue[MAX_BLOCK_SHIFT - MIN_BLOCK_SHIFT + 1];
+        for (int i = 0; i < freeLists.length; i++) {
+            freeLists[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * 配置區塊並複製內容，回傳的區塊持有一個參照
+     * @param content 要儲存的內容（從 position 讀到 limit）
+     * @return 區塊
+     */
+    Block allocate(ByteBuffer content) {
+        int length = content.remaining();
+        int sizeClass = sizeClass(length);
+        ByteBuffer buffer;
+        if (sizeClass < 0) {
+            buffer = ByteBuffer.allocate(length);
+        } else {
+            buffer = take(sizeClass);
+            usedBytes.addAndGet(buffer.capacity());
+        }
+        buffer.clear();
+        buffer.put(content);
+        return new Block(buffer, length, sizeClass);
+    }
+
+    /**
+     * 取得 slab 已配置的 off-heap 位元組數
+     * @return 位元組數
+     */
+    long reservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * 取得使用中區塊的 off-heap 位元組數
+     * @return 位元組數
+     */
+    long usedBytes() {
+        return usedBytes.get();
+    }
+
+    private ByteBuffer take(int sizeClass) {
+        Queue<ByteBuffer> freeList = freeLists[sizeClass];
+        ByteBuffer block = freeList.poll();
+        if (block != null) {
+            return block;
+        }
+        synchronized (freeList) {
+            block = freeList.poll();
+            if (block != null) {
+                return block;
+            }
+            // 切出新的 slab，第一個區塊直接使用，其餘放入空閒串列
+            int blockSize = 1 << (sizeClass + MIN_BLOCK_SHIFT);
+            ByteBuffer slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+            reservedBytes.addAndGet(SLAB_SIZE);
+            for (int offset = blockSize; offset < SLAB_SIZE; offset += blockSize) {
+                freeList.add(slab.slice(offset, blockSize));
+            }
+            return slab.slice(0, blockSize);
+        }
+    }
+
+    private void free(ByteBuffer buffer, int sizeClass) {
+        if (sizeClass >= 0) {
+            usedBytes.addAndGet(-buffer.capacity());
+            freeLists[sizeClass].add(buffer);
+        }
+    }
+
+    private static int sizeClass(int length) {
+        if (length > 1 << MAX_BLOCK_SHIFT) {
+            return -1;
+        }
+        int shift = Math.max(MIN_BLOCK_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1));
+        return shift - MIN_BLOCK_SHIFT;
+    }
+
+    /**
+     * 以參照計數管理的區塊
+     * 儲存庫中的每個會話持有一個參照，讀取期間另外持有一個參照，
+     * 最後一個參照釋放時區塊才放回空閒串列，避免讀取中的區塊被其他會話重複使用
+     */
+    final class Block {
+
+        private final ByteBuffer buffer;
+        private final int length;
+        private final int sizeClass;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Block(ByteBuffer buffer, int length, int sizeClass) {
+            this.buffer = buffer;
+            this.length = length;
+            this.sizeClass = sizeClass;
+        }
+
+        /**
+         * 取得內容的唯讀檢視
+         * @return 從 0 到內容長度的唯讀 buffer
+         */
+        ByteBuffer content() {
+            return buffer.asReadOnlyBuffer().position(0).limit(length);
+        }
+
+        int length() {
+            return length;
+        }
+
+        /**
+         * 增加參照
+         * @return false 如果區塊已經釋放
+         */
+        boolean retain() {
+            int current;
+            do {
+                current = references.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * 釋放參照，最後一個參照釋放時歸還區塊
+         */
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                free(buffer, sizeClass);
+            }
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package com.course.kirodemo.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 記憶體內的會話儲存庫
+ * 會話中繼資料放在依會話 ID 分片的 ConcurrentHashMap，屬性以 {@link SessionAttributeCodec} 編碼後
+ * 存放在 {@link OffHeapBlockAllocator} 配置的 off-heap 區塊，不增加 GC 需要掃描的物件，
+ * 區塊由 slab 切出並重複使用，會話頻繁建立與變更時也不會持續配置新的 direct buffer；
+ * 只有屬性變更時才重新編碼，單純存取只更新最後存取時間
+ *
+ * 到期清除由 {@link SessionExpiryWheel} 時間輪驅動，讀取時也會檢查到期時間；
+ * 閒置逾時為負數（永不到期）的會話不排入時間輪。
+ * 會話只存在於單一 JVM 且重啟後消失，需要持久化或多節點共用時請使用 JDBC 儲存
+ */
+public class OffHeapSessionRepository
+        implements FindByIndexNameSessionRepository<OffHeapSessionRepository.OffHeapSession>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapSessionRepository.class);
+
+    private static final int WHEEL_SLOTS = 512;
+
+    private final Map<String, StoredSession>[] shards;
+    private final int shardMask;
+    private final Map<String, Set<String>> principalIndex = new ConcurrentHashMap<>();
+    private final PrincipalNameIndexResolver<Session> principalNameResolver =
+            new PrincipalNameIndexResolver<>(PRINCIPAL_NAME_INDEX_NAME);
+    private final SessionAttributeCodec codec;
+    private final OffHeapBlockAllocator allocator = new OffHeapBlockAllocator();
+    private final Duration defaultMaxInactiveInterval;
+    private final Duration expiryTick;
+    private final Clock clock;
+    private final SessionExpiryWheel expiryWheel;
+    private ScheduledExecutorService expiryTimer;
+
+    /**
+     * @param codec 屬性編碼器
+     * @param shardCount 分片數量（會調整為 2 的次方）
+     * @param defaultMaxInactiveInterval 預設的閒置逾時
+     * @param expiryTick 到期檢查的時間刻度
+     * @param clock 時鐘
+     */
+    @SuppressWarnings("unchecked")
+    public OffHeapSessionRepository(SessionAttributeCodec codec, int shardCount, Duration defaultMaxInactiveInterval,
+                                    Duration expiryTick, Clock clock) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("分片數量必須為正數");
+        }
+        int size = Math.max(1, Integer.highestOneBit(shardCount - 1) << 1);
+        this.shards = new Map[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.shardMask = size - 1;
+        this.codec = codec;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.expiryTick = expiryTick;
+        this.clock = clock;
+        this.expiryWheel = new SessionExpiryWheel(expiryTick, WHEEL_SLOTS, clock.instant());
+    }
+
+    /**
+     * 啟動背景的到期清除
+     */
+    public synchronized void start() {
+        if (expiryTimer != null) {
+            return;
+        }
+        expiryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = expiryTick.toMillis();
+        expiryTimer.scheduleWithFixedDelay(this::cleanUpExpiredSessions, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (expiryTimer != null) {
+            expiryTimer.shutdownNow();
+            expiryTimer = null;
+        }
+    }
+
+    @Override
+    public OffHeapSession createSession() {
+        MapSession delegate = new MapSession();
+        delegate.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        delegate.setCreationTime(clock.instant());
+        delegate.setLastAccessedTime(delegate.getCreationTime());
+        return new OffHeapSession(delegate, true);
+    }
+
+    @Override
+    public void save(OffHeapSession session) {
+        String id = session.getId();
+        boolean renamed = !id.equals(session.originalId);
+        if (renamed) {
+            // 會話 ID 已變更（防止會話固定攻擊）：移除舊 ID，沿用既有屬性
+            StoredSession previous = shard(session.originalId).remove(session.originalId);
+            if (previous != null) {
+                unindex(session.originalId, previous.principalName);
+                previous.attributes.release();
+            } else if (!session.isNew) {
+                logger.debug("會話 {} 在請求期間已被刪除，不再寫回", session.originalId);
+                return;
+            }
+        }
+
+        Map<String, StoredSession> shard = shard(id);
+        String principalName = principalNameResolver.resolveIndexValueFor(session);
+        StoredSession stored;
+        StoredSession updated;
+        while (true) {
+            stored = shard.get(id);
+            if (stored == null && !session.isNew && !renamed) {
+                // 請求期間會話已被刪除（登出、同時登入限制或到期），與 JDBC 儲存的 UPDATE 一樣不做任何事
+                logger.debug("會話 {} 在請求期間已被刪除，不再寫回", id);
+                return;
+            }
+            // 沿用既有屬性時新項目另外持有一個參照；既有項目已被同時釋放時改為重新編碼
+            OffHeapBlockAllocator.Block attributes =
+                    stored != null && session.changedAttributes.isEmpty() && !session.isNew && stored.attributes.retain()
+                            ? stored.attributes
+                            : encodeAttributes(session);
+            updated = new StoredSession(session.getCreationTime(), session.getLastAccessedTime(),
+                    session.getMaxInactiveInterval(), principalName, attributes);
+            // 只替換讀到的項目，讀取後才被刪除的會話不會被放回
+            boolean written = stored == null
+                    ? shard.putIfAbsent(id, updated) == null
+                    : shard.replace(id, stored, updated);
+            if (written) {
+                break;
+            }
+            updated.attributes.release();
+        }
+        if (stored != null) {
+            stored.attributes.release();
+        }
+
+        String previousPrincipal = stored != null ? stored.principalName : null;
+        if (!Objects.equals(previousPrincipal, principalName)) {
+            unindex(id, previousPrincipal);
+        }
+        if (principalName != null) {
+            principalIndex.computeIfAbsent(principalName, name -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        // 已排程的會話由清除時重新排程；原本永不到期、之後改為會到期的會話在這裡補排程
+        boolean scheduled = stored != null && stored.expires();
+        if (!scheduled && updated.expires()) {
+            expiryWheel.schedule(id, updated.expiresAt());
+        }
+
+        session.markSaved();
+    }
+
+    @Override
+    public OffHeapSession findById(String id) {
+        Map<String, StoredSession> shard = shard(id);
+        while (true) {
+            StoredSession stored = shard.get(id);
+            if (stored == null) {
+                return null;
+            }
+            if (stored.isExpired(clock.instant())) {
+                remove(id, stored);
+                return null;
+            }
+            if (!stored.attributes.retain()) {
+                // 讀取前已被其他請求取代，重新讀取目前的項目
+                continue;
+            }
+            try {
+                return new OffHeapSession(stored.toMapSession(id, codec), false);
+            } finally {
+                stored.attributes.release();
+            }
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        StoredSession removed = shard(id).remove(id);
+        if (removed != null) {
+            unindex(id, removed.principalName);
+            removed.attributes.release();
+        }
+    }
+
+    @Override
+    public Map<String, OffHeapSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Collections.emptyMap();
+        }
+        Set<String> sessionIds = principalIndex.get(indexValue);
+        if (sessionIds == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, OffHeapSession> sessions = new HashMap<>();
+        for (String sessionId : Set.copyOf(sessionIds)) {
+            OffHeapSession session = findById(sessionId);
+            if (session != null) {
+                sessions.put(sessionId, session);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 推進時間輪並刪除已到期的會話
+     * 會話在排程後被存取而延後到期時，重新排程到新的到期時間；改為永不到期的會話不再排程
+     */
+    public void cleanUpExpiredSessions() {
+        Instant now = clock.instant();
+        int deleted = 0;
+        for (String id : expiryWheel.advance(now)) {
+            StoredSession stored = shard(id).get(id);
+            if (stored == null) {
+                continue;
+            }
+            if (stored.isExpired(now)) {
+                if (remove(id, stored)) {
+                    deleted++;
+                }
+            } else if (stored.expires()) {
+                expiryWheel.schedule(id, stored.expiresAt());
+            }
+        }
+        if (deleted > 0) {
+            logger.debug("已清除 {} 個到期的會話", deleted);
+        }
+    }
+
+    /**
+     * 取得目前儲存的會話數量
+     * @return 會話數量
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, StoredSession> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * 取得屬性使用中的 off-heap 位元組數（以區塊大小計算）
+     * @return 位元組數
+     */
+    public long offHeapBytes() {
+        return allocator.usedBytes();
+    }
+
+    /**
+     * 取得已配置的 off-heap 位元組數，包含空閒串列中等待重複使用的區塊
+     * @return 位元組數
+     */
+    public long reservedOffHeapBytes() {
+        return allocator.reservedBytes();
+    }
+
+    private Map<String, StoredSession> shard(String id) {
+        int hash = id.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    /**
+     * 取得時間輪中排程的到期檢查數量
+     * @return 排程數量
+     */
+    int scheduledExpiryCount() {
+        return expiryWheel.size();
+    }
+
+    /**
+     * 只在項目仍是指定的項目時移除，避免刪除同時被重新儲存的會話
+     * @return true 如果已移除
+     */
+    private boolean remove(String id, StoredSession stored) {
+        if (!shard(id).remove(id, stored)) {
+            return false;
+        }
+        unindex(id, stored.principalName);
+        stored.attributes.release();
+        return true;
+    }
+
+    private void unindex(String sessionId, String principalName) {
+        if (principalName == null) {
+            return;
+        }
+        principalIndex.computeIfPresent(principalName, (name, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    /**
+     * 將所有屬性編碼到一個 off-heap 區塊
+     * 格式：屬性數量，接著每個屬性的名稱長度、名稱、內容長度、內容
+     */
+    private OffHeapBlockAllocator.Block encodeAttributes(OffHeapSession session) {
+        EncodingBuffer bytes = new EncodingBuffer();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            Set<String> names = session.getAttributeNames();
+            out.writeInt(names.size());
+            for (String name : names) {
+                byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+                byte[] valueBytes = codec.encode(session.getAttribute(name));
+                out.writeInt(nameBytes.length);
+                out.write(nameBytes);
+                out.writeInt(valueBytes.length);
+                out.write(valueBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("會話屬性編碼失敗", e);
+        }
+        return allocator.allocate(bytes.asByteBuffer());
+    }
+
+    /**
+     * 直接以內部陣列複製到 off-heap 區塊，不經過 toByteArray 的額外複本
+     */
+    private static final class EncodingBuffer extends ByteArrayOutputStream {
+
+        private EncodingBuffer() {
+            super(256);
+        }
+
+        private ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    /**
+     * 儲存中的會話：中繼資料在 heap，屬性在 off-heap
+     */
+    private record StoredSession(Instant creationTime, Instant lastAccessedTime, Duration maxInactiveInterval,
+                                 String principalName, OffHeapBlockAllocator.Block attributes) {
+
+        Instant expiresAt() {
+            return lastAccessedTime.plus(maxInactiveInterval);
+        }
+
+        boolean expires() {
+            return !maxInactiveInterval.isNegative();
+        }
+
+        boolean isExpired(Instant now) {
+            return expires() && !now.isBefore(expiresAt());
+        }
+
+        MapSession toMapSession(String id, SessionAttributeCodec codec) {
+            MapSession session = new MapSession(id);
+            session.setCreationTime(creationTime);
+            session.setLastAccessedTime(lastAccessedTime);
+            session.setMaxInactiveInterval(maxInactiveInterval);
+
+            ByteBuffer buffer = attributes.content();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                byte[] value = new byte[buffer.getInt()];
+                buffer.get(value);
+                session.setAttribute(new String(name, StandardCharsets.UTF_8), codec.decode(value));
+            }
+            return session;
+        }
+    }
+
+    /**
+     * 記憶體儲存庫的會話
+     * 記錄原始 ID 與變更過的屬性名稱，儲存時只在屬性有變更時重新編碼
+     */
+    public static final class OffHeapSession implements Session {
+
+        private final MapSession delegate;
+        private final Set<String> changedAttributes = new HashSet<>();
+        private boolean isNew;
+        private String originalId;
+
+        OffHeapSession(MapSession delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.isNew = isNew;
+            this.originalId = delegate.getId();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        /**
+         * 與 Spring Session 預設的 SaveMode.ON_SET_ATTRIBUTE 相同，只讀取不會視為變更
+         */
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changedAttributes.add(attributeName);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            changedAttributes.add(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+
+        private void markSaved() {
+            changedAttributes.clear();
+            isNew = false;
+            originalId = delegate.getId();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.course.kirodemo.session;
+
+import com.course.kirodemo.security.CustomUserPrincipal;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.FlashMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 會話屬性的精簡編碼器
+ * 以一個位元組的型別標記開頭：常見的字串、數字與布林值直接寫入內容，
+ * 登入後每個會話都會有的安全性內容、CSRF token 與 flash 屬性由登錄的型別各自以欄位編碼，
+ * 巢狀的值以相同格式遞迴編碼；其他型別退回 JDK 序列化
+ *
+ * 登錄型別以類別完全相符比對，子類別一律退回 JDK 序列化，避免遺失子類別的欄位。
+ * 解碼時也接受 Spring Session 預設以 JDK 序列化寫入的舊資料
+ */
+public class SessionAttributeCodec {
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_INTEGER = 2;
+    static final byte TAG_LONG = 3;
+    static final byte TAG_BOOLEAN = 4;
+    static final byte TAG_SECURITY_CONTEXT = 16;
+    static final byte TAG_AUTHENTICATION_TOKEN = 17;
+    static final byte TAG_USER_PRINCIPAL = 18;
+    static final byte TAG_GRANTED_AUTHORITY = 19;
+    static final byte TAG_WEB_AUTHENTICATION_DETAILS = 20;
+    static final byte TAG_CSRF_TOKEN = 21;
+    static final byte TAG_FLASH_MAP = 22;
+    static final byte TAG_FLASH_MAP_LIST = 23;
+    static final byte TAG_JDK = 127;
+
+    /**
+     * JDK 序列化資料流的開頭（0xACED），用來辨識尚未以本格式寫入的舊資料
+     */
+    private static final byte JDK_STREAM_MAGIC_0 = (byte) 0xAC;
+    private static final byte JDK_STREAM_MAGIC_1 = (byte) 0xED;
+
+    private final Map<Class<?>, Registration<?>> registrationsByType = new HashMap<>();
+    private final Registration<?>[] registrationsByTag = new Registration<?>[TAG_JDK];
+    private final ClassLoader classLoader;
+
+    public SessionAttributeCodec() {
+        this(SessionAttributeCodec.class.getClassLoader());
+    }
+
+    /**
+     * @param classLoader 退回 JDK 序列化時載入類別使用的類別載入器
+     */
+    public SessionAttributeCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        registerSecurityTypes();
+        registerWebTypes();
+    }
+
+    /**
+     * 編碼會話屬性
+     * @param value 屬性值，可為 null
+     * @return 編碼後的位元組
+     * @throws IllegalArgumentException 如果屬性值無法序列化
+     */
+    public byte[] encode(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValue(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("會話屬性編碼失敗", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 解碼會話屬性
+     * @param bytes 編碼後的位元組
+     * @return 屬性值
+     * @throws IllegalArgumentException 如果型別標記無法辨識或內容無法還原
+     */
+    public Object decode(byte[] bytes) {
+        if (bytes.length >= 2 && bytes[0] == JDK_STREAM_MAGIC_0 && bytes[1] == JDK_STREAM_MAGIC_1) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                return readJdk(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("會話屬性解碼失敗", e);
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return readValue(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("會話屬性解碼失敗", e);
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(TAG_STRING);
+            writeString(out, string);
+        } else if (value instanceof Integer number) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(TAG_LONG);
+            out.writeLong(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean(flag);
+        } else {
+            Registration<?> registration = registrationsByType.get(value.getClass());
+            if (registration != null) {
+                out.writeByte(registration.tag());
+                registration.write(this, out, value);
+            } else if (value instanceof Serializable) {
+                out.writeByte(TAG_JDK);
+                writeJdk(out, value);
+            } else {
+                throw new IllegalArgumentException("會話屬性無法序列化: " + value.getClass().getName());
+            }
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_STRING -> readString(in);
+            case TAG_INTEGER -> in.readInt();
+            case TAG_LONG -> in.readLong();
+            case TAG_BOOLEAN -> in.readBoolean();
+            case TAG_JDK -> readJdk(in);
+            default -> {
+                Registration<?> registration = tag > 0 ? registrationsByTag[tag] : null;
+                if (registration == null) {
+                    throw new IllegalArgumentException("無法辨識的會話屬性型別標記: " + tag);
+                }
+                yield registration.reader().read(this, in);
+            }
+        };
+    }
+
+    /**
+     * 登錄以欄位編碼的型別
+     * @param tag 型別標記
+     * @param type 類別（完全相符才使用）
+     * @param writer 寫入欄位
+     * @param reader 讀取欄位並建立物件
+     */
+    private <T> void register(byte tag, Class<T> type, Writer<T> writer, Reader<T> reader) {
+        if (tag <= TAG_BOOLEAN || registrationsByTag[tag] != null) {
+            throw new IllegalStateException("型別標記重複: " + tag);
+        }
+        Registration<T> registration = new Registration<>(tag, type, writer, reader);
+        registrationsByType.put(type, registration);
+        registrationsByTag[tag] = registration;
+    }
+
+    private void registerSecurityTypes() {
+        register(TAG_SECURITY_CONTEXT, SecurityContextImpl.class,
+                (codec, out, context) -> codec.writeValue(out, context.getAuthentication()),
+                (codec, in) -> new SecurityContextImpl((Authentication) codec.readValue(in)));
+
+        register(TAG_AUTHENTICATION_TOKEN, UsernamePasswordAuthenticationToken.class,
+                (codec, out, token) -> {
+                    codec.writeValue(out, token.getPrincipal());
+                    codec.writeValue(out, token.getCredentials());
+                    codec.writeAuthorities(out, token.getAuthorities());
+                    codec.writeValue(out, token.getDetails());
+                    out.writeBoolean(token.isAuthenticated());
+                },
+                (codec, in) -> {
+                    Object principal = codec.readValue(in);
+                    Object credentials = codec.readValue(in);
+                    List<GrantedAuthority> authorities = codec.readAuthorities(in);
+                    Object details = codec.readValue(in);
+                    UsernamePasswordAuthenticationToken token = in.readBoolean()
+                            ? UsernamePasswordAuthenticationToken.authenticated(principal, credentials, authorities)
+                            : UsernamePasswordAuthenticationToken.unauthenticated(principal, credentials);
+                    token.setDetails(details);
+                    return token;
+                });
+
+        register(TAG_USER_PRINCIPAL, CustomUserPrincipal.class,
+                (codec, out, principal) -> {
+                    codec.writeValue(out, principal.getId());
+                    writeNullableString(out, principal.getUsername());
+                    writeNullableString(out, principal.getPassword());
+                    codec.writeAuthorities(out, principal.getAuthorities());
+                    out.writeByte((principal.isEnabled() ? 1 : 0)
+                            | (principal.isAccountNonExpired() ? 2 : 0)
+                            | (principal.isCredentialsNonExpired() ? 4 : 0)
+                            | (principal.isAccountNonLocked() ? 8 : 0));
+                },
+                (codec, in) -> {
+                    Long id = (Long) codec.readValue(in);
+                    String username = readNullableString(in);
+                    String password = readNullableString(in);
+                    List<GrantedAuthority> authorities = codec.readAuthorities(in);
+                    int flags = in.readByte();
+                    return new CustomUserPrincipal(id, username, password, authorities,
+                            (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0);
+                });
+
+        register(TAG_GRANTED_AUTHORITY, SimpleGrantedAuthority.class,
+                (codec, out, authority) -> writeString(out, authority.getAuthority()),
+                (codec, in) -> new SimpleGrantedAuthority(readString(in)));
+
+        register(TAG_WEB_AUTHENTICATION_DETAILS, WebAuthenticationDetails.class,
+                (codec, out, details) -> {
+                    writeNullableString(out, details.getRemoteAddress());
+                    writeNullableString(out, details.getSessionId());
+                },
+                (codec, in) -> new WebAuthenticationDetails(readNullableString(in), readNullableString(in)));
+    }
+
+    private void registerWebTypes() {
+        register(TAG_CSRF_TOKEN, DefaultCsrfToken.class,
+                (codec, out, token) -> {
+                    writeString(out, token.getHeaderName());
+                    writeString(out, token.getParameterName());
+                    writeString(out, token.getToken());
+                },
+                (codec, in) -> new DefaultCsrfToken(readString(in), readString(in), readString(in)));
+
+        register(TAG_FLASH_MAP, FlashMap.class,
+                (codec, out, flashMap) -> {
+                    writeNullableString(out, flashMap.getTargetRequestPath());
+                    MultiValueMap<String, String> params = flashMap.getTargetRequestParams();
+                    writeVarInt(out, params.size());
+                    for (Map.Entry<String, List<String>> param : params.entrySet()) {
+                        writeString(out, param.getKey());
+                        writeVarInt(out, param.getValue().size());
+                        for (String value : param.getValue()) {
+                            writeNullableString(out, value);
+                        }
+                    }
+                    out.writeLong(flashMap.getExpirationTime());
+                    writeVarInt(out, flashMap.size());
+                    for (Map.Entry<String, Object> attribute : flashMap.entrySet()) {
+                        writeString(out, attribute.getKey());
+                        codec.writeValue(out, attribute.getValue());
+                    }
+                },
+                (codec, in) -> {
+                    FlashMap flashMap = new FlashMap();
+                    flashMap.setTargetRequestPath(readNullableString(in));
+                    int paramCount = readVarInt(in);
+                    MultiValueMap<String, String> params = new LinkedMultiValueMap<>(paramCount);
+                    for (int i = 0; i < paramCount; i++) {
+                        String name = readString(in);
+                        int valueCount = readVarInt(in);
+                        for (int j = 0; j < valueCount; j++) {
+                            params.add(name, readNullableString(in));
+                        }
+                    }
+                    flashMap.addTargetRequestParams(params);
+                    flashMap.setExpirationTime(in.readLong());
+                    int attributeCount = readVarInt(in);
+                    for (int i = 0; i < attributeCount; i++) {
+                        flashMap.put(readString(in), codec.readValue(in));
+                    }
+                    return flashMap;
+                });
+
+        // SessionFlashMapManager 以 CopyOnWriteArrayList<FlashMap> 存放 flash 屬性
+        @SuppressWarnings("unchecked")
+        Class<CopyOnWriteArrayList<Object>> listType =
+                (Class<CopyOnWriteArrayList<Object>>) (Class<?>) CopyOnWriteArrayList.class;
+        register(TAG_FLASH_MAP_LIST, listType,
+                (codec, out, list) -> {
+                    Object[] elements = list.toArray();
+                    writeVarInt(out, elements.length);
+                    for (Object element : elements) {
+                        codec.writeValue(out, element);
+                    }
+                },
+                (codec, in) -> {
+                    int size = readVarInt(in);
+                    List<Object> elements = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        elements.add(codec.readValue(in));
+                    }
+                    return new CopyOnWriteArrayList<>(elements);
+                });
+    }
+
+    private void writeAuthorities(DataOutputStream out, Collection<? extends GrantedAuthority> authorities)
+            throws IOException {
+        writeVarInt(out, authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            writeValue(out, authority);
+        }
+    }
+
+    private List<GrantedAuthority> readAuthorities(DataInputStream in) throws IOException {
+        int size = readVarInt(in);
+        List<GrantedAuthority> authorities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            authorities.add((GrantedAuthority) readValue(in));
+        }
+        return authorities;
+    }
+
+    private static void writeJdk(DataOutputStream out, Object value) throws IOException {
+        ObjectOutputStream objectOut = new ObjectOutputStream(out);
+        objectOut.writeObject(value);
+        objectOut.flush();
+    }
+
+    private Object readJdk(DataInputStream in) throws IOException {
+        // 巢狀的 JDK 序列化值後面可能還有其他欄位，因此不關閉外層的資料流
+        ObjectInputStream objectIn = new ConfigurableObjectInputStream(in, classLoader);
+        try {
+            return objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("會話屬性的類別不存在: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 字串以 varint 長度加上 UTF-8 位元組寫入，短字串只多一個位元組
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("長度欄位格式錯誤");
+    }
+
+    @FunctionalInterface
+    private interface Writer<T> {
+        void write(SessionAttributeCodec codec, DataOutputStream out, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(SessionAttributeCodec codec, DataInputStream in) throws IOException;
+    }
+
+    private record Registration<T>(byte tag, Class<T> type, Writer<T> writer, Reader<T> reader) {
+
+        private void write(SessionAttributeCodec codec, DataOutputStream out, Object value) throws IOException {
+            writer.write(codec, out, type.cast(value));
+        }
+    }
+}
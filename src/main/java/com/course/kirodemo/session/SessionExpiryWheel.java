@@ -0,0 +1,101 @@
+package com.course.kirodemo.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 會話到期的時間輪
+ * 以固定數量的槽位依到期時間分桶，排程與推進都是 O(1)；到期時間超過一圈的項目會留在槽位中等待下一圈。
+ * 時間輪只提供「可能已到期」的候選，會話被存取後不需要移動項目，由呼叫端在處理候選時確認實際到期時間
+ */
+class SessionExpiryWheel {
+
+    private final long tickMillis;
+    private final Queue<Entry>[] slots;
+    private final int mask;
+    private volatile long currentTick;
+
+    /**
+     * @param tick 每個槽位代表的時間長度
+     * @param slotCount 槽位數量（會調整為 2 的次方）
+     * @param start 起始時間
+     */
+    @SuppressWarnings("unchecked")
+    SessionExpiryWheel(Duration tick, int slotCount, Instant start) {
+        if (tick.isZero() || tick.isNegative() || slotCount <= 0) {
+            throw new IllegalArgumentException("時間輪的刻度與槽位數量必須為正數");
+        }
+        int size = Integer.highestOneBit(slotCount - 1) << 1;
+        size = Math.max(size, 1);
+        this.tickMillis = tick.toMillis();
+        this.slots = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+        this.currentTick = toTick(start);
+    }
+
+    /**
+     * 排程會話的到期檢查
+     * @param sessionId 會話 ID
+     * @param expiresAt 到期時間
+     */
+    void schedule(String sessionId, Instant expiresAt) {
+        long deadline = Math.max(toTick(expiresAt), currentTick + 1);
+        slots[(int) (deadline & mask)].add(new Entry(sessionId, deadline));
+    }
+
+    /**
+     * 推進時間輪到指定時間，取出所有到期的候選
+     * 同一時間只應由一個執行緒呼叫
+     * @param now 目前時間
+     * @return 可能已到期的會話 ID
+     */
+    List<String> advance(Instant now) {
+        long targetTick = toTick(now);
+        List<String> due = new ArrayList<>();
+        // 落後超過一圈時每個槽位只需要處理一次
+        long from = Math.max(currentTick + 1, targetTick - mask);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Queue<Entry> slot = slots[(int) (tick & mask)];
+            int pending = slot.size();
+            for (int i = 0; i < pending; i++) {
+                Entry entry = slot.poll();
+                if (entry == null) {
+                    break;
+                }
+                if (entry.deadline <= targetTick) {
+                    due.add(entry.sessionId);
+                } else {
+                    slot.add(entry);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return due;
+    }
+
+    /**
+     * 取得排程中的項目數量
+     * @return 項目數量
+     */
+    int size() {
+        int size = 0;
+        for (Queue<Entry> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    private long toTick(Instant instant) {
+        return instant.toEpochMilli() / tickMillis;
+    }
+
+    private record Entry(String sessionId, long deadline) {
+    }
+}
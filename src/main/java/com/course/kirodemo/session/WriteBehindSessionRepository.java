@@ -0,0 +1,403 @@
+package com.course.kirodemo.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合併寫入的會話儲存庫
+ * 包在 JDBC 會話儲存庫前面，減少每個請求對 SPRING_SESSION 的寫入：
+ * <ul>
+ *   <li>只有最後存取時間變更時，距離上次寫入未超過設定的粒度就不寫入</li>
+ *   <li>屬性與逾時設定的變更先放進待寫入區，由背景執行緒定期合併後寫入，同一個會話在一個週期內只寫一次</li>
+ *   <li>新會話與會話 ID 變更（登入時防止會話固定攻擊）仍然立即寫入，讓其他節點能馬上找到會話</li>
+ * </ul>
+ *
+ * 讀取時會把尚未寫入的變更套用到從資料庫載入的會話，因此同一個節點上的後續請求能讀到自己的寫入。
+ * 資料庫中的最後存取時間最多落後「粒度＋寫入週期」，會話實際的閒置逾時因此可能提早同樣的時間
+ */
+public class WriteBehindSessionRepository
+        implements FindByIndexNameSessionRepository<WriteBehindSessionRepository.WriteBehindSession>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindSessionRepository.class);
+
+    private final FindByIndexNameSessionRepository<Session> delegate;
+    private final Duration accessTimeGranularity;
+    private final Duration flushInterval;
+    private final Map<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder baselineWriteCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    private ScheduledExecutorService flusher;
+
+    /**
+     * @param delegate 實際寫入資料庫的會話儲存庫
+     * @param accessTimeGranularity 最後存取時間的寫入粒度
+     * @param flushInterval 背景寫入的週期
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends Session> WriteBehindSessionRepository(FindByIndexNameSessionRepository<S> delegate,
+                                                            Duration accessTimeGranularity,
+                                                            Duration flushInterval) {
+        if (flushInterval.isZero() || flushInterval.isNegative()) {
+            throw new IllegalArgumentException("寫入週期必須為正數");
+        }
+        this.delegate = (FindByIndexNameSessionRepository<Session>) delegate;
+        this.accessTimeGranularity = accessTimeGranularity;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * 啟動背景寫入
+     */
+    public synchronized void start() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止背景寫入，並寫入所有尚未寫入的變更
+     */
+    @Override
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(flushInterval.toMillis() * 2, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        flush();
+        logger.info("會話寫入統計: {}", stats());
+    }
+
+    @Override
+    public WriteBehindSession createSession() {
+        return new WriteBehindSession(delegate.createSession(), true);
+    }
+
+    @Override
+    public void save(WriteBehindSession session) {
+        if (!session.saved) {
+            // 每個請求各自載入會話，同一個請求可能儲存多次（回應送出時與請求結束時）
+            session.saved = true;
+            requestCount.increment();
+        }
+        if (session.hasChanges()) {
+            // 直接寫入時每次有任何變更（包含每個請求都會更新的最後存取時間）就會寫一次
+            baselineWriteCount.increment();
+        }
+
+        if (session.isNew || !session.getId().equals(session.originalId)) {
+            // 新會話與 ID 變更立即寫入；載入時已套用待寫入的變更，因此舊 ID 的待寫入內容可以捨棄
+            pendingWrites.remove(session.originalId);
+            delegate.save(session.delegate);
+            writeCount.increment();
+            session.markPersisted();
+            return;
+        }
+
+        Instant lastAccessedTime = session.getLastAccessedTime();
+        boolean accessTimeDue = session.lastAccessedTimeChanged
+                && Duration.between(session.persistedLastAccessedTime, lastAccessedTime)
+                        .compareTo(accessTimeGranularity) >= 0;
+        if (session.changedAttributes.isEmpty() && session.changedMaxInactiveInterval == null && !accessTimeDue) {
+            if (session.lastAccessedTimeChanged) {
+                coalescedCount.increment();
+            }
+            session.clearChanges();
+            return;
+        }
+
+        // 需要寫入時一併帶上目前的最後存取時間，讓資料庫的到期時間盡量接近實際值
+        PendingWrite write = new PendingWrite(session.changedAttributes, lastAccessedTime,
+                session.changedMaxInactiveInterval);
+        pendingWrites.merge(session.getId(), write, PendingWrite::mergeWith);
+        session.persistedLastAccessedTime = lastAccessedTime;
+        session.clearChanges();
+    }
+
+    @Override
+    public WriteBehindSession findById(String id) {
+        Session loaded = delegate.findById(id);
+        if (loaded == null) {
+            pendingWrites.remove(id);
+            return null;
+        }
+        return wrapLoaded(loaded);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        pendingWrites.remove(id);
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, WriteBehindSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, Session> loaded = delegate.findByIndexNameAndIndexValue(indexName, indexValue);
+        Map<String, WriteBehindSession> sessions = new LinkedHashMap<>(loaded.size());
+        loaded.forEach((id, session) -> sessions.put(id, wrapLoaded(session)));
+        return sessions;
+    }
+
+    /**
+     * 寫入所有尚未寫入的變更
+     * 每個會話重新載入一次、套用合併後的變更再寫入一次；會話已經到期或被刪除時捨棄變更。
+     * 寫入成功後才移除待寫入的變更：寫入期間載入會話的請求仍會套用變更，寫入失敗時留到下個週期重試，
+     * 寫入期間又合併了新的變更時保留合併後的內容（已包含這次寫入的部分）
+     * @return 實際寫入的會話數量
+     */
+    public int flush() {
+        int flushed = 0;
+        for (Map.Entry<String, PendingWrite> entry : pendingWrites.entrySet()) {
+            String id = entry.getKey();
+            PendingWrite write = entry.getValue();
+            try {
+                Session session = delegate.findById(id);
+                if (session == null) {
+                    pendingWrites.remove(id, write);
+                    continue;
+                }
+                write.applyTo(session);
+                delegate.save(session);
+                pendingWrites.remove(id, write);
+                writeCount.increment();
+                flushed++;
+            } catch (RuntimeException e) {
+                // 單一會話失敗不影響其他會話
+                logger.warn("背景寫入會話 {} 失敗，於下個週期重試: {}", id, e.getMessage());
+            }
+        }
+        return flushed;
+    }
+
+    /**
+     * 取得尚未寫入的會話數量
+     * @return 待寫入的會話數量
+     */
+    public int pendingCount() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * 取得會話寫入統計
+     * @return 寫入統計
+     */
+    public SessionWriteStats stats() {
+        return new SessionWriteStats(requestCount.sum(), baselineWriteCount.sum(), writeCount.sum(),
+                coalescedCount.sum(), pendingWrites.size());
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("背景寫入會話失敗，於下個週期重試: {}", e.getMessage());
+        }
+    }
+
+    private WriteBehindSession wrapLoaded(Session loaded) {
+        PendingWrite write = pendingWrites.get(loaded.getId());
+        if (write != null) {
+            write.applyTo(loaded);
+        }
+        return new WriteBehindSession(loaded, false);
+    }
+
+    /**
+     * 會話寫入統計
+     *
+     * @param requests 使用到會話的請求數量
+     * @param baselineWrites 直接寫入時會發生的寫入次數
+     * @param writes 實際寫入資料庫的次數
+     * @param coalescedAccessUpdates 因未超過粒度而略過的最後存取時間更新次數
+     * @param pending 尚未寫入的會話數量
+     */
+    public record SessionWriteStats(long requests, long baselineWrites, long writes,
+                                    long coalescedAccessUpdates, int pending) {
+
+        /**
+         * 直接寫入時每個請求的平均寫入次數
+         * @return 每請求寫入次數
+         */
+        public double baselineWritesPerRequest() {
+            return requests == 0 ? 0 : (double) baselineWrites / requests;
+        }
+
+        /**
+         * 合併寫入後每個請求的平均寫入次數
+         * @return 每請求寫入次數
+         */
+        public double writesPerRequest() {
+            return requests == 0 ? 0 : (double) writes / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("請求 %d 次，直接寫入 %d 次（%.3f/請求），合併後寫入 %d 次（%.3f/請求），待寫入 %d",
+                    requests, baselineWrites, baselineWritesPerRequest(), writes, writesPerRequest(), pending);
+        }
+    }
+
+    /**
+     * 尚未寫入的變更，屬性值為 null 代表移除
+     */
+    private record PendingWrite(Map<String, Object> attributes, Instant lastAccessedTime,
+                                Duration maxInactiveInterval) {
+
+        private PendingWrite {
+            attributes = Collections.unmodifiableMap(new HashMap<>(attributes));
+        }
+
+        private PendingWrite mergeWith(PendingWrite newer) {
+            Map<String, Object> merged = new HashMap<>(attributes);
+            merged.putAll(newer.attributes);
+            Instant latestAccess = newer.lastAccessedTime.isAfter(lastAccessedTime)
+                    ? newer.lastAccessedTime : lastAccessedTime;
+            Duration maxInactive = newer.maxInactiveInterval != null ? newer.maxInactiveInterval : maxInactiveInterval;
+            return new PendingWrite(merged, latestAccess, maxInactive);
+        }
+
+        private void applyTo(Session session) {
+            attributes.forEach(session::setAttribute);
+            if (maxInactiveInterval != null) {
+                session.setMaxInactiveInterval(maxInactiveInterval);
+            }
+            if (lastAccessedTime.isAfter(session.getLastAccessedTime())) {
+                session.setLastAccessedTime(lastAccessedTime);
+            }
+        }
+    }
+
+    /**
+     * 記錄請求期間變更的會話
+     * 讀寫直接轉給底層會話，同時記下變更的項目供合併寫入使用
+     */
+    public static final class WriteBehindSession implements Session {
+
+        private final Session delegate;
+        private final Map<String, Object> changedAttributes = new HashMap<>();
+        private Duration changedMaxInactiveInterval;
+        private boolean lastAccessedTimeChanged;
+        private boolean isNew;
+        private boolean saved;
+        private String originalId;
+        private Instant persistedLastAccessedTime;
+
+        private WriteBehindSession(Session delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.isNew = isNew;
+            this.originalId = delegate.getId();
+            this.persistedLastAccessedTime = delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changedAttributes.put(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            setAttribute(attributeName, null);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+            lastAccessedTimeChanged = true;
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            changedMaxInactiveInterval = interval;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+
+        private boolean hasChanges() {
+            return isNew || !getId().equals(originalId) || lastAccessedTimeChanged
+                    || !changedAttributes.isEmpty() || changedMaxInactiveInterval != null;
+        }
+
+        private void markPersisted() {
+            isNew = false;
+            originalId = getId();
+            persistedLastAccessedTime = getLastAccessedTime();
+            clearChanges();
+        }
+
+        private void clearChanges() {
+            changedAttributes.clear();
+            changedMaxInactiveInterval = null;
+            lastAccessedTimeChanged = false;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 /**
  * TodoExtensionManager - 處理待辦事項延期功能的前端邏輯
+ * 開啟延期視窗時取得一次延期表單資料（目前到期日、天數範圍），之後新到期日的預覽在本機計算；
+ * 只有取不到表單資料時才改用 /extend/preview 由伺服器計算
  */
 class TodoExtensionManager {
     constructor() {
         this.currentTodoId = null;
         this.currentDueDate = null;
+        this.extensionForm = null;
+        this.formRequestId = 0;
+        this.previewRequestId = 0;
+        this.previewTimer = null;
         this.initEventListeners();
     }
     
@@ -48,7 +54,7 @@ class TodoExtensionManager {
                 document.querySelectorAll('.quick-select').forEach(btn => {
                     btn.classList.remove('active');
                 });
-                this.updatePreview();
+                this.schedulePreview();
             });
         }
         
@@ -92,6 +98,9 @@ class TodoExtensionManager {
         // 重置表單
         this.resetModal();
         
+        // 取得延期表單資料，供本機計算預覽
+        this.loadExtensionForm(todoId);
+        
         // 顯示模態框
         if (extendModal) {
             const modal = new bootstrap.Modal(extendModal);
@@ -101,10 +110,66 @@ class TodoExtensionManager {
         }
     }
     
+    /**
+     * 取得延期表單資料
+     * 回應帶有 ETag，重複開啟同一個待辦事項時瀏覽器會以 304 重新驗證
+     */
+    loadExtensionForm(todoId) {
+        const requestId = ++this.formRequestId;
+        
+        fetch(`/todos/${todoId}/extend`, {
+            method: 'GET',
+            headers: {
+                'X-Requested-With': 'XMLHttpRequest'
+            }
+        })
+        .then(response => response.json().then(data => ({ ok: response.ok, data })))
+        .then(({ ok, data }) => {
+            // 視窗已關閉或改開其他待辦事項
+            if (requestId !== this.formRequestId) {
+                return;
+            }
+            
+            if (!ok) {
+                this.showError(data.error || '無法取得延期資料');
+                return;
+            }
+            
+            this.extensionForm = data;
+            this.currentDueDate = data.currentDueDate;
+            
+            const currentDueDateSpan = document.getElementById('currentDueDate');
+            if (currentDueDateSpan) {
+                currentDueDateSpan.textContent = this.formatDate(data.currentDueDate);
+            }
+            
+            const extensionDaysInput = document.getElementById('extensionDays');
+            if (extensionDaysInput) {
+                extensionDaysInput.min = data.minExtensionDays;
+                extensionDaysInput.max = data.maxExtensionDays;
+                
+                // 資料回來前已經輸入的天數
+                if (extensionDaysInput.value) {
+                    this.updatePreview();
+                }
+            }
+        })
+        .catch(error => {
+            // 取不到表單資料時預覽改由伺服器計算
+            console.warn('無法取得延期表單資料，改用伺服器預覽', error);
+        });
+    }
+    
     /**
      * 重置模態框狀態
      */
     resetModal() {
+        // 捨棄尚未回應的請求與尚未執行的預覽
+        this.formRequestId++;
+        this.previewRequestId++;
+        clearTimeout(this.previewTimer);
+        this.extensionForm = null;
+        
         const extensionDaysInput = document.getElementById('extensionDays');
         const newDueDateSpan = document.getElementById('newDueDate');
         const datePreviewHelp = document.getElementById('datePreviewHelp');
@@ -131,19 +196,50 @@ class TodoExtensionManager {
         this.clearError();
     }
     
+    /**
+     * 輸入停止一段時間後再更新預覽，避免每個按鍵都驗證並顯示錯誤
+     */
+    schedulePreview() {
+        clearTimeout(this.previewTimer);
+        this.previewTimer = setTimeout(() => this.updatePreview(), TodoExtensionManager.PREVIEW_DEBOUNCE_MS);
+    }
+    
     /**
      * 更新延期預覽
      */
     updatePreview() {
-        const days = parseInt(document.getElementById('extensionDays').value);
+        clearTimeout(this.previewTimer);
+        const requestId = ++this.previewRequestId;
+        const extensionDaysInput = document.getElementById('extensionDays');
         
-        if (!days || days <= 0) {
-            document.getElementById('newDueDate').textContent = '';
-            document.getElementById('datePreviewHelp').style.display = 'none';
+        if (extensionDaysInput.value.trim() === '') {
+            extensionDaysInput.classList.remove('is-invalid');
+            this.clearError();
+            this.hidePreview();
             return;
         }
         
-        // 發送 AJAX 請求取得預覽
+        const days = parseInt(extensionDaysInput.value);
+        if (!this.validateInput(days)) {
+            this.hidePreview();
+            return;
+        }
+        
+        const newDueDate = this.extensionForm
+            ? this.addDays(this.extensionForm.currentDueDate, days)
+            : null;
+        if (newDueDate) {
+            this.showPreview(newDueDate);
+            return;
+        }
+        
+        this.fetchPreview(days, requestId);
+    }
+    
+    /**
+     * 由伺服器計算新到期日（取不到表單資料時的備用方案）
+     */
+    fetchPreview(days, requestId) {
         fetch(`/todos/${this.currentTodoId}/extend/preview?days=${days}`, {
             method: 'GET',
             headers: {
@@ -158,18 +254,58 @@ class TodoExtensionManager {
             return response.json();
         })
         .then(data => {
-            document.getElementById('newDueDate').textContent = this.formatDate(data.newDueDate);
-            document.getElementById('datePreviewHelp').style.display = 'block';
+            // 忽略已被較新輸入取代的回應
+            if (requestId !== this.previewRequestId) {
+                return;
+            }
+            this.showPreview(data.newDueDate);
             this.clearError();
         })
         .catch(error => {
+            if (requestId !== this.previewRequestId) {
+                return;
+            }
             const errorMessage = error.error || '預覽失敗，請檢查輸入的天數';
             this.showError(errorMessage);
-            document.getElementById('newDueDate').textContent = '';
-            document.getElementById('datePreviewHelp').style.display = 'none';
+            this.hidePreview();
         });
     }
     
+    /**
+     * 顯示新到期日預覽
+     */
+    showPreview(newDueDate) {
+        document.getElementById('newDueDate').textContent = this.formatDate(newDueDate);
+        document.getElementById('datePreviewHelp').style.display = 'block';
+    }
+    
+    /**
+     * 隱藏新到期日預覽
+     */
+    hidePreview() {
+        document.getElementById('newDueDate').textContent = '';
+        document.getElementById('datePreviewHelp').style.display = 'none';
+    }
+    
+    /**
+     * 計算日期加上天數後的日期
+     * 以 UTC 計算，不受時區與日光節約時間影響，結果與伺服器的 LocalDate.plusDays 相同
+     * @param {string} dateString YYYY-MM-DD 格式的日期
+     * @param {number} days 天數
+     * @returns {string|null} YYYY-MM-DD 格式的日期，無法解析時為 null
+     */
+    addDays(dateString, days) {
+        const match = /^(\d{4})-(\d{2})-(\d{2})$/.exec(dateString || '');
+        if (!match) {
+            return null;
+        }
+        const date = new Date(Date.UTC(Number(match[1]), Number(match[2]) - 1, Number(match[3]) + days));
+        if (isNaN(date.getTime()) || date.getUTCFullYear() > 9999) {
+            return null;
+        }
+        return date.toISOString().slice(0, 10);
+    }
+    
     /**
      * 確認延期操作
      */
@@ -264,8 +400,16 @@ class TodoExtensionManager {
             return false;
         }
         
-        if (days > 365) {
-            this.showError('延期天數不能超過365天');
+        const minDays = this.extensionForm?.minExtensionDays ?? 1;
+        if (days < minDays) {
+            this.showError(`延期天數不能少於${minDays}天`);
+            extensionDaysInput.classList.add('is-invalid');
+            return false;
+        }
+        
+        const maxDays = this.extensionForm?.maxExtensionDays ?? 365;
+        if (days > maxDays) {
+            this.showError(`延期天數不能超過${maxDays}天`);
             extensionDaysInput.classList.add('is-invalid');
             return false;
         }
@@ -352,13 +496,20 @@ class TodoExtensionManager {
             extendBtn.setAttribute('data-current-due-date', response.newDueDate);
             
             // 檢查新的到期日是否還符合延期條件（三天內）
-            const newDueDate = new Date(response.newDueDate + 'T00:00:00');
-            const today = new Date();
-            today.setHours(0, 0, 0, 0); // 設定為當天開始
-            const threeDaysLater = new Date(today.getTime() + (3 * 24 * 60 * 60 * 1000));
+            let outOfWindow;
+            if (this.extensionForm?.eligibleUntil) {
+                // 同為 YYYY-MM-DD 格式，可直接以字串比較
+                outOfWindow = response.newDueDate > this.extensionForm.eligibleUntil;
+            } else {
+                const newDueDate = new Date(response.newDueDate + 'T00:00:00');
+                const today = new Date();
+                today.setHours(0, 0, 0, 0); // 設定為當天開始
+                const threeDaysLater = new Date(today.getTime() + (3 * 24 * 60 * 60 * 1000));
+                outOfWindow = newDueDate > threeDaysLater;
+            }
             
             // 如果新到期日超過三天，隱藏延期按鈕
-            if (newDueDate > threeDaysLater) {
+            if (outOfWindow) {
                 extendBtn.style.display = 'none';
             }
         }
@@ -451,6 +602,11 @@ class TodoExtensionManager {
     }
 }
 
+/**
+ * 輸入停止多久後更新預覽（毫秒）
+ */
+TodoExtensionManager.PREVIEW_DEBOUNCE_MS = 200;
+
 // 當 DOM 載入完成後初始化延期管理器
 document.addEventListener('DOMContentLoaded', function() {
     // 只在待辦事項列表頁面初始化
@@ -0,0 +1,80 @@
+/**
+ * TodoLiveUpdates - 訂閱待辦事項變更事件，讓其他分頁或裝置的變更即時反映在列表上
+ * 刪除與標題、完成狀態的變更直接更新畫面；新增項目、到期日變更或事件被捨棄時提示重新整理
+ */
+class TodoLiveUpdates {
+    constructor(url) {
+        this.notice = document.getElementById('liveUpdateNotice');
+        this.source = new EventSource(url);
+        this.source.addEventListener('created', () => this.showNotice());
+        this.source.addEventListener('updated', (e) => this.patchItems(e, true));
+        this.source.addEventListener('completed', (e) => this.patchItems(e, false));
+        this.source.addEventListener('toggled', (e) => this.patchItems(e, false));
+        this.source.addEventListener('extended', (e) => this.patchItems(e, true));
+        this.source.addEventListener('deleted', (e) => this.removeItems(e));
+        this.source.addEventListener('resync', () => this.showNotice());
+    }
+
+    /**
+     * 更新畫面上已存在的待辦事項
+     * @param {MessageEvent} e 事件
+     * @param {boolean} dueDateChanged 到期日可能改變，列表狀態需要重新計算
+     */
+    patchItems(e, dueDateChanged) {
+        const payload = JSON.parse(e.data);
+        payload.items.forEach(item => {
+            const row = this.findRow(item.id);
+            if (!row) {
+                return;
+            }
+            const title = row.querySelector('.todo-title');
+            if (title) {
+                title.textContent = item.title;
+            }
+            const card = row.querySelector('.todo-item');
+            if (card) {
+                card.classList.toggle('todo-completed', item.completed);
+            }
+            const checkbox = row.querySelector('form .bi');
+            if (checkbox) {
+                checkbox.className = item.completed
+                    ? 'bi bi-check-square-fill text-success fs-4'
+                    : 'bi bi-square text-muted fs-4';
+            }
+        });
+        if (dueDateChanged) {
+            this.showNotice();
+        }
+    }
+
+    /**
+     * 移除已刪除的待辦事項
+     * @param {MessageEvent} e 事件
+     */
+    removeItems(e) {
+        const payload = JSON.parse(e.data);
+        payload.todoIds.forEach(id => {
+            const row = this.findRow(id);
+            if (row) {
+                row.remove();
+            }
+        });
+    }
+
+    findRow(id) {
+        return document.querySelector('[data-todo-row="' + id + '"]');
+    }
+
+    showNotice() {
+        if (this.notice) {
+            this.notice.classList.remove('d-none');
+        }
+    }
+}
+
+document.addEventListener('DOMContentLoaded', () => {
+    const notice = document.getElementById('liveUpdateNotice');
+    if (window.EventSource && notice && notice.dataset.eventsUrl) {
+        new TodoLiveUpdates(notice.dataset.eventsUrl);
+    }
+});
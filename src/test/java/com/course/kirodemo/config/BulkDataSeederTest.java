@@ -0,0 +1,94 @@
+package com.course.kirodemo.config;
+
+import com.course.kirodemo.entity.PooledSequenceGenerator;
+import com.course.kirodemo.repository.TodoItemRepository;
+import com.course.kirodemo.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * BulkDataSeeder 測試類別
+ * 測試大量資料的批次寫入與密碼只雜湊一次
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BulkDataSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private BulkDataSeeder seeder(PasswordEncoder encoder, int users, int todosPerUser, List<String> passwords) {
+        return new BulkDataSeeder(jdbcTemplate, encoder, true, users, todosPerUser, 7, "seed-user-", passwords,
+                PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE);
+    }
+
+    @Test
+    @DisplayName("應該依設定產生 N 個使用者 × M 筆待辦事項")
+    void test_seed_whenConfigured_then_shouldCreateUsersAndTodos() {
+        // Given (給定) - 記錄既有資料數量，批次大小刻意不整除總數
+        long usersBefore = userRepository.count();
+        long todosBefore = todoItemRepository.count();
+
+        // When (當) - 產生 5 個使用者 × 9 筆待辦事項
+        long created = seeder(passwordEncoder, 5, 9, List.of("password123")).seed();
+
+        // Then (那麼) - 驗證數量與密碼
+        assertEquals(45, created);
+        assertEquals(usersBefore + 5, userRepository.count());
+        assertEquals(todosBefore + 45, todoItemRepository.count());
+        String encoded = userRepository.findByUsername("seed-user-4").orElseThrow().getPassword();
+        assertTrue(passwordEncoder.matches("password123", encoded));
+    }
+
+    @Test
+    @DisplayName("相同的明文密碼應該只雜湊一次")
+    void test_seed_whenPasswordsRepeat_then_shouldEncodeOncePerDistinctPassword() {
+        // Given (給定) - 兩組密碼輪流指派給 6 個使用者
+        PasswordEncoder encoder = spy(passwordEncoder);
+
+        // When (當) - 產生使用者
+        seeder(encoder, 6, 0, List.of("password123", "loadtest456")).seed();
+
+        // Then (那麼) - 驗證只雜湊兩次
+        verify(encoder, times(2)).encode(any());
+        assertEquals(userRepository.findByUsername("seed-user-0").orElseThrow().getPassword(),
+                userRepository.findByUsername("seed-user-2").orElseThrow().getPassword());
+    }
+
+    @Test
+    @DisplayName("已存在相同前綴的使用者時應該跳過產生")
+    void test_seed_whenAlreadySeeded_then_shouldSkip() {
+        // Given (給定) - 先產生一次
+        seeder(passwordEncoder, 2, 3, List.of("password123")).seed();
+        long todosAfterFirstRun = todoItemRepository.count();
+
+        // When (當) - 再次產生
+        long created = seeder(passwordEncoder, 2, 3, List.of("password123")).seed();
+
+        // Then (那麼) - 驗證沒有重複寫入
+        assertEquals(0, created);
+        assertEquals(todosAfterFirstRun, todoItemRepository.count());
+    }
+}
@@ -8,7 +8,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,7 +35,8 @@ class DataInitializerTest {
     @Autowired
     private DataInitializer dataInitializer;
     
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordEncoder passwordEncoder;
     
     @Test
     @DisplayName("應用程式啟動時應該建立所有測試使用者")
@@ -72,8 +73,8 @@ class DataInitializerTest {
         assertTrue(chienlinOpt.isPresent());
         User chienlin = chienlinOpt.get();
         
-        // 驗證密碼是 BCrypt 格式
-        assertTrue(chienlin.getPassword().startsWith("$2a$"));
+        // 驗證密碼是帶有演算法前綴的 BCrypt 格式
+        assertTrue(chienlin.getPassword().startsWith("{bcrypt}$2a$"));
         
         // 驗證密碼可以正確驗證
         assertTrue(passwordEncoder.matches("1234", chienlin.getPassword()));
@@ -2,11 +2,17 @@ package com.course.kirodemo.controller;
 
 import com.course.kirodemo.dto.CreateTodoRequest;
 import com.course.kirodemo.dto.ExtendTodoRequest;
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.dto.TodoPage;
+import com.course.kirodemo.dto.TodoRowView;
+import com.course.kirodemo.dto.TodoStats;
 import com.course.kirodemo.dto.UpdateTodoRequest;
 import com.course.kirodemo.entity.TodoItem;
 import com.course.kirodemo.entity.User;
+import com.course.kirodemo.event.TodoVersionRegistry;
 import com.course.kirodemo.exception.TodoNotFoundException;
 import com.course.kirodemo.exception.UnauthorizedAccessException;
+import com.course.kirodemo.security.CurrentUserResolver;
 import com.course.kirodemo.service.DateValidationService;
 import com.course.kirodemo.service.TodoExtensionService;
 import com.course.kirodemo.service.TodoService;
@@ -17,7 +23,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -28,6 +36,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -39,6 +48,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 使用 @WebMvcTest 和 @MockBean 測試 HTTP 請求處理
  */
 @WebMvcTest(controllers = TodoController.class)
+@Import(TodoVersionRegistry.class)
 @DisplayName("TodoController 整合測試")
 class TodoControllerTest {
 
@@ -54,12 +64,19 @@ class TodoControllerTest {
     @MockBean
     private DateValidationService dateValidationService;
 
+    @MockBean
+    private CurrentUserResolver currentUserResolver;
+
+    @Autowired
+    private TodoVersionRegistry versionRegistry;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private User mockUser;
     private TodoItem mockTodoItem;
     private List<TodoItem> mockTodoList;
+    private List<TodoListItem> mockListItems;
     private CreateTodoRequest validCreateRequest;
     private UpdateTodoRequest validUpdateRequest;
 
@@ -92,9 +109,12 @@ class TodoControllerTest {
         completedTodo.setUser(mockUser);
 
         mockTodoList = Arrays.asList(mockTodoItem, completedTodo);
+        mockListItems = mockTodoList.stream().map(TodoListItem::fromEntity).toList();
 
         validCreateRequest = new CreateTodoRequest("新待辦事項", "新描述", LocalDate.now().plusDays(5));
         validUpdateRequest = new UpdateTodoRequest("更新的標題", "更新的描述", LocalDate.now().plusDays(10));
+
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
     }
 
     @Test
@@ -102,19 +122,148 @@ class TodoControllerTest {
     @DisplayName("GET /todos 當使用者已認證時應該回傳待辦事項列表頁面")
     void test_getTodos_whenUserAuthenticated_then_shouldReturnTodoListView() throws Exception {
         // Given
-        when(todoService.getUserTodos("testuser", TodoService.SortBy.CREATED_AT_DESC))
-                .thenReturn(mockTodoList);
+        when(todoService.getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, null, TodoService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new TodoPage(mockListItems, TodoService.SortBy.CREATED_AT_DESC, TodoService.DEFAULT_PAGE_SIZE, null));
 
         // When & Then
         mockMvc.perform(get("/todos"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("todos/list"))
                 .andExpect(model().attributeExists("todos"))
-                .andExpect(model().attribute("todos", mockTodoList))
+                .andExpect(model().attribute("todos", TodoRowView.of(mockListItems, LocalDate.now())))
                 .andExpect(model().attributeExists("sortBy"))
-                .andExpect(model().attribute("sortBy", "CREATED_AT_DESC"));
+                .andExpect(model().attribute("sortBy", "CREATED_AT_DESC"))
+                .andExpect(model().attribute("hasNext", false));
+
+        verify(todoService).getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, null, TodoService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    @DisplayName("GET /todos 帶有相符的 If-None-Match 時應該回應 304 且不查詢資料")
+    void test_getTodos_whenETagMatches_then_shouldReturnNotModifiedWithoutQuery() throws Exception {
+        // Given - 第一次請求取得 ETag
+        when(todoService.getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, null, TodoService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new TodoPage(mockListItems, TodoService.SortBy.CREATED_AT_DESC, TodoService.DEFAULT_PAGE_SIZE, null));
+        MockHttpSession session = new MockHttpSession();
+        String etag = mockMvc.perform(get("/todos").session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then - 內容未變更時回應 304
+        mockMvc.perform(get("/todos").session(session).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(todoService, times(1)).getUserTodosPage(anyString(), any(), any(), anyInt());
 
-        verify(todoService).getUserTodos("testuser", TodoService.SortBy.CREATED_AT_DESC);
+        // When & Then - 使用者的待辦事項變更後重新產生頁面
+        versionRegistry.bump(1L);
+        mockMvc.perform(get("/todos").session(session).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+        verify(todoService, times(2)).getUserTodosPage(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    @DisplayName("GET /todos/{id}/extend/preview 帶有相符的 If-None-Match 時應該回應 304 且不查詢資料")
+    void test_previewExtension_whenETagMatches_then_shouldReturnNotModifiedWithoutQuery() throws Exception {
+        // Given - 第一次請求取得 ETag
+        TodoItem todo = new TodoItem();
+        todo.setId(1L);
+        todo.setDueDate(LocalDate.now().plusDays(2));
+        when(todoService.findUserTodo(1L, "testuser")).thenReturn(Optional.of(todo));
+        when(dateValidationService.calculateNewDueDate(todo.getDueDate(), 3)).thenReturn(LocalDate.now().plusDays(5));
+        String etag = mockMvc.perform(get("/todos/1/extend/preview").param("days", "3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then - 相同天數回應 304，不同天數重新計算
+        mockMvc.perform(get("/todos/1/extend/preview").param("days", "3").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/todos/1/extend/preview").param("days", "4").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        verify(todoService, times(2)).findUserTodo(1L, "testuser");
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    @DisplayName("GET /todos 應該提供整體統計資料給列表頁")
+    void test_getTodos_whenStatsAvailable_then_shouldExposeStats() throws Exception {
+        // Given
+        TodoStats stats = new TodoStats(5L, 2L, 1L, 1L, 3L);
+        when(todoService.getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, null, TodoService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new TodoPage(mockListItems, TodoService.SortBy.CREATED_AT_DESC, TodoService.DEFAULT_PAGE_SIZE, null));
+        when(todoService.getTodoStats("testuser")).thenReturn(stats);
+
+        // When & Then
+        mockMvc.perform(get("/todos"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("stats", stats))
+                .andExpect(content().string(containsString("總延期次數")));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    @DisplayName("GET /todos/stats 應該以 JSON 回傳所有統計數字")
+    void test_getTodoStats_whenUserAuthenticated_then_shouldReturnJson() throws Exception {
+        // Given
+        when(todoService.getTodoStats("testuser")).thenReturn(new TodoStats(5L, 2L, 1L, 1L, 3L));
+
+        // When & Then
+        mockMvc.perform(get("/todos/stats"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.completed").value(2))
+                .andExpect(jsonPath("$.pending").value(3))
+                .andExpect(jsonPath("$.overdue").value(1))
+                .andExpect(jsonPath("$.dueSoon").value(1))
+                .andExpect(jsonPath("$.eligibleForExtension").value(1))
+                .andExpect(jsonPath("$.totalExtensions").value(3));
+
+        verify(todoService).getTodoStats("testuser");
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    @DisplayName("GET /todos 當還有下一頁時應該提供下一頁游標")
+    void test_getTodos_whenMorePagesExist_then_shouldExposeNextCursor() throws Exception {
+        // Given
+        when(todoService.getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, "abc", 2))
+                .thenReturn(new TodoPage(mockListItems, TodoService.SortBy.CREATED_AT_DESC, 2, "next-cursor"));
+
+        // When & Then
+        mockMvc.perform(get("/todos")
+                .param("cursor", "abc")
+                .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("todos/list"))
+                .andExpect(model().attribute("cursor", "abc"))
+                .andExpect(model().attribute("nextCursor", "next-cursor"))
+                .andExpect(model().attribute("hasNext", true))
+                .andExpect(content().string(containsString("next-cursor")));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    @DisplayName("GET /todos 當游標無效時應該回到第一頁")
+    void test_getTodos_whenCursorInvalid_then_shouldFallBackToFirstPage() throws Exception {
+        // Given
+        when(todoService.getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, "broken", TodoService.DEFAULT_PAGE_SIZE))
+                .thenThrow(new IllegalArgumentException("無效的分頁游標"));
+        when(todoService.getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, null, TodoService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new TodoPage(mockListItems, TodoService.SortBy.CREATED_AT_DESC, TodoService.DEFAULT_PAGE_SIZE, null));
+
+        // When & Then
+        mockMvc.perform(get("/todos")
+                .param("cursor", "broken"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("todos/list"))
+                .andExpect(model().attribute("todos", TodoRowView.of(mockListItems, LocalDate.now())))
+                .andExpect(model().attributeDoesNotExist("cursor"));
+
+        verify(todoService).getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, null, TodoService.DEFAULT_PAGE_SIZE);
     }
 
     @Test
@@ -122,8 +271,8 @@ class TodoControllerTest {
     @DisplayName("GET /todos 當指定排序方式時應該使用指定的排序")
     void test_getTodos_whenSortBySpecified_then_shouldUseSortBy() throws Exception {
         // Given
-        when(todoService.getUserTodos("testuser", TodoService.SortBy.DUE_DATE_ASC))
-                .thenReturn(mockTodoList);
+        when(todoService.getUserTodosPage("testuser", TodoService.SortBy.DUE_DATE_ASC, null, TodoService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new TodoPage(mockListItems, TodoService.SortBy.DUE_DATE_ASC, TodoService.DEFAULT_PAGE_SIZE, null));
 
         // When & Then
         mockMvc.perform(get("/todos")
@@ -133,7 +282,7 @@ class TodoControllerTest {
                 .andExpect(model().attributeExists("todos"))
                 .andExpect(model().attribute("sortBy", "DUE_DATE_ASC"));
 
-        verify(todoService).getUserTodos("testuser", TodoService.SortBy.DUE_DATE_ASC);
+        verify(todoService).getUserTodosPage("testuser", TodoService.SortBy.DUE_DATE_ASC, null, TodoService.DEFAULT_PAGE_SIZE);
     }
 
     @Test
@@ -419,8 +568,12 @@ class TodoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.todoId").value(1L))
                 .andExpect(jsonPath("$.title").value("即將到期的任務"))
-                .andExpect(jsonPath("$.currentDueDate").exists())
-                .andExpect(jsonPath("$.maxExtensionDays").value(365));
+                .andExpect(jsonPath("$.currentDueDate").value(LocalDate.now().plusDays(2).toString()))
+                .andExpect(jsonPath("$.minExtensionDays").value(1))
+                .andExpect(jsonPath("$.maxExtensionDays").value(365))
+                .andExpect(jsonPath("$.today").value(LocalDate.now().toString()))
+                .andExpect(jsonPath("$.eligibleFrom").value(LocalDate.now().toString()))
+                .andExpect(jsonPath("$.eligibleUntil").value(LocalDate.now().plusDays(3).toString()));
 
         verify(todoService).findUserTodo(1L, "testuser");
         verify(extensionService).isEligibleForExtension(eligibleTodo);
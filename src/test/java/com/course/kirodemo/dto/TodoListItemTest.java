@@ -0,0 +1,50 @@
+package com.course.kirodemo.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TodoListItem 單元測試
+ * 測試列表投影的描述摘要
+ */
+@DisplayName("TodoListItem 列表投影測試")
+class TodoListItemTest {
+
+    @Test
+    @DisplayName("描述超過摘要長度時應該截斷並加上省略符號")
+    void test_description_whenLongerThanSnippet_then_shouldTruncate() {
+        // Given - 準備超過摘要長度的描述
+        String description = "描".repeat(TodoListItem.DESCRIPTION_FETCH_LENGTH);
+
+        // When - 建立列表投影
+        TodoListItem item = new TodoListItem(1L, "任務", description, false, LocalDate.now(),
+                LocalDateTime.now(), null, 0);
+
+        // Then - 驗證描述被截斷
+        assertEquals(TodoListItem.DESCRIPTION_SNIPPET_LENGTH + 1, item.description().length());
+        assertTrue(item.description().endsWith("…"));
+    }
+
+    @Test
+    @DisplayName("描述未超過摘要長度時應該保持原樣")
+    void test_description_whenWithinSnippet_then_shouldKeepOriginal() {
+        // Given - 準備剛好等於摘要長度的描述與空描述
+        String description = "描".repeat(TodoListItem.DESCRIPTION_SNIPPET_LENGTH);
+
+        // When - 建立列表投影
+        TodoListItem item = new TodoListItem(1L, "任務", description, false, LocalDate.now(),
+                LocalDateTime.now(), null, 0);
+        TodoListItem withoutDescription = new TodoListItem(2L, "任務", null, false, LocalDate.now(),
+                LocalDateTime.now(), null, 2);
+
+        // Then - 驗證描述不變
+        assertEquals(description, item.description());
+        assertNull(withoutDescription.description());
+        assertTrue(withoutDescription.isExtended());
+    }
+}
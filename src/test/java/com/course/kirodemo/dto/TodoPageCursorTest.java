@@ -0,0 +1,85 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.service.TodoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TodoPageCursor 單元測試
+ * 測試分頁游標的編碼與解碼
+ */
+@DisplayName("TodoPageCursor 分頁游標測試")
+class TodoPageCursorTest {
+
+    private TodoItem todoItem;
+
+    @BeforeEach
+    void setUp() {
+        // Given - 準備測試資料
+        todoItem = new TodoItem("測試任務", "描述", LocalDate.of(2025, 10, 28));
+        todoItem.setId(42L);
+        todoItem.setCreatedAt(LocalDateTime.of(2025, 10, 20, 9, 30, 15, 123_000_000));
+    }
+
+    @Test
+    @DisplayName("依建立時間排序的游標編碼後解碼應該還原相同內容")
+    void test_decode_whenCreatedAtCursorEncoded_then_shouldRoundTrip() {
+        // Given - 依建立時間排序建立游標
+        TodoPageCursor cursor = TodoPageCursor.after(TodoListItem.fromEntity(todoItem), TodoService.SortBy.CREATED_AT_DESC);
+
+        // When - 編碼後再解碼
+        TodoPageCursor decoded = TodoPageCursor.decode(cursor.encode());
+
+        // Then - 驗證內容一致
+        assertEquals(cursor, decoded);
+        assertEquals(TodoService.SortBy.CREATED_AT_DESC, decoded.getSortBy());
+        assertEquals(todoItem.getCreatedAt(), decoded.getCreatedAt());
+        assertNull(decoded.getDueDate());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    @DisplayName("依預計完成日排序的游標編碼後解碼應該還原相同內容")
+    void test_decode_whenDueDateCursorEncoded_then_shouldRoundTrip() {
+        // Given - 依預計完成日排序建立游標
+        TodoPageCursor cursor = TodoPageCursor.after(TodoListItem.fromEntity(todoItem), TodoService.SortBy.DUE_DATE_ASC);
+
+        // When - 編碼後再解碼
+        TodoPageCursor decoded = TodoPageCursor.decode(cursor.encode());
+
+        // Then - 驗證內容一致
+        assertEquals(cursor, decoded);
+        assertEquals(LocalDate.of(2025, 10, 28), decoded.getDueDate());
+        assertNull(decoded.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("編碼後的游標應該是 URL 安全的字串")
+    void test_encode_whenCalled_then_shouldBeUrlSafe() {
+        // Given - 建立游標
+        TodoPageCursor cursor = TodoPageCursor.after(TodoListItem.fromEntity(todoItem), TodoService.SortBy.CREATED_AT_ASC);
+
+        // When - 編碼
+        String token = cursor.encode();
+
+        // Then - 驗證只包含 URL 安全字元
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    @DisplayName("解碼格式錯誤的游標時應該拋出 IllegalArgumentException")
+    void test_decode_whenTokenMalformed_then_shouldThrowIllegalArgumentException() {
+        // Given & When & Then - 各種無效的游標
+        assertThrows(IllegalArgumentException.class, () -> TodoPageCursor.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> TodoPageCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> TodoPageCursor.decode("不是游標"));
+        assertThrows(IllegalArgumentException.class, () -> TodoPageCursor.decode("Zm9vfGJhcnxiYXo"));
+    }
+}
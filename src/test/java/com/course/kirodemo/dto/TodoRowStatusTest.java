@@ -0,0 +1,78 @@
+package com.course.kirodemo.dto;
+
+import com.course.kirodemo.entity.TodoItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TodoRowStatus 與 TodoRowView 單元測試
+ * 測試列表每一列的顯示狀態計算
+ */
+@DisplayName("TodoRowStatus 列顯示狀態測試")
+class TodoRowStatusTest {
+
+    @Test
+    @DisplayName("顯示狀態應該與待辦事項實體的業務邏輯一致")
+    void test_of_whenDueDatesVary_then_shouldMatchEntityLogic() {
+        // Given - 準備不同到期日與完成狀態的待辦事項
+        LocalDate today = LocalDate.now();
+        int[] offsets = {-2, -1, 0, 1, 3, 4, 10};
+
+        for (int offset : offsets) {
+            for (boolean completed : new boolean[]{false, true}) {
+                TodoItem todoItem = new TodoItem("任務", "描述", today.plusDays(offset));
+                todoItem.setCompleted(completed);
+
+                // When - 以今天計算顯示狀態
+                TodoRowStatus status = TodoRowStatus.of(completed, todoItem.getDueDate(), today);
+
+                // Then - 驗證狀態與實體一致
+                String context = "offset=" + offset + ", completed=" + completed;
+                assertEquals(todoItem.isOverdue(), status.isOverdue(), context);
+                assertEquals(todoItem.isDueSoon(), status.isDueSoon(), context);
+                assertEquals(todoItem.isEligibleForExtension(), status.isEligibleForExtension(), context);
+                assertEquals(!completed && offset == 0, status.isDueToday(), context);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("顯示狀態應該依指定的今天計算而非系統時間")
+    void test_of_whenTodayGiven_then_shouldUseSnapshot() {
+        // Given - 指定固定的今天
+        LocalDate today = LocalDate.of(2025, 1, 10);
+
+        // When & Then - 驗證各範圍的狀態
+        assertEquals(TodoRowStatus.COMPLETED, TodoRowStatus.of(true, today.minusDays(1), today));
+        assertEquals(TodoRowStatus.OVERDUE, TodoRowStatus.of(false, today.minusDays(1), today));
+        assertEquals(TodoRowStatus.DUE_TODAY, TodoRowStatus.of(false, today, today));
+        assertEquals(TodoRowStatus.DUE_SOON, TodoRowStatus.of(false, today.plusDays(3), today));
+        assertEquals(TodoRowStatus.UPCOMING, TodoRowStatus.of(false, today.plusDays(4), today));
+    }
+
+    @Test
+    @DisplayName("建立列檢視模型時每一列都應該以同一個今天計算狀態")
+    void test_rowViewOf_whenItemsGiven_then_shouldPairItemsWithStatus() {
+        // Given - 準備列表投影
+        LocalDate today = LocalDate.of(2025, 1, 10);
+        TodoListItem overdue = new TodoListItem(1L, "逾期", null, false, today.minusDays(2),
+                LocalDateTime.now(), null, 0);
+        TodoListItem done = new TodoListItem(2L, "完成", null, true, today,
+                LocalDateTime.now(), LocalDateTime.now(), 0);
+
+        // When - 建立列檢視模型
+        List<TodoRowView> rows = TodoRowView.of(List.of(overdue, done), today);
+
+        // Then - 驗證順序與狀態
+        assertEquals(2, rows.size());
+        assertSame(overdue, rows.get(0).item());
+        assertEquals(TodoRowStatus.OVERDUE, rows.get(0).status());
+        assertEquals(TodoRowStatus.COMPLETED, rows.get(1).status());
+    }
+}
@@ -0,0 +1,136 @@
+package com.course.kirodemo.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TodoEventBroadcaster 單元測試
+ * 以手動執行的派送執行緒池模擬跟不上的用戶端，測試訂閱數上限與佇列溢出的捨棄策略
+ */
+@DisplayName("TodoEventBroadcaster 事件推送測試")
+class TodoEventBroadcasterTest {
+
+    private ManualExecutor dispatcher;
+    private TodoEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new ManualExecutor();
+        broadcaster = new TodoEventBroadcaster(new ObjectMapper().findAndRegisterModules(),
+                Duration.ofMinutes(1), Duration.ofHours(1), 2, 2, dispatcher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    @DisplayName("超過每位使用者的訂閱數上限時應該關閉最早的連線")
+    void test_subscribe_whenOverLimit_then_shouldEvictOldest() {
+        // When - 同一位使用者開啟三個連線，另一位使用者開啟一個
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(2L);
+
+        // Then - 驗證只保留上限內的連線
+        assertThat(broadcaster.subscriberCount()).isEqualTo(3);
+        assertThat(broadcaster.hasSubscribers(1L)).isTrue();
+        assertThat(broadcaster.hasSubscribers(3L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("用戶端跟不上時應該捨棄未送出的事件並改送 resync")
+    void test_publish_whenQueueFull_then_shouldDropAndResync() {
+        // Given - 派送執行緒尚未執行，連線事件已在佇列中
+        broadcaster.subscribe(1L);
+
+        // When - 推送兩個事件，第二個超過佇列上限
+        broadcaster.publish(1L, new TodoStreamEvent("created", List.of(10L), List.of()));
+        broadcaster.publish(1L, new TodoStreamEvent("deleted", List.of(11L), List.of()));
+
+        // Then - 驗證佇列中的兩個事件被捨棄，且同一個連線只排入一個派送工作
+        assertThat(broadcaster.droppedEventCount()).isEqualTo(2);
+        assertThat(dispatcher.pending).hasSize(1);
+
+        // When - 派送完成後再推送
+        dispatcher.runAll();
+        broadcaster.publish(1L, new TodoStreamEvent("updated", List.of(10L), List.of()));
+
+        // Then - 驗證重新排入派送工作且連線仍然保留
+        assertThat(dispatcher.pending).hasSize(1);
+        assertThat(broadcaster.hasSubscribers(1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("關閉推送器時應該結束所有連線")
+    void test_destroy_whenSubscribersExist_then_shouldCloseAll() {
+        // Given - 兩位使用者各有一個連線
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(2L);
+
+        // When - 關閉推送器
+        broadcaster.destroy();
+
+        // Then - 驗證沒有連線，推送不會排入派送工作
+        dispatcher.pending.clear();
+        broadcaster.publish(1L, new TodoStreamEvent("created", List.of(10L), List.of()));
+        assertThat(broadcaster.subscriberCount()).isZero();
+        assertThat(dispatcher.pending).isEmpty();
+    }
+
+    /**
+     * 只記錄工作、由測試手動執行的執行緒池
+     */
+    private static final class ManualExecutor extends AbstractExecutorService {
+
+        private final List<Runnable> pending = new ArrayList<>();
+
+        void runAll() {
+            List<Runnable> tasks = new ArrayList<>(pending);
+            pending.clear();
+            tasks.forEach(Runnable::run);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            pending.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
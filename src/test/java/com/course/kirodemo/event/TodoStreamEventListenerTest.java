@@ -0,0 +1,146 @@
+package com.course.kirodemo.event;
+
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.repository.TodoItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TodoStreamEventListener 單元測試
+ * 以手動執行的執行緒池測試同一個使用者的變更依提交順序逐一讀取並推送
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TodoStreamEventListener 推送順序測試")
+class TodoStreamEventListenerTest {
+
+    @Mock
+    private TodoEventBroadcaster broadcaster;
+
+    @Mock
+    private TodoItemRepository todoItemRepository;
+
+    private ManualExecutor executor;
+    private TodoStreamEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ManualExecutor();
+        listener = new TodoStreamEventListener(broadcaster, todoItemRepository, executor);
+    }
+
+    private static TodoListItem item(boolean completed, LocalDate dueDate) {
+        return new TodoListItem(5L, "繳交電費", null, completed, dueDate, LocalDateTime.now(), null, 0);
+    }
+
+    @Test
+    @DisplayName("同一個使用者連續的變更應該只排入一個處理工作並依提交順序推送")
+    void test_onTodoChanged_whenRapidChangesForSameUser_then_shouldPushInCommitOrder() {
+        // Given - 使用者有開啟中的事件串流，第一次讀取為已完成，第二次讀取為延期後的狀態
+        LocalDate today = LocalDate.now();
+        when(broadcaster.hasSubscribers(7L)).thenReturn(true);
+        when(todoItemRepository.findListItemsByIdInAndUserId(List.of(5L), 7L))
+                .thenReturn(List.of(item(true, today)), List.of(item(true, today.plusDays(3))));
+
+        // When - 切換完成狀態後立即延期
+        listener.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.TOGGLED, 5L));
+        listener.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.EXTENDED, 5L));
+
+        // Then - 驗證只排入一個處理工作
+        assertThat(executor.pending).hasSize(1);
+
+        // When - 執行處理工作
+        executor.runAll();
+
+        // Then - 驗證依提交順序推送，最後推送的是最新狀態
+        ArgumentCaptor<TodoStreamEvent> pushed = ArgumentCaptor.forClass(TodoStreamEvent.class);
+        verify(broadcaster, times(2)).publish(eq(7L), pushed.capture());
+        assertThat(pushed.getAllValues()).extracting(TodoStreamEvent::type).containsExactly("toggled", "extended");
+        assertThat(pushed.getAllValues().get(1).items().get(0).dueDate()).isEqualTo(today.plusDays(3));
+    }
+
+    @Test
+    @DisplayName("處理中提交的變更應該在目前的工作讀取並推送之後才處理")
+    void test_onTodoChanged_whenChangedWhileProcessing_then_shouldNotOvertakeEarlierPush() {
+        // Given - 第一次讀取期間又提交了一次切換
+        when(broadcaster.hasSubscribers(7L)).thenReturn(true);
+        List<Boolean> readStates = new ArrayList<>();
+        when(todoItemRepository.findListItemsByIdInAndUserId(List.of(5L), 7L)).thenAnswer(invocation -> {
+            boolean completed = readStates.isEmpty();
+            readStates.add(completed);
+            if (completed) {
+                listener.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.TOGGLED, 5L));
+            }
+            return List.of(item(completed, LocalDate.now()));
+        });
+
+        // When - 第一次切換提交後執行處理工作
+        listener.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.TOGGLED, 5L));
+        executor.runAll();
+
+        // Then - 驗證沒有另外排入工作，兩次推送依序且最後一次是未完成
+        assertThat(executor.pending).isEmpty();
+        ArgumentCaptor<TodoStreamEvent> pushed = ArgumentCaptor.forClass(TodoStreamEvent.class);
+        verify(broadcaster, times(2)).publish(eq(7L), pushed.capture());
+        assertThat(pushed.getAllValues()).extracting(event -> event.items().get(0).completed())
+                .containsExactly(true, false);
+
+        // When - 佇列清空後再提交變更
+        listener.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.DELETED, 5L));
+
+        // Then - 驗證重新排入處理工作
+        assertThat(executor.pending).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("使用者沒有開啟中的事件串流時不應該查詢也不應該排入工作")
+    void test_onTodoChanged_whenNoSubscribers_then_shouldSkip() {
+        // Given - 使用者沒有連線
+        when(broadcaster.hasSubscribers(7L)).thenReturn(false);
+
+        // When - 提交變更
+        listener.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.UPDATED, 5L));
+
+        // Then - 驗證沒有排入工作也沒有查詢
+        assertThat(executor.pending).isEmpty();
+        verify(todoItemRepository, never()).findListItemsByIdInAndUserId(any(), anyLong());
+    }
+
+    /**
+     * 只記錄工作、由測試手動執行的執行緒池
+     */
+    private static final class ManualExecutor implements Executor {
+
+        private final List<Runnable> pending = new ArrayList<>();
+
+        void runAll() {
+            List<Runnable> tasks = new ArrayList<>(pending);
+            pending.clear();
+            tasks.forEach(Runnable::run);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            pending.add(command);
+        }
+    }
+}
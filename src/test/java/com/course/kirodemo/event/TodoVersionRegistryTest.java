@@ -0,0 +1,48 @@
+package com.course.kirodemo.event;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TodoVersionRegistry 單元測試
+ * 測試使用者版本遞增與 ETag 產生
+ */
+@DisplayName("TodoVersionRegistry 待辦事項版本測試")
+class TodoVersionRegistryTest {
+
+    private final TodoVersionRegistry registry = new TodoVersionRegistry();
+
+    @Test
+    @DisplayName("待辦事項變更事件應該只遞增該使用者的版本並改變 ETag")
+    void test_onTodoChanged_whenUserChangesTodos_then_shouldBumpOnlyThatUser() {
+        // Given - 兩個使用者目前的 ETag
+        String aliceEtag = registry.etag(1L, "list");
+        String bobEtag = registry.etag(2L, "list");
+
+        // When - alice 的待辦事項變更
+        registry.onTodoChanged(new TodoChangedEvent(1L, TodoChangedEvent.Type.UPDATED, List.of(10L)));
+
+        // Then - 驗證只有 alice 的版本與 ETag 改變
+        assertThat(registry.currentVersion(1L)).isEqualTo(1);
+        assertThat(registry.currentVersion(2L)).isZero();
+        assertThat(registry.etag(1L, "list")).isNotEqualTo(aliceEtag);
+        assertThat(registry.etag(2L, "list")).isEqualTo(bobEtag);
+    }
+
+    @Test
+    @DisplayName("ETag 應該是強 ETag，且依影響內容的因素區分")
+    void test_etag_whenVariantsDiffer_then_shouldDiffer() {
+        // When
+        String etag = registry.etag(1L, "preview", 5L, 3);
+
+        // Then - 驗證格式與區分
+        assertThat(etag).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+        assertThat(registry.etag(1L, "preview", 5L, 3)).isEqualTo(etag);
+        assertThat(registry.etag(1L, "preview", 5L, 4)).isNotEqualTo(etag);
+        assertThat(new TodoVersionRegistry().etag(1L, "preview", 5L, 3)).isNotEqualTo(etag);
+    }
+}
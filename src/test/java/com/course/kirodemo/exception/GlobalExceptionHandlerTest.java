@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ValidationException;
 
 import java.util.Arrays;
@@ -272,4 +274,21 @@ class GlobalExceptionHandlerTest {
         assertFalse(responseEntity.getBody().isSuccess());
         assertTrue(responseEntity.getBody().getMessage().contains("輸入驗證失敗"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("處理密碼雜湊忙碌異常時應該回傳 503 並附上 Retry-After")
+    void test_handlePasswordHashingBusy_whenBusy_then_shouldReturn503WithRetryAfter() {
+        // Given (給定) - 準備忙碌異常與回應
+        PasswordHashingBusyException exception = new PasswordHashingBusyException("系統忙碌中，請稍後再試");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        
+        // When (當) - 執行異常處理
+        String viewName = globalExceptionHandler.handlePasswordHashingBusy(exception, model, request, response);
+        
+        // Then (那麼) - 驗證結果
+        assertEquals("error/error", viewName);
+        verify(response).setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(PasswordHashingBusyException.RETRY_AFTER_SECONDS));
+        verify(model).addAttribute("error", "系統忙碌中，請稍後再試");
+        verify(model).addAttribute("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+}
@@ -0,0 +1,103 @@
+package com.course.kirodemo.integration;
+
+import com.course.kirodemo.security.CachingSessionRegistry;
+import com.course.kirodemo.session.WriteBehindSessionRepository;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 同時登入限制整合測試
+ * 會話註冊表以會話儲存庫為準，同一使用者再次登入後舊會話應該過期，其他節點也能從儲存庫看到
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:concurrent-session-test",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ConcurrentSessionControlTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private WriteBehindSessionRepository sessionRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .addFilters(context.getBean("springSessionRepositoryFilter", Filter.class))
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @DisplayName("同一使用者再次登入後，舊會話應該在本機與其他節點都被視為過期")
+    void test_login_whenSameUserLogsInAgain_then_shouldExpirePreviousSession() throws Exception {
+        // Given - 第一次登入並正常瀏覽
+        assertThat(sessionRegistry).isInstanceOf(CachingSessionRegistry.class);
+        Cookie firstSession = login();
+        mockMvc.perform(get("/todos").cookie(firstSession))
+                .andExpect(status().isOk());
+
+        // When - 同一使用者在另一個瀏覽器登入
+        Cookie secondSession = login();
+
+        // Then - 寫入儲存庫後，另一個節點（沒有本機快取）也應該看到舊會話已過期
+        sessionRepository.flush();
+        CachingSessionRegistry otherNode = new CachingSessionRegistry(sessionRepository, Duration.ofSeconds(5), 100);
+        assertThat(otherNode.getSessionInformation(sessionId(firstSession)).isExpired()).isTrue();
+        assertThat(otherNode.getSessionInformation(sessionId(secondSession)).isExpired()).isFalse();
+
+        // 舊會話被導向過期頁面並登出，新會話正常
+        mockMvc.perform(get("/todos").cookie(firstSession))
+                .andExpect(redirectedUrl("/login?expired=true"));
+        mockMvc.perform(get("/todos").cookie(secondSession))
+                .andExpect(status().isOk());
+        assertThat(sessionRepository.findById(sessionId(firstSession))).isNull();
+    }
+
+    private Cookie login() throws Exception {
+        Cookie cookie = mockMvc.perform(post("/login")
+                        .param("username", "chienlin")
+                        .param("password", "1234")
+                        .with(csrf()))
+                .andExpect(redirectedUrl("/todos"))
+                .andReturn()
+                .getResponse()
+                .getCookie("SESSION");
+        assertThat(cookie).isNotNull();
+        return cookie;
+    }
+
+    private static String sessionId(Cookie cookie) {
+        return new String(Base64.getDecoder().decode(cookie.getValue()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.course.kirodemo.integration;
+
+import com.course.kirodemo.session.OffHeapSessionRepository;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.SessionRepository;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * 記憶體會話儲存整合測試
+ * 設定 app.session.store=memory 時，登入後的會話應該存在記憶體儲存庫而不是 SPRING_SESSION 資料表
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "app.session.store=memory",
+    "spring.datasource.url=jdbc:h2:mem:memory-session-test",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class MemorySessionStoreTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SessionRepository<?> sessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .addFilters(context.getBean("springSessionRepositoryFilter", Filter.class))
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @DisplayName("登入後會話應該存在記憶體儲存庫並可依使用者名稱查詢")
+    void test_login_whenMemoryStoreSelected_then_shouldKeepSessionInMemory() throws Exception {
+        // Given - 確認使用記憶體儲存庫
+        assertThat(sessionRepository).isInstanceOf(OffHeapSessionRepository.class);
+        OffHeapSessionRepository repository = (OffHeapSessionRepository) sessionRepository;
+
+        // When - 登入
+        mockMvc.perform(post("/login")
+                        .param("username", "alice")
+                        .param("password", "password123")
+                        .with(csrf()))
+                .andExpect(redirectedUrl("/todos"));
+
+        // Then - 驗證會話在記憶體中，且沒有寫入資料表
+        assertThat(repository.findByPrincipalName("alice")).hasSize(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION", Integer.class)).isZero();
+    }
+}
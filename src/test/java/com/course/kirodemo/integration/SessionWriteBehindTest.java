@@ -0,0 +1,126 @@
+package com.course.kirodemo.integration;
+
+import com.course.kirodemo.session.SessionAttributeCodec;
+import com.course.kirodemo.session.WriteBehindSessionRepository;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.session.SessionRepository;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import jakarta.servlet.http.Cookie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * JDBC 會話合併寫入整合測試
+ * 登入後連續瀏覽列表時，只更新存取時間的請求不應該寫入 SPRING_SESSION，寫入的屬性應該使用精簡編碼
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:session-write-behind-test",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SessionWriteBehindTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SessionRepository<?> sessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionAttributeCodec sessionAttributeCodec;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(context)
+                .addFilters(context.getBean("springSessionRepositoryFilter", Filter.class))
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    @DisplayName("登入後的一般瀏覽應該大幅減少每個請求的會話寫入")
+    void test_browse_whenWriteBehindEnabled_then_shouldWriteLessThanOncePerRequest() throws Exception {
+        // Given - 使用合併寫入層並登入
+        assertThat(sessionRepository).isInstanceOf(WriteBehindSessionRepository.class);
+        WriteBehindSessionRepository repository = (WriteBehindSessionRepository) sessionRepository;
+        MvcResult login = mockMvc.perform(post("/login")
+                        .param("username", "alice")
+                        .param("password", "password123")
+                        .with(csrf()))
+                .andReturn();
+        Cookie sessionCookie = login.getResponse().getCookie("SESSION");
+        assertThat(sessionCookie).isNotNull();
+        WriteBehindSessionRepository.SessionWriteStats before = repository.stats();
+
+        // When - 連續瀏覽列表
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/todos").cookie(sessionCookie))
+                    .andExpect(status().isOk());
+        }
+        repository.flush();
+
+        // Then - 驗證直接寫入時每個請求都會寫入，合併後幾乎不寫入
+        WriteBehindSessionRepository.SessionWriteStats after = repository.stats();
+        long requests = after.requests() - before.requests();
+        assertThat(requests).isEqualTo(20);
+        assertThat(after.baselineWrites() - before.baselineWrites()).isEqualTo(requests);
+        assertThat(after.writes() - before.writes()).isLessThan(requests / 4);
+    }
+
+    @Test
+    @DisplayName("登入後的安全性內容應該以精簡編碼寫入 SPRING_SESSION_ATTRIBUTES")
+    void test_login_whenJdbcStore_then_shouldStoreCompactSecurityContext() throws Exception {
+        // Given - 登入
+        mockMvc.perform(post("/login")
+                        .param("username", "bob")
+                        .param("password", "mypass456")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        // When - 讀取寫入資料庫的安全性內容
+        byte[] bytes = jdbcTemplate.queryForObject("""
+                SELECT a.ATTRIBUTE_BYTES FROM SPRING_SESSION_ATTRIBUTES a
+                JOIN SPRING_SESSION s ON s.PRIMARY_ID = a.SESSION_PRIMARY_ID
+                WHERE s.PRINCIPAL_NAME = 'bob' AND a.ATTRIBUTE_NAME = 'SPRING_SECURITY_CONTEXT'
+                """, byte[].class);
+
+        // Then - 驗證不是 JDK 序列化，且能還原為登入的使用者
+        assertThat(bytes[0]).isNotEqualTo((byte) 0xAC);
+        SecurityContext securityContext = (SecurityContext) sessionAttributeCodec.decode(bytes);
+        assertThat(securityContext.getAuthentication().getName()).isEqualTo("bob");
+    }
+
+    @Test
+    @DisplayName("到期清除應該能透過 EXPIRY_TIME 索引找出過期會話")
+    void test_cleanupQuery_whenFilteringByExpiryTime_then_shouldUseIndex() {
+        // When - 取得清除過期會話時的查詢計畫
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN DELETE FROM SPRING_SESSION WHERE EXPIRY_TIME < 0", String.class);
+
+        // Then - 驗證使用 EXPIRY_TIME 索引
+        assertThat(plan).containsIgnoringCase("SPRING_SESSION_IX2");
+    }
+}
@@ -0,0 +1,157 @@
+package com.course.kirodemo.integration;
+
+import com.course.kirodemo.dto.BatchTodoResponse;
+import com.course.kirodemo.dto.BatchTodoResult;
+import com.course.kirodemo.dto.CreateTodoRequest;
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.entity.User;
+import com.course.kirodemo.repository.TodoItemRepository;
+import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.service.TodoBatchService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 待辦事項批次操作整合測試
+ * 測試批次建立、完成與刪除的權限檢查與逐項結果
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TodoBatchOperationsTest {
+
+    @Autowired
+    private TodoBatchService todoBatchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private TodoItem pendingTodo;
+    private TodoItem completedTodo;
+    private TodoItem otherUsersTodo;
+
+    @BeforeEach
+    void setUp() {
+        // Given: 準備兩個使用者與各自的待辦事項
+        owner = userRepository.save(new User("batchowner", "password"));
+        User other = userRepository.save(new User("batchother", "password"));
+
+        pendingTodo = todoItemRepository.save(new TodoItem("未完成", "描述", LocalDate.now().plusDays(1), owner));
+        completedTodo = new TodoItem("已完成", "描述", LocalDate.now().plusDays(2), owner);
+        completedTodo.markAsCompleted();
+        completedTodo = todoItemRepository.save(completedTodo);
+        otherUsersTodo = todoItemRepository.save(new TodoItem("別人的", "描述", LocalDate.now().plusDays(1), other));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("批次建立時應該建立有效項目並標示無效項目")
+    void test_createTodos_whenMixedItems_then_shouldCreateValidAndReportInvalid() {
+        // Given: 兩筆有效、一筆缺少標題
+        List<CreateTodoRequest> requests = Arrays.asList(
+                new CreateTodoRequest("第一筆", "描述", LocalDate.now().plusDays(1)),
+                new CreateTodoRequest("", "描述", LocalDate.now().plusDays(1)),
+                new CreateTodoRequest("第三筆", null, LocalDate.now().plusDays(3)));
+
+        // When: 批次建立
+        BatchTodoResponse response = todoBatchService.createTodos(requests, "batchowner");
+
+        // Then: 驗證逐項結果與資料
+        assertThat(response.requested()).isEqualTo(3);
+        assertThat(response.succeeded()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(1);
+        assertThat(response.results()).extracting(BatchTodoResult::status).containsExactly(
+                BatchTodoResult.Status.CREATED, BatchTodoResult.Status.INVALID, BatchTodoResult.Status.CREATED);
+        assertThat(response.results().get(1).todoId()).isNull();
+        assertThat(response.results().get(1).message()).contains("標題不能為空");
+
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(todoItemRepository.findById(response.results().get(2).todoId()))
+                .get().extracting(TodoItem::getTitle).isEqualTo("第三筆");
+        assertThat(todoItemRepository.countByUser(owner)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("批次完成時應該區分已完成、新完成、不存在與不屬於自己的項目")
+    void test_completeTodos_whenMixedIds_then_shouldReportPerItem() {
+        // Given: 未完成、已完成、別人的、不存在、重複與空值
+        List<Long> ids = Arrays.asList(pendingTodo.getId(), completedTodo.getId(), otherUsersTodo.getId(),
+                999_999L, pendingTodo.getId(), null);
+
+        // When: 批次完成
+        BatchTodoResponse response = todoBatchService.completeTodos(ids, "batchowner");
+
+        // Then: 驗證逐項結果
+        assertThat(response.results()).extracting(BatchTodoResult::status).containsExactly(
+                BatchTodoResult.Status.COMPLETED,
+                BatchTodoResult.Status.ALREADY_COMPLETED,
+                BatchTodoResult.Status.NOT_FOUND,
+                BatchTodoResult.Status.NOT_FOUND,
+                BatchTodoResult.Status.INVALID,
+                BatchTodoResult.Status.INVALID);
+        assertThat(response.succeeded()).isEqualTo(2);
+
+        // 驗證資料狀態，別人的待辦事項不受影響
+        assertThat(todoItemRepository.findById(pendingTodo.getId())).get()
+                .satisfies(todo -> {
+                    assertThat(todo.isCompleted()).isTrue();
+                    assertThat(todo.getCompletedAt()).isNotNull();
+                });
+        assertThat(todoItemRepository.findById(otherUsersTodo.getId())).get()
+                .extracting(TodoItem::isCompleted).isEqualTo(false);
+    }
+
+    @Test
+    @DisplayName("批次刪除時應該只刪除屬於自己的項目")
+    void test_deleteTodos_whenMixedIds_then_shouldDeleteOwnedOnly() {
+        // Given: 自己的兩筆與別人的一筆
+        List<Long> ids = List.of(pendingTodo.getId(), completedTodo.getId(), otherUsersTodo.getId());
+
+        // When: 批次刪除
+        BatchTodoResponse response = todoBatchService.deleteTodos(ids, "batchowner");
+
+        // Then: 驗證結果與資料
+        assertThat(response.results()).extracting(BatchTodoResult::status).containsExactly(
+                BatchTodoResult.Status.DELETED, BatchTodoResult.Status.DELETED, BatchTodoResult.Status.NOT_FOUND);
+        assertThat(todoItemRepository.existsById(pendingTodo.getId())).isFalse();
+        assertThat(todoItemRepository.existsById(completedTodo.getId())).isFalse();
+        assertThat(todoItemRepository.existsById(otherUsersTodo.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("項目數量超過上限或為空時應該拒絕整批請求")
+    void test_batchOperations_whenSizeInvalid_then_shouldThrowException() {
+        // Given: 超過上限的 ID 列表
+        List<Long> tooMany = new ArrayList<>(Collections.nCopies(TodoBatchService.MAX_BATCH_SIZE + 1, 1L));
+
+        // When & Then: 驗證拋出異常且沒有任何資料被刪除
+        assertThatThrownBy(() -> todoBatchService.deleteTodos(tooMany, "batchowner"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> todoBatchService.completeTodos(List.of(), "batchowner"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(todoItemRepository.countByUser(owner)).isEqualTo(2);
+    }
+}
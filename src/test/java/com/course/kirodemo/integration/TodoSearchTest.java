@@ -0,0 +1,109 @@
+package com.course.kirodemo.integration;
+
+import com.course.kirodemo.dto.CreateTodoRequest;
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.dto.TodoSearchResult;
+import com.course.kirodemo.dto.UpdateTodoRequest;
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.entity.User;
+import com.course.kirodemo.repository.TodoItemRepository;
+import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.search.TodoSearchIndexUpdater;
+import com.course.kirodemo.service.TodoSearchService;
+import com.course.kirodemo.service.TodoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 待辦事項全文搜尋整合測試
+ * 索引在交易提交後更新，因此本測試不使用 @Transactional，結束後自行清除資料
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoSearchTest {
+
+    private static final String USERNAME = "searchuser";
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoSearchService todoSearchService;
+
+    @Autowired
+    private TodoSearchIndexUpdater indexUpdater;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Given: 準備搜尋用的使用者
+        user = userRepository.save(new User(USERNAME, "password"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoItemRepository.deleteAll(todoItemRepository.findByUserOrderByCreatedAtDesc(user));
+        userRepository.delete(user);
+        indexUpdater.rebuild();
+    }
+
+    @Test
+    @DisplayName("建立、更新與刪除待辦事項後搜尋結果應該同步更新")
+    void test_search_whenTodoCreatedUpdatedDeleted_then_shouldFollowChanges() {
+        // Given: 建立兩筆待辦事項
+        TodoItem report = todoService.createTodo(
+                new CreateTodoRequest("撰寫週報", "彙整本週進度", LocalDate.now().plusDays(1)), USERNAME);
+        TodoItem shopping = todoService.createTodo(
+                new CreateTodoRequest("採買", "記得附上週報影本", LocalDate.now().plusDays(2)), USERNAME);
+
+        // When & Then: 標題命中排在描述命中前面
+        TodoSearchResult result = todoSearchService.search("週報", 0, 10, USERNAME);
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.items()).extracting(TodoListItem::id).containsExactly(report.getId(), shopping.getId());
+
+        // When & Then: 更新標題後舊關鍵字不再命中標題
+        todoService.updateTodo(report.getId(),
+                new UpdateTodoRequest("整理月報", "彙整本月進度", LocalDate.now().plusDays(1)), USERNAME);
+        assertThat(todoSearchService.search("週報", 0, 10, USERNAME).items())
+                .extracting(TodoListItem::id).containsExactly(shopping.getId());
+        assertThat(todoSearchService.search("月報", 0, 10, USERNAME).total()).isEqualTo(1);
+
+        // When & Then: 刪除後不再命中
+        todoService.deleteTodo(shopping.getId(), USERNAME);
+        assertThat(todoSearchService.search("週報", 0, 10, USERNAME).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("重建索引後應該能搜尋到直接寫入資料庫的待辦事項")
+    void test_rebuild_whenTodosWrittenDirectly_then_shouldBeSearchable() {
+        // Given: 繞過服務層直接寫入資料庫
+        TodoItem todo = todoItemRepository.save(new TodoItem("繳交電費", null, LocalDate.now().plusDays(3), user));
+        assertThat(todoSearchService.search("電費", 0, 10, USERNAME).total()).isZero();
+
+        // When: 重建索引
+        indexUpdater.rebuild();
+
+        // Then: 驗證可以搜尋到，且空白查詢會被拒絕
+        assertThat(todoSearchService.search("電費", 0, 10, USERNAME).items())
+                .extracting(TodoListItem::id).containsExactly(todo.getId());
+        assertThatThrownBy(() -> todoSearchService.search(" ", 0, 10, USERNAME))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
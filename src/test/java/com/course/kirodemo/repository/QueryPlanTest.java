@@ -0,0 +1,221 @@
+package com.course.kirodemo.repository;
+
+import com.course.kirodemo.entity.TodoItem;
+import com.course.kirodemo.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 查詢計畫驗證測試
+ * 攔截每個 Repository 方法實際產生的 SQL，在 H2 上執行 EXPLAIN，
+ * 如果有任何查詢退回全表掃描 (tableScan) 則測試失敗
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.course.kirodemo.repository.QueryPlanTest$SqlCapture")
+@DisplayName("查詢計畫驗證測試")
+class QueryPlanTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TodoItemRepository todoItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+    private Long userId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        // Given - 建立多個使用者與待辦事項，讓查詢計畫需要在多位使用者的資料中挑選
+        today = LocalDate.now();
+        for (int u = 0; u < 5; u++) {
+            User user = new User("planuser" + u, "password");
+            entityManager.persist(user);
+            for (int i = 0; i < 40; i++) {
+                TodoItem todo = new TodoItem("任務" + i, "描述", today.plusDays(i - 10), user);
+                todo.setCompleted(i % 3 == 0);
+                entityManager.persist(todo);
+            }
+            if (u == 0) {
+                testUser = user;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        userId = testUser.getId();
+        SqlCapture.clear();
+    }
+
+    @Test
+    @DisplayName("列表與分頁查詢不應該全表掃描")
+    void test_listQueries_whenExplained_then_shouldUseIndex() {
+        // When - 執行列表與分頁相關的查詢
+        LocalDateTime createdAt = LocalDateTime.now();
+        todoItemRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        todoItemRepository.findByUserIdOrderByCreatedAtAsc(userId);
+        todoItemRepository.findByUserIdOrderByDueDateAsc(userId);
+        todoItemRepository.findByUserIdOrderByDueDateDesc(userId);
+        todoItemRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, Limit.of(20));
+        todoItemRepository.findByUserIdOrderByCreatedAtAscIdAsc(userId, Limit.of(20));
+        todoItemRepository.findByUserIdOrderByDueDateAscIdAsc(userId, Limit.of(20));
+        todoItemRepository.findByUserIdOrderByDueDateDescIdDesc(userId, Limit.of(20));
+        todoItemRepository.findPageByUserIdOrderByCreatedAtDescAfter(userId, createdAt, 10L, Limit.of(20));
+        todoItemRepository.findPageByUserIdOrderByCreatedAtAscAfter(userId, createdAt, 10L, Limit.of(20));
+        todoItemRepository.findPageByUserIdOrderByDueDateAscAfter(userId, today, 10L, Limit.of(20));
+        todoItemRepository.findPageByUserIdOrderByDueDateDescAfter(userId, today, 10L, Limit.of(20));
+        todoItemRepository.findByUserOrderByCreatedAtDesc(testUser);
+        todoItemRepository.findByUserOrderByCreatedAtAsc(testUser);
+        todoItemRepository.findByUserOrderByDueDateAsc(testUser);
+        todoItemRepository.findByUserOrderByDueDateDesc(testUser);
+
+        // Then - 驗證查詢計畫
+        assertNoTableScan();
+    }
+
+    @Test
+    @DisplayName("依完成狀態與到期日過濾的查詢不應該全表掃描")
+    void test_filterQueries_whenExplained_then_shouldUseIndex() {
+        // When - 執行過濾相關的查詢
+        todoItemRepository.findByUserIdAndCompleted(userId, false);
+        todoItemRepository.findByUserIdAndCompletedOrderByCreatedAtDesc(userId, true);
+        todoItemRepository.findByIdAndUserId(1L, userId);
+        todoItemRepository.findOverdueTodosByUserId(userId, today);
+        todoItemRepository.findDueSoonTodosByUserId(userId, today, today.plusDays(3));
+        todoItemRepository.findByUserAndCompleted(testUser, false);
+        todoItemRepository.findByUserAndCompletedOrderByCreatedAtDesc(testUser, false);
+        todoItemRepository.findByIdAndUser(1L, testUser);
+        todoItemRepository.findOverdueTodosByUser(testUser, today);
+        todoItemRepository.findDueSoonTodosByUser(testUser, today, today.plusDays(3));
+        todoItemRepository.findEligibleForExtensionByUsername("planuser0", today, today.plusDays(3));
+        todoItemRepository.findEligibleSummariesByUserId(userId, today, today.plusDays(3));
+        todoItemRepository.findByUserAndDueDateBetween("planuser0", today, today.plusDays(7));
+
+        // Then - 驗證查詢計畫
+        assertNoTableScan();
+    }
+
+    @Test
+    @DisplayName("統計查詢與條件式 UPDATE 不應該全表掃描")
+    void test_aggregateAndUpdateQueries_whenExplained_then_shouldUseIndex() {
+        // When - 執行統計與更新相關的查詢
+        todoItemRepository.getStatsByUserId(userId, today, today.plusDays(3));
+        todoItemRepository.countByUser(testUser);
+        todoItemRepository.countByUserAndCompleted(testUser, true);
+        todoItemRepository.countTotalExtensionsByUsername("planuser0");
+        todoItemRepository.toggleCompletedByIdAndUserId(1L, userId, LocalDateTime.now());
+        todoItemRepository.markCompletedByIdAndUserId(1L, userId, LocalDateTime.now());
+        todoItemRepository.extendDueDateByIdAndUserId(1L, userId, 1, today, today.plusDays(3), LocalDateTime.now());
+
+        // Then - 驗證查詢計畫
+        assertNoTableScan();
+    }
+
+    @Test
+    @DisplayName("使用者查詢不應該全表掃描")
+    void test_userQueries_whenExplained_then_shouldUseIndex() {
+        // When - 執行使用者相關的查詢
+        userRepository.findByUsername("planuser0");
+        userRepository.findIdByUsername("planuser0");
+        userRepository.existsByUsername("planuser0");
+
+        // Then - 驗證查詢計畫
+        assertNoTableScan();
+    }
+
+    /**
+     * 對攔截到的每一條 SQL 執行 EXPLAIN，並驗證沒有全表掃描
+     */
+    private void assertNoTableScan() {
+        List<String> statements = SqlCapture.drain();
+        assertThat(statements).as("應該攔截到查詢語句").isNotEmpty();
+
+        List<String> scans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            if (plan.contains(".tableScan")) {
+                scans.add(sql + System.lineSeparator() + "  => " + plan);
+            }
+        }
+        assertThat(scans).as("以下查詢退回全表掃描").isEmpty();
+    }
+
+    /**
+     * 執行 EXPLAIN 並回傳查詢計畫
+     * 參數以 NULL 綁定，H2 在準備語句時就決定查詢計畫，不受參數值影響
+     * @param sql 攔截到的 SQL
+     * @return 查詢計畫
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameterCount = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameterCount; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    /**
+     * 攔截 Hibernate 送出的 SQL，只保留查詢與更新語句
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            String normalized = sql.trim().toLowerCase(Locale.ROOT);
+            if (normalized.startsWith("select") || normalized.startsWith("update") || normalized.startsWith("delete")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+
+        static void clear() {
+            STATEMENTS.clear();
+        }
+
+        static List<String> drain() {
+            List<String> statements = new ArrayList<>(STATEMENTS);
+            STATEMENTS.clear();
+            return statements;
+        }
+    }
+}
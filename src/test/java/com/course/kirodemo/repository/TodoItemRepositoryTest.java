@@ -1,5 +1,9 @@
 package com.course.kirodemo.repository;
 
+import com.course.kirodemo.dto.EligibleTodoSummary;
+import com.course.kirodemo.dto.ExtendedTodoSummary;
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.dto.TodoStats;
 import com.course.kirodemo.entity.TodoItem;
 import com.course.kirodemo.entity.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,8 +12,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -207,6 +216,40 @@ class TodoItemRepositoryTest {
         assertThat(foundTodo).isEmpty();
     }
     
+    @Test
+    @DisplayName("根據 ID 和使用者 ID 查詢待辦事項時應該只回傳該使用者的資料")
+    void test_findByIdAndUserId_whenOwnerOrOtherUser_then_shouldReturnOnlyOwnedTodo() {
+        // Given - 儲存待辦事項
+        TodoItem savedTodo = entityManager.persistAndFlush(todoItem1);
+        entityManager.clear();
+        
+        // When - 分別以擁有者與其他使用者的 ID 查詢
+        Optional<TodoItem> ownedTodo = todoItemRepository.findByIdAndUserId(savedTodo.getId(), testUser.getId());
+        Optional<TodoItem> otherTodo = todoItemRepository.findByIdAndUserId(savedTodo.getId(), anotherUser.getId());
+        
+        // Then - 驗證只有擁有者查得到
+        assertThat(ownedTodo).isPresent();
+        assertThat(ownedTodo.get().getTitle()).isEqualTo("第一個任務");
+        assertThat(otherTodo).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("根據使用者 ID 查詢待辦事項時應該依預計完成日排序且不包含其他使用者的資料")
+    void test_findByUserIdOrderByDueDateAsc_whenMultipleUsers_then_shouldReturnUserSpecificSortedTodos() {
+        // Given - 為兩個使用者建立待辦事項
+        entityManager.persistAndFlush(todoItem1);
+        entityManager.persistAndFlush(todoItem2);
+        entityManager.persistAndFlush(todoItem3);
+        entityManager.persistAndFlush(new TodoItem("其他使用者任務", "描述", LocalDate.now(), anotherUser));
+        
+        // When - 根據使用者 ID 查詢
+        List<TodoItem> todos = todoItemRepository.findByUserIdOrderByDueDateAsc(testUser.getId());
+        
+        // Then - 驗證排序與資料隔離
+        assertThat(todos).extracting(TodoItem::getTitle)
+                .containsExactly("第一個任務", "第三個任務", "第二個任務");
+    }
+    
     @Test
     @DisplayName("查詢逾期待辦事項時應該回傳正確結果")
     void test_findOverdueTodosByUser_whenOverdueTodosExist_then_shouldReturnOverdueTodos() {
@@ -357,6 +400,40 @@ class TodoItemRepositoryTest {
             !todo.getDueDate().isAfter(LocalDate.now().plusDays(3)));
     }
     
+    @Test
+    @DisplayName("以使用者 ID 查詢延期候選摘要時應該與實體的延期條件一致")
+    void test_findEligibleSummariesByUserId_whenMixedTodos_then_shouldMatchEntityEligibility() {
+        // Given - 建立範圍邊界內外與已完成的待辦事項
+        TodoItem dueToday = new TodoItem("今天到期未完成", "描述", LocalDate.now(), testUser);
+        TodoItem dueInThreeDays = new TodoItem("延期後三天到期", "描述", LocalDate.now().plusDays(2), testUser);
+        dueInThreeDays.extendDueDate(1);
+        TodoItem dueInFourDays = new TodoItem("四天後到期", "描述", LocalDate.now().plusDays(4), testUser);
+        TodoItem overdue = new TodoItem("昨天到期", "描述", LocalDate.now().minusDays(1), testUser);
+        TodoItem completed = new TodoItem("明天到期已完成", "描述", LocalDate.now().plusDays(1), testUser);
+        completed.setCompleted(true);
+        TodoItem otherUser = new TodoItem("其他使用者明天到期", "描述", LocalDate.now().plusDays(1), anotherUser);
+        
+        List<TodoItem> all = List.of(dueToday, dueInThreeDays, dueInFourDays, overdue, completed, otherUser);
+        all.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        
+        // When - 以到期日範圍查詢摘要
+        LocalDate today = LocalDate.now();
+        List<EligibleTodoSummary> summaries =
+            todoItemRepository.findEligibleSummariesByUserId(testUser.getId(), today, today.plusDays(3));
+        
+        // Then - 驗證結果與實體的 isEligibleForExtension 一致，並帶有延期資訊
+        List<Long> expectedIds = all.stream()
+            .filter(todo -> todo.getUser().equals(testUser) && todo.isEligibleForExtension())
+            .map(TodoItem::getId)
+            .toList();
+        assertThat(summaries).extracting(EligibleTodoSummary::getId).containsExactlyElementsOf(expectedIds);
+        assertThat(summaries.get(1).getExtensionCount()).isEqualTo(1);
+        assertThat(summaries.get(1).getOriginalDueDate()).isEqualTo(LocalDate.now().plusDays(2));
+        assertThat(summaries.get(1).isExtended()).isTrue();
+    }
+    
     @Test
     @DisplayName("查詢符合延期條件的待辦事項時不同使用者應該回傳各自的結果")
     void test_findEligibleForExtensionByUsername_whenMultipleUsers_then_shouldReturnUserSpecificResults() {
@@ -493,4 +570,325 @@ class TodoItemRepositoryTest {
         // Then - 驗證統計結果應該為0
         assertThat(totalExtensions).isEqualTo(0L);
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("以 keyset 分頁依建立時間降序翻頁時應該不重複也不遺漏")
+    void test_findPageByUserIdOrderByCreatedAtDescAfter_whenPagingThrough_then_shouldVisitEveryTodoOnce() {
+        // Given - 建立五筆相同建立時間的待辦事項，驗證以 ID 作為次要排序鍵
+        LocalDateTime sameTime = LocalDateTime.now().withNano(0);
+        for (int i = 1; i <= 5; i++) {
+            TodoItem todo = new TodoItem("任務" + i, "描述", LocalDate.now().plusDays(i), testUser);
+            entityManager.persist(todo);
+        }
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createQuery("UPDATE TodoItem t SET t.createdAt = :createdAt")
+                .setParameter("createdAt", sameTime)
+                .executeUpdate();
+        entityManager.clear();
+        
+        // When - 每頁兩筆翻完所有頁面
+        List<TodoListItem> firstPage = todoItemRepository.findByUserIdOrderByCreatedAtDescIdDesc(testUser.getId(), Limit.of(2));
+        TodoListItem lastOfFirst = firstPage.get(1);
+        List<TodoListItem> secondPage = todoItemRepository.findPageByUserIdOrderByCreatedAtDescAfter(
+                testUser.getId(), lastOfFirst.createdAt(), lastOfFirst.id(), Limit.of(2));
+        TodoListItem lastOfSecond = secondPage.get(1);
+        List<TodoListItem> thirdPage = todoItemRepository.findPageByUserIdOrderByCreatedAtDescAfter(
+                testUser.getId(), lastOfSecond.createdAt(), lastOfSecond.id(), Limit.of(2));
+        
+        // Then - 驗證三頁合起來依 ID 降序且涵蓋全部五筆
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(2);
+        assertThat(thirdPage).hasSize(1);
+        List<Long> visitedIds = new ArrayList<>();
+        firstPage.forEach(todo -> visitedIds.add(todo.id()));
+        secondPage.forEach(todo -> visitedIds.add(todo.id()));
+        thirdPage.forEach(todo -> visitedIds.add(todo.id()));
+        assertThat(visitedIds).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.reverseOrder());
+    }
+    
+    @Test
+    @DisplayName("分頁查詢應該以建構子表達式回傳列表投影且只擷取描述摘要")
+    void test_findByUserIdOrderByDueDateAscIdAsc_whenLongDescription_then_shouldReturnProjectionWithSnippet() {
+        // Given - 建立描述很長且明天到期的待辦事項
+        TodoItem longTodo = new TodoItem("長描述任務", "描".repeat(1000), LocalDate.now().plusDays(1), testUser);
+        entityManager.persistAndFlush(longTodo);
+        entityManager.clear();
+        
+        // When - 查詢第一頁
+        List<TodoListItem> items = todoItemRepository.findByUserIdOrderByDueDateAscIdAsc(testUser.getId(), Limit.of(10));
+        
+        // Then - 驗證回傳投影且描述被截斷，持久化上下文中沒有實體
+        assertThat(items).hasSize(1);
+        TodoListItem item = items.get(0);
+        assertThat(item.id()).isEqualTo(longTodo.getId());
+        assertThat(item.description()).hasSize(TodoListItem.DESCRIPTION_SNIPPET_LENGTH + 1).endsWith("…");
+        assertThat(item.dueDate()).isEqualTo(LocalDate.now().plusDays(1));
+        assertThat(entityManager.getEntityManager().contains(longTodo)).isFalse();
+        assertThat(entityManager.find(TodoItem.class, longTodo.getId())).isNotNull();
+    }
+    
+    @Test
+    @DisplayName("以 keyset 分頁依預計完成日升序查詢下一頁時應該從游標之後開始")
+    void test_findPageByUserIdOrderByDueDateAscAfter_whenCursorGiven_then_shouldReturnFollowingTodos() {
+        // Given - 儲存待辦事項（+1、+2、+3 天）
+        entityManager.persistAndFlush(todoItem1);
+        entityManager.persistAndFlush(todoItem2);
+        entityManager.persistAndFlush(todoItem3);
+        
+        // When - 以 +1 天的待辦事項作為游標
+        List<TodoListItem> todos = todoItemRepository.findPageByUserIdOrderByDueDateAscAfter(
+                testUser.getId(), todoItem1.getDueDate(), todoItem1.getId(), Limit.of(10));
+        
+        // Then - 驗證只回傳之後的兩筆
+        assertThat(todos).extracting(TodoListItem::title)
+                .containsExactly("第三個任務", "第二個任務");
+    }
+    
+    @Test
+    @DisplayName("以 keyset 分頁依預計完成日降序查詢下一頁時應該從游標之後開始")
+    void test_findPageByUserIdOrderByDueDateDescAfter_whenCursorGiven_then_shouldReturnFollowingTodos() {
+        // Given - 儲存待辦事項（+1、+2、+3 天）
+        entityManager.persistAndFlush(todoItem1);
+        entityManager.persistAndFlush(todoItem2);
+        entityManager.persistAndFlush(todoItem3);
+        
+        // When - 以 +3 天的待辦事項作為游標
+        List<TodoListItem> todos = todoItemRepository.findPageByUserIdOrderByDueDateDescAfter(
+                testUser.getId(), todoItem2.getDueDate(), todoItem2.getId(), Limit.of(10));
+        
+        // Then - 驗證只回傳之後的兩筆
+        assertThat(todos).extracting(TodoListItem::title)
+                .containsExactly("第三個任務", "第一個任務");
+    }
+    
+    @Test
+    @DisplayName("以 keyset 分頁依建立時間升序查詢時不應該包含其他使用者的資料")
+    void test_findPageByUserIdOrderByCreatedAtAscAfter_whenMultipleUsers_then_shouldReturnUserSpecificResults() {
+        // Given - 為兩個使用者建立待辦事項
+        entityManager.persistAndFlush(todoItem1);
+        entityManager.persistAndFlush(new TodoItem("其他使用者任務", "描述", LocalDate.now(), anotherUser));
+        entityManager.persistAndFlush(todoItem3);
+        
+        // When - 以第一筆作為游標查詢
+        List<TodoListItem> todos = todoItemRepository.findPageByUserIdOrderByCreatedAtAscAfter(
+                testUser.getId(), todoItem1.getCreatedAt(), todoItem1.getId(), Limit.of(10));
+        
+        // Then - 驗證只回傳該使用者之後的待辦事項
+        assertThat(todos).extracting(TodoListItem::title)
+                .containsExactly("第三個任務");
+    }
+    
+    @Test
+    @DisplayName("條件式 UPDATE 切換完成狀態時應該同步完成時間且只影響自己的待辦事項")
+    void test_toggleCompletedByIdAndUserId_whenOwnerOrOtherUser_then_shouldOnlyToggleOwnedTodo() {
+        // Given - 儲存未完成的待辦事項
+        TodoItem savedTodo = entityManager.persistAndFlush(todoItem1);
+        LocalDateTime now = LocalDateTime.now();
+        
+        // When - 以其他使用者與擁有者分別切換
+        int otherUserUpdated = todoItemRepository.toggleCompletedByIdAndUserId(savedTodo.getId(), anotherUser.getId(), now);
+        int completedUpdated = todoItemRepository.toggleCompletedByIdAndUserId(savedTodo.getId(), testUser.getId(), now);
+        TodoItem completed = todoItemRepository.findById(savedTodo.getId()).orElseThrow();
+        int reopenedUpdated = todoItemRepository.toggleCompletedByIdAndUserId(savedTodo.getId(), testUser.getId(), now);
+        TodoItem reopened = todoItemRepository.findById(savedTodo.getId()).orElseThrow();
+        
+        // Then - 驗證只有擁有者能切換，且完成時間跟著狀態變化
+        assertThat(otherUserUpdated).isZero();
+        assertThat(completedUpdated).isEqualTo(1);
+        assertThat(completed.isCompleted()).isTrue();
+        assertThat(completed.getCompletedAt()).isNotNull();
+        assertThat(reopenedUpdated).isEqualTo(1);
+        assertThat(reopened.isCompleted()).isFalse();
+        assertThat(reopened.getCompletedAt()).isNull();
+    }
+    
+    @Test
+    @DisplayName("條件式 UPDATE 標記完成時已完成的待辦事項不應該被更新")
+    void test_markCompletedByIdAndUserId_whenAlreadyCompleted_then_shouldNotUpdate() {
+        // Given - 儲存已完成與未完成的待辦事項
+        TodoItem completedTodo = entityManager.persistAndFlush(todoItem2);
+        TodoItem incompleteTodo = entityManager.persistAndFlush(todoItem1);
+        LocalDateTime now = LocalDateTime.now();
+        
+        // When - 標記為完成
+        int completedUpdated = todoItemRepository.markCompletedByIdAndUserId(completedTodo.getId(), testUser.getId(), now);
+        int incompleteUpdated = todoItemRepository.markCompletedByIdAndUserId(incompleteTodo.getId(), testUser.getId(), now);
+        
+        // Then - 驗證只有未完成的被更新
+        assertThat(completedUpdated).isZero();
+        assertThat(incompleteUpdated).isEqualTo(1);
+        assertThat(todoItemRepository.findById(incompleteTodo.getId()).orElseThrow().isCompleted()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("條件式 UPDATE 延期時應該更新到期日、延期次數與原始到期日")
+    void test_extendDueDateByIdAndUserId_whenEligible_then_shouldExtendDueDate() {
+        // Given - 儲存明天到期的待辦事項
+        TodoItem savedTodo = entityManager.persistAndFlush(todoItem1);
+        LocalDate today = LocalDate.now();
+        LocalDate originalDueDate = savedTodo.getDueDate();
+        
+        // When - 連續延期三次（第三次時到期日已超過延期範圍）
+        int firstUpdated = todoItemRepository.extendDueDateByIdAndUserId(
+                savedTodo.getId(), testUser.getId(), 2, today, today.plusDays(3), LocalDateTime.now());
+        int secondUpdated = todoItemRepository.extendDueDateByIdAndUserId(
+                savedTodo.getId(), testUser.getId(), 1, today, today.plusDays(3), LocalDateTime.now());
+        int thirdUpdated = todoItemRepository.extendDueDateByIdAndUserId(
+                savedTodo.getId(), testUser.getId(), 1, today, today.plusDays(3), LocalDateTime.now());
+        TodoItem extended = todoItemRepository.findById(savedTodo.getId()).orElseThrow();
+        
+        // Then - 驗證前兩次延期成功，原始到期日只在首次延期時記錄
+        assertThat(firstUpdated).isEqualTo(1);
+        assertThat(secondUpdated).isEqualTo(1);
+        assertThat(thirdUpdated).isZero();
+        assertThat(extended.getDueDate()).isEqualTo(originalDueDate.plusDays(3));
+        assertThat(extended.getOriginalDueDate()).isEqualTo(originalDueDate);
+        assertThat(extended.getExtensionCount()).isEqualTo(2);
+        assertThat(extended.getLastExtendedAt()).isNotNull();
+    }
+    
+    @Test
+    @DisplayName("條件式 UPDATE 延期時不符合延期條件的待辦事項不應該被更新")
+    void test_extendDueDateByIdAndUserId_whenIneligible_then_shouldNotUpdate() {
+        // Given - 儲存已完成、逾期與超過三天到期的待辦事項
+        TodoItem completedTodo = entityManager.persistAndFlush(todoItem2);
+        TodoItem overdueTodo = entityManager.persistAndFlush(
+                new TodoItem("逾期任務", "描述", LocalDate.now().minusDays(1), testUser));
+        TodoItem farTodo = entityManager.persistAndFlush(
+                new TodoItem("下週任務", "描述", LocalDate.now().plusDays(7), testUser));
+        LocalDate today = LocalDate.now();
+        
+        // When & Then - 驗證都沒有被更新
+        for (TodoItem todo : List.of(completedTodo, overdueTodo, farTodo)) {
+            int updated = todoItemRepository.extendDueDateByIdAndUserId(
+                    todo.getId(), testUser.getId(), 1, today, today.plusDays(3), LocalDateTime.now());
+            assertThat(updated).isZero();
+        }
+    }
+    
+    @Test
+    @DisplayName("單一查詢統計待辦事項時應該回傳所有計數且不包含其他使用者的資料")
+    void test_getStatsByUserId_whenMixedTodos_then_shouldReturnAllCounters() {
+        // Given - 建立各種狀態的待辦事項
+        LocalDate today = LocalDate.now();
+        todoItem1.setExtensionCount(2);
+        entityManager.persistAndFlush(todoItem1);                                                        // 明天到期，可延期
+        entityManager.persistAndFlush(todoItem2);                                                        // 已完成
+        entityManager.persistAndFlush(new TodoItem("逾期任務", "描述", today.minusDays(1), testUser));      // 逾期
+        entityManager.persistAndFlush(new TodoItem("下週任務", "描述", today.plusDays(7), testUser));       // 尚未到期
+        entityManager.persistAndFlush(new TodoItem("其他使用者任務", "描述", today, anotherUser));
+        
+        // When - 查詢統計資料
+        TodoStats stats = todoItemRepository.getStatsByUserId(
+                testUser.getId(), today, today.plusDays(3));
+        
+        // Then - 驗證所有計數
+        assertThat(stats.getTotal()).isEqualTo(4);
+        assertThat(stats.getCompleted()).isEqualTo(1);
+        assertThat(stats.getPending()).isEqualTo(3);
+        assertThat(stats.getOverdue()).isEqualTo(1);
+        assertThat(stats.getDueSoon()).isEqualTo(1);
+        assertThat(stats.getEligibleForExtension()).isEqualTo(1);
+        assertThat(stats.getTotalExtensions()).isEqualTo(2);
+    }
+    
+    @Test
+    @DisplayName("沒有待辦事項時統計資料應該全部為 0")
+    void test_getStatsByUserId_whenNoTodos_then_shouldReturnZeros() {
+        // When - 查詢沒有待辦事項的使用者
+        LocalDate today = LocalDate.now();
+        TodoStats stats = todoItemRepository.getStatsByUserId(
+                anotherUser.getId(), today, today.plusDays(3));
+        
+        // Then - 驗證全部為 0
+        assertThat(stats.getTotal()).isZero();
+        assertThat(stats.getCompleted()).isZero();
+        assertThat(stats.getTotalExtensions()).isZero();
+    }
+    
+    @Test
+    @DisplayName("批次儲存待辦事項時應該以 pooled-lo 序列連續配置 ID 並延後到 flush 才寫入")
+    void test_saveAll_whenMultipleTodos_then_shouldAllocateConsecutiveIdsBeforeFlush() {
+        // When - 批次儲存但尚未 flush
+        List<TodoItem> saved = todoItemRepository.saveAll(List.of(todoItem1, todoItem2, todoItem3));
+        
+        // Then - ID 已由序列配置且連續，建立時間也已設定
+        assertThat(saved).extracting(TodoItem::getId).doesNotContainNull();
+        assertThat(saved.get(1).getId()).isEqualTo(saved.get(0).getId() + 1);
+        assertThat(saved.get(2).getId()).isEqualTo(saved.get(1).getId() + 1);
+        assertThat(saved).extracting(TodoItem::getCreatedAt).doesNotContainNull();
+        
+        // flush 後可以查詢到全部資料
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(todoItemRepository.countByUser(testUser)).isEqualTo(3);
+    }
+    
+    @Test
+    @DisplayName("批次延期應該只更新符合條件的待辦事項並保留單筆延期的欄位語意")
+    void test_extendDueDateByIdInAndUserId_whenMixedTodos_then_shouldExtendEligibleOnly() {
+        // Given - 一筆已延期過、一筆首次延期、一筆已完成、一筆屬於其他使用者
+        LocalDate today = LocalDate.now();
+        TodoItem extendedBefore = new TodoItem("延期過", "描述", today.plusDays(2), testUser);
+        extendedBefore.extendDueDate(1);
+        TodoItem firstTime = new TodoItem("首次", "描述", today, testUser);
+        TodoItem completed = new TodoItem("已完成", "描述", today.plusDays(1), testUser);
+        completed.markAsCompleted();
+        TodoItem othersTodo = new TodoItem("別人的", "描述", today.plusDays(1), anotherUser);
+        List<Long> ids = List.of(
+                entityManager.persist(extendedBefore).getId(),
+                entityManager.persist(firstTime).getId(),
+                entityManager.persist(completed).getId(),
+                entityManager.persist(othersTodo).getId());
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        
+        // When - 批次延期 5 天
+        int updated = todoItemRepository.extendDueDateByIdInAndUserId(
+                ids, testUser.getId(), 5, today, today.plusDays(3), now);
+        List<ExtendedTodoSummary> summaries = todoItemRepository.findExtendedSummaries(ids, testUser.getId(), now);
+        
+        // Then - 驗證只延期兩筆，原始到期日與延期次數正確
+        assertThat(updated).isEqualTo(2);
+        assertThat(summaries).extracting(ExtendedTodoSummary::id).containsExactly(ids.get(1), ids.get(0));
+        ExtendedTodoSummary first = summaries.get(0);
+        assertThat(first.newDueDate()).isEqualTo(today.plusDays(5));
+        assertThat(first.originalDueDate()).isEqualTo(today);
+        assertThat(first.extensionCount()).isEqualTo(1);
+        ExtendedTodoSummary second = summaries.get(1);
+        assertThat(second.newDueDate()).isEqualTo(today.plusDays(8));
+        assertThat(second.originalDueDate()).isEqualTo(today.plusDays(2));
+        assertThat(second.extensionCount()).isEqualTo(2);
+        assertThat(todoItemRepository.findById(ids.get(3))).get()
+                .extracting(TodoItem::getDueDate).isEqualTo(today.plusDays(1));
+    }
+    
+    @Test
+    @DisplayName("延期所有符合條件的待辦事項應該不需要 ID 清單並只更新該使用者的資料")
+    void test_extendDueDateByUserId_whenMixedTodos_then_shouldExtendEligibleOnly() {
+        // Given - 範圍內、範圍外、已完成各一筆，另一筆屬於其他使用者
+        LocalDate today = LocalDate.now();
+        TodoItem inWindow = entityManager.persist(new TodoItem("範圍內", "描述", today.plusDays(3), testUser));
+        TodoItem outOfWindow = entityManager.persist(new TodoItem("範圍外", "描述", today.plusDays(4), testUser));
+        TodoItem completed = new TodoItem("已完成", "描述", today, testUser);
+        completed.markAsCompleted();
+        entityManager.persist(completed);
+        TodoItem othersTodo = entityManager.persist(new TodoItem("別人的", "描述", today, anotherUser));
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        
+        // When - 延期 2 天並查回結果
+        int updated = todoItemRepository.extendDueDateByUserId(testUser.getId(), 2, today, today.plusDays(3), now);
+        List<ExtendedTodoSummary> summaries = todoItemRepository.findExtendedSummariesByUserId(testUser.getId(), now);
+        
+        // Then - 驗證只延期範圍內的一筆
+        assertThat(updated).isEqualTo(1);
+        assertThat(summaries).extracting(ExtendedTodoSummary::id).containsExactly(inWindow.getId());
+        assertThat(summaries.get(0).newDueDate()).isEqualTo(today.plusDays(5));
+        assertThat(todoItemRepository.findById(outOfWindow.getId())).get()
+                .extracting(TodoItem::getDueDate).isEqualTo(today.plusDays(4));
+        assertThat(todoItemRepository.findById(othersTodo.getId())).get()
+                .extracting(TodoItem::getExtensionCount).isEqualTo(0);
+    }
+}
@@ -63,6 +63,21 @@ class UserRepositoryTest {
         assertThat(foundUser).isEmpty();
     }
     
+    @Test
+    @DisplayName("根據使用者名稱只查詢使用者 ID 時應該回傳正確的 ID")
+    void test_findIdByUsername_whenUserExists_then_shouldReturnId() {
+        // Given - 儲存測試使用者到資料庫
+        User savedUser = entityManager.persistAndFlush(testUser);
+        
+        // When - 根據使用者名稱查詢 ID
+        Optional<Long> userId = userRepository.findIdByUsername("testuser");
+        Optional<Long> missingId = userRepository.findIdByUsername("nonexistent");
+        
+        // Then - 驗證查詢結果
+        assertThat(userId).contains(savedUser.getId());
+        assertThat(missingId).isEmpty();
+    }
+    
     @Test
     @DisplayName("檢查存在的使用者名稱時應該回傳 true")
     void test_existsByUsername_whenUserExists_then_shouldReturnTrue() {
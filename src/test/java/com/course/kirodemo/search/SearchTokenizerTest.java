@@ -0,0 +1,57 @@
+package com.course.kirodemo.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SearchTokenizer 單元測試
+ * 測試中日韓文字的 n-gram 切分與英數字斷詞
+ */
+@DisplayName("SearchTokenizer 斷詞測試")
+class SearchTokenizerTest {
+
+    @Test
+    @DisplayName("索引時中文應該同時產生單字與 2-gram，英數字以整個詞索引")
+    void test_termFrequencies_whenMixedText_then_shouldEmitCjkNgramsAndWords() {
+        // Given - 準備中英混合的內容
+        String text = "準備 Spring 報告";
+
+        // When - 斷詞
+        Map<String, Integer> terms = SearchTokenizer.termFrequencies(text);
+
+        // Then - 驗證中文單字、2-gram 與英文詞
+        assertThat(terms).containsKeys("準", "備", "準備", "spring", "報", "告", "報告");
+        assertThat(terms).doesNotContainKey("備s");
+        assertThat(terms).hasSize(7);
+    }
+
+    @Test
+    @DisplayName("查詢時多字中文只使用 2-gram，單字中文使用單字")
+    void test_queryTerms_whenCjkQuery_then_shouldUseBigramsOrUnigram() {
+        // When - 斷詞兩種查詢
+        Set<String> bigrams = SearchTokenizer.queryTerms("會議記錄");
+        Set<String> unigram = SearchTokenizer.queryTerms("會");
+
+        // Then - 驗證查詢詞
+        assertThat(bigrams).containsExactly("會議", "議記", "記錄");
+        assertThat(unigram).containsExactly("會");
+    }
+
+    @Test
+    @DisplayName("全形英數字與大小寫應該正規化為相同的詞")
+    void test_queryTerms_whenFullWidthAndUpperCase_then_shouldNormalize() {
+        // When - 斷詞全形大寫與半形小寫
+        Set<String> fullWidth = SearchTokenizer.queryTerms("ＡＰＩ２０２５");
+        Set<String> halfWidth = SearchTokenizer.queryTerms("api2025");
+
+        // Then - 驗證結果相同，空白與標點不產生詞
+        assertThat(fullWidth).isEqualTo(halfWidth).containsExactly("api2025");
+        assertThat(SearchTokenizer.queryTerms("  ，。!  ")).isEmpty();
+        assertThat(SearchTokenizer.termFrequencies(null)).isEmpty();
+    }
+}
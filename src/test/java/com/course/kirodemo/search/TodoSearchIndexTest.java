@@ -0,0 +1,77 @@
+package com.course.kirodemo.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TodoSearchIndex 單元測試
+ * 測試使用者隔離、排名、分頁與增量更新
+ */
+@DisplayName("TodoSearchIndex 反向索引測試")
+class TodoSearchIndexTest {
+
+    private TodoSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new TodoSearchIndex();
+        searchIndex.index(1L, 10L, "準備季度報告", "整理銷售數據");
+        searchIndex.index(1L, 11L, "買牛奶", "順便準備報告用的影印紙");
+        searchIndex.index(1L, 12L, "健身", null);
+        searchIndex.index(2L, 20L, "準備季度報告", "其他使用者的資料");
+    }
+
+    @Test
+    @DisplayName("標題命中的待辦事項應該排在只有描述命中的前面")
+    void test_search_whenTitleAndDescriptionMatch_then_shouldRankTitleFirst() {
+        // When - 搜尋「報告」
+        TodoSearchIndex.SearchHits hits = searchIndex.search(1L, "報告", 0, 10);
+
+        // Then - 驗證排名與只包含自己的資料
+        assertThat(hits.total()).isEqualTo(2);
+        assertThat(hits.todoIds()).containsExactly(10L, 11L);
+    }
+
+    @Test
+    @DisplayName("所有查詢詞都必須出現才算命中")
+    void test_search_whenNotAllTermsMatch_then_shouldExclude() {
+        // When - 搜尋只有一筆同時包含的詞
+        TodoSearchIndex.SearchHits hits = searchIndex.search(1L, "季度 銷售", 0, 10);
+        TodoSearchIndex.SearchHits none = searchIndex.search(1L, "報告 健身", 0, 10);
+
+        // Then - 驗證 AND 語意
+        assertThat(hits.todoIds()).containsExactly(10L);
+        assertThat(none.total()).isZero();
+        assertThat(searchIndex.search(3L, "報告", 0, 10).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("分頁時應該回傳指定範圍並保留總筆數")
+    void test_search_whenPaged_then_shouldReturnRequestedSlice() {
+        // When - 每頁一筆取第二頁與超出範圍的頁
+        TodoSearchIndex.SearchHits secondPage = searchIndex.search(1L, "準備", 1, 1);
+        TodoSearchIndex.SearchHits beyond = searchIndex.search(1L, "準備", 5, 1);
+
+        // Then - 驗證分頁結果
+        assertThat(secondPage.todoIds()).containsExactly(11L);
+        assertThat(secondPage.total()).isEqualTo(2);
+        assertThat(beyond.todoIds()).isEmpty();
+        assertThat(beyond.total()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("更新與刪除後索引應該只反映最新內容")
+    void test_indexAndRemove_whenTodoChanged_then_shouldReflectLatestContent() {
+        // When - 更新標題並刪除另一筆
+        searchIndex.index(1L, 10L, "整理車庫", null);
+        searchIndex.remove(1L, 11L);
+
+        // Then - 驗證舊內容不再命中
+        assertThat(searchIndex.search(1L, "報告", 0, 10).total()).isZero();
+        assertThat(searchIndex.search(1L, "車庫", 0, 10).todoIds()).containsExactly(10L);
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+}
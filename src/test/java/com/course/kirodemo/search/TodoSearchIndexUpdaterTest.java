@@ -0,0 +1,70 @@
+package com.course.kirodemo.search;
+
+import com.course.kirodemo.dto.TodoSearchDocument;
+import com.course.kirodemo.event.TodoChangedEvent;
+import com.course.kirodemo.repository.TodoItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * TodoSearchIndexUpdater 單元測試
+ * 以模擬的儲存庫測試重建期間發生的變更不會以舊內容留在新索引中
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TodoSearchIndexUpdater 索引重建測試")
+class TodoSearchIndexUpdaterTest {
+
+    @Mock
+    private TodoItemRepository todoItemRepository;
+
+    private TodoSearchIndex searchIndex;
+    private TodoSearchIndexUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new TodoSearchIndex();
+        updater = new TodoSearchIndexUpdater(searchIndex, todoItemRepository, false, 2);
+    }
+
+    @Test
+    @DisplayName("重建期間刪除與更新的待辦事項應該以資料庫的最新狀態出現在新索引中")
+    void test_rebuild_whenTodosChangedDuringRebuild_then_shouldApplyLatestState() {
+        // Given - 第一批讀取後，已讀取的一筆被刪除、另一筆被改名
+        when(todoItemRepository.findSearchDocumentsAfter(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            List<TodoSearchDocument> batch = List.of(
+                    new TodoSearchDocument(1L, 7L, "繳交電費", null),
+                    new TodoSearchDocument(2L, 7L, "繳交水費", null));
+            updater.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.DELETED, 1L));
+            updater.onTodoChanged(TodoChangedEvent.of(7L, TodoChangedEvent.Type.UPDATED, 2L));
+            return batch;
+        });
+        when(todoItemRepository.findSearchDocumentsAfter(eq(2L), any(Limit.class))).thenReturn(List.of());
+        when(todoItemRepository.findSearchDocumentsByIdIn(any())).thenAnswer(invocation -> {
+            Set<Long> ids = Set.copyOf(invocation.getArgument(0));
+            return ids.contains(2L) ? List.of(new TodoSearchDocument(2L, 7L, "繳交瓦斯費", null)) : List.of();
+        });
+
+        // When - 重建索引
+        int count = updater.rebuild();
+
+        // Then - 驗證刪除的不在索引中，改名的以新標題索引
+        assertThat(count).isEqualTo(2);
+        assertThat(searchIndex.size()).isEqualTo(1);
+        assertThat(searchIndex.search(7L, "電費", 0, 10).total()).isZero();
+        assertThat(searchIndex.search(7L, "水費", 0, 10).total()).isZero();
+        assertThat(searchIndex.search(7L, "瓦斯費", 0, 10).todoIds()).containsExactly(2L);
+    }
+}
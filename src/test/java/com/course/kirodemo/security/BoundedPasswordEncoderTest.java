@@ -0,0 +1,141 @@
+package com.course.kirodemo.security;
+
+import com.course.kirodemo.exception.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoundedPasswordEncoder 單元測試
+ * 測試專用執行緒池的委派、滿載拒絕、逾時與統計資料
+ */
+@DisplayName("BoundedPasswordEncoder 有界密碼編碼器測試")
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    /**
+     * 會卡住直到 release 被釋放的編碼器，用來模擬執行緒池滿載
+     */
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals("hashed:" + rawPassword);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("未滿載時應該委派給實際編碼器並記錄完成次數")
+    void test_encodeAndMatches_whenIdle_then_shouldDelegate() {
+        // Given - 不會卡住的編碼器
+        release.countDown();
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 2, 4, Duration.ofSeconds(5));
+
+        // When - 編碼並比對
+        String encoded = encoder.encode("password123");
+        boolean matches = encoder.matches("password123", encoded);
+        boolean wrong = encoder.matches("wrong", encoded);
+
+        // Then - 驗證結果與統計
+        assertEquals("hashed:password123", encoded);
+        assertTrue(matches);
+        assertFalse(wrong);
+        BoundedPasswordEncoder.Stats stats = encoder.stats();
+        assertEquals(3, stats.completed());
+        assertEquals(0, stats.rejected());
+        assertEquals(0, stats.timedOut());
+    }
+
+    @Test
+    @DisplayName("執行緒與佇列都已滿時應該立即拒絕")
+    void test_encode_whenSaturated_then_shouldRejectImmediately() throws Exception {
+        // Given - 一條執行緒被佔用、佇列也已排滿
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, Duration.ofSeconds(5));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        waitForQueueDepth(1);
+
+        // When & Then - 第三個請求立即被拒絕
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+        assertEquals(1, encoder.stats().rejected());
+
+        // 釋放後先前的請求仍能完成
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("等待超過上限時應該拋出忙碌異常並記錄逾時")
+    void test_encode_whenWaitExceeded_then_shouldTimeOut() {
+        // Given - 會卡住的編碼器與很短的等待上限
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, Duration.ofMillis(50));
+
+        // When & Then - 驗證逾時
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("password123"));
+        assertEquals(1, encoder.stats().timedOut());
+    }
+
+    @Test
+    @DisplayName("實際編碼器拋出的異常應該原樣傳遞")
+    void test_encode_whenDelegateFails_then_shouldPropagateCause() {
+        // Given - 會失敗的編碼器
+        PasswordEncoder failing = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new IllegalArgumentException("密碼格式錯誤");
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+        encoder = new BoundedPasswordEncoder(failing, 1, 1, Duration.ofSeconds(5));
+
+        // When & Then - 驗證異常型別
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> encoder.encode("password123"));
+        assertEquals("密碼格式錯誤", exception.getMessage());
+    }
+
+    private void waitForQueueDepth(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (encoder.stats().queueDepth() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, encoder.stats().queueDepth());
+    }
+}
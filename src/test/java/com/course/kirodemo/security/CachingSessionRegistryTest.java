@@ -0,0 +1,77 @@
+package com.course.kirodemo.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * CachingSessionRegistry 單元測試
+ * 測試會話資訊的本機快取與登入查詢後的快取更新
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CachingSessionRegistry 會話註冊表測試")
+class CachingSessionRegistryTest {
+
+    @Mock
+    private SessionRegistry delegate;
+
+    private CachingSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new CachingSessionRegistry(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    @DisplayName("重複查詢同一個會話時應該只載入一次，移除後重新載入")
+    void test_getSessionInformation_whenQueriedRepeatedly_then_shouldLoadOnce() {
+        // Given - 儲存庫中的會話
+        SessionInformation information = new SessionInformation("alice", "session-1", new Date());
+        when(delegate.getSessionInformation("session-1")).thenReturn(information);
+
+        // When - 連續查詢三次
+        for (int i = 0; i < 3; i++) {
+            assertThat(registry.getSessionInformation("session-1")).isSameAs(information);
+        }
+
+        // Then - 驗證只載入一次
+        verify(delegate, times(1)).getSessionInformation("session-1");
+
+        // When & Then - 移除後重新載入
+        registry.removeSessionInformation("session-1");
+        registry.getSessionInformation("session-1");
+        verify(delegate, times(2)).getSessionInformation("session-1");
+    }
+
+    @Test
+    @DisplayName("登入時查詢的會話被標記為過期後，快取應該立即反映")
+    void test_getAllSessions_whenSessionExpiredAfterQuery_then_shouldBeVisibleFromCache() {
+        // Given - 快取中已有舊的會話資訊
+        SessionInformation stale = new SessionInformation("alice", "session-1", new Date());
+        SessionInformation fresh = new SessionInformation("alice", "session-1", new Date());
+        when(delegate.getSessionInformation("session-1")).thenReturn(stale);
+        when(delegate.getAllSessions("alice", false)).thenReturn(List.of(fresh));
+        registry.getSessionInformation("session-1");
+
+        // When - 新登入時查詢並踢掉舊會話
+        registry.getAllSessions("alice", false).forEach(SessionInformation::expireNow);
+
+        // Then - 驗證快取回傳的是已過期的會話資訊
+        assertThat(registry.getSessionInformation("session-1").isExpired()).isTrue();
+        verify(delegate, times(1)).getSessionInformation("session-1");
+    }
+}
@@ -0,0 +1,100 @@
+package com.course.kirodemo.security;
+
+import com.course.kirodemo.exception.UserNotFoundException;
+import com.course.kirodemo.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * CurrentUserResolver 單元測試
+ * 測試在請求中與請求外解析使用者 ID 的行為
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CurrentUserResolver 單元測試")
+class CurrentUserResolverTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ObjectProvider<AuthenticatedUserContext> contextProvider;
+
+    private CurrentUserResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new CurrentUserResolver(contextProvider, userRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("請求中已認證主體帶有 ID 時不應該查詢資料庫")
+    void test_resolveUserId_whenPrincipalHasId_then_shouldNotQueryDatabase() {
+        // Given - 設定已認證的主體與請求上下文
+        CustomUserPrincipal principal = new CustomUserPrincipal(7L, "testuser", "password",
+                Collections.emptyList(), true, true, true, true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(contextProvider.getIfAvailable()).thenReturn(new AuthenticatedUserContext());
+
+        // When - 解析使用者 ID
+        Long userId = resolver.resolveUserId("testuser");
+
+        // Then - 驗證直接使用主體的 ID
+        assertEquals(7L, userId);
+        verify(userRepository, never()).findIdByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("同一個請求中重複解析時應該只查詢資料庫一次")
+    void test_resolveUserId_whenCalledTwiceInRequest_then_shouldQueryOnce() {
+        // Given - 主體沒有攜帶 ID（例如 @WithMockUser）
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(contextProvider.getIfAvailable()).thenReturn(new AuthenticatedUserContext());
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(3L));
+
+        // When - 重複解析
+        Long first = resolver.resolveUserId("testuser");
+        Long second = resolver.resolveUserId("testuser");
+
+        // Then - 驗證只查詢一次
+        assertEquals(3L, first);
+        assertEquals(3L, second);
+        verify(userRepository, times(1)).findIdByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("不在請求中且使用者不存在時應該拋出 UserNotFoundException")
+    void test_resolveUserId_whenOutsideRequestAndUserMissing_then_shouldThrowUserNotFoundException() {
+        // Given - 不在請求中
+        when(userRepository.findIdByUsername("nonexistent")).thenReturn(Optional.empty());
+
+        // When & Then - 驗證拋出異常
+        assertThrows(UserNotFoundException.class, () -> resolver.resolveUserId("nonexistent"));
+        verify(contextProvider, never()).getIfAvailable();
+    }
+}
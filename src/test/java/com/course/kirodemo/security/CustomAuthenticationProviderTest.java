@@ -0,0 +1,228 @@
+package com.course.kirodemo.security;
+
+import com.course.kirodemo.config.PasswordEncoderConfig;
+import com.course.kirodemo.exception.PasswordHashingBusyException;
+import com.course.kirodemo.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * CustomAuthenticationProvider 單元測試
+ * 測試單次載入使用者的密碼驗證與登入時重新雜湊
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomAuthenticationProvider 認證測試")
+class CustomAuthenticationProviderTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private PasswordEncoder passwordEncoder;
+    private CustomAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        // Given - 以低 cost 的 BCrypt 作為目前設定，加快測試速度
+        passwordEncoder = PasswordEncoderConfig.createPasswordEncoder(PasswordEncoderConfig.BCRYPT, 4, 1000, 16);
+        provider = new CustomAuthenticationProvider(userService, userDetailsService, passwordEncoder);
+    }
+
+    private CustomUserPrincipal principal(String encodedPassword) {
+        return new CustomUserPrincipal(1L, "testuser", encodedPassword,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), true, true, true, true);
+    }
+
+    @Test
+    @DisplayName("密碼正確時應該只載入一次使用者且不經過 UserService 驗證")
+    void test_authenticate_whenPasswordCorrect_then_shouldLoadUserOnce() {
+        // Given - 使用目前設定雜湊的密碼
+        CustomUserPrincipal user = principal(passwordEncoder.encode("password123"));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+
+        // When - 執行認證
+        Authentication result = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("testuser", "password123"));
+
+        // Then - 驗證認證成功且只查詢一次
+        assertTrue(result.isAuthenticated());
+        assertSame(user, result.getPrincipal());
+        verify(userDetailsService, times(1)).loadUserByUsername("testuser");
+        verify(userService, never()).validatePassword(anyString(), anyString());
+        verify(userService, never()).changePassword(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("密碼錯誤時應該拋出 BadCredentialsException")
+    void test_authenticate_whenPasswordWrong_then_shouldThrowBadCredentials() {
+        // Given - 設定使用者
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(principal(passwordEncoder.encode("password123")));
+
+        // When & Then - 驗證拋出異常
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                new UsernamePasswordAuthenticationToken("testuser", "wrong")));
+        verify(userService, never()).changePassword(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("使用者不存在時應該拋出 BadCredentialsException")
+    void test_authenticate_whenUserNotFound_then_shouldThrowBadCredentials() {
+        // Given - 設定使用者不存在
+        when(userDetailsService.loadUserByUsername("ghost"))
+                .thenThrow(new UsernameNotFoundException("使用者不存在: ghost"));
+
+        // When & Then - 驗證拋出異常
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                new UsernamePasswordAuthenticationToken("ghost", "password123")));
+    }
+
+    @Test
+    @DisplayName("既有沒有前綴的 BCrypt 雜湊應該可以登入並重新雜湊")
+    void test_authenticate_whenLegacyBcryptHash_then_shouldRehash() {
+        // Given - 舊版直接以 BCryptPasswordEncoder 產生的雜湊
+        CustomUserPrincipal legacy = principal(new BCryptPasswordEncoder(4).encode("password123"));
+        CustomUserPrincipal upgraded = principal(passwordEncoder.encode("password123"));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(legacy, upgraded);
+
+        // When - 執行認證
+        Authentication result = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("testuser", "password123"));
+
+        // Then - 驗證以原始密碼重新雜湊，並回傳重新載入的使用者
+        verify(userService).changePassword("testuser", "password123");
+        assertSame(upgraded, result.getPrincipal());
+    }
+
+    @Test
+    @DisplayName("BCrypt cost 調高後既有雜湊應該在登入時重新雜湊")
+    void test_authenticate_whenBcryptCostIncreased_then_shouldRehash() {
+        // Given - 目前設定的 cost 高於既有雜湊
+        PasswordEncoder stronger = PasswordEncoderConfig.createPasswordEncoder(PasswordEncoderConfig.BCRYPT, 5, 1000, 16);
+        CustomAuthenticationProvider strongerProvider =
+                new CustomAuthenticationProvider(userService, userDetailsService, stronger);
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(principal(passwordEncoder.encode("password123")));
+
+        // When - 執行認證
+        strongerProvider.authenticate(new UsernamePasswordAuthenticationToken("testuser", "password123"));
+
+        // Then - 驗證重新雜湊
+        verify(userService).changePassword("testuser", "password123");
+    }
+
+    @Test
+    @DisplayName("BCrypt cost 調低後既有雜湊應該可以登入並重新雜湊")
+    void test_authenticate_whenBcryptCostDecreased_then_shouldRehash() {
+        // Given - 既有雜湊以較高的 cost 產生，目前設定調低 cost
+        PasswordEncoder stronger = PasswordEncoderConfig.createPasswordEncoder(PasswordEncoderConfig.BCRYPT, 5, 1000, 16);
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(principal(stronger.encode("password123")));
+
+        // When - 以目前設定（cost 4）執行認證
+        Authentication result = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("testuser", "password123"));
+
+        // Then - 驗證登入成功並重新雜湊
+        assertTrue(result.isAuthenticated());
+        verify(userService).changePassword("testuser", "password123");
+    }
+
+    @Test
+    @DisplayName("PBKDF2 迭代次數調整後舊參數的雜湊應該可以登入並重新雜湊")
+    void test_authenticate_whenPbkdf2IterationsChanged_then_shouldMatchOldHashAndRehash() {
+        // Given - 既有雜湊以 1000 次迭代產生，目前設定改為 2000 次
+        String oldHash = PasswordEncoderConfig.createPasswordEncoder(PasswordEncoderConfig.PBKDF2, 4, 1000, 16)
+                .encode("password123");
+        PasswordEncoder current = PasswordEncoderConfig.createPasswordEncoder(PasswordEncoderConfig.PBKDF2, 4, 2000, 16);
+        CustomAuthenticationProvider currentProvider =
+                new CustomAuthenticationProvider(userService, userDetailsService, current);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(principal(oldHash));
+
+        // When - 以目前設定執行認證
+        Authentication result = currentProvider.authenticate(
+                new UsernamePasswordAuthenticationToken("testuser", "password123"));
+
+        // Then - 驗證舊雜湊仍可登入並重新雜湊，新雜湊帶有新參數的 id
+        assertTrue(result.isAuthenticated());
+        verify(userService).changePassword("testuser", "password123");
+        assertTrue(current.encode("password123").startsWith("{pbkdf2-2000-16}"));
+        assertFalse(current.matches("wrong", oldHash));
+    }
+
+    @Test
+    @DisplayName("參數寫進 id 之前的 {pbkdf2} 雜湊應該以目前設定驗證並重新雜湊")
+    void test_createPasswordEncoder_whenUnparameterizedPbkdf2Hash_then_shouldMatchAndUpgrade() {
+        // Given - 舊版以 {pbkdf2} 前綴儲存的雜湊
+        PasswordEncoder current = PasswordEncoderConfig.createPasswordEncoder(PasswordEncoderConfig.PBKDF2, 4, 1000, 16);
+        String encoded = current.encode("password123");
+        String legacy = "{pbkdf2}" + encoded.substring("{pbkdf2-1000-16}".length());
+
+        // When & Then - 驗證可以驗證並需要重新雜湊
+        assertTrue(current.matches("password123", legacy));
+        assertTrue(current.upgradeEncoding(legacy));
+    }
+
+    @Test
+    @DisplayName("密碼雜湊忙碌時應該拋出 InternalAuthenticationServiceException 以中止其他認證")
+    void test_authenticate_whenHashingBusy_then_shouldThrowInternalAuthenticationServiceException() {
+        // Given - 編碼器回報忙碌
+        PasswordEncoder busyEncoder = mock(PasswordEncoder.class);
+        when(busyEncoder.matches(anyString(), anyString()))
+                .thenThrow(new PasswordHashingBusyException("系統忙碌中，請稍後再試"));
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(principal(passwordEncoder.encode("password123")));
+        CustomAuthenticationProvider busyProvider =
+                new CustomAuthenticationProvider(userService, userDetailsService, busyEncoder);
+
+        // When & Then - 驗證異常與原因
+        InternalAuthenticationServiceException exception = assertThrows(InternalAuthenticationServiceException.class,
+                () -> busyProvider.authenticate(new UsernamePasswordAuthenticationToken("testuser", "password123")));
+        assertInstanceOf(PasswordHashingBusyException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("切換為 PBKDF2 時新密碼應該使用 PBKDF2 且舊 BCrypt 雜湊仍可驗證")
+    void test_createPasswordEncoder_whenPbkdf2_then_shouldEncodeWithPbkdf2AndMatchBcrypt() {
+        // Given - 以 PBKDF2 作為目前設定
+        PasswordEncoder pbkdf2 = PasswordEncoderConfig.createPasswordEncoder(PasswordEncoderConfig.PBKDF2, 4, 1000, 16);
+        String bcryptHash = passwordEncoder.encode("password123");
+
+        // When - 產生新雜湊
+        String encoded = pbkdf2.encode("password123");
+
+        // Then - 驗證前綴與相容性
+        assertTrue(encoded.startsWith("{pbkdf2-1000-16}"));
+        assertTrue(pbkdf2.matches("password123", encoded));
+        assertTrue(pbkdf2.matches("password123", bcryptHash));
+        assertTrue(pbkdf2.upgradeEncoding(bcryptHash));
+        assertFalse(pbkdf2.upgradeEncoding(encoded));
+    }
+
+    @Test
+    @DisplayName("不支援的演算法應該拋出 IllegalArgumentException")
+    void test_createPasswordEncoder_whenUnknownAlgorithm_then_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PasswordEncoderConfig.createPasswordEncoder("md5", 4, 1000, 16));
+    }
+}
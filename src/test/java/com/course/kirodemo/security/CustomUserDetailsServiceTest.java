@@ -0,0 +1,129 @@
+package com.course.kirodemo.security;
+
+import com.course.kirodemo.entity.User;
+import com.course.kirodemo.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CustomUserDetailsService 單元測試
+ * 測試使用者詳細資訊快取的命中、失效與停用行為
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomUserDetailsService 快取測試")
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Given - 準備測試使用者
+        user = new User("testuser", "$2a$10$encodedPassword");
+        user.setId(1L);
+    }
+
+    @Test
+    @DisplayName("重複載入同一使用者時應該只查詢一次資料庫並記錄命中")
+    void test_loadUserByUsername_whenCalledTwice_then_shouldHitCache() {
+        // Given - 啟用快取
+        UserDetailsCache cache = new UserDetailsCache(true, 100, Duration.ofMinutes(10));
+        CustomUserDetailsService service = new CustomUserDetailsService(userService, cache);
+        when(userService.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        // When - 載入兩次
+        UserDetails first = service.loadUserByUsername("testuser");
+        UserDetails second = service.loadUserByUsername("testuser");
+
+        // Then - 驗證只查詢一次且統計正確
+        assertSame(first, second);
+        assertEquals(1L, ((CustomUserPrincipal) second).getId());
+        verify(userService, times(1)).findByUsername("testuser");
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("快取失效後應該重新查詢資料庫")
+    void test_loadUserByUsername_whenEvicted_then_shouldReload() {
+        // Given - 啟用快取並先載入一次
+        UserDetailsCache cache = new UserDetailsCache(true, 100, Duration.ofMinutes(10));
+        CustomUserDetailsService service = new CustomUserDetailsService(userService, cache);
+        when(userService.findByUsername("testuser")).thenReturn(Optional.of(user));
+        service.loadUserByUsername("testuser");
+
+        // When - 使快取失效後再載入
+        cache.evict("testuser");
+        service.loadUserByUsername("testuser");
+
+        // Then - 驗證查詢兩次
+        verify(userService, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("載入期間快取失效時不應該把載入的舊資料放入快取")
+    void test_get_whenEvictedWhileLoading_then_shouldNotCacheStaleResult() {
+        // Given - 啟用快取，載入期間使用者變更了密碼
+        UserDetailsCache cache = new UserDetailsCache(true, 100, Duration.ofMinutes(10));
+        UserDetails stale = new CustomUserPrincipal(1L, "testuser", "$2a$10$oldPassword", List.of(),
+                true, true, true, true);
+
+        // When - loader 讀到舊資料後、寫回快取前發生失效
+        UserDetails loaded = cache.get("testuser", username -> {
+            cache.evict(username);
+            return stale;
+        });
+
+        // Then - 驗證回傳載入結果但不快取
+        assertSame(stale, loaded);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("使用者不存在時應該拋出例外且不快取結果")
+    void test_loadUserByUsername_whenUserNotFound_then_shouldNotCacheMiss() {
+        // Given - 設定使用者不存在
+        UserDetailsCache cache = new UserDetailsCache(true, 100, Duration.ofMinutes(10));
+        CustomUserDetailsService service = new CustomUserDetailsService(userService, cache);
+        when(userService.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // When & Then - 兩次都拋出例外並查詢資料庫
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost"));
+        verify(userService, times(2)).findByUsername("ghost");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("停用快取時每次都應該查詢資料庫")
+    void test_loadUserByUsername_whenCacheDisabled_then_shouldAlwaysQuery() {
+        // Given - 停用快取
+        UserDetailsCache cache = new UserDetailsCache(false, 100, Duration.ofMinutes(10));
+        CustomUserDetailsService service = new CustomUserDetailsService(userService, cache);
+        when(userService.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        // When - 載入兩次
+        service.loadUserByUsername("testuser");
+        service.loadUserByUsername("testuser");
+
+        // Then - 驗證查詢兩次且沒有統計
+        assertFalse(cache.isEnabled());
+        verify(userService, times(2)).findByUsername("testuser");
+        assertEquals(0, cache.stats().requestCount());
+    }
+}
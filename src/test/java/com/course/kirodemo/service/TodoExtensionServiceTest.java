@@ -1,12 +1,16 @@
 package com.course.kirodemo.service;
 
+import com.course.kirodemo.dto.BulkExtensionResult;
+import com.course.kirodemo.dto.EligibleTodoSummary;
+import com.course.kirodemo.dto.ExtendedTodoSummary;
 import com.course.kirodemo.entity.TodoItem;
 import com.course.kirodemo.entity.User;
+import com.course.kirodemo.event.TodoChangedEvent;
 import com.course.kirodemo.exception.TodoNotFoundException;
 import com.course.kirodemo.exception.UnauthorizedAccessException;
 import com.course.kirodemo.exception.UserNotFoundException;
 import com.course.kirodemo.repository.TodoItemRepository;
-import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.security.CurrentUserResolver;
 import com.course.kirodemo.service.impl.TodoExtensionServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -23,6 +28,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -38,7 +45,7 @@ class TodoExtensionServiceTest {
     private TodoItemRepository todoItemRepository;
     
     @Mock
-    private UserRepository userRepository;
+    private CurrentUserResolver currentUserResolver;
     
     @Mock
     private DateValidationService dateValidationService;
@@ -46,6 +53,9 @@ class TodoExtensionServiceTest {
     @Mock
     private TodoService todoService;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     private TodoExtensionService extensionService;
     
     private User testUser;
@@ -56,7 +66,7 @@ class TodoExtensionServiceTest {
     @BeforeEach
     void setUp() {
         extensionService = new TodoExtensionServiceImpl(
-            todoItemRepository, userRepository, dateValidationService, todoService);
+            todoItemRepository, currentUserResolver, dateValidationService, todoService, eventPublisher);
         
         // 準備測試資料
         testUser = new User("testuser", "password");
@@ -132,11 +142,13 @@ class TodoExtensionServiceTest {
         String username = "testuser";
         
         when(dateValidationService.isValidExtensionDays(extensionDays)).thenReturn(true);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(testUser));
-        when(todoItemRepository.findByIdAndUser(todoId, testUser)).thenReturn(Optional.of(eligibleTodo));
-        when(todoItemRepository.save(any(TodoItem.class))).thenReturn(eligibleTodo);
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByIdAndUserId(eq(todoId), eq(1L), eq(extensionDays),
+                eq(LocalDate.now()), eq(LocalDate.now().plusDays(3)), any(LocalDateTime.class))).thenReturn(1);
         
         LocalDate originalDueDate = eligibleTodo.getDueDate();
+        eligibleTodo.extendDueDate(extensionDays);
+        when(todoItemRepository.findById(todoId)).thenReturn(Optional.of(eligibleTodo));
         
         // When (當) - 執行延期操作
         TodoItem result = extensionService.extendTodo(todoId, extensionDays, username);
@@ -148,7 +160,9 @@ class TodoExtensionServiceTest {
         assertNotNull(result.getLastExtendedAt());
         assertEquals(originalDueDate, result.getOriginalDueDate());
         
-        verify(todoItemRepository).save(eligibleTodo);
+        // 驗證以條件式 UPDATE 完成，不需要額外的權限探測或 save
+        verify(todoItemRepository, never()).findByIdAndUserId(any(), any());
+        verify(todoItemRepository, never()).save(any(TodoItem.class));
     }
     
     @Test
@@ -177,8 +191,10 @@ class TodoExtensionServiceTest {
         String username = "testuser";
         
         when(dateValidationService.isValidExtensionDays(extensionDays)).thenReturn(true);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(testUser));
-        when(todoItemRepository.findByIdAndUser(nonExistentTodoId, testUser)).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByIdAndUserId(eq(nonExistentTodoId), eq(1L), eq(extensionDays),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0);
+        when(todoItemRepository.findByIdAndUserId(nonExistentTodoId, 1L)).thenReturn(Optional.empty());
         when(todoItemRepository.existsById(nonExistentTodoId)).thenReturn(false);
         
         // When & Then (當且那麼) - 驗證拋出異常
@@ -195,8 +211,10 @@ class TodoExtensionServiceTest {
         String username = "testuser";
         
         when(dateValidationService.isValidExtensionDays(extensionDays)).thenReturn(true);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(testUser));
-        when(todoItemRepository.findByIdAndUser(todoId, testUser)).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByIdAndUserId(eq(todoId), eq(1L), eq(extensionDays),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0);
+        when(todoItemRepository.findByIdAndUserId(todoId, 1L)).thenReturn(Optional.empty());
         when(todoItemRepository.existsById(todoId)).thenReturn(true);
         
         // When & Then (當且那麼) - 驗證拋出異常
@@ -213,8 +231,10 @@ class TodoExtensionServiceTest {
         String username = "testuser";
         
         when(dateValidationService.isValidExtensionDays(extensionDays)).thenReturn(true);
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(testUser));
-        when(todoItemRepository.findByIdAndUser(todoId, testUser)).thenReturn(Optional.of(completedTodo));
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByIdAndUserId(eq(todoId), eq(1L), eq(extensionDays),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0);
+        when(todoItemRepository.findByIdAndUserId(todoId, 1L)).thenReturn(Optional.of(completedTodo));
         
         // When & Then (當且那麼) - 驗證拋出異常
         IllegalStateException exception = assertThrows(IllegalStateException.class,
@@ -224,24 +244,77 @@ class TodoExtensionServiceTest {
         assertTrue(exception.getMessage().contains("待辦事項已完成"));
     }
     
+    @Test
+    @DisplayName("延期時資料被同時變更而重新讀取已符合條件時應該重試一次")
+    void test_extendTodo_whenBecameEligibleConcurrently_then_shouldRetryOnce() {
+        // Given (給定) - 第一次 UPDATE 沒有更新，重新讀取時已符合條件，重試成功
+        Long todoId = 1L;
+        int extensionDays = 3;
+        String username = "testuser";
+        
+        when(dateValidationService.isValidExtensionDays(extensionDays)).thenReturn(true);
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByIdAndUserId(eq(todoId), eq(1L), eq(extensionDays),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0, 1);
+        when(todoItemRepository.findByIdAndUserId(todoId, 1L)).thenReturn(Optional.of(eligibleTodo));
+        when(todoItemRepository.findById(todoId)).thenReturn(Optional.of(eligibleTodo));
+        
+        // When (當) - 執行延期操作
+        TodoItem result = extensionService.extendTodo(todoId, extensionDays, username);
+        
+        // Then (那麼) - 驗證重試後延期成功並發布事件
+        assertSame(eligibleTodo, result);
+        verify(todoItemRepository, times(2)).extendDueDateByIdAndUserId(eq(todoId), eq(1L), eq(extensionDays),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDateTime.class));
+        verify(eventPublisher).publishEvent(TodoChangedEvent.of(1L, TodoChangedEvent.Type.EXTENDED, todoId));
+    }
+    
+    @Test
+    @DisplayName("重試延期仍未更新時應該回報狀態已被同時變更")
+    void test_extendTodo_whenRetryStillNotUpdated_then_shouldThrowConcurrentChangeException() {
+        // Given (給定) - 兩次 UPDATE 都沒有更新，但重新讀取時符合條件
+        Long todoId = 1L;
+        int extensionDays = 3;
+        String username = "testuser";
+        
+        when(dateValidationService.isValidExtensionDays(extensionDays)).thenReturn(true);
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByIdAndUserId(eq(todoId), eq(1L), eq(extensionDays),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDateTime.class))).thenReturn(0);
+        when(todoItemRepository.findByIdAndUserId(todoId, 1L)).thenReturn(Optional.of(eligibleTodo));
+        
+        // When & Then (當且那麼) - 驗證拋出同時變更的異常，而不是未知原因
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> extensionService.extendTodo(todoId, extensionDays, username));
+        
+        assertEquals("待辦事項狀態已被同時變更，請重新整理後再試", exception.getMessage());
+        verify(todoItemRepository, times(2)).extendDueDateByIdAndUserId(eq(todoId), eq(1L), eq(extensionDays),
+                any(LocalDate.class), any(LocalDate.class), any(LocalDateTime.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
     @Test
     @DisplayName("取得使用者符合延期條件的待辦事項")
-    void test_getEligibleTodosForUser_whenUserHasEligibleTodos_then_shouldReturnFilteredList() {
-        // Given (給定) - 設定使用者的待辦事項列表
+    void test_getEligibleTodosForUser_whenUserHasEligibleTodos_then_shouldReturnSummaries() {
+        // Given (給定) - 設定資料庫回傳的延期候選摘要
         String username = "testuser";
-        List<TodoItem> incompleteTodos = Arrays.asList(eligibleTodo, overdueTodo);
+        LocalDate today = LocalDate.now();
+        EligibleTodoSummary summary = new EligibleTodoSummary(
+            eligibleTodo.getId(), eligibleTodo.getTitle(), eligibleTodo.getDueDate(), null, 0);
         
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(testUser));
-        when(todoItemRepository.findByUserAndCompleted(testUser, false)).thenReturn(incompleteTodos);
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.findEligibleSummariesByUserId(1L, today, today.plusDays(3)))
+            .thenReturn(List.of(summary));
         
         // When (當) - 取得符合延期條件的待辦事項
-        List<TodoItem> result = extensionService.getEligibleTodosForUser(username);
+        List<EligibleTodoSummary> result = extensionService.getEligibleTodosForUser(username);
         
-        // Then (那麼) - 驗證只返回符合條件的待辦事項
+        // Then (那麼) - 驗證以與實體相同的三天範圍查詢，且不載入未完成的實體
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(eligibleTodo.getId(), result.get(0).getId());
-        assertTrue(result.get(0).isEligibleForExtension());
+        verify(todoItemRepository).findEligibleSummariesByUserId(1L, today, today.plusDays(3));
+        verify(todoItemRepository, never()).findByUserIdAndCompleted(anyLong(), anyBoolean());
     }
     
     @Test
@@ -250,7 +323,7 @@ class TodoExtensionServiceTest {
         // Given (給定) - 設定不存在的使用者
         String nonExistentUsername = "nonexistent";
         
-        when(userRepository.findByUsername(nonExistentUsername)).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId(nonExistentUsername)).thenThrow(UserNotFoundException.forUsername(nonExistentUsername));
         
         // When & Then (當且那麼) - 驗證拋出異常
         assertThrows(UserNotFoundException.class,
@@ -310,4 +383,87 @@ class TodoExtensionServiceTest {
         // When & Then (當且那麼) - 驗證不拋出異常
         assertDoesNotThrow(() -> extensionService.validateExtensionDays(maxDays));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("延期所有符合條件的待辦事項應該以單一 UPDATE 執行並回傳新到期日")
+    void test_extendAllEligible_whenEligibleTodosExist_then_shouldExtendWithSingleUpdate() {
+        // Given (給定) - 兩筆符合條件的待辦事項
+        String username = "testuser";
+        LocalDate today = LocalDate.now();
+        when(dateValidationService.isValidExtensionDays(5)).thenReturn(true);
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByUserId(eq(1L), eq(5),
+                eq(today), eq(today.plusDays(3)), any(LocalDateTime.class))).thenReturn(2);
+        List<ExtendedTodoSummary> extended = List.of(
+                new ExtendedTodoSummary(1L, "任務一", today.plusDays(6), today.plusDays(1), 1),
+                new ExtendedTodoSummary(2L, "任務二", today.plusDays(7), today.plusDays(2), 1));
+        when(todoItemRepository.findExtendedSummariesByUserId(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(extended);
+        
+        // When (當) - 執行批次延期
+        BulkExtensionResult result = extensionService.extendAllEligible(5, username);
+        
+        // Then (那麼) - 驗證結果
+        assertEquals(5, result.extensionDays());
+        assertEquals(extended, result.extended());
+        assertTrue(result.skippedIds().isEmpty());
+        assertEquals(5, result.extended().get(0).getTotalExtensionDays());
+        verify(todoItemRepository, never()).save(any(TodoItem.class));
+        verify(todoItemRepository, never()).findEligibleSummariesByUserId(any(), any(), any());
+        verify(eventPublisher).publishEvent(
+                new TodoChangedEvent(1L, TodoChangedEvent.Type.EXTENDED, List.of(1L, 2L)));
+    }
+    
+    @Test
+    @DisplayName("沒有符合條件的待辦事項時不應該查回資料或發布事件")
+    void test_extendAllEligible_whenNoEligibleTodos_then_shouldSkipReadback() {
+        // Given (給定) - UPDATE 沒有更新任何資料列
+        when(dateValidationService.isValidExtensionDays(1)).thenReturn(true);
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByUserId(eq(1L), eq(1), any(LocalDate.class), any(LocalDate.class),
+                any(LocalDateTime.class))).thenReturn(0);
+        
+        // When (當) - 執行批次延期
+        BulkExtensionResult result = extensionService.extendAllEligible(1, "testuser");
+        
+        // Then (那麼) - 驗證沒有延期
+        assertEquals(0, result.getExtendedCount());
+        verify(todoItemRepository, never()).findExtendedSummariesByUserId(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+    
+    @Test
+    @DisplayName("延期指定的待辦事項時未延期的 ID 應該列為略過")
+    void test_extendTodos_whenSomeIdsNotExtended_then_shouldReportSkippedIds() {
+        // Given (給定) - 三個 ID 中只有一個被延期
+        String username = "testuser";
+        LocalDate today = LocalDate.now();
+        when(dateValidationService.isValidExtensionDays(2)).thenReturn(true);
+        when(currentUserResolver.resolveUserId(username)).thenReturn(1L);
+        when(todoItemRepository.extendDueDateByIdInAndUserId(any(), eq(1L), eq(2),
+                eq(today), eq(today.plusDays(3)), any(LocalDateTime.class))).thenReturn(1);
+        when(todoItemRepository.findExtendedSummaries(any(), eq(1L), any(LocalDateTime.class))).thenReturn(List.of(
+                new ExtendedTodoSummary(3L, "任務三", today.plusDays(3), today.plusDays(1), 1)));
+        
+        // When (當) - 執行批次延期（包含重複 ID）
+        BulkExtensionResult result = extensionService.extendTodos(List.of(3L, 4L, 5L, 3L), 2, username);
+        
+        // Then (那麼) - 驗證延期與略過的 ID
+        assertEquals(1, result.getExtendedCount());
+        assertEquals(List.of(4L, 5L), result.skippedIds());
+    }
+    
+    @Test
+    @DisplayName("批次延期的 ID 集合為空或延期天數無效時應該拋出異常")
+    void test_extendTodos_whenInvalidRequest_then_shouldThrowException() {
+        // Given (給定) - 延期天數有效但沒有 ID
+        when(dateValidationService.isValidExtensionDays(1)).thenReturn(true);
+        
+        // When & Then (當 & 那麼) - 驗證拋出異常
+        assertThrows(IllegalArgumentException.class,
+                () -> extensionService.extendTodos(List.of(), 1, "testuser"));
+        assertThrows(IllegalArgumentException.class,
+                () -> extensionService.extendAllEligible(0, "testuser"));
+        verifyNoInteractions(todoItemRepository);
+    }
+}
@@ -1,14 +1,20 @@
 package com.course.kirodemo.service;
 
 import com.course.kirodemo.dto.CreateTodoRequest;
+import com.course.kirodemo.dto.TodoListItem;
+import com.course.kirodemo.dto.TodoPage;
+import com.course.kirodemo.dto.TodoPageCursor;
+import com.course.kirodemo.dto.TodoStats;
 import com.course.kirodemo.dto.UpdateTodoRequest;
 import com.course.kirodemo.entity.TodoItem;
 import com.course.kirodemo.entity.User;
+import com.course.kirodemo.event.TodoChangedEvent;
 import com.course.kirodemo.exception.TodoNotFoundException;
 import com.course.kirodemo.exception.UnauthorizedAccessException;
 import com.course.kirodemo.exception.UserNotFoundException;
 import com.course.kirodemo.repository.TodoItemRepository;
 import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.security.CurrentUserResolver;
 import com.course.kirodemo.service.impl.TodoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,15 +23,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -43,6 +53,12 @@ class TodoServiceTest {
     @Mock
     private UserRepository userRepository;
     
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private TodoServiceImpl todoService;
     
@@ -77,7 +93,8 @@ class TodoServiceTest {
     @DisplayName("有效請求建立待辦事項時應該成功建立")
     void test_createTodo_whenValidRequest_then_shouldCreateTodo() {
         // Given - 設定 Mock 行為
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
         when(todoItemRepository.save(any(TodoItem.class))).thenReturn(mockTodoItem);
         
         // When - 執行被測試的方法
@@ -89,7 +106,8 @@ class TodoServiceTest {
         assertEquals(mockTodoItem.getTitle(), result.getTitle());
         
         // 驗證 Repository 方法被正確呼叫
-        verify(userRepository).findByUsername("testuser");
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(userRepository, never()).findByUsername(anyString());
         verify(todoItemRepository).save(any(TodoItem.class));
     }
     
@@ -97,7 +115,7 @@ class TodoServiceTest {
     @DisplayName("使用者不存在時建立待辦事項應該拋出 UserNotFoundException")
     void test_createTodo_whenUserNotExists_then_shouldThrowUserNotFoundException() {
         // Given - 設定使用者不存在
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId("nonexistent")).thenThrow(UserNotFoundException.forUsername("nonexistent"));
         
         // When & Then - 執行並驗證異常
         UserNotFoundException exception = assertThrows(
@@ -123,7 +141,7 @@ class TodoServiceTest {
         assertEquals("建立待辦事項請求不能為空", exception.getMessage());
         
         // 驗證 Repository 方法沒有被呼叫
-        verify(userRepository, never()).findByUsername(anyString());
+        verify(currentUserResolver, never()).resolveUserId(anyString());
         verify(todoItemRepository, never()).save(any(TodoItem.class));
     }
     
@@ -132,8 +150,8 @@ class TodoServiceTest {
     void test_getUserTodos_whenValidUser_then_shouldReturnSortedTodos() {
         // Given - 準備待辦事項列表
         List<TodoItem> mockTodos = Arrays.asList(mockTodoItem);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByUserOrderByCreatedAtDesc(mockUser)).thenReturn(mockTodos);
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByUserIdOrderByCreatedAtDesc(1L)).thenReturn(mockTodos);
         
         // When - 執行被測試的方法
         List<TodoItem> result = todoService.getUserTodos("testuser", TodoService.SortBy.CREATED_AT_DESC);
@@ -143,15 +161,15 @@ class TodoServiceTest {
         assertEquals(1, result.size());
         assertEquals(mockTodoItem.getId(), result.get(0).getId());
         
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByUserOrderByCreatedAtDesc(mockUser);
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findByUserIdOrderByCreatedAtDesc(1L);
     }
     
     @Test
     @DisplayName("使用者不存在時取得待辦事項應該拋出 UserNotFoundException")
     void test_getUserTodos_whenUserNotExists_then_shouldThrowUserNotFoundException() {
         // Given - 設定使用者不存在
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId("nonexistent")).thenThrow(UserNotFoundException.forUsername("nonexistent"));
         
         // When & Then - 執行並驗證異常
         UserNotFoundException exception = assertThrows(
@@ -162,12 +180,87 @@ class TodoServiceTest {
         assertTrue(exception.getMessage().contains("nonexistent"));
     }
     
+    @Test
+    @DisplayName("分頁取得第一頁且資料超過每頁筆數時應該回傳下一頁游標")
+    void test_getUserTodosPage_whenMoreThanPageSize_then_shouldReturnNextCursor() {
+        // Given - 準備三筆資料，每頁兩筆
+        TodoItem second = new TodoItem("第二筆", "描述", LocalDate.now().plusDays(1), mockUser);
+        second.setId(2L);
+        second.setCreatedAt(mockTodoItem.getCreatedAt().minusMinutes(1));
+        TodoItem third = new TodoItem("第三筆", "描述", LocalDate.now().plusDays(2), mockUser);
+        third.setId(3L);
+        third.setCreatedAt(mockTodoItem.getCreatedAt().minusMinutes(2));
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByUserIdOrderByCreatedAtDescIdDesc(1L, Limit.of(3)))
+                .thenReturn(Stream.of(mockTodoItem, second, third).map(TodoListItem::fromEntity).toList());
+        
+        // When - 執行被測試的方法
+        TodoPage page = todoService.getUserTodosPage("testuser", TodoService.SortBy.CREATED_AT_DESC, null, 2);
+        
+        // Then - 驗證結果只包含兩筆，且游標指向第二筆
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.hasNext());
+        TodoPageCursor cursor = TodoPageCursor.decode(page.getNextCursor());
+        assertEquals(2L, cursor.getId());
+        assertEquals(second.getCreatedAt(), cursor.getCreatedAt());
+    }
+    
+    @Test
+    @DisplayName("分頁帶入游標時應該以 keyset 查詢接續下一頁")
+    void test_getUserTodosPage_whenCursorGiven_then_shouldSeekAfterCursor() {
+        // Given - 以第一筆作為游標
+        String cursor = TodoPageCursor.after(TodoListItem.fromEntity(mockTodoItem), TodoService.SortBy.DUE_DATE_ASC).encode();
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findPageByUserIdOrderByDueDateAscAfter(
+                1L, mockTodoItem.getDueDate(), 1L, Limit.of(TodoService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+        
+        // When - 執行被測試的方法
+        TodoPage page = todoService.getUserTodosPage(
+                "testuser", TodoService.SortBy.DUE_DATE_ASC, cursor, TodoService.DEFAULT_PAGE_SIZE);
+        
+        // Then - 驗證沒有下一頁
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.hasNext());
+        verify(todoItemRepository).findPageByUserIdOrderByDueDateAscAfter(
+                1L, mockTodoItem.getDueDate(), 1L, Limit.of(TodoService.DEFAULT_PAGE_SIZE + 1));
+    }
+    
+    @Test
+    @DisplayName("分頁游標與排序方式不符時應該拋出 IllegalArgumentException")
+    void test_getUserTodosPage_whenCursorSortMismatch_then_shouldThrowIllegalArgumentException() {
+        // Given - 以建立時間排序產生的游標
+        String cursor = TodoPageCursor.after(TodoListItem.fromEntity(mockTodoItem), TodoService.SortBy.CREATED_AT_DESC).encode();
+        
+        // When & Then - 以預計完成日排序使用該游標
+        assertThrows(IllegalArgumentException.class,
+                () -> todoService.getUserTodosPage("testuser", TodoService.SortBy.DUE_DATE_DESC, cursor, 10));
+        
+        verify(currentUserResolver, never()).resolveUserId(anyString());
+    }
+    
+    @Test
+    @DisplayName("分頁筆數超過上限時應該限制在最大值")
+    void test_getUserTodosPage_whenPageSizeTooLarge_then_shouldClampToMax() {
+        // Given - 設定 Mock 行為
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByUserIdOrderByDueDateDescIdDesc(1L, Limit.of(TodoService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of(TodoListItem.fromEntity(mockTodoItem)));
+        
+        // When - 執行被測試的方法
+        TodoPage page = todoService.getUserTodosPage("testuser", TodoService.SortBy.DUE_DATE_DESC, null, 10_000);
+        
+        // Then - 驗證每頁筆數被限制
+        assertEquals(TodoService.MAX_PAGE_SIZE, page.getPageSize());
+        assertEquals(1, page.getItems().size());
+    }
+    
     @Test
     @DisplayName("有效請求更新待辦事項時應該成功更新")
     void test_updateTodo_whenValidRequest_then_shouldUpdateTodo() {
         // Given - 設定 Mock 行為
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(1L, mockUser)).thenReturn(Optional.of(mockTodoItem));
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(mockTodoItem));
         when(todoItemRepository.save(mockTodoItem)).thenReturn(mockTodoItem);
         
         // When - 執行被測試的方法
@@ -178,8 +271,8 @@ class TodoServiceTest {
         assertEquals(mockTodoItem.getId(), result.getId());
         
         // 驗證 Repository 方法被正確呼叫
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByIdAndUser(1L, mockUser);
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findByIdAndUserId(1L, 1L);
         verify(todoItemRepository).save(mockTodoItem);
     }
     
@@ -187,8 +280,8 @@ class TodoServiceTest {
     @DisplayName("待辦事項不存在時更新應該拋出 TodoNotFoundException")
     void test_updateTodo_whenTodoNotExists_then_shouldThrowTodoNotFoundException() {
         // Given - 設定待辦事項不存在
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(999L, mockUser)).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
         when(todoItemRepository.existsById(999L)).thenReturn(false);
         
         // When & Then - 執行並驗證異常
@@ -207,8 +300,8 @@ class TodoServiceTest {
     @DisplayName("待辦事項屬於其他使用者時更新應該拋出 UnauthorizedAccessException")
     void test_updateTodo_whenTodoNotBelongsToUser_then_shouldThrowUnauthorizedAccessException() {
         // Given - 設定待辦事項存在但不屬於該使用者
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(1L, mockUser)).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.empty());
         when(todoItemRepository.existsById(1L)).thenReturn(true);
         
         // When & Then - 執行並驗證異常
@@ -242,24 +335,25 @@ class TodoServiceTest {
     @DisplayName("有效請求刪除待辦事項時應該成功刪除")
     void test_deleteTodo_whenValidRequest_then_shouldDeleteTodo() {
         // Given - 設定 Mock 行為
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(1L, mockUser)).thenReturn(Optional.of(mockTodoItem));
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(mockTodoItem));
         
         // When - 執行被測試的方法
         todoService.deleteTodo(1L, "testuser");
         
         // Then - 驗證 Repository 方法被正確呼叫
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByIdAndUser(1L, mockUser);
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findByIdAndUserId(1L, 1L);
         verify(todoItemRepository).delete(mockTodoItem);
+        verify(eventPublisher).publishEvent(TodoChangedEvent.of(1L, TodoChangedEvent.Type.DELETED, 1L));
     }
     
     @Test
     @DisplayName("待辦事項不存在時刪除應該拋出 TodoNotFoundException")
     void test_deleteTodo_whenTodoNotExists_then_shouldThrowTodoNotFoundException() {
         // Given - 設定待辦事項不存在
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(999L, mockUser)).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
         when(todoItemRepository.existsById(999L)).thenReturn(false);
         
         // When & Then - 執行並驗證異常
@@ -272,35 +366,81 @@ class TodoServiceTest {
         
         // 驗證 delete 方法沒有被呼叫
         verify(todoItemRepository, never()).delete(any(TodoItem.class));
+        verifyNoInteractions(eventPublisher);
     }
     
     @Test
     @DisplayName("切換完成狀態時應該成功更新")
     void test_toggleComplete_whenValidRequest_then_shouldToggleStatus() {
-        // Given - 設定 Mock 行為
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(1L, mockUser)).thenReturn(Optional.of(mockTodoItem));
-        when(todoItemRepository.save(mockTodoItem)).thenReturn(mockTodoItem);
+        // Given - 設定條件式 UPDATE 更新一筆，重新載入時為已完成
+        mockTodoItem.markAsCompleted();
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.toggleCompletedByIdAndUserId(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(todoItemRepository.findById(1L)).thenReturn(Optional.of(mockTodoItem));
         
         // When - 執行被測試的方法
         TodoItem result = todoService.toggleComplete(1L, "testuser");
         
         // Then - 驗證結果
         assertNotNull(result);
-        assertTrue(result.isCompleted()); // 原本是 false，切換後應該是 true
+        assertTrue(result.isCompleted());
         
-        // 驗證 Repository 方法被正確呼叫
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByIdAndUser(1L, mockUser);
-        verify(todoItemRepository).save(mockTodoItem);
+        // 驗證不再先查詢再儲存
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).toggleCompletedByIdAndUserId(eq(1L), eq(1L), any(LocalDateTime.class));
+        verify(todoItemRepository, never()).save(any(TodoItem.class));
+        verify(todoItemRepository, never()).existsById(anyLong());
+        verify(eventPublisher).publishEvent(TodoChangedEvent.of(1L, TodoChangedEvent.Type.TOGGLED, 1L));
+    }
+    
+    @Test
+    @DisplayName("切換不屬於自己的待辦事項狀態時應該拋出 UnauthorizedAccessException")
+    void test_toggleComplete_whenNotOwner_then_shouldThrowUnauthorizedAccessException() {
+        // Given - 設定 UPDATE 沒有影響任何資料，但待辦事項存在
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.toggleCompletedByIdAndUserId(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(todoItemRepository.existsById(1L)).thenReturn(true);
+        
+        // When & Then - 執行並驗證異常
+        assertThrows(UnauthorizedAccessException.class, () -> todoService.toggleComplete(1L, "testuser"));
+        verify(todoItemRepository, never()).findById(anyLong());
+    }
+    
+    @Test
+    @DisplayName("切換不存在的待辦事項狀態時應該拋出 TodoNotFoundException")
+    void test_toggleComplete_whenTodoNotExists_then_shouldThrowTodoNotFoundException() {
+        // Given - 設定 UPDATE 沒有影響任何資料，且待辦事項不存在
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.toggleCompletedByIdAndUserId(eq(999L), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(todoItemRepository.existsById(999L)).thenReturn(false);
+        
+        // When & Then - 執行並驗證異常
+        assertThrows(TodoNotFoundException.class, () -> todoService.toggleComplete(999L, "testuser"));
+    }
+    
+    @Test
+    @DisplayName("完成已經完成的待辦事項時應該直接回傳目前狀態")
+    void test_completeTodo_whenAlreadyCompleted_then_shouldReturnCurrentTodo() {
+        // Given - 設定 UPDATE 沒有影響任何資料，但待辦事項屬於該使用者
+        mockTodoItem.markAsCompleted();
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.markCompletedByIdAndUserId(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(todoItemRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(mockTodoItem));
+        
+        // When - 執行被測試的方法
+        TodoItem result = todoService.completeTodo(1L, "testuser");
+        
+        // Then - 驗證回傳目前狀態且沒有額外的存在性檢查
+        assertTrue(result.isCompleted());
+        verify(todoItemRepository, never()).existsById(anyLong());
     }
     
     @Test
     @DisplayName("查詢使用者特定待辦事項時應該回傳正確結果")
     void test_findUserTodo_whenTodoExists_then_shouldReturnTodo() {
         // Given - 設定 Mock 行為
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(1L, mockUser)).thenReturn(Optional.of(mockTodoItem));
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(mockTodoItem));
         
         // When - 執行被測試的方法
         Optional<TodoItem> result = todoService.findUserTodo(1L, "testuser");
@@ -309,16 +449,16 @@ class TodoServiceTest {
         assertTrue(result.isPresent());
         assertEquals(mockTodoItem.getId(), result.get().getId());
         
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByIdAndUser(1L, mockUser);
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findByIdAndUserId(1L, 1L);
     }
     
     @Test
     @DisplayName("查詢不存在的待辦事項時應該回傳空的 Optional")
     void test_findUserTodo_whenTodoNotExists_then_shouldReturnEmpty() {
         // Given - 設定 Mock 行為
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByIdAndUser(999L, mockUser)).thenReturn(Optional.empty());
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
         
         // When - 執行被測試的方法
         Optional<TodoItem> result = todoService.findUserTodo(999L, "testuser");
@@ -326,8 +466,8 @@ class TodoServiceTest {
         // Then - 驗證結果
         assertFalse(result.isPresent());
         
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByIdAndUser(999L, mockUser);
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findByIdAndUserId(999L, 1L);
     }
     
     @Test
@@ -335,8 +475,8 @@ class TodoServiceTest {
     void test_getCompletedTodos_whenValidUser_then_shouldReturnCompletedTodos() {
         // Given - 準備已完成的待辦事項列表
         List<TodoItem> completedTodos = Arrays.asList(mockTodoItem);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByUserAndCompletedOrderByCreatedAtDesc(mockUser, true)).thenReturn(completedTodos);
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByUserIdAndCompletedOrderByCreatedAtDesc(1L, true)).thenReturn(completedTodos);
         
         // When - 執行被測試的方法
         List<TodoItem> result = todoService.getCompletedTodos("testuser");
@@ -345,8 +485,8 @@ class TodoServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByUserAndCompletedOrderByCreatedAtDesc(mockUser, true);
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findByUserIdAndCompletedOrderByCreatedAtDesc(1L, true);
     }
     
     @Test
@@ -354,8 +494,8 @@ class TodoServiceTest {
     void test_getIncompleteTodos_whenValidUser_then_shouldReturnIncompleteTodos() {
         // Given - 準備未完成的待辦事項列表
         List<TodoItem> incompleteTodos = Arrays.asList(mockTodoItem);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findByUserAndCompletedOrderByCreatedAtDesc(mockUser, false)).thenReturn(incompleteTodos);
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findByUserIdAndCompletedOrderByCreatedAtDesc(1L, false)).thenReturn(incompleteTodos);
         
         // When - 執行被測試的方法
         List<TodoItem> result = todoService.getIncompleteTodos("testuser");
@@ -364,8 +504,8 @@ class TodoServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findByUserAndCompletedOrderByCreatedAtDesc(mockUser, false);
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findByUserIdAndCompletedOrderByCreatedAtDesc(1L, false);
     }
     
     @Test
@@ -373,8 +513,8 @@ class TodoServiceTest {
     void test_getOverdueTodos_whenValidUser_then_shouldReturnOverdueTodos() {
         // Given - 準備逾期的待辦事項列表
         List<TodoItem> overdueTodos = Arrays.asList(mockTodoItem);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findOverdueTodosByUser(eq(mockUser), any(LocalDate.class))).thenReturn(overdueTodos);
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findOverdueTodosByUserId(eq(1L), any(LocalDate.class))).thenReturn(overdueTodos);
         
         // When - 執行被測試的方法
         List<TodoItem> result = todoService.getOverdueTodos("testuser");
@@ -383,8 +523,8 @@ class TodoServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findOverdueTodosByUser(eq(mockUser), any(LocalDate.class));
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findOverdueTodosByUserId(eq(1L), any(LocalDate.class));
     }
     
     @Test
@@ -392,8 +532,8 @@ class TodoServiceTest {
     void test_getDueSoonTodos_whenValidUser_then_shouldReturnDueSoonTodos() {
         // Given - 準備即將到期的待辦事項列表
         List<TodoItem> dueSoonTodos = Arrays.asList(mockTodoItem);
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
-        when(todoItemRepository.findDueSoonTodosByUser(eq(mockUser), any(LocalDate.class), any(LocalDate.class))).thenReturn(dueSoonTodos);
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.findDueSoonTodosByUserId(eq(1L), any(LocalDate.class), any(LocalDate.class))).thenReturn(dueSoonTodos);
         
         // When - 執行被測試的方法
         List<TodoItem> result = todoService.getDueSoonTodos("testuser");
@@ -402,7 +542,25 @@ class TodoServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         
-        verify(userRepository).findByUsername("testuser");
-        verify(todoItemRepository).findDueSoonTodosByUser(eq(mockUser), any(LocalDate.class), any(LocalDate.class));
+        verify(currentUserResolver).resolveUserId("testuser");
+        verify(todoItemRepository).findDueSoonTodosByUserId(eq(1L), any(LocalDate.class), any(LocalDate.class));
+    }
+    
+    @Test
+    @DisplayName("取得統計資料時應該以單一查詢取得所有計數")
+    void test_getTodoStats_whenValidUser_then_shouldUseSingleQuery() {
+        // Given - 設定 Mock 行為
+        LocalDate today = LocalDate.now();
+        TodoStats stats = new TodoStats(3L, 1L, 1L, 1L, 2L);
+        when(currentUserResolver.resolveUserId("testuser")).thenReturn(1L);
+        when(todoItemRepository.getStatsByUserId(1L, today, today.plusDays(3))).thenReturn(stats);
+        
+        // When - 執行被測試的方法
+        TodoStats result = todoService.getTodoStats("testuser");
+        
+        // Then - 驗證結果且沒有呼叫個別的計數方法
+        assertSame(stats, result);
+        verify(todoItemRepository, never()).countByUser(any(User.class));
+        verify(todoItemRepository, never()).findOverdueTodosByUserId(anyLong(), any(LocalDate.class));
     }
-}
\ No newline at end of file
+}
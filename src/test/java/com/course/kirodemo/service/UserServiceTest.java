@@ -3,7 +3,9 @@ package com.course.kirodemo.service;
 import com.course.kirodemo.dto.UserRegistrationRequest;
 import com.course.kirodemo.entity.User;
 import com.course.kirodemo.exception.UserAlreadyExistsException;
+import com.course.kirodemo.exception.UserNotFoundException;
 import com.course.kirodemo.repository.UserRepository;
+import com.course.kirodemo.security.UserDetailsCache;
 import com.course.kirodemo.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,8 +13,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -33,6 +39,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
     
+    @Mock
+    private UserDetailsCache userDetailsCache;
+    
+    @Spy
+    private PasswordEncoder bcryptPasswordEncoder = new BCryptPasswordEncoder();
+    
     @InjectMocks
     private UserServiceImpl userService;
     
@@ -72,6 +84,7 @@ class UserServiceTest {
         // 驗證 Repository 方法被正確呼叫
         verify(userRepository).existsByUsername("testuser");
         verify(userRepository).save(any(User.class));
+        verify(userDetailsCache).evict("testuser");
     }
     
     @Test
@@ -323,4 +336,52 @@ class UserServiceTest {
         
         assertEquals("密碼不能為空", exception.getMessage());
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("變更密碼時應該儲存新的加密密碼並使快取失效")
+    void test_changePassword_whenUserExists_then_shouldSaveEncodedPasswordAndEvictCache() {
+        // Given - 設定使用者存在
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
+        when(userRepository.save(mockUser)).thenReturn(mockUser);
+        
+        // When - 執行被測試的方法
+        User result = userService.changePassword("testuser", "newPassword456");
+        
+        // Then - 驗證密碼已更新且快取失效
+        assertTrue(passwordEncoder.matches("newPassword456", result.getPassword()));
+        verify(userRepository).save(mockUser);
+        verify(userDetailsCache).evict("testuser");
+    }
+    
+    @Test
+    @DisplayName("交易中變更密碼時應該在提交後才使快取失效")
+    void test_changePassword_whenInTransaction_then_shouldEvictCacheAfterCommit() {
+        // Given - 設定使用者存在且交易同步已啟用
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(mockUser));
+        when(userRepository.save(mockUser)).thenReturn(mockUser);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When - 在交易中變更密碼
+            userService.changePassword("testuser", "newPassword456");
+            
+            // Then - 提交前不失效，提交後才失效
+            verify(userDetailsCache, never()).evict(anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(userDetailsCache).evict("testuser");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    @DisplayName("變更不存在使用者的密碼時應該拋出 UserNotFoundException")
+    void test_changePassword_whenUserNotFound_then_shouldThrowUserNotFoundException() {
+        // Given - 設定使用者不存在
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+        
+        // When & Then - 執行並驗證異常
+        assertThrows(UserNotFoundException.class, () -> userService.changePassword("ghost", "newPassword456"));
+        verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(userDetailsCache);
+    }
+}
@@ -0,0 +1,246 @@
+package com.course.kirodemo.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OffHeapSessionRepository 單元測試
+ * 以可調整的時鐘測試屬性儲存、只更新存取時間的儲存、會話 ID 變更、主體索引與時間輪到期清除
+ */
+@DisplayName("OffHeapSessionRepository 記憶體會話儲存測試")
+class OffHeapSessionRepositoryTest {
+
+    private static final Duration MAX_INACTIVE = Duration.ofMinutes(30);
+
+    private MutableClock clock;
+    private CountingCodec codec;
+    private OffHeapSessionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        codec = new CountingCodec();
+        repository = new OffHeapSessionRepository(codec, 4, MAX_INACTIVE, Duration.ofSeconds(1), clock);
+    }
+
+    @Test
+    @DisplayName("儲存後應該能以 ID 取回相同的屬性與中繼資料")
+    void test_saveAndFindById_whenAttributesSet_then_shouldRoundTrip() {
+        // Given - 建立會話並設定屬性
+        OffHeapSessionRepository.OffHeapSession session = repository.createSession();
+        session.setAttribute("name", "alice");
+        session.setAttribute("count", 3);
+        session.setAttribute("date", LocalDate.of(2025, 1, 31));
+
+        // When - 儲存後取回
+        repository.save(session);
+        OffHeapSessionRepository.OffHeapSession found = repository.findById(session.getId());
+
+        // Then - 驗證屬性與中繼資料
+        assertThat(found).isNotNull();
+        assertThat(found.<String>getAttribute("name")).isEqualTo("alice");
+        assertThat(found.<Integer>getAttribute("count")).isEqualTo(3);
+        assertThat(found.<LocalDate>getAttribute("date")).isEqualTo(LocalDate.of(2025, 1, 31));
+        assertThat(found.getMaxInactiveInterval()).isEqualTo(MAX_INACTIVE);
+        assertThat(repository.size()).isEqualTo(1);
+        assertThat(repository.offHeapBytes()).isPositive();
+    }
+
+    @Test
+    @DisplayName("只有存取時間變更時不應該重新編碼屬性")
+    void test_save_whenOnlyAccessed_then_shouldNotReencodeAttributes() {
+        // Given - 已儲存的會話
+        OffHeapSessionRepository.OffHeapSession session = repository.createSession();
+        session.setAttribute("name", "alice");
+        repository.save(session);
+        int encodedAfterCreate = codec.encodeCount.get();
+
+        // When - 讀取屬性並更新存取時間後儲存
+        clock.advance(Duration.ofMinutes(1));
+        OffHeapSessionRepository.OffHeapSession found = repository.findById(session.getId());
+        found.getAttribute("name");
+        found.setLastAccessedTime(clock.instant());
+        repository.save(found);
+
+        // Then - 驗證沒有重新編碼，但存取時間已更新
+        assertThat(codec.encodeCount.get()).isEqualTo(encodedAfterCreate);
+        assertThat(repository.findById(session.getId()).getLastAccessedTime()).isEqualTo(clock.instant());
+    }
+
+    @Test
+    @DisplayName("會話 ID 變更後應該只能以新 ID 取回，主體索引也應該更新")
+    void test_save_whenSessionIdChanged_then_shouldMoveSessionAndIndex() {
+        // Given - 已登入的會話
+        OffHeapSessionRepository.OffHeapSession session = repository.createSession();
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "alice");
+        repository.save(session);
+        String originalId = session.getId();
+
+        // When - 變更會話 ID 後儲存
+        String newId = session.changeSessionId();
+        repository.save(session);
+
+        // Then - 驗證舊 ID 已移除
+        assertThat(repository.findById(originalId)).isNull();
+        assertThat(repository.findById(newId)).isNotNull();
+        assertThat(repository.findByPrincipalName("alice")).containsOnlyKeys(newId);
+
+        // When & Then - 刪除後索引也一併移除
+        repository.deleteById(newId);
+        assertThat(repository.findByPrincipalName("alice")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("請求期間被刪除的會話儲存時不應該被放回")
+    void test_save_whenDeletedWhileInFlight_then_shouldNotResurrect() {
+        // Given - 已登入的會話被請求讀取
+        OffHeapSessionRepository.OffHeapSession session = repository.createSession();
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "alice");
+        repository.save(session);
+        OffHeapSessionRepository.OffHeapSession inFlight = repository.findById(session.getId());
+
+        // When - 其他請求刪除會話（例如登出）後，進行中的請求才儲存
+        repository.deleteById(session.getId());
+        inFlight.setAttribute("name", "alice");
+        repository.save(inFlight);
+
+        // Then - 驗證會話沒有被放回，也沒有殘留索引與 off-heap 區塊
+        assertThat(repository.findById(session.getId())).isNull();
+        assertThat(repository.findByPrincipalName("alice")).isEmpty();
+        assertThat(repository.size()).isZero();
+        assertThat(repository.offHeapBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("時間輪應該清除閒置逾時的會話，並保留期間被存取的會話")
+    void test_cleanUpExpiredSessions_whenIdleTooLong_then_shouldRemoveOnlyExpired() {
+        // Given - 兩個會話，其中一個在逾時前被存取
+        OffHeapSessionRepository.OffHeapSession idle = repository.createSession();
+        OffHeapSessionRepository.OffHeapSession active = repository.createSession();
+        repository.save(idle);
+        repository.save(active);
+
+        clock.advance(Duration.ofMinutes(20));
+        OffHeapSessionRepository.OffHeapSession accessed = repository.findById(active.getId());
+        accessed.setLastAccessedTime(clock.instant());
+        repository.save(accessed);
+
+        // When - 經過原本的逾時時間後推進時間輪
+        clock.advance(Duration.ofMinutes(11));
+        repository.cleanUpExpiredSessions();
+
+        // Then - 驗證只有閒置的會話被清除
+        assertThat(repository.size()).isEqualTo(1);
+        assertThat(repository.findById(active.getId())).isNotNull();
+
+        // When & Then - 再經過逾時時間後全部清除
+        clock.advance(MAX_INACTIVE);
+        repository.cleanUpExpiredSessions();
+        assertThat(repository.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("屬性反覆變更與會話刪除後應該重複使用 off-heap 區塊")
+    void test_save_whenAttributesChurn_then_shouldReuseOffHeapBlocks() {
+        // Given - 一個會話先儲存一次
+        OffHeapSessionRepository.OffHeapSession session = repository.createSession();
+        session.setAttribute("counter", 0);
+        repository.save(session);
+        long reserved = repository.reservedOffHeapBytes();
+
+        // When - 反覆變更屬性，並建立後刪除大量會話
+        for (int i = 1; i <= 10_000; i++) {
+            OffHeapSessionRepository.OffHeapSession found = repository.findById(session.getId());
+            found.setAttribute("counter", i);
+            repository.save(found);
+
+            OffHeapSessionRepository.OffHeapSession temporary = repository.createSession();
+            temporary.setAttribute("counter", i);
+            repository.save(temporary);
+            repository.deleteById(temporary.getId());
+        }
+
+        // Then - 驗證沒有配置新的 slab，使用中的只剩一個區塊
+        assertThat(repository.reservedOffHeapBytes()).isEqualTo(reserved);
+        assertThat(repository.offHeapBytes()).isEqualTo(64);
+        assertThat(repository.findById(session.getId()).<Integer>getAttribute("counter")).isEqualTo(10_000);
+
+        // When & Then - 刪除後歸還區塊
+        repository.deleteById(session.getId());
+        assertThat(repository.offHeapBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("永不到期的會話不應該排入時間輪")
+    void test_save_whenMaxInactiveIntervalNegative_then_shouldNotScheduleExpiry() {
+        // Given - 閒置逾時為負數的會話
+        OffHeapSessionRepository.OffHeapSession session = repository.createSession();
+        session.setMaxInactiveInterval(Duration.ofSeconds(-1));
+        repository.save(session);
+
+        // When - 經過很久後推進時間輪
+        clock.advance(Duration.ofDays(1));
+        repository.cleanUpExpiredSessions();
+
+        // Then - 驗證沒有排程且會話仍存在
+        assertThat(repository.scheduledExpiryCount()).isZero();
+        assertThat(repository.findById(session.getId())).isNotNull();
+
+        // When & Then - 改為會到期後才排程
+        OffHeapSessionRepository.OffHeapSession found = repository.findById(session.getId());
+        found.setMaxInactiveInterval(MAX_INACTIVE);
+        repository.save(found);
+        assertThat(repository.scheduledExpiryCount()).isEqualTo(1);
+    }
+
+    private static final class CountingCodec extends SessionAttributeCodec {
+
+        private final AtomicInteger encodeCount = new AtomicInteger();
+
+        @Override
+        public byte[] encode(Object value) {
+            encodeCount.incrementAndGet();
+            return super.encode(value);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
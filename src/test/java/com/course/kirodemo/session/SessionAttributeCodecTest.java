@@ -0,0 +1,135 @@
+package com.course.kirodemo.session;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.course.kirodemo.security.CustomUserPrincipal;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.util.SerializationUtils;
+import org.springframework.web.servlet.FlashMap;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SessionAttributeCodec 單元測試
+ * 測試常見型別的精簡編碼與 JDK 序列化的退回機制
+ */
+@DisplayName("SessionAttributeCodec 會話屬性編碼測試")
+class SessionAttributeCodecTest {
+
+    private final SessionAttributeCodec codec = new SessionAttributeCodec();
+
+    @Test
+    @DisplayName("常見型別應該以型別標記精簡編碼並還原")
+    void test_encodeDecode_whenCommonTypes_then_shouldRoundTripCompactly() {
+        // When & Then - 驗證各型別還原結果
+        assertThat(codec.decode(codec.encode("待辦事項"))).isEqualTo("待辦事項");
+        assertThat(codec.decode(codec.encode(42))).isEqualTo(42);
+        assertThat(codec.decode(codec.encode(42L))).isEqualTo(42L);
+        assertThat(codec.decode(codec.encode(true))).isEqualTo(true);
+        assertThat(codec.decode(codec.encode(null))).isNull();
+
+        // 整數只需要標記加四個位元組
+        assertThat(codec.encode(42)).hasSize(5);
+
+        // 超過 DataOutput.writeUTF 上限（64 KB）的字串
+        String longText = "事".repeat(40_000);
+        assertThat(codec.decode(codec.encode(longText))).isEqualTo(longText);
+    }
+
+    @Test
+    @DisplayName("其他可序列化型別應該退回 JDK 序列化，無法序列化時拋出例外")
+    void test_encodeDecode_whenOtherTypes_then_shouldFallBackToJdk() {
+        // Given - 準備一般物件
+        LocalDate date = LocalDate.of(2025, 1, 31);
+
+        // When - 編碼
+        byte[] encoded = codec.encode(date);
+
+        // Then - 驗證使用 JDK 序列化並能還原
+        assertThat(encoded[0]).isEqualTo(SessionAttributeCodec.TAG_JDK);
+        assertThat(codec.decode(encoded)).isEqualTo(date);
+        assertThatThrownBy(() -> codec.encode(new Object()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("登入後的安全性內容應該以登錄型別編碼，且比 JDK 序列化小")
+    void test_encodeDecode_whenSecurityContext_then_shouldRoundTripWithRegisteredTypes() {
+        // Given - 準備登入後的安全性內容
+        CustomUserPrincipal principal = new CustomUserPrincipal(7L, "alice", "{bcrypt}hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), true, true, true, false);
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, principal.getAuthorities());
+        token.setDetails(new WebAuthenticationDetails("127.0.0.1", "session-1"));
+        SecurityContextImpl context = new SecurityContextImpl(token);
+
+        // When - 編碼後解碼
+        byte[] encoded = codec.encode(context);
+        SecurityContextImpl decoded = (SecurityContextImpl) codec.decode(encoded);
+
+        // Then - 驗證欄位還原且比 JDK 序列化小
+        assertThat(encoded[0]).isEqualTo(SessionAttributeCodec.TAG_SECURITY_CONTEXT);
+        assertThat(encoded.length).isLessThan(SerializationUtils.serialize(context).length / 5);
+        UsernamePasswordAuthenticationToken decodedToken =
+                (UsernamePasswordAuthenticationToken) decoded.getAuthentication();
+        assertThat(decodedToken.isAuthenticated()).isTrue();
+        assertThat(decodedToken.getCredentials()).isNull();
+        assertThat(decodedToken.getDetails()).isEqualTo(token.getDetails());
+        CustomUserPrincipal decodedPrincipal = (CustomUserPrincipal) decodedToken.getPrincipal();
+        assertThat(decodedPrincipal.getId()).isEqualTo(7L);
+        assertThat(decodedPrincipal.getUsername()).isEqualTo("alice");
+        assertThat(decodedPrincipal.getPassword()).isEqualTo("{bcrypt}hash");
+        assertThat(decodedPrincipal.isAccountNonLocked()).isFalse();
+        assertThat(decodedPrincipal.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("CSRF token 與 flash 屬性應該能還原，巢狀的其他型別退回 JDK 序列化")
+    void test_encodeDecode_whenCsrfTokenAndFlashMaps_then_shouldRoundTrip() {
+        // Given - 準備 CSRF token 與含有一般物件的 flash 屬性
+        DefaultCsrfToken csrfToken = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "token-value");
+        FlashMap flashMap = new FlashMap();
+        flashMap.setTargetRequestPath("/todos");
+        flashMap.addTargetRequestParam("page", "2");
+        flashMap.setExpirationTime(123_456L);
+        flashMap.put("date", LocalDate.of(2025, 1, 31));
+        flashMap.put("successMessage", "待辦事項建立成功");
+        CopyOnWriteArrayList<FlashMap> flashMaps = new CopyOnWriteArrayList<>(List.of(flashMap));
+
+        // When - 編碼後解碼
+        DefaultCsrfToken decodedToken = (DefaultCsrfToken) codec.decode(codec.encode(csrfToken));
+        @SuppressWarnings("unchecked")
+        List<FlashMap> decodedMaps = (List<FlashMap>) codec.decode(codec.encode(flashMaps));
+
+        // Then - 驗證欄位還原
+        assertThat(decodedToken.getHeaderName()).isEqualTo("X-CSRF-TOKEN");
+        assertThat(decodedToken.getParameterName()).isEqualTo("_csrf");
+        assertThat(decodedToken.getToken()).isEqualTo("token-value");
+        assertThat(decodedMaps).isInstanceOf(CopyOnWriteArrayList.class).hasSize(1);
+        FlashMap decodedMap = decodedMaps.get(0);
+        assertThat((Object) decodedMap).isEqualTo(flashMap);
+        assertThat(decodedMap.getTargetRequestPath()).isEqualTo("/todos");
+        assertThat(decodedMap.getTargetRequestParams().getFirst("page")).isEqualTo("2");
+        assertThat(decodedMap.getExpirationTime()).isEqualTo(123_456L);
+    }
+
+    @Test
+    @DisplayName("以 JDK 序列化寫入的既有資料應該仍能解碼")
+    void test_decode_whenLegacyJdkBytes_then_shouldDeserialize() {
+        // Given - Spring Session 預設以 JDK 序列化寫入的資料
+        byte[] legacy = SerializationUtils.serialize(LocalDate.of(2025, 1, 31));
+
+        // When & Then - 驗證能還原
+        assertThat(codec.decode(legacy)).isEqualTo(LocalDate.of(2025, 1, 31));
+    }
+}
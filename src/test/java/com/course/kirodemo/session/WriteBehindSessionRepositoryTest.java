@@ -0,0 +1,207 @@
+package com.course.kirodemo.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WriteBehindSessionRepository 單元測試
+ * 以記錄寫入次數的假儲存庫模擬資料庫，測試存取時間的粒度、屬性變更的合併寫入與立即寫入的情況
+ */
+@DisplayName("WriteBehindSessionRepository 合併寫入測試")
+class WriteBehindSessionRepositoryTest {
+
+    private static final Duration GRANULARITY = Duration.ofSeconds(60);
+
+    private CountingSessionRepository backing;
+    private WriteBehindSessionRepository repository;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        backing = new CountingSessionRepository();
+        repository = new WriteBehindSessionRepository(backing, GRANULARITY, Duration.ofSeconds(1));
+        now = Instant.parse("2025-01-01T00:00:00Z");
+    }
+
+    @Test
+    @DisplayName("只更新存取時間時應該在超過粒度後才寫入")
+    void test_save_whenOnlyAccessTimeChanges_then_shouldWriteOncePerGranularity() {
+        // Given - 已建立的會話（建立時立即寫入）
+        String id = createSession();
+
+        // When - 每 10 秒一個請求，共 12 個請求
+        for (int i = 0; i < 12; i++) {
+            now = now.plusSeconds(10);
+            simulateRequest(id);
+            repository.flush();
+        }
+
+        // Then - 驗證只有超過 60 秒的那一次寫入
+        WriteBehindSessionRepository.SessionWriteStats stats = repository.stats();
+        assertThat(stats.baselineWrites()).isEqualTo(13);
+        assertThat(stats.writes()).isEqualTo(3);
+        assertThat(stats.writesPerRequest()).isLessThan(stats.baselineWritesPerRequest());
+        assertThat(backing.stored(id).getLastAccessedTime()).isEqualTo(now);
+    }
+
+    @Test
+    @DisplayName("多次屬性變更應該合併為一次寫入，寫入前讀取也能看到變更")
+    void test_save_whenAttributesChanged_then_shouldCoalesceAndReadOwnWrites() {
+        // Given - 已建立的會話
+        String id = createSession();
+        int writesAfterCreate = backing.saveCount;
+
+        // When - 連續三個請求修改屬性，尚未寫入
+        for (int i = 1; i <= 3; i++) {
+            WriteBehindSessionRepository.WriteBehindSession session = repository.findById(id);
+            session.setAttribute("counter", i);
+            session.setAttribute("flash", i == 3 ? null : "訊息");
+            repository.save(session);
+        }
+
+        // Then - 尚未寫入資料庫，但讀取時已套用待寫入的變更
+        assertThat(backing.saveCount).isEqualTo(writesAfterCreate);
+        assertThat(repository.pendingCount()).isEqualTo(1);
+        assertThat(repository.findById(id).<Integer>getAttribute("counter")).isEqualTo(3);
+        assertThat(repository.findById(id).<String>getAttribute("flash")).isNull();
+
+        // When - 背景寫入
+        int flushed = repository.flush();
+
+        // Then - 驗證只寫入一次
+        assertThat(flushed).isEqualTo(1);
+        assertThat(backing.saveCount).isEqualTo(writesAfterCreate + 1);
+        assertThat(backing.stored(id).<Integer>getAttribute("counter")).isEqualTo(3);
+        assertThat(repository.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("會話 ID 變更應該立即寫入，刪除時應該捨棄待寫入的變更")
+    void test_save_whenSessionIdChanged_then_shouldWriteImmediately() {
+        // Given - 已建立且有待寫入變更的會話
+        String id = createSession();
+        WriteBehindSessionRepository.WriteBehindSession pending = repository.findById(id);
+        pending.setAttribute("flash", "訊息");
+        repository.save(pending);
+
+        // When - 登入時變更會話 ID 並設定主體
+        WriteBehindSessionRepository.WriteBehindSession session = repository.findById(id);
+        String newId = session.changeSessionId();
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "alice");
+        repository.save(session);
+
+        // Then - 驗證立即寫入新 ID，且先前待寫入的屬性一併寫入
+        assertThat(backing.stored(id)).isNull();
+        assertThat(backing.stored(newId).<String>getAttribute("flash")).isEqualTo("訊息");
+        assertThat(repository.pendingCount()).isZero();
+
+        // When & Then - 刪除後不再寫入
+        WriteBehindSessionRepository.WriteBehindSession loggedIn = repository.findById(newId);
+        loggedIn.setAttribute("flash", "另一則訊息");
+        repository.save(loggedIn);
+        repository.deleteById(newId);
+        assertThat(repository.flush()).isZero();
+        assertThat(backing.stored(newId)).isNull();
+    }
+
+    @Test
+    @DisplayName("寫入失敗時應該保留待寫入的變更並繼續寫入其他會話")
+    void test_flush_whenSaveFails_then_shouldKeepPendingWriteAndContinue() {
+        // Given - 兩個有待寫入變更的會話，其中一個寫入會失敗
+        String failing = createSession();
+        String healthy = createSession();
+        for (String id : new String[] { failing, healthy }) {
+            WriteBehindSessionRepository.WriteBehindSession session = repository.findById(id);
+            session.setAttribute("csrf", "token-" + id);
+            repository.save(session);
+        }
+        backing.failingId = failing;
+
+        // When - 背景寫入
+        int flushed = repository.flush();
+
+        // Then - 驗證其他會話照常寫入，失敗的變更仍可讀到
+        assertThat(flushed).isEqualTo(1);
+        assertThat(backing.stored(healthy).<String>getAttribute("csrf")).isEqualTo("token-" + healthy);
+        assertThat(repository.pendingCount()).isEqualTo(1);
+        assertThat(repository.findById(failing).<String>getAttribute("csrf")).isEqualTo("token-" + failing);
+
+        // When - 資料庫恢復後的下個週期
+        backing.failingId = null;
+        repository.flush();
+
+        // Then - 驗證重試成功
+        assertThat(backing.stored(failing).<String>getAttribute("csrf")).isEqualTo("token-" + failing);
+        assertThat(repository.pendingCount()).isZero();
+    }
+
+    private String createSession() {
+        WriteBehindSessionRepository.WriteBehindSession session = repository.createSession();
+        session.setLastAccessedTime(now);
+        repository.save(session);
+        return session.getId();
+    }
+
+    private void simulateRequest(String id) {
+        WriteBehindSessionRepository.WriteBehindSession session = repository.findById(id);
+        session.setLastAccessedTime(now);
+        repository.save(session);
+    }
+
+    /**
+     * 以複本模擬資料庫的會話儲存庫，記錄寫入次數
+     */
+    private static final class CountingSessionRepository implements FindByIndexNameSessionRepository<MapSession> {
+
+        private final Map<String, MapSession> sessions = new ConcurrentHashMap<>();
+        private int saveCount;
+        private String failingId;
+
+        @Override
+        public MapSession createSession() {
+            return new MapSession();
+        }
+
+        @Override
+        public void save(MapSession session) {
+            if (session.getId().equals(failingId)) {
+                throw new IllegalStateException("模擬資料庫寫入失敗");
+            }
+            saveCount++;
+            if (!session.getId().equals(session.getOriginalId())) {
+                sessions.remove(session.getOriginalId());
+            }
+            sessions.put(session.getId(), new MapSession(session));
+        }
+
+        @Override
+        public MapSession findById(String id) {
+            MapSession session = sessions.get(id);
+            return session == null ? null : new MapSession(session);
+        }
+
+        @Override
+        public void deleteById(String id) {
+            sessions.remove(id);
+        }
+
+        @Override
+        public Map<String, MapSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+            return Map.of();
+        }
+
+        MapSession stored(String id) {
+            return sessions.get(id);
+        }
+    }
+}